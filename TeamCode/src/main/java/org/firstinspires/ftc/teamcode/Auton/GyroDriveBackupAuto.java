@@ -0,0 +1,144 @@
+package org.firstinspires.ftc.teamcode.Auton;
+
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+
+import org.firstinspires.ftc.teamcode.drive.GyroDrive;
+import org.firstinspires.ftc.teamcode.drive.HubDriveIO;
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants;
+import org.firstinspires.ftc.teamcode.subsystems.BallLoadingServo;
+import org.firstinspires.ftc.teamcode.subsystems.Intake;
+import org.firstinspires.ftc.teamcode.subsystems.ShootingSystem;
+import org.firstinspires.ftc.teamcode.subsystems.SubsystemLifecycle;
+import org.firstinspires.ftc.teamcode.util.StateHandoff;
+import org.firstinspires.ftc.teamcode.vision.MotifDetector;
+
+import dev.nextftc.core.commands.groups.ParallelGroup;
+import dev.nextftc.core.commands.groups.SequentialGroup;
+import dev.nextftc.core.components.SubsystemComponent;
+import dev.nextftc.ftc.NextFTCOpMode;
+import dev.nextftc.ftc.components.BulkReadComponent;
+
+/**
+ * A simple backup autonomous that uses {@link GyroDrive} instead of Pedro.
+ *
+ * It spins up the shooter while driving, turns toward the goal, holds that
+ * heading while feeding balls in, and then backs away.
+ * Change the distances and headings below to fit your starting spot.
+ *
+ * During INIT it also reads the motif from the obelisk ({@link MotifDetector}),
+ * so teleop knows it too.
+ *
+ * A Pedro {@link Follower} keeps track of where we are on the field (it doesn't
+ * drive, GyroDrive does), and GyroDrive uses its heading and distance. At the end the pose and the follower are handed to teleop
+ * with {@link StateHandoff#saveAutoEnd}. Teleop only treats that pose as a spot on the
+ * field (for auto pre-spin) once START_POSE_MEASURED says the start pose below is real.
+ */
+@Autonomous(name = "Gyro Drive Auto (backup)", group = "Backup")
+public class GyroDriveBackupAuto extends NextFTCOpMode {
+
+    // Where the robot starts on the field (Pedro coordinates, inches), and which way it
+    // faces. The GyroDrive headings below are measured the same way as this one.
+    private static final double START_X_INCHES = 0.0;
+    private static final double START_Y_INCHES = 0.0;
+    private static final double START_HEADING_DEGREES = 0.0;
+
+    // Set this to true once the start pose above is the real starting spot on the field.
+    // Until then (0, 0, 0) is made up, and teleop must not think the robot is in a field corner
+    private static final boolean START_POSE_MEASURED = false;
+
+    private final ShootingSystem shootingSystem;
+    private final BallLoadingServo ballLoadingServo;
+    private final Intake intake;
+    private GyroDrive gyroDrive;
+
+    // Only tracks the pose (for GyroDrive and for teleop); it never drives
+    private Follower follower;
+
+    // Reads the obelisk during INIT only
+    private MotifDetector motifDetector;
+
+    public GyroDriveBackupAuto() {
+        shootingSystem = ShootingSystem.getInstance(telemetry);
+        ballLoadingServo = BallLoadingServo.getInstance(telemetry);
+        intake = Intake.getInstance(telemetry);   // stopAllSubsystems stops the intake too
+
+        addComponents(
+                new SubsystemComponent(shootingSystem),
+                new SubsystemComponent(ballLoadingServo),
+                new SubsystemComponent(intake),
+                BulkReadComponent.INSTANCE    // reads all motor encoders at once every loop
+        );
+    }
+
+    // Runs once when INIT is pressed (the hardwareMap is ready now)
+    @Override
+    public void onInit() {
+        // Fresh start for the subsystems (nothing left over from the last OpMode)
+        SubsystemLifecycle.beginOpMode();
+
+        // Reuse the follower from the last OpMode if we can (same robot configuration)
+        follower = StateHandoff.reusableFollower(hardwareMap);
+        if (follower == null) {
+            follower = Constants.createFollower(hardwareMap);
+        }
+        follower.setStartingPose(new Pose(START_X_INCHES, START_Y_INCHES, Math.toRadians(START_HEADING_DEGREES)));
+
+        // GyroDrive gets its heading and distance from the follower's localizer
+        gyroDrive = new GyroDrive(telemetry, new HubDriveIO(hardwareMap, follower));
+
+        motifDetector = new MotifDetector(telemetry);
+        motifDetector.start(hardwareMap, MotifDetector.LOOK_MS, MotifDetector.HARD_CAP_MS);
+    }
+
+    // Runs over and over while we wait for START
+    @Override
+    public void onWaitForStart() {
+        motifDetector.update();
+        motifDetector.showTelemetry(telemetry);
+        telemetry.update();
+    }
+
+    // Runs once when START is pressed
+    @Override
+    public void onStartButtonPressed() {
+        motifDetector.finishNow();   // START came before we were sure: keep the best guess
+
+        new SequentialGroup(
+                shootingSystem.startStop,                   // start spinning the flywheel...
+                gyroDrive.driveStraight(24, 0),             // ...while we drive forward 24 inches
+                gyroDrive.turnToHeading(45),                // face the goal
+                new ParallelGroup(
+                        gyroDrive.holdHeading(45, 3.0),     // stay aimed...
+                        ballLoadingServo.runBackward()      // ...while the balls are fed in
+                ),
+                ballLoadingServo.stopContinuous(),
+                shootingSystem.stopAllSubsystems,
+                gyroDrive.driveStraight(-12, 45)            // back away
+        ).schedule();
+    }
+
+    @Override
+    public void onUpdate() {
+        follower.updatePose();   // the one sensor read per loop; GyroDrive does the driving
+        gyroDrive.periodic();
+        telemetry.update();
+    }
+
+    // Runs once when the OpMode ends: tell teleop what we know
+    @Override
+    public void onStop() {
+        if (motifDetector != null) {
+            motifDetector.close();
+        }
+
+        // Where we ended, how the IMU lines up with the field, and the follower itself.
+        // All the balls were shot, so the robot is empty.
+        if (follower != null) {
+            StateHandoff.saveAutoEnd(follower, hardwareMap, START_POSE_MEASURED, 0, shootingSystem.getSpinUpPower());
+        }
+
+        SubsystemLifecycle.endOpMode();
+    }
+}
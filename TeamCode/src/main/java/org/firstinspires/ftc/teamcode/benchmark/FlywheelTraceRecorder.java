@@ -0,0 +1,127 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.CRServo;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.subsystems.ShootingSystem;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+import dev.nextftc.ftc.NextFTCOpMode;
+
+/**
+ * Records the flywheel encoder every loop while we shoot, so {@link ShotDetectionReplay}
+ * can check the shot detector on real data later, on a laptop.
+ *
+ * How to record a trace (gamepad 1):
+ *  - X: flywheel on/off (at the shooter's MID_POWER)
+ *  - bumpers: flywheel power down/up
+ *  - hold A: run the loader, so balls go into the flywheel
+ * Load a few balls, shoot them one at a time and in bursts, change the power
+ * once or twice without shooting, then press STOP.
+ *
+ * The file is saved in the FIRST folder on the Control Hub as
+ * {@code flywheel-trace-<time>.csv}.
+ */
+@TeleOp(name = "Flywheel Trace Recorder", group = "Benchmark")
+public class FlywheelTraceRecorder extends NextFTCOpMode {
+
+    // Enough room for about 5 minutes at 100 loops per second
+    private static final int MAX_SAMPLES = 30_000;
+
+    private static final double POWER_STEP = 0.05;
+
+    // Filled while shooting; the file is only written at the end
+    private final long[] timeNanos = new long[MAX_SAMPLES];
+    private final int[] ticks = new int[MAX_SAMPLES];
+    private final float[] powers = new float[MAX_SAMPLES];
+    private final boolean[] feeding = new boolean[MAX_SAMPLES];
+    private int sampleCount = 0;
+
+    private DcMotorEx flywheel1;
+    private DcMotorEx flywheel2;
+    private CRServo loader;
+    private long startNanos;
+
+    private double power = ShootingSystem.MID_POWER;
+    private boolean flywheelOn = false;
+    private boolean lastX, lastLeftBumper, lastRightBumper;
+
+    @Override
+    public void onInit() {
+        for (LynxModule hub : hardwareMap.getAll(LynxModule.class)) {
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+        }
+        // Same motors and directions as ShootingSystem
+        flywheel1 = hardwareMap.get(DcMotorEx.class, "sm1");
+        flywheel2 = hardwareMap.get(DcMotorEx.class, "sm2");
+        flywheel2.setDirection(DcMotorSimple.Direction.REVERSE);
+        loader = hardwareMap.get(CRServo.class, "ld_servo");
+    }
+
+    @Override
+    public void onStartButtonPressed() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onUpdate() {
+        if (gamepad1.x && !lastX) {
+            flywheelOn = !flywheelOn;
+        }
+        if (gamepad1.left_bumper && !lastLeftBumper) {
+            power = Math.max(0.0, power - POWER_STEP);
+        }
+        if (gamepad1.right_bumper && !lastRightBumper) {
+            power = Math.min(1.0, power + POWER_STEP);
+        }
+        lastX = gamepad1.x;
+        lastLeftBumper = gamepad1.left_bumper;
+        lastRightBumper = gamepad1.right_bumper;
+
+        double applied = flywheelOn ? power : 0.0;
+        flywheel1.setPower(applied);
+        flywheel2.setPower(applied);
+        loader.setPower(gamepad1.a ? -1.0 : 0.0);   // the loader feeds when it runs backward
+
+        if (sampleCount < MAX_SAMPLES) {
+            int i = sampleCount++;
+            timeNanos[i] = System.nanoTime() - startNanos;
+            ticks[i] = flywheel1.getCurrentPosition();
+            powers[i] = (float) applied;
+            feeding[i] = gamepad1.a;
+        }
+
+        telemetry.addData("Flywheel", "%s at %.2f", flywheelOn ? "ON" : "off", power);
+        telemetry.addData("Samples", "%d / %d", sampleCount, MAX_SAMPLES);
+        telemetry.update();
+    }
+
+    @Override
+    public void onStop() {
+        flywheel1.setPower(0);
+        flywheel2.setPower(0);
+        loader.setPower(0);
+
+        File file = new File(AppUtil.FIRST_FOLDER, "flywheel-trace-" + System.currentTimeMillis() + ".csv");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("# Recorded by FlywheelTraceRecorder (motor sm1, 28 ticks per turn)\n");
+            writer.write("# t_ms, ticks, power, feeding\n");
+            for (int i = 0; i < sampleCount; i++) {
+                writer.write(String.format(Locale.US, "%.3f,%d,%.2f,%d\n",
+                        timeNanos[i] / 1e6, ticks[i], powers[i], feeding[i] ? 1 : 0));
+            }
+        } catch (IOException e) {
+            telemetry.addData("Could not save trace", e.getMessage());
+            telemetry.update();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.drive.GyroDrive;
+import org.firstinspires.ftc.teamcode.drive.SimulatedDriveIO;
+
+import java.util.Locale;
+
+import dev.nextftc.core.commands.Command;
+
+/**
+ * Runs the {@link GyroDrive} moves on a pretend drivetrain **on a laptop** and prints
+ * how long each one took, how far it overshot and where it ended up.
+ *
+ * Use it to check the profile and feedforward numbers in GyroDrive before trying
+ * them on the robot. Change the pretend drivetrain in {@link #main} to see how the
+ * moves cope with a slower or faster robot.
+ *
+ * How to run it (desktop JVM, not the robot):
+ * {@code java ... org.firstinspires.ftc.teamcode.benchmark.GyroDriveSimulation}
+ */
+public class GyroDriveSimulation {
+
+    // Pretend loop time, like a busy Control Hub
+    private static final double LOOP_SECONDS = 0.02;
+
+    // Stop a move that hasn't finished after this long
+    private static final double MAX_MOVE_SECONDS = 10.0;
+
+    private static long clockNanos = 0;
+
+    public static void main(String[] args) {
+        runAll("Our robot", new SimulatedDriveIO());
+        runAll("Sluggish robot (slow motors)", new SimulatedDriveIO(45.0, 220.0, 0.25, 0.06));
+    }
+
+    private static void runAll(String name, SimulatedDriveIO sim) {
+        GyroDrive drive = new GyroDrive(null, sim, () -> clockNanos);
+        System.out.println();
+        System.out.println(name);
+        System.out.println(String.format(Locale.US, "%-24s %8s %10s %10s %10s",
+                "move", "time s", "overshoot", "end error", "heading"));
+
+        run("Drive 24 in @ 0", drive.driveStraight(24, 0), sim, true, 24);
+        run("Turn to 90", drive.turnToHeading(90), sim, false, 90);
+        run("Drive -12 in @ 90", drive.driveStraight(-12, 90), sim, true, -12);
+        run("Turn to -135", drive.turnToHeading(-135), sim, false, -135);
+        run("Hold -135 for 1 s", drive.holdHeading(-135, 1.0), sim, false, -135);
+        run("Drive 3 in @ -135", drive.driveStraight(3, -135), sim, true, 3);
+    }
+
+    /**
+     * Runs one command the way the NextFTC scheduler would (start, update until done,
+     * stop), moving the pretend robot along between loops.
+     */
+    private static void run(String name, Command command, SimulatedDriveIO sim, boolean isDrive, double target) {
+        double startInches = sim.getForwardInches();
+        double startHeading = sim.getHeadingDegrees();
+        double direction = isDrive ? Math.signum(target) : Math.signum(GyroDrive.wrapDegrees(target - startHeading));
+        double overshoot = 0.0;
+        double elapsed = 0.0;
+
+        command.start();
+        while (!command.isDone() && elapsed < MAX_MOVE_SECONDS) {
+            sim.step(LOOP_SECONDS);
+            clockNanos += (long) (LOOP_SECONDS * 1e9);
+            elapsed += LOOP_SECONDS;
+            command.update();
+
+            // How far past the target did we go (in the direction of the move)?
+            double past = isDrive
+                    ? (sim.getForwardInches() - startInches - target) * direction
+                    : GyroDrive.wrapDegrees(sim.getHeadingDegrees() - target) * direction;
+            overshoot = Math.max(overshoot, past);
+        }
+        command.stop(!command.isDone());
+
+        double endError = isDrive
+                ? target - (sim.getForwardInches() - startInches)
+                : GyroDrive.wrapDegrees(target - sim.getHeadingDegrees());
+        System.out.println(String.format(Locale.US, "%-24s %8.2f %10.2f %10.2f %10.1f%s",
+                name, elapsed, overshoot, endError, sim.getHeadingDegrees(),
+                command.isDone() ? "" : "  (timed out)"));
+    }
+}
@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.vision.ArtifactColor;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A folder of captured camera frames plus the "right answers" for each one.
+ *
+ * Capture frames on the robot with the UtilityCameraFrameCapture sample
+ * (they are saved as PNGs on the Control Hub) and copy them into one folder.
+ * Then add a {@code labels.csv} next to them, one line per frame:
+ * <pre>
+ *     # file, tag IDs we should see (space separated), artifact color at the intake
+ *     VisionPortal-CameraFrameCapture-000000.png, 21 24, PURPLE
+ *     VisionPortal-CameraFrameCapture-000001.png, ,       NONE
+ * </pre>
+ *
+ * Used by {@link VisionReplayBenchmark} (on a laptop) and {@link VisionFrameReplay}
+ * (on the robot).
+ */
+public class LabeledFrameSet {
+
+    /** One frame and its labels. */
+    public static class LabeledFrame {
+        public final String name;
+        public final Mat rgb;                   // the picture, in RGB like the VisionPortal gives us
+        public final Set<Integer> tagIds;       // tags that really are in the picture
+        public final ArtifactColor color;       // artifact color really at the intake mouth
+
+        LabeledFrame(String name, Mat rgb, Set<Integer> tagIds, ArtifactColor color) {
+            this.name = name;
+            this.rgb = rgb;
+            this.tagIds = tagIds;
+            this.color = color;
+        }
+    }
+
+    private final List<LabeledFrame> frames = new ArrayList<>();
+
+    /**
+     * Loads every frame listed in {@code labels.csv} in the given folder.
+     */
+    public static LabeledFrameSet load(File folder) throws IOException {
+        LabeledFrameSet set = new LabeledFrameSet();
+        File labels = new File(folder, "labels.csv");
+        try (BufferedReader reader = new BufferedReader(new FileReader(labels))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",", -1);
+                String name = parts[0].trim();
+                Set<Integer> tagIds = parts.length > 1 ? parseTagIds(parts[1]) : Collections.emptySet();
+                ArtifactColor color = parts.length > 2 && !parts[2].trim().isEmpty()
+                        ? ArtifactColor.valueOf(parts[2].trim().toUpperCase())
+                        : ArtifactColor.NONE;
+
+                Mat bgr = Imgcodecs.imread(new File(folder, name).getPath());
+                if (bgr == null || bgr.empty()) {
+                    throw new IOException("Could not read frame " + name);
+                }
+                Mat rgb = new Mat();
+                Imgproc.cvtColor(bgr, rgb, Imgproc.COLOR_BGR2RGB);
+                bgr.release();
+                set.frames.add(new LabeledFrame(name, rgb, tagIds, color));
+            }
+        }
+        return set;
+    }
+
+    private static Set<Integer> parseTagIds(String text) {
+        Set<Integer> ids = new HashSet<>();
+        for (String id : text.trim().split("\\s+")) {
+            if (!id.isEmpty()) {
+                ids.add(Integer.parseInt(id));
+            }
+        }
+        return ids;
+    }
+
+    public List<LabeledFrame> getFrames() {
+        return frames;
+    }
+
+    public int size() {
+        return frames.size();
+    }
+}
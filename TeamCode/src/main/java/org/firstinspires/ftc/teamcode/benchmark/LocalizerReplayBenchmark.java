@@ -0,0 +1,629 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import static org.firstinspires.ftc.teamcode.pedroPathing.Constants.localizerConstants;
+
+import com.pedropathing.geometry.Pose;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+
+import org.firstinspires.ftc.teamcode.localization.DevicePoseTracker;
+import org.firstinspires.ftc.teamcode.localization.GovernedPinpointLocalizer;
+import org.firstinspires.ftc.teamcode.localization.OctoQuadLocalizer;
+import org.firstinspires.ftc.teamcode.localization.OctoQuadLocalizerConstants;
+import org.firstinspires.ftc.teamcode.localization.PinpointLocalizerConstants;
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Replays recorded odometry traces through each localizer **on a laptop** and prints
+ * how much each one drifts, how much CPU it needs per update and how old its pose is.
+ *
+ * The candidates:
+ *  - TwoWheel: the math of Pedro's TwoWheel localizer with our {@code Constants.localizerConstants}
+ *    (the Control Hub integrates the drive encoders and the hub IMU once per loop, as an arc)
+ *  - OctoQuad: our {@link OctoQuadLocalizer} reading every loop, like the SensorOctoQuadLocalization
+ *    sample, with and without failed CRC checks
+ *  - Pinpoint: our {@link GovernedPinpointLocalizer}, reading every loop like the SensorGoBildaPinpoint
+ *    sample, and with the read-rate governor turned on (full reads every 10 or 20 ms, heading-only
+ *    reads in between)
+ *
+ * For OctoQuad and Pinpoint, a pretend device integrates the recorded sensors at the
+ * device's own (much higher) rate, the way its firmware does (whole encoder counts,
+ * short straight steps), and sends its answer rounded like the real one (whole mm for
+ * the OctoQuad, floats for the Pinpoint). Our real localizer class reads it.
+ *
+ * All candidates see the SAME recorded pods and IMU, so this compares timing, CPU,
+ * I2C traffic and how each one handles missing data. It can't tell you whether the
+ * OctoQuad or Pinpoint IMU is better than the hub IMU; record a trace with those
+ * sensors for that.
+ *
+ * How to run it (desktop JVM, not the robot):
+ *  1. Record traces with {@link OdometryTraceRecorder} and copy them off the Control Hub.
+ *  2. Put the Pedro Pathing and FTC SDK classes on the classpath.
+ *  3. {@code java ... org.firstinspires.ftc.teamcode.benchmark.LocalizerReplayBenchmark <trace.csv or folder> ...}
+ *
+ * Edit {@link #buildCandidates()} to try new settings.
+ */
+public class LocalizerReplayBenchmark {
+
+    // How often each device works out its own pose (the Pinpoint shows its real rate with getFrequency())
+    private static final double OCTOQUAD_UPDATE_HZ = 1000.0;
+    private static final double PINPOINT_UPDATE_HZ = 1500.0;
+
+    // How long one I2C read of each device takes on the Control Hub, in ms.
+    // Measure yours with getLastReadMs() on the robot and put the numbers here.
+    private static final double OCTOQUAD_READ_MS = 0.9;
+    private static final double PINPOINT_READ_MS = 1.0;
+    private static final double PINPOINT_HEADING_READ_MS = 0.3;    // ONLY_UPDATE_HEADING, one register
+
+    // The Pinpoint works out velocity over about this long
+    private static final double PINPOINT_VELOCITY_WINDOW_MS = 10.0;
+
+    // Pod positions and scales, straight from our Pedro TwoWheel settings
+    private static final double FORWARD_POD_Y = localizerConstants.forwardPodY;
+    private static final double STRAFE_POD_X = localizerConstants.strafePodX;
+    private static final double FORWARD_INCHES_PER_TICK =
+            localizerConstants.forwardTicksToInches * localizerConstants.forwardEncoderDirection;
+    private static final double STRAFE_INCHES_PER_TICK =
+            localizerConstants.strafeTicksToInches * localizerConstants.strafeEncoderDirection;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("usage: LocalizerReplayBenchmark <trace.csv or folder> ...");
+            return;
+        }
+        List<OdometryTrace> traces = new ArrayList<>();
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] files = file.isDirectory() ? file.listFiles((dir, name) -> name.endsWith(".csv")) : new File[]{file};
+            if (files == null) {
+                continue;
+            }
+            Arrays.sort(files);
+            for (File trace : files) {
+                traces.add(OdometryTrace.load(trace));
+            }
+        }
+
+        for (OdometryTrace trace : traces) {
+            System.out.println();
+            System.out.println(String.format(Locale.US, "%s: %d loops, %.1f s, %.1f loops/s",
+                    trace.name, trace.size(), trace.durationSeconds(), (trace.size() - 1) / trace.durationSeconds()));
+            System.out.println(String.format(Locale.US, "%-26s %9s %9s %9s %9s %10s %9s",
+                    "localizer", "drift in", "drift deg", "cpu us", "cpu p95", "I2C ms/lp", "age ms"));
+            for (Candidate candidate : buildCandidates()) {
+                replay(candidate, trace, false);    // first run warms up the JVM so the timing is fair
+                replay(candidate, trace, true);
+            }
+        }
+    }
+
+    /**
+     * The localizers to compare. Add, remove or change candidates here.
+     */
+    static List<Candidate> buildCandidates() {
+        List<Candidate> candidates = new ArrayList<>();
+        candidates.add(new TwoWheelCandidate());
+        candidates.add(new OctoQuadCandidate("OctoQuad", 0.0));
+        candidates.add(new OctoQuadCandidate("OctoQuad 2% bad CRC", 0.02));
+        candidates.add(new PinpointCandidate("Pinpoint every loop", 0.0));
+        candidates.add(new PinpointCandidate("Pinpoint read >= 10 ms", 10.0));
+        candidates.add(new PinpointCandidate("Pinpoint read >= 20 ms", 20.0));
+        return candidates;
+    }
+
+    /**
+     * Runs one candidate through one trace and (if asked) prints a line of results.
+     */
+    private static void replay(Candidate candidate, OdometryTrace trace, boolean print) {
+        TimingStats cpu = new TimingStats();
+        double ageTotalMs = 0.0;
+        double i2cTotalMs = 0.0;
+
+        candidate.reset(trace);
+        for (int i = 0; i < trace.size(); i++) {
+            candidate.prepare(i);                   // moves the pretend device along (not timed)
+            long start = System.nanoTime();
+            candidate.update(i);                    // what the Control Hub would do this loop
+            cpu.add(System.nanoTime() - start);
+            ageTotalMs += candidate.dataAgeMs(i);
+            i2cTotalMs += candidate.i2cMs(i);
+        }
+
+        if (!print) {
+            return;
+        }
+        double[] pose = candidate.pose();
+        double positionDrift = Math.hypot(pose[0] - trace.endX, pose[1] - trace.endY);
+        double headingDrift = Math.toDegrees(DevicePoseTracker.angleWrap(pose[2] - trace.endHeading));
+        System.out.println(String.format(Locale.US, "%-26s %9.2f %9.2f %9.2f %9.2f %10.3f %9.2f",
+                candidate.name, positionDrift, headingDrift, cpu.meanMs() * 1000, cpu.percentileMs(0.95) * 1000,
+                i2cTotalMs / trace.size(), ageTotalMs / trace.size()));
+    }
+
+    private static double forwardInches(OdometryTrace trace, int i) {
+        return trace.forwardTicks[i] * FORWARD_INCHES_PER_TICK;
+    }
+
+    private static double strafeInches(OdometryTrace trace, int i) {
+        return trace.strafeTicks[i] * STRAFE_INCHES_PER_TICK;
+    }
+
+    /**
+     * Moves a pose {x, y, heading} by one odometry step, the way Pedro's TwoWheel
+     * localizer does it on the Control Hub.
+     *
+     * The pods don't sit at the robot's center, so turning moves them too; we take
+     * that part out first. Then we assume the robot drove a smooth arc during the
+     * step (the "pose exponential").
+     */
+    private static void addArcStep(double[] pose, double forwardStep, double strafeStep, double headingStep) {
+        double dx = forwardStep + FORWARD_POD_Y * headingStep;
+        double dy = strafeStep - STRAFE_POD_X * headingStep;
+
+        double sinTerm;
+        double cosTerm;
+        if (Math.abs(headingStep) < 1e-6) {
+            sinTerm = 1.0 - headingStep * headingStep / 6.0;
+            cosTerm = headingStep / 2.0;
+        } else {
+            sinTerm = Math.sin(headingStep) / headingStep;
+            cosTerm = (1.0 - Math.cos(headingStep)) / headingStep;
+        }
+        double localX = sinTerm * dx - cosTerm * dy;
+        double localY = cosTerm * dx + sinTerm * dy;
+
+        double cos = Math.cos(pose[2]);
+        double sin = Math.sin(pose[2]);
+        pose[0] += cos * localX - sin * localY;
+        pose[1] += sin * localX + cos * localY;
+        pose[2] += headingStep;
+    }
+
+    /**
+     * Moves a pose {x, y, heading} by one odometry step, the way a device that
+     * updates very often does it in its firmware: the pod step is turned by the
+     * heading halfway through the step (no arc). At 1000+ updates a second the steps
+     * are so short that this is about as good, and it is much cheaper.
+     */
+    private static void addMidpointStep(double[] pose, double forwardStep, double strafeStep, double headingStep) {
+        double dx = forwardStep + FORWARD_POD_Y * headingStep;
+        double dy = strafeStep - STRAFE_POD_X * headingStep;
+        double midHeading = pose[2] + headingStep / 2.0;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        pose[0] += cos * dx - sin * dy;
+        pose[1] += sin * dx + cos * dy;
+        pose[2] += headingStep;
+    }
+
+    /** One localizer setup to test. */
+    private abstract static class Candidate {
+        final String name;
+        OdometryTrace trace;
+
+        Candidate(String name) {
+            this.name = name;
+        }
+
+        /** Starts again at the beginning of a trace. */
+        void reset(OdometryTrace trace) {
+            this.trace = trace;
+        }
+
+        /** Things that happen outside the Control Hub (the device integrating). Not timed. */
+        void prepare(int i) {
+        }
+
+        /** What the Control Hub does in loop i. This is what we time. */
+        abstract void update(int i);
+
+        /** How old the motion in the pose is when the loop gets it, in ms. */
+        abstract double dataAgeMs(int i);
+
+        /** How much I2C time loop i spent, in ms. */
+        abstract double i2cMs(int i);
+
+        /** The pose now: {x, y, heading}. */
+        abstract double[] pose();
+    }
+
+    /**
+     * Pedro's TwoWheel localizer: the Control Hub reads two drive encoders (bulk read,
+     * basically free) and the hub IMU (an I2C read), then does the math itself every loop.
+     */
+    private static class TwoWheelCandidate extends Candidate {
+        private final double[] pose = new double[3];
+        private double lastForward, lastStrafe, lastHeading;
+
+        TwoWheelCandidate() {
+            super("TwoWheel (hub)");
+        }
+
+        @Override
+        void reset(OdometryTrace trace) {
+            super.reset(trace);
+            Arrays.fill(pose, 0.0);
+            lastForward = forwardInches(trace, 0);
+            lastStrafe = strafeInches(trace, 0);
+            lastHeading = trace.heading[0];
+        }
+
+        @Override
+        void update(int i) {
+            double forward = forwardInches(trace, i);
+            double strafe = strafeInches(trace, i);
+            double heading = trace.heading[i];
+            addArcStep(pose, forward - lastForward, strafe - lastStrafe, heading - lastHeading);
+            lastForward = forward;
+            lastStrafe = strafe;
+            lastHeading = heading;
+        }
+
+        @Override
+        double dataAgeMs(int i) {
+            return trace.imuReadMs[i];              // the pose is ready once the IMU read is done
+        }
+
+        @Override
+        double i2cMs(int i) {
+            return trace.imuReadMs[i];
+        }
+
+        @Override
+        double[] pose() {
+            return pose;
+        }
+    }
+
+    /**
+     * Our OctoQuad localizer reading a pretend OctoQuad every loop.
+     */
+    private static class OctoQuadCandidate extends Candidate {
+        private final double crcFailureRate;
+        private final OctoQuadLocalizerConstants constants = new OctoQuadLocalizerConstants()
+                .loopPeriodMs(Constants.octoQuadConstants.loopPeriodMs)
+                .maxExtrapolationMs(Constants.octoQuadConstants.maxExtrapolationMs);
+        private DeviceModel model;
+        private TraceOctoQuad device;
+        private OctoQuadLocalizer localizer;
+        private long clockNanos;
+
+        OctoQuadCandidate(String name, double crcFailureRate) {
+            super(name);
+            this.crcFailureRate = crcFailureRate;
+        }
+
+        @Override
+        void reset(OdometryTrace trace) {
+            super.reset(trace);
+            model = new DeviceModel(trace, OCTOQUAD_UPDATE_HZ, constants.velocityIntervalMs());
+            device = new TraceOctoQuad(model, crcFailureRate);
+            clockNanos = 0;
+            localizer = new OctoQuadLocalizer(device, constants, () -> clockNanos);
+        }
+
+        @Override
+        void prepare(int i) {
+            model.advanceTo(trace.timeSeconds[i]);
+            clockNanos = (long) (trace.timeSeconds[i] * 1e9);
+        }
+
+        @Override
+        void update(int i) {
+            localizer.update();
+        }
+
+        @Override
+        double dataAgeMs(int i) {
+            return (trace.timeSeconds[i] - device.lastGoodSampleTime) * 1000.0 + OCTOQUAD_READ_MS;
+        }
+
+        @Override
+        double i2cMs(int i) {
+            return OCTOQUAD_READ_MS;
+        }
+
+        @Override
+        double[] pose() {
+            Pose pose = localizer.getPose();
+            return new double[]{pose.getX(), pose.getY(), pose.getHeading()};
+        }
+    }
+
+    /**
+     * Our governed Pinpoint localizer reading a pretend Pinpoint.
+     */
+    private static class PinpointCandidate extends Candidate {
+        private final PinpointLocalizerConstants constants;
+        private DeviceModel model;
+        private TracePinpoint device;
+        private GovernedPinpointLocalizer localizer;
+        private long clockNanos;
+        private long readsBefore;
+        private long headingReadsBefore;
+
+        PinpointCandidate(String name, double minReadIntervalMs) {
+            super(name);
+            this.constants = new PinpointLocalizerConstants()
+                    .minReadIntervalMs(minReadIntervalMs)
+                    .maxExtrapolationMs(Constants.pinpointConstants.maxExtrapolationMs);
+        }
+
+        @Override
+        void reset(OdometryTrace trace) {
+            super.reset(trace);
+            model = new DeviceModel(trace, PINPOINT_UPDATE_HZ, PINPOINT_VELOCITY_WINDOW_MS);
+            device = new TracePinpoint(model);
+            clockNanos = 0;
+            localizer = new GovernedPinpointLocalizer(device, constants, () -> clockNanos);
+        }
+
+        @Override
+        void prepare(int i) {
+            model.advanceTo(trace.timeSeconds[i]);
+            clockNanos = (long) (trace.timeSeconds[i] * 1e9);
+            readsBefore = localizer.getReads();
+            headingReadsBefore = localizer.getHeadingReads();
+        }
+
+        @Override
+        void update(int i) {
+            localizer.update();
+        }
+
+        @Override
+        double dataAgeMs(int i) {
+            return (trace.timeSeconds[i] - device.sampleTime) * 1000.0 + PINPOINT_READ_MS;
+        }
+
+        @Override
+        double i2cMs(int i) {
+            if (localizer.getReads() > readsBefore) {
+                return PINPOINT_READ_MS;
+            }
+            return localizer.getHeadingReads() > headingReadsBefore ? PINPOINT_HEADING_READ_MS : 0.0;
+        }
+
+        @Override
+        double[] pose() {
+            Pose pose = localizer.getPose();
+            return new double[]{pose.getX(), pose.getY(), pose.getHeading()};
+        }
+    }
+
+    /**
+     * A device that does its own odometry at its own rate, from the recorded sensors.
+     *
+     * The device reads the pods itself, so between two recorded loops we fill in the
+     * counts with straight lines, but it only ever sees **whole** counts (like a real
+     * encoder). Each update adds the count change with {@link #addMidpointStep}.
+     */
+    private static class DeviceModel {
+        private final OdometryTrace trace;
+        private final double periodSeconds;
+
+        // Recent poses, for working out velocity over the device's velocity window
+        private final double[] historyTime;
+        private final double[][] historyPose;
+        private int historyNewest = 0;
+        private int historyCount = 0;
+
+        final double[] pose = new double[3];        // x, y, heading (heading keeps counting past +/-PI)
+        double time;
+        private int segment = 0;
+        private double lastForward, lastStrafe, lastHeading;
+
+        DeviceModel(OdometryTrace trace, double updateHz, double velocityWindowMs) {
+            this.trace = trace;
+            this.periodSeconds = 1.0 / updateHz;
+            int length = Math.max(2, (int) Math.ceil(velocityWindowMs / 1000.0 / periodSeconds) + 1);
+            this.historyTime = new double[length];
+            this.historyPose = new double[length][3];
+            this.time = trace.timeSeconds[0];
+            this.lastForward = forwardInches(trace, 0);
+            this.lastStrafe = strafeInches(trace, 0);
+            this.lastHeading = trace.heading[0];
+            remember();
+        }
+
+        /** Runs the device's own updates until the given time. */
+        void advanceTo(double targetTime) {
+            while (time + periodSeconds <= targetTime) {
+                time += periodSeconds;
+                while (segment < trace.size() - 2 && trace.timeSeconds[segment + 1] < time) {
+                    segment++;
+                }
+                double t0 = trace.timeSeconds[segment];
+                double t1 = trace.timeSeconds[segment + 1];
+                double a = t1 > t0 ? Math.max(0.0, Math.min(1.0, (time - t0) / (t1 - t0))) : 1.0;
+
+                double forward = Math.round(lerp(trace.forwardTicks[segment], trace.forwardTicks[segment + 1], a))
+                        * FORWARD_INCHES_PER_TICK;
+                double strafe = Math.round(lerp(trace.strafeTicks[segment], trace.strafeTicks[segment + 1], a))
+                        * STRAFE_INCHES_PER_TICK;
+                double heading = lerp(trace.heading[segment], trace.heading[segment + 1], a);
+
+                addMidpointStep(pose, forward - lastForward, strafe - lastStrafe, heading - lastHeading);
+                lastForward = forward;
+                lastStrafe = strafe;
+                lastHeading = heading;
+                remember();
+            }
+        }
+
+        private void remember() {
+            historyNewest = (historyNewest + 1) % historyTime.length;
+            historyTime[historyNewest] = time;
+            System.arraycopy(pose, 0, historyPose[historyNewest], 0, 3);
+            historyCount = Math.min(historyCount + 1, historyTime.length);
+        }
+
+        /** Velocity over the window: {x, y, heading} per second. */
+        double[] velocity() {
+            int oldest = (historyNewest - historyCount + 1 + historyTime.length) % historyTime.length;
+            double dt = historyTime[historyNewest] - historyTime[oldest];
+            double[] velocity = new double[3];
+            if (dt > 0) {
+                for (int k = 0; k < 3; k++) {
+                    velocity[k] = (historyPose[historyNewest][k] - historyPose[oldest][k]) / dt;
+                }
+            }
+            return velocity;
+        }
+
+        void setPose(double x, double y, double heading) {
+            pose[0] = x;
+            pose[1] = y;
+            pose[2] = heading;
+        }
+
+        private static double lerp(double from, double to, double a) {
+            return from + (to - from) * a;
+        }
+    }
+
+    /**
+     * Answers OctoQuad reads from a {@link DeviceModel}, in whole millimeters like the real one.
+     */
+    private static class TraceOctoQuad implements OctoQuadLocalizer.Device {
+        private static final double MM_PER_INCH = 25.4;
+
+        private final DeviceModel model;
+        private final double crcFailureRate;
+        private final Random random = new Random(1234);
+        double lastGoodSampleTime;
+
+        TraceOctoQuad(DeviceModel model, double crcFailureRate) {
+            this.model = model;
+            this.crcFailureRate = crcFailureRate;
+            this.lastGoodSampleTime = model.time;
+        }
+
+        @Override
+        public void configure(OctoQuadLocalizerConstants constants) {
+        }
+
+        @Override
+        public void resetLocalizerAndCalibrateIMU() {
+        }
+
+        @Override
+        public OctoQuad.LocalizerStatus getLocalizerStatus() {
+            return OctoQuad.LocalizerStatus.RUNNING;
+        }
+
+        @Override
+        public void readLocalizerData(OctoQuad.LocalizerDataBlock block) {
+            block.localizerStatus = OctoQuad.LocalizerStatus.RUNNING;
+            if (random.nextDouble() < crcFailureRate) {
+                block.crcOk = false;
+                block.posX_mm = random.nextInt();
+                block.posY_mm = random.nextInt();
+                return;
+            }
+            double[] velocity = model.velocity();
+            block.crcOk = true;
+            block.posX_mm = (int) Math.round(model.pose[0] * MM_PER_INCH);
+            block.posY_mm = (int) Math.round(model.pose[1] * MM_PER_INCH);
+            block.heading_rad = (float) DevicePoseTracker.angleWrap(model.pose[2]);
+            block.velX_mmS = (short) Math.round(velocity[0] * MM_PER_INCH);
+            block.velY_mmS = (short) Math.round(velocity[1] * MM_PER_INCH);
+            block.velHeading_radS = (float) velocity[2];
+            lastGoodSampleTime = model.time;
+        }
+
+        @Override
+        public void setLocalizerPose(int posXmm, int posYmm, float headingRad) {
+            model.setPose(posXmm / MM_PER_INCH, posYmm / MM_PER_INCH, headingRad);
+        }
+    }
+
+    /**
+     * Answers Pinpoint reads from a {@link DeviceModel}. Like the real driver, update()
+     * takes a snapshot and the getters return numbers from that snapshot. The Pinpoint
+     * sends 32-bit floats, so the snapshot is rounded to float too.
+     */
+    private static class TracePinpoint implements GovernedPinpointLocalizer.Device {
+        private final DeviceModel model;
+        private final double[] snapshotPose = new double[3];
+        private double[] snapshotVelocity = new double[3];
+        double sampleTime;
+
+        TracePinpoint(DeviceModel model) {
+            this.model = model;
+            this.sampleTime = model.time;
+        }
+
+        @Override
+        public void configure(PinpointLocalizerConstants constants) {
+        }
+
+        @Override
+        public void update() {
+            for (int k = 0; k < 3; k++) {
+                snapshotPose[k] = (float) model.pose[k];
+            }
+            snapshotVelocity = model.velocity();
+            for (int k = 0; k < 3; k++) {
+                snapshotVelocity[k] = (float) snapshotVelocity[k];
+            }
+            sampleTime = model.time;
+        }
+
+        @Override
+        public void updateHeading() {
+            snapshotPose[2] = (float) model.pose[2];
+        }
+
+        @Override
+        public GoBildaPinpointDriver.DeviceStatus getDeviceStatus() {
+            return GoBildaPinpointDriver.DeviceStatus.READY;
+        }
+
+        @Override
+        public double getX() {
+            return snapshotPose[0];
+        }
+
+        @Override
+        public double getY() {
+            return snapshotPose[1];
+        }
+
+        @Override
+        public double getHeading() {
+            return DevicePoseTracker.angleWrap(snapshotPose[2]);
+        }
+
+        @Override
+        public double getXVelocity() {
+            return snapshotVelocity[0];
+        }
+
+        @Override
+        public double getYVelocity() {
+            return snapshotVelocity[1];
+        }
+
+        @Override
+        public double getHeadingVelocity() {
+            return snapshotVelocity[2];
+        }
+
+        @Override
+        public void setPosition(double x, double y, double heading) {
+            model.setPose(x, y, heading);
+        }
+
+        @Override
+        public void recalibrateIMU() {
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.vision.Motif;
+import org.firstinspires.ftc.teamcode.vision.MotifDetector;
+import org.firstinspires.ftc.teamcode.vision.MotifVote;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks the obelisk motif voting ({@link MotifDetector}) **on a laptop**.
+ *
+ * It plays made-up INIT phases (30 frames per second) and prints
+ * after how many frames (and ms after the first frame) the detector would stop, and what it decided:
+ *  - a clean view of the obelisk
+ *  - a noisy view (missed frames and a wrong tag now and then)
+ *  - two faces in view (the one turned toward us looks wider)
+ *  - no obelisk at all (it gives up LOOK_MS after the first frame)
+ *
+ * The AprilTag detector itself needs the Android AprilTag library, so the voting on
+ * real captured frames is in {@link VisionFrameReplay} (on the robot).
+ *
+ * How to run it (desktop JVM, not the robot):
+ * {@code java ... org.firstinspires.ftc.teamcode.benchmark.MotifReplay}
+ */
+public class MotifReplay {
+
+    private static final double FRAME_MS = 1000.0 / 30.0;
+
+    public static void main(String[] args) {
+        System.out.println(String.format(Locale.US, "%-28s %8s %8s %-8s %s",
+                "INIT", "frames", "ms", "motif", "sure"));
+        Random random = new Random(1);
+        play("clean, PGP", random, 22, 0.0, 0.0, -1);
+        play("noisy, GPP", random, 21, 0.3, 0.1, -1);
+        play("very noisy, PPG", random, 23, 0.6, 0.25, -1);
+        play("two faces, PPG in front", random, 23, 0.1, 0.0, 22);
+        play("no obelisk", random, -1, 0.0, 0.0, -1);
+    }
+
+    /**
+     * One made-up INIT phase.
+     *
+     * @param tagId     the obelisk face toward us (-1: not in view)
+     * @param missRate  part of the frames where the tag isn't found
+     * @param wrongRate part of the found tags that come back with a wrong obelisk ID
+     * @param sideTagId a second face seen from the side, smaller (-1: none)
+     */
+    private static void play(String name, Random random, int tagId, double missRate, double wrongRate,
+                             int sideTagId) {
+        MotifVote vote = new MotifVote(MotifDetector.MIN_VOTES, MotifDetector.MIN_SHARE);
+        int frames = 0;
+        while (!vote.isConfident() && frames * FRAME_MS < MotifDetector.LOOK_MS) {
+            vote.startFrame();
+            if (tagId >= 0 && random.nextDouble() >= missRate) {
+                int seen = random.nextDouble() < wrongRate ? 21 + random.nextInt(3) : tagId;
+                vote.see(seen, 80 + random.nextGaussian() * 3);
+            }
+            if (sideTagId >= 0 && random.nextDouble() >= missRate) {
+                vote.see(sideTagId, 45 + random.nextGaussian() * 3);
+            }
+            vote.see(20, 120);   // a goal tag in view never votes
+            vote.endFrame();
+            frames++;
+        }
+        print(name, vote, frames);
+    }
+
+    private static void print(String name, MotifVote vote, int frames) {
+        System.out.println(String.format(Locale.US, "%-28s %8d %8.0f %-8s %s",
+                name, frames, frames * FRAME_MS, vote.getLeader(),
+                vote.isConfident() ? String.format(Locale.US, "yes (%.0f%%)", vote.getShare() * 100) : "no"));
+    }
+}
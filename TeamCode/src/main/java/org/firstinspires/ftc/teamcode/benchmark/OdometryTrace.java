@@ -0,0 +1,117 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A recording of the raw odometry sensors, made with {@link OdometryTraceRecorder}.
+ *
+ * Each line of the file is one loop:
+ * <pre>
+ *     # t_ms, forward_ticks, strafe_ticks, imu_heading_rad, imu_read_ms
+ *     12.481,0,0,0.000000,1.912
+ *     31.002,14,-2,0.000105,1.870
+ * </pre>
+ *
+ * The robot is expected to end where it started. If it didn't, add a line
+ * {@code # end <x inches> <y inches> <heading radians>} with where it really ended.
+ */
+public class OdometryTrace {
+
+    public final String name;
+
+    // One entry per loop
+    public final double[] timeSeconds;
+    public final double[] forwardTicks;
+    public final double[] strafeTicks;
+    public final double[] heading;          // "unwrapped": keeps counting past +/-PI, so it never jumps
+    public final double[] imuReadMs;
+
+    // Where the robot really was at the end
+    public final double endX;
+    public final double endY;
+    public final double endHeading;
+
+    private OdometryTrace(String name, double[] timeSeconds, double[] forwardTicks, double[] strafeTicks,
+                          double[] heading, double[] imuReadMs, double endX, double endY, double endHeading) {
+        this.name = name;
+        this.timeSeconds = timeSeconds;
+        this.forwardTicks = forwardTicks;
+        this.strafeTicks = strafeTicks;
+        this.heading = heading;
+        this.imuReadMs = imuReadMs;
+        this.endX = endX;
+        this.endY = endY;
+        this.endHeading = endHeading;
+    }
+
+    /**
+     * Loads a trace file.
+     */
+    public static OdometryTrace load(File file) throws IOException {
+        int capacity = 4096;
+        double[] t = new double[capacity];
+        double[] f = new double[capacity];
+        double[] s = new double[capacity];
+        double[] h = new double[capacity];
+        double[] r = new double[capacity];
+        int count = 0;
+        double endX = 0.0, endY = 0.0, endHeading = 0.0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("# end")) {
+                    String[] parts = line.substring(5).trim().split("\\s+");
+                    endX = Double.parseDouble(parts[0]);
+                    endY = Double.parseDouble(parts[1]);
+                    endHeading = Double.parseDouble(parts[2]);
+                    continue;
+                }
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (count == capacity) {
+                    capacity *= 2;
+                    t = Arrays.copyOf(t, capacity);
+                    f = Arrays.copyOf(f, capacity);
+                    s = Arrays.copyOf(s, capacity);
+                    h = Arrays.copyOf(h, capacity);
+                    r = Arrays.copyOf(r, capacity);
+                }
+                String[] parts = line.split(",");
+                t[count] = Double.parseDouble(parts[0].trim()) / 1000.0;
+                f[count] = Double.parseDouble(parts[1].trim());
+                s[count] = Double.parseDouble(parts[2].trim());
+                h[count] = Double.parseDouble(parts[3].trim());
+                r[count] = parts.length > 4 ? Double.parseDouble(parts[4].trim()) : 0.0;
+                count++;
+            }
+        }
+        if (count < 2) {
+            throw new IOException("Trace " + file.getName() + " has fewer than 2 samples");
+        }
+
+        // The IMU gives -PI..PI; take out the jumps so we can interpolate between samples
+        for (int i = 1; i < count; i++) {
+            double step = h[i] - h[i - 1];
+            h[i] = h[i - 1] + Math.atan2(Math.sin(step), Math.cos(step));
+        }
+
+        return new OdometryTrace(file.getName(), Arrays.copyOf(t, count), Arrays.copyOf(f, count),
+                Arrays.copyOf(s, count), Arrays.copyOf(h, count), Arrays.copyOf(r, count),
+                endX, endY, endHeading);
+    }
+
+    public int size() {
+        return timeSeconds.length;
+    }
+
+    public double durationSeconds() {
+        return timeSeconds[timeSeconds.length - 1] - timeSeconds[0];
+    }
+}
@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_FRONT_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_REAR_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_FRONT_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_REAR_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.pedroPathing.Constants.localizerConstants;
+
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+import dev.nextftc.ftc.NextFTCOpMode;
+
+/**
+ * Drives the robot like LocalizationTest and records the **raw odometry sensors**
+ * every loop, so {@link LocalizerReplayBenchmark} can replay them later on a laptop.
+ *
+ * No localizer runs while recording: the follower is only made so the motors get
+ * the same directions Pedro gives them, and then we drive the motors ourselves.
+ * That way the IMU is read exactly once per loop, and {@code imu_read_ms} is the
+ * real cost of that one read (what the TwoWheel localizer pays every loop).
+ *
+ * How to record a trace:
+ *  1. Put a piece of tape on the floor and line the robot up on it.
+ *  2. Press INIT, then START, and drive around (gamepad 1, like LocalizationTest).
+ *  3. Drive back and park exactly on the tape, then press STOP.
+ *
+ * Because we end where we started, any pose a localizer reports at the end is drift.
+ * The file is saved in the FIRST folder on the Control Hub as
+ * {@code odometry-trace-<time>.csv}.
+ */
+@TeleOp(name = "Odometry Trace Recorder", group = "Benchmark")
+public class OdometryTraceRecorder extends NextFTCOpMode {
+
+    // Enough room for about 5 minutes at 100 loops per second
+    private static final int MAX_SAMPLES = 30_000;
+
+    // We fill these arrays while driving and only write the file at the end,
+    // so recording doesn't slow the loop down
+    private final long[] timeNanos = new long[MAX_SAMPLES];
+    private final int[] forwardTicks = new int[MAX_SAMPLES];
+    private final int[] strafeTicks = new int[MAX_SAMPLES];
+    private final double[] headings = new double[MAX_SAMPLES];
+    private final float[] imuReadMs = new float[MAX_SAMPLES];
+    private int sampleCount = 0;
+
+    private DcMotorEx frontLeft, rearLeft, frontRight, rearRight;
+    private DcMotorEx forwardEncoder;
+    private DcMotorEx strafeEncoder;
+    private IMU imu;
+    private long startNanos;
+
+    @Override
+    public void onInit() {
+        // Making the follower sets the motor directions exactly like the TwoWheel localizer sees them
+        Constants.createFollower(hardwareMap);
+        frontLeft = hardwareMap.get(DcMotorEx.class, LEFT_FRONT_MOTOR_NAME);
+        rearLeft = hardwareMap.get(DcMotorEx.class, LEFT_REAR_MOTOR_NAME);
+        frontRight = hardwareMap.get(DcMotorEx.class, RIGHT_FRONT_MOTOR_NAME);
+        rearRight = hardwareMap.get(DcMotorEx.class, RIGHT_REAR_MOTOR_NAME);
+
+        forwardEncoder = hardwareMap.get(DcMotorEx.class, localizerConstants.forwardEncoder_HardwareMapName);
+        strafeEncoder = hardwareMap.get(DcMotorEx.class, localizerConstants.strafeEncoder_HardwareMapName);
+        imu = hardwareMap.get(IMU.class, localizerConstants.IMU_HardwareMapName);
+        imu.initialize(new IMU.Parameters(localizerConstants.IMU_Orientation));
+    }
+
+    @Override
+    public void onStartButtonPressed() {
+        imu.resetYaw();
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onUpdate() {
+        drive(-gamepad1.left_stick_y, -gamepad1.left_stick_x, -gamepad1.right_stick_x);
+
+        if (sampleCount < MAX_SAMPLES) {
+            int i = sampleCount++;
+            timeNanos[i] = System.nanoTime() - startNanos;
+            forwardTicks[i] = forwardEncoder.getCurrentPosition();
+            strafeTicks[i] = strafeEncoder.getCurrentPosition();
+
+            // The only IMU read this loop. Time it: it is the slow (I2C) part of the TwoWheel localizer
+            long imuStart = System.nanoTime();
+            headings[i] = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS);
+            imuReadMs[i] = (System.nanoTime() - imuStart) / 1e6f;
+        }
+
+        telemetry.addData("Samples", "%d / %d", sampleCount, MAX_SAMPLES);
+        telemetry.addData("Status", sampleCount < MAX_SAMPLES ? "Recording... park on the tape, then STOP" : "Buffer full, press STOP");
+        telemetry.update();
+    }
+
+    /**
+     * Robot-centric mecanum driving (forward, left, turn left), like Pedro's teleop drive.
+     */
+    private void drive(double forward, double left, double turn) {
+        double scale = Math.max(1.0, Math.abs(forward) + Math.abs(left) + Math.abs(turn));
+        frontLeft.setPower((forward - left - turn) / scale);
+        rearLeft.setPower((forward + left - turn) / scale);
+        frontRight.setPower((forward + left + turn) / scale);
+        rearRight.setPower((forward - left + turn) / scale);
+    }
+
+    @Override
+    public void onStop() {
+        drive(0, 0, 0);
+
+        File file = new File(AppUtil.FIRST_FOLDER, "odometry-trace-" + System.currentTimeMillis() + ".csv");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("# Recorded by OdometryTraceRecorder. The robot ended where it started.\n");
+            writer.write("# t_ms, forward_ticks, strafe_ticks, imu_heading_rad, imu_read_ms\n");
+            for (int i = 0; i < sampleCount; i++) {
+                writer.write(String.format(Locale.US, "%.3f,%d,%d,%.6f,%.3f\n",
+                        timeNanos[i] / 1e6, forwardTicks[i], strafeTicks[i], headings[i], imuReadMs[i]));
+            }
+        } catch (IOException e) {
+            telemetry.addData("Could not save trace", e.getMessage());
+            telemetry.update();
+        }
+    }
+}
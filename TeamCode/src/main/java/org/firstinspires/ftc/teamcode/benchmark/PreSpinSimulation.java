@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.drive.TrapezoidProfile;
+import org.firstinspires.ftc.teamcode.subsystems.PreSpinScheduler;
+import org.firstinspires.ftc.teamcode.subsystems.ShootingSystem;
+import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+import org.firstinspires.ftc.teamcode.util.PreSpinPlanner;
+import org.firstinspires.ftc.teamcode.util.SpinUpModel;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks the flywheel pre-spin ({@link PreSpinScheduler}) **on a laptop**.
+ *
+ * 1. Learning: a pretend flywheel (slower than the starting guess, and never getting to
+ *    its free speed) is switched on a few times, measured through whole encoder ticks
+ *    like on the robot. The {@link SpinUpModel} learns its top speed from the first
+ *    run, then its time constant (same order as ShootingSystem.periodic).
+ * 2. Driving: the robot drives into the shooting zone (following a path, or driven by
+ *    hand at a steady speed) and we compare when the flywheel is switched on:
+ *     - "at arrival": the driver presses the button when we get there (the old way)
+ *     - "always on": it runs the whole time
+ *     - "pre-spin": the scheduler, with the starting guess and with the learned tau
+ *    For each we print how long the robot has to wait at the zone before the flywheel
+ *    is at speed, and how long the flywheel ran before we got there (that part is
+ *    battery spent only to hide the spin-up; less is better, as long as the wait is 0).
+ *
+ * How to run it (desktop JVM, not the robot):
+ * {@code java ... org.firstinspires.ftc.teamcode.benchmark.PreSpinSimulation}
+ */
+public class PreSpinSimulation {
+
+    // The pretend flywheel: bare 5000 series motor, slower to spin up than the starting guess
+    private static final double CPR = 28.0;
+    private static final double FREE_RPM = 5800.0;
+    private static final double TOP_RPM_PER_POWER = FREE_RPM * 0.85;   // friction and air: never the free speed
+    private static final double TRUE_TAU_S = 0.5;
+    private static final double POWER = ShootingSystem.MID_POWER;
+    private static final double AT_SPEED = ShootingSystem.AT_SPEED_FRACTION;
+
+    // Small steps for the "real" world, and how often the scheduler runs (20 Hz in TeleOp)
+    private static final double STEP_S = 0.0005;
+    private static final double SCHEDULER_S = 0.05;
+
+    // After arriving we stay this long to shoot, then drive off
+    private static final double SHOOT_S = 1.5;
+
+    public static void main(String[] args) {
+        SpinUpModel learned = learn();
+
+        System.out.println();
+        System.out.println(String.format(Locale.US, "%-34s %-20s %10s %10s",
+                "drive", "flywheel", "wait ms", "early s"));
+        drive("path 60 in, 50 in/s", 60, 50, 60, true, learned);
+        drive("path 100 in, 60 in/s", 100, 60, 80, true, learned);
+        drive("path 24 in, 40 in/s (short)", 24, 40, 60, true, learned);
+        drive("driver 80 in, 40 in/s", 80, 40, 120, false, learned);
+        drive("driver 40 in, 25 in/s (slow)", 40, 25, 120, false, learned);
+    }
+
+    /** Switches the pretend flywheel on a few times and lets the model learn. */
+    private static SpinUpModel learn() {
+        SpinUpModel model = new SpinUpModel(ShootingSystem.SPIN_UP_TAU_S);
+        Random random = new Random(1);
+        System.out.println(String.format(Locale.US, "Learning (true tau %.0f ms, starting guess %.0f ms)",
+                TRUE_TAU_S * 1000, model.getTauSeconds() * 1000));
+
+        for (int run = 1; run <= 4; run++) {
+            EncoderVelocityEstimator estimator = new EncoderVelocityEstimator(CPR, 8, 80.0);
+            double rpm = 0.0;
+            double ticks = 0.0;
+            double t = 0.0;
+            double nextLoop = 0.0;
+            boolean started = false;
+            while (t < 2.5) {
+                rpm += (POWER * TOP_RPM_PER_POWER - rpm) / TRUE_TAU_S * STEP_S;
+                ticks += rpm / 60.0 * CPR * STEP_S;
+                t += STEP_S;
+                if (t >= nextLoop) {
+                    long now = (long) (t * 1e9);
+                    estimator.update(Math.floor(ticks), now);
+                    if (!started) {
+                        if (model.knowsTopSpeed()) {   // same as ShootingSystem.periodic
+                            model.startWatching(0.0, model.getTopSpeed(POWER), now);
+                        }
+                        started = true;
+                    }
+                    model.update(Math.abs(estimator.getRpm()), now);
+                    if (t > 5 * TRUE_TAU_S) {
+                        model.observeSteady(Math.abs(estimator.getRpm()), POWER);   // settled
+                    }
+                    nextLoop = t + 0.008 + random.nextDouble() * 0.006;
+                }
+            }
+            System.out.println(String.format(Locale.US, "  spin-up %d: tau %.0f ms, top %.0f RPM (true %.0f)", run,
+                    model.getTauSeconds() * 1000, model.getTopSpeed(POWER), POWER * TOP_RPM_PER_POWER));
+        }
+        return model;
+    }
+
+    /**
+     * Drives {@code inches} into the zone along a straight line, with each way of running the flywheel.
+     *
+     * @param followingPath true: the ETA comes from the path; false: from the velocity only
+     */
+    private static void drive(String name, double inches, double speed, double accel,
+                              boolean followingPath, SpinUpModel learned) {
+        run(name, "at arrival", inches, speed, accel, followingPath, null);
+        run("", "always on", inches, speed, accel, followingPath, null);
+        run("", "pre-spin (guess)", inches, speed, accel, followingPath, new SpinUpModel(ShootingSystem.SPIN_UP_TAU_S));
+        run("", "pre-spin (learned)", inches, speed, accel, followingPath, learned);
+    }
+
+    private static void run(String name, String strategy, double inches, double speed, double accel,
+                            boolean followingPath, SpinUpModel model) {
+        // The robot drives along y = ZONE_Y toward the zone and stops 6 in inside its edge
+        double startX = PreSpinScheduler.ZONE_X - PreSpinScheduler.ZONE_RADIUS - inches + 6;
+        double endX = PreSpinScheduler.ZONE_X - PreSpinScheduler.ZONE_RADIUS + 6;
+        double y = PreSpinScheduler.ZONE_Y;
+        TrapezoidProfile path = new TrapezoidProfile(endX - startX, speed, accel);
+        PreSpinPlanner planner = new PreSpinPlanner(PreSpinScheduler.ZONE_X, PreSpinScheduler.ZONE_Y,
+                PreSpinScheduler.ZONE_RADIUS, PreSpinScheduler.MARGIN_S, PreSpinScheduler.HOLD_S);
+
+        double arrival = path.getTotalTime();
+        double end = arrival + SHOOT_S;
+        double rpm = 0.0;
+        double t = 0.0;
+        double nextDecision = 0.0;
+        boolean on = strategy.equals("always on");
+        double earlySeconds = 0.0;
+        double atSpeedTime = Double.NaN;
+
+        while (t < end) {
+            if (t >= nextDecision) {
+                if (model != null) {
+                    double x = startX + path.position(t);
+                    double v = path.velocity(t);
+                    // Same ETA and lead as PreSpinScheduler.periodic
+                    double eta = planner.etaFromVelocity(x, y, v, 0.0, PreSpinScheduler.MIN_CLOSING_SPEED);
+                    if (followingPath && t < arrival) {
+                        eta = Math.min(eta, planner.etaFromPath(endX - x, endX, y, v, PreSpinScheduler.MIN_PATH_SPEED));
+                    }
+                    // Same top speed as ShootingSystem.secondsToAtSpeed
+                    double top = model.knowsTopSpeed() ? model.getTopSpeed(POWER) : POWER * FREE_RPM;
+                    double lead = model.secondsToReach(on ? 0.0 : rpm, top, AT_SPEED);
+                    on = planner.update(eta, lead, (long) (t * 1e9));
+                } else if (strategy.equals("at arrival") && t >= arrival) {
+                    on = true;
+                }
+                nextDecision = t + SCHEDULER_S;
+            }
+
+            double power = on ? POWER : 0.0;
+            rpm += (power * TOP_RPM_PER_POWER - rpm) / TRUE_TAU_S * STEP_S;
+            if (on && t < arrival) {
+                earlySeconds += STEP_S;
+            }
+            if (Double.isNaN(atSpeedTime) && t >= arrival && rpm >= AT_SPEED * POWER * TOP_RPM_PER_POWER) {
+                atSpeedTime = t;
+            }
+            t += STEP_S;
+        }
+
+        // ("Always on" really runs for the whole match; only this drive is counted here)
+        double waitMs = Double.isNaN(atSpeedTime) ? Double.NaN : (atSpeedTime - arrival) * 1000;
+        System.out.println(String.format(Locale.US, "%-34s %-20s %10.0f %10.2f", name, strategy, waitMs, earlySeconds));
+    }
+}
@@ -0,0 +1,173 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.subsystems.ShootingSystem;
+import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+import org.firstinspires.ftc.teamcode.util.VelocityDipDetector;
+import org.firstinspires.ftc.teamcode.util.VelocityDipDetector.Dip;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks the shot detector ({@link ShootingSystem#makeShotDetector()}) **on a laptop**.
+ *
+ * 1. Simulated traces: a flywheel model with known shot times, turned into encoder
+ *    ticks (whole ticks only, like the real encoder) at an uneven loop time. For each
+ *    case it prints how many shots were found, missed or made up, how close the
+ *    found times are, and the recovery time the detector measured.
+ * 2. Recorded traces (optional): files made by {@link FlywheelTraceRecorder}. It prints
+ *    every shot found, and how many happened while the loader was feeding.
+ *
+ * How to run it (desktop JVM, not the robot):
+ * {@code java ... org.firstinspires.ftc.teamcode.benchmark.ShotDetectionReplay [flywheel-trace.csv ...]}
+ */
+public class ShotDetectionReplay {
+
+    // Same motor as the robot: bare goBILDA 5000 series, 28 ticks per turn, 5800 RPM free speed
+    private static final double CPR = 28.0;
+    private static final double FREE_RPM = 5800.0;
+
+    // How quickly the flywheel reaches a new speed, and how much speed one ball takes away
+    private static final double TIME_CONSTANT_S = 0.35;
+    private static final double SHOT_FRACTION = 0.08;
+    private static final double SHOT_CONTACT_S = 0.025;
+
+    // A found shot counts as right if it is this close to a real one
+    private static final double MATCH_MS = 60.0;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("Simulated traces");
+        System.out.println(String.format(Locale.US, "%-30s %5s %5s %6s %6s %9s %10s %9s",
+                "case", "real", "found", "missed", "extra", "err ms", "recover ms", "balls/s"));
+        runSimulated("3 shots, 0.6 s apart", 0.57, new double[]{1.5, 2.1, 2.7}, new double[0][0], 1);
+        runSimulated("3 shots, 0.25 s apart", 0.57, new double[]{1.5, 1.75, 2.0}, new double[0][0], 2);
+        runSimulated("high power burst", 0.70, new double[]{1.5, 1.8, 2.1}, new double[0][0], 3);
+        runSimulated("power down (no shots)", 0.70, new double[0], new double[][]{{1.5, 0.57}}, 4);
+        runSimulated("big power down (no shots)", 0.70, new double[0], new double[][]{{1.5, 0.40}}, 8);
+        runSimulated("power up (no shots)", 0.57, new double[0], new double[][]{{1.5, 0.70}}, 5);
+        runSimulated("switched off (no shots)", 0.57, new double[0], new double[][]{{1.5, 0.0}}, 6);
+        runSimulated("power down then 2 shots", 0.70, new double[]{2.5, 3.0}, new double[][]{{1.5, 0.57}}, 7);
+
+        for (String arg : args) {
+            runRecorded(new File(arg));
+        }
+    }
+
+    /**
+     * Simulates a flywheel for 4 seconds and runs the detector on it.
+     *
+     * @param shots        real shot times (s)
+     * @param powerChanges {time s, new power} pairs
+     */
+    private static void runSimulated(String name, double power, double[] shots, double[][] powerChanges, long seed) {
+        Random random = new Random(seed);
+        EncoderVelocityEstimator estimator = new EncoderVelocityEstimator(CPR, 8, 80.0);
+        VelocityDipDetector detector = ShootingSystem.makeShotDetector();
+        List<Dip> found = new ArrayList<>();
+
+        double rpm = 0.0;
+        double ticks = 0.0;
+        double t = 0.0;
+        double step = 0.0005;      // the "real" flywheel is simulated in small steps
+        double nextLoop = 0.0;
+        int nextChange = 0;
+
+        while (t < 4.0) {
+            if (nextChange < powerChanges.length && t >= powerChanges[nextChange][0]) {
+                power = powerChanges[nextChange][1];
+                nextChange++;
+            }
+
+            // Motor pulls toward its free speed at this power; a ball in contact pulls it down
+            rpm += (power * FREE_RPM - rpm) / TIME_CONSTANT_S * step;
+            for (double shot : shots) {
+                if (t >= shot && t < shot + SHOT_CONTACT_S) {
+                    rpm -= SHOT_FRACTION * power * FREE_RPM / SHOT_CONTACT_S * step;
+                }
+            }
+            ticks += rpm / 60.0 * CPR * step;
+            t += step;
+
+            // The robot loop: whole ticks only, 8-14 ms apart
+            if (t >= nextLoop) {
+                long now = (long) (t * 1e9);
+                estimator.update(Math.floor(ticks), now);
+                Dip dip = detector.update(Math.abs(estimator.getRpm()), estimator.getRpmPerSecond(), now);
+                if (dip != null) {
+                    found.add(dip);
+                }
+                nextLoop = t + 0.008 + random.nextDouble() * 0.006;
+            }
+        }
+
+        // Match found shots to real ones
+        int matched = 0;
+        double errorTotal = 0.0;
+        boolean[] used = new boolean[found.size()];
+        for (double shot : shots) {
+            for (int i = 0; i < found.size(); i++) {
+                double errorMs = Math.abs(found.get(i).timeNanos / 1e6 - shot * 1000);
+                if (!used[i] && errorMs <= MATCH_MS) {
+                    used[i] = true;
+                    matched++;
+                    errorTotal += errorMs;
+                    break;
+                }
+            }
+        }
+        System.out.println(String.format(Locale.US, "%-30s %5d %5d %6d %6d %9.1f %10.1f %9.2f",
+                name, shots.length, found.size(), shots.length - matched, found.size() - matched,
+                matched == 0 ? 0.0 : errorTotal / matched, detector.getAverageRecoveryMs(),
+                detector.getDipsPerSecond()));
+    }
+
+    /**
+     * Runs the detector on a recording from {@link FlywheelTraceRecorder}.
+     * Lines: {@code t_ms, ticks, power, feeding (0 or 1)}.
+     */
+    private static void runRecorded(File file) throws IOException {
+        EncoderVelocityEstimator estimator = new EncoderVelocityEstimator(CPR, 8, 80.0);
+        VelocityDipDetector detector = ShootingSystem.makeShotDetector();
+        int shotsWhileFeeding = 0;
+        int loops = 0;
+
+        System.out.println();
+        System.out.println(file.getName());
+        System.out.println(String.format(Locale.US, "%10s %10s %9s %8s %11s %8s",
+                "t s", "rpm before", "dip rpm", "dip %", "recover ms", "feeding"));
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                long now = (long) (Double.parseDouble(parts[0].trim()) * 1e6);
+                boolean feeding = parts.length > 3 && Integer.parseInt(parts[3].trim()) != 0;
+                estimator.update(Double.parseDouble(parts[1].trim()), now);
+                Dip dip = detector.update(Math.abs(estimator.getRpm()),
+                        Math.signum(estimator.getRpm()) * estimator.getRpmPerSecond(), now);
+                loops++;
+                if (dip == null) {
+                    continue;
+                }
+                if (feeding) {
+                    shotsWhileFeeding++;
+                }
+                System.out.println(String.format(Locale.US, "%10.3f %10.0f %9.0f %8.1f %11.1f %8s",
+                        dip.timeNanos / 1e9, dip.speedBefore, dip.depth(), dip.depthFraction() * 100,
+                        dip.recoveryMs, feeding ? "yes" : "NO"));
+            }
+        }
+        System.out.println(String.format(Locale.US, "%d loops, %d shots (%d while feeding), %.2f balls/s, recovery %.1f ms",
+                loops, detector.getCount(), shotsWhileFeeding, detector.getDipsPerSecond(),
+                detector.getAverageRecoveryMs()));
+    }
+}
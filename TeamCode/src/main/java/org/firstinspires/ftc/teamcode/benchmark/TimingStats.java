@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects a list of timings (in nanoseconds) and works out the average,
+ * median (p50), p95 and worst case.
+ *
+ * Used by the desktop benchmarks in this package.
+ */
+public class TimingStats {
+
+    private long[] samples = new long[256];
+    private int count = 0;
+
+    /** Adds one timing, in nanoseconds. */
+    public void add(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double meanMs() {
+        if (count == 0) {
+            return 0.0;
+        }
+        double total = 0.0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / count / 1e6;
+    }
+
+    /**
+     * The timing that {@code fraction} of samples are at or below (0.5 = median).
+     */
+    public double percentileMs(double fraction) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+
+    public double maxMs() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max / 1e6;
+    }
+
+    /** One line like "mean 3.21 | p50 3.10 | p95 4.80 | max 7.02 ms". */
+    public String summary() {
+        return String.format(Locale.US, "mean %6.2f | p50 %6.2f | p95 %6.2f | max %6.2f ms",
+                meanMs(), percentileMs(0.5), percentileMs(0.95), maxMs());
+    }
+}
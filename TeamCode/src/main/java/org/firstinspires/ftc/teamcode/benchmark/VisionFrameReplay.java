@@ -0,0 +1,425 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.util.TimedResult;
+import org.firstinspires.ftc.teamcode.vision.AdaptiveAprilTagProcessor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColorProcessor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColorResult;
+import org.firstinspires.ftc.teamcode.vision.Motif;
+import org.firstinspires.ftc.teamcode.vision.MotifDetector;
+import org.firstinspires.ftc.teamcode.vision.MotifVote;
+import org.firstinspires.ftc.teamcode.vision.PublishingProcessor;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.firstinspires.ftc.vision.opencv.ColorBlobLocatorProcessor;
+import org.firstinspires.ftc.vision.opencv.ColorRange;
+import org.firstinspires.ftc.vision.opencv.ImageRegion;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import dev.nextftc.ftc.NextFTCOpMode;
+
+/**
+ * Replays captured camera frames through the SDK's {@link AprilTagProcessor} and
+ * {@link ColorBlobLocatorProcessor} (and our own processors) with different settings,
+ * and reports how fast and how accurate each one is.
+ *
+ * This runs **on the robot**, not on a laptop: the SDK processors need Android
+ * (android.graphics, and the AprilTag library is only built for the Control Hub).
+ * The camera is not used, so the timings are the hub's CPU doing only vision.
+ * {@link VisionReplayBenchmark} is the laptop part, for the code that runs without Android.
+ *
+ * How to use it:
+ *  1. Capture frames with UtilityCameraFrameCapture and label them (see {@link LabeledFrameSet}).
+ *  2. Put the frames and labels.csv in the {@code vision-frames} folder inside the FIRST
+ *     folder on the Control Hub. About 100 frames is plenty (they are all kept in memory).
+ *  3. INIT this OpMode (it loads the frames), press START and wait until it says "Done".
+ *
+ * Each frame is scored against the labels: a tag frame counts as "detected" when every
+ * labeled tag ID was found, and every ID found that is not in the labels is a false tag.
+ *
+ * The "Motif" run is {@link MotifDetector}'s own detector, and its detections go through
+ * the same {@link MotifVote} the robot uses during INIT. It shows after how many frames
+ * the vote was sure and whether it picked the obelisk tag the labels show most often.
+ * For that, capture the frames from the obelisk camera during one INIT, in order.
+ *
+ * The results stay on the telemetry and are saved as {@code vision-replay-<time>.txt}
+ * in the FIRST folder.
+ *
+ * Edit {@link #buildRuns()} to try new settings.
+ */
+@TeleOp(name = "Vision Frame Replay", group = "Benchmark")
+public class VisionFrameReplay extends NextFTCOpMode {
+
+    // Where the captured frames are, inside the FIRST folder
+    private static final String FRAME_FOLDER = "vision-frames";
+
+    // Lens intrinsics (fx, fy, cx, cy) for a Logitech C920 at 640x480, from the SDK's calibration file
+    private static final double FX = 622.001;
+    private static final double FY = 622.001;
+    private static final double CX = 319.803;
+    private static final double CY = 241.251;
+
+    // A blob must be at least this big (pixels) to count as an artifact
+    private static final int MIN_BLOB_AREA = 200;
+
+    // Pretend frames are 30 fps apart
+    private static final long FRAME_NANOS = 33_000_000L;
+
+    /**
+     * One setting to test: the processors to run, how much to shrink the frame first,
+     * and how to read the answer back out.
+     */
+    private static class Run {
+        final String name;
+        final double scale;
+        final VisionProcessor[] processors;
+        final Supplier<Set<Integer>> tagAnswer;        // null if this run doesn't look for tags
+        final Supplier<ArtifactColor> colorAnswer;     // null if this run doesn't look at color
+
+        final TimingStats timing = new TimingStats();
+        int tagFrames = 0;          // frames that have tags in them
+        int tagFramesAllFound = 0;  // ... and where we found all of them
+        int falseTags = 0;          // tags we reported that weren't really there
+        int colorCorrect = 0;
+
+        Run(String name, double scale, Supplier<Set<Integer>> tagAnswer, Supplier<ArtifactColor> colorAnswer,
+            VisionProcessor... processors) {
+            this.name = name;
+            this.scale = scale;
+            this.processors = processors;
+            this.tagAnswer = tagAnswer;
+            this.colorAnswer = colorAnswer;
+        }
+    }
+
+    /**
+     * The obelisk run: MotifDetector's detector, with the voting the robot does.
+     */
+    private static class MotifRun extends Run {
+        final PublishingProcessor<List<AprilTagDetection>> tags;
+        final MotifVote vote = new MotifVote(MotifDetector.MIN_VOTES, MotifDetector.MIN_SHARE);
+        int sureAfterFrames = 0;    // 0: the vote was never sure
+
+        MotifRun(PublishingProcessor<List<AprilTagDetection>> tags) {
+            super("Motif (obelisk vote)", 1.0, () -> tagIds(tags.getBus().latest()), null, tags);
+            this.tags = tags;
+        }
+    }
+
+    private LabeledFrameSet frames;
+    private Motif labeledMotif = Motif.UNKNOWN;
+    private String loadError;
+    private List<Run> runs;
+
+    // Where we are: one frame is replayed per loop, so STOP still works
+    private int runIndex = 0;
+    private int frameIndex = 0;
+    private long fakeCaptureTime = 0;
+    private final Mat scaled = new Mat();
+    private final Mat work = new Mat();
+    private boolean saved = false;
+
+    @Override
+    public void onInit() {
+        try {
+            frames = LabeledFrameSet.load(new File(AppUtil.FIRST_FOLDER, FRAME_FOLDER));
+            runs = buildRuns();
+            labeledMotif = labeledMotif(frames);
+            if (frames.size() == 0) {
+                loadError = "labels.csv lists no frames";
+            }
+        } catch (IOException | RuntimeException e) {
+            loadError = e.getMessage();
+        }
+    }
+
+    @Override
+    public void onWaitForStart() {
+        if (loadError != null) {
+            telemetry.addData("Could not load frames", loadError);
+        } else {
+            telemetry.addData("Frames", frames.size());
+            telemetry.addData("Runs", runs.size());
+            telemetry.addLine("Press START to replay");
+        }
+        telemetry.update();
+    }
+
+    @Override
+    public void onUpdate() {
+        if (loadError != null) {
+            telemetry.addData("Could not load frames", loadError);
+            telemetry.update();
+            return;
+        }
+
+        if (runIndex < runs.size()) {
+            telemetry.addData("Replaying", "%s (%d / %d)", runs.get(runIndex).name, runIndex + 1, runs.size());
+            replayNextFrame();
+        } else {
+            if (!saved) {
+                save();
+                saved = true;
+            }
+            telemetry.addLine("Done");
+            for (Run run : runs) {
+                telemetry.addLine(result(run));
+            }
+        }
+        telemetry.update();
+    }
+
+    /**
+     * The settings to compare. Add, remove or change runs here.
+     */
+    static List<Run> buildRuns() {
+        List<Run> runs = new ArrayList<>();
+
+        // --- AprilTag: fixed decimation at full and half resolution ---
+        for (float decimation : new float[]{1, 2, 3}) {
+            runs.add(aprilTagRun("AprilTag dec " + decimation, 1.0, decimation));
+        }
+        runs.add(aprilTagRun("AprilTag dec 2 @ half res", 0.5, 2));
+
+        // --- AprilTag: adaptive decimation + ROI tracking ---
+        AdaptiveAprilTagProcessor adaptive =
+                new AdaptiveAprilTagProcessor(buildAprilTag(1.0), AdaptiveAprilTagProcessor.ANY_TAG);
+        runs.add(new Run("AprilTag adaptive", 1.0, () -> tagIds(adaptive.getBus().latest()), null, adaptive));
+
+        // --- Obelisk: the motif detector and its voting ---
+        runs.add(new MotifRun(PublishingProcessor.forAprilTags(MotifDetector.buildAprilTag())));
+
+        // --- Intake color: our ROI color classifier ---
+        for (int decimation : new int[]{1, 2, 4}) {
+            // A huge time budget keeps the decimation fixed so we measure exactly this setting
+            ArtifactColorProcessor color = new ArtifactColorProcessor(0.35, 0.55, 0.65, 0.90, decimation, 1000.0);
+            runs.add(new Run("Color ROI dec " + decimation, 1.0, null,
+                    () -> artifactColor(color.getBus().latest()), color));
+        }
+
+        // --- Intake color: the SDK color blob locator with different blur/morph settings ---
+        runs.add(blobRun("Blobs blur 5 close 15", 5, 15));
+        runs.add(blobRun("Blobs blur 3 close 7", 3, 7));
+        runs.add(blobRun("Blobs no blur no morph", 0, 0));
+        return runs;
+    }
+
+    private static AprilTagProcessor buildAprilTag(double scale) {
+        return new AprilTagProcessor.Builder()
+                .setLensIntrinsics(FX * scale, FY * scale, CX * scale, CY * scale)
+                .build();
+    }
+
+    private static Run aprilTagRun(String name, double scale, float decimation) {
+        AprilTagProcessor aprilTag = buildAprilTag(scale);
+        aprilTag.setDecimation(decimation);
+        PublishingProcessor<List<AprilTagDetection>> tags = PublishingProcessor.forAprilTags(aprilTag);
+        return new Run(name, scale, () -> tagIds(tags.getBus().latest()), null, tags);
+    }
+
+    private static Run blobRun(String name, int blurSize, int morphSize) {
+        PublishingProcessor<List<ColorBlobLocatorProcessor.Blob>> purple =
+                PublishingProcessor.forColorBlobs(buildBlobLocator(ColorRange.ARTIFACT_PURPLE, blurSize, morphSize));
+        PublishingProcessor<List<ColorBlobLocatorProcessor.Blob>> green =
+                PublishingProcessor.forColorBlobs(buildBlobLocator(ColorRange.ARTIFACT_GREEN, blurSize, morphSize));
+        return new Run(name, 1.0, null,
+                () -> {
+                    int purpleArea = biggestBlob(purple.getBus().latest());
+                    int greenArea = biggestBlob(green.getBus().latest());
+                    if (Math.max(purpleArea, greenArea) < MIN_BLOB_AREA) {
+                        return ArtifactColor.NONE;
+                    }
+                    return purpleArea >= greenArea ? ArtifactColor.PURPLE : ArtifactColor.GREEN;
+                },
+                purple, green);
+    }
+
+    private static ColorBlobLocatorProcessor buildBlobLocator(ColorRange range, int blurSize, int morphSize) {
+        ColorBlobLocatorProcessor.Builder builder = new ColorBlobLocatorProcessor.Builder()
+                .setTargetColorRange(range)
+                .setContourMode(ColorBlobLocatorProcessor.ContourMode.EXTERNAL_ONLY)
+                .setRoi(ImageRegion.asUnityCenterCoordinates(-0.3, -0.1, 0.3, -0.8))
+                .setDrawContours(false)
+                .setBlurSize(blurSize);
+        if (morphSize > 0) {
+            builder.setDilateSize(morphSize)
+                    .setErodeSize(morphSize)
+                    .setMorphOperationType(ColorBlobLocatorProcessor.MorphOperationType.CLOSING);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Pushes the next frame through the current run, timing it and scoring the answer.
+     */
+    private void replayNextFrame() {
+        Run run = runs.get(runIndex);
+        LabeledFrameSet.LabeledFrame frame = frames.getFrames().get(frameIndex);
+
+        Mat source = frame.rgb;
+        if (run.scale != 1.0) {
+            Imgproc.resize(frame.rgb, scaled, new Size(), run.scale, run.scale, Imgproc.INTER_AREA);
+            source = scaled;
+        }
+        if (frameIndex == 0) {
+            for (VisionProcessor processor : run.processors) {
+                processor.init(source.cols(), source.rows(), null);
+            }
+        }
+
+        long frameNanos = 0;
+        for (VisionProcessor processor : run.processors) {
+            source.copyTo(work);        // processors may draw on the frame, so give each a fresh copy
+            long start = System.nanoTime();
+            processor.processFrame(work, fakeCaptureTime);
+            frameNanos += System.nanoTime() - start;
+        }
+        fakeCaptureTime += FRAME_NANOS;
+        run.timing.add(frameNanos);
+        score(run, frame);
+
+        frameIndex++;
+        if (frameIndex >= frames.size()) {
+            frameIndex = 0;
+            runIndex++;
+        }
+    }
+
+    private static void score(Run run, LabeledFrameSet.LabeledFrame frame) {
+        if (run.tagAnswer != null) {
+            Set<Integer> found = run.tagAnswer.get();
+            if (!frame.tagIds.isEmpty()) {
+                run.tagFrames++;
+                if (found.containsAll(frame.tagIds)) {
+                    run.tagFramesAllFound++;
+                }
+            }
+            for (int id : found) {
+                if (!frame.tagIds.contains(id)) {
+                    run.falseTags++;
+                }
+            }
+        }
+        if (run.colorAnswer != null && run.colorAnswer.get() == frame.color) {
+            run.colorCorrect++;
+        }
+        if (run instanceof MotifRun) {
+            MotifRun motif = (MotifRun) run;
+            if (!motif.vote.isConfident()) {   // the robot stops looking once it is sure
+                TimedResult<List<AprilTagDetection>> result = motif.tags.getBus().latest();
+                MotifDetector.countFrame(motif.vote,
+                        result == null ? Collections.<AprilTagDetection>emptyList() : result.value);
+                if (motif.vote.isConfident()) {
+                    motif.sureAfterFrames = motif.vote.getFrames();
+                }
+            }
+        }
+    }
+
+    // The motif of the obelisk tag that the labels show in the most frames
+    private static Motif labeledMotif(LabeledFrameSet frames) {
+        Map<Motif, Integer> counts = new HashMap<>();
+        Motif best = Motif.UNKNOWN;
+        for (LabeledFrameSet.LabeledFrame frame : frames.getFrames()) {
+            for (int id : frame.tagIds) {
+                Motif motif = Motif.fromTagId(id);
+                if (motif == Motif.UNKNOWN) {
+                    continue;
+                }
+                int count = counts.containsKey(motif) ? counts.get(motif) + 1 : 1;
+                counts.put(motif, count);
+                if (best == Motif.UNKNOWN || count > counts.get(best)) {
+                    best = motif;
+                }
+            }
+        }
+        return best;
+    }
+
+    private String result(Run run) {
+        StringBuilder line = new StringBuilder(String.format(Locale.US, "%-28s %s", run.name, run.timing.summary()));
+        if (run.tagAnswer != null) {
+            double rate = run.tagFrames == 0 ? 0.0 : 100.0 * run.tagFramesAllFound / run.tagFrames;
+            line.append(String.format(Locale.US, " | detect %5.1f%% | false tags %d", rate, run.falseTags));
+        }
+        if (run.colorAnswer != null) {
+            line.append(String.format(Locale.US, " | color acc %5.1f%%", 100.0 * run.colorCorrect / frames.size()));
+        }
+        if (run instanceof MotifRun) {
+            MotifRun motif = (MotifRun) run;
+            Motif decided = motif.vote.getLeader();
+            line.append(String.format(Locale.US, " | motif %s (%s) | labels %s: %s", decided,
+                    motif.sureAfterFrames > 0 ? "sure after " + motif.sureAfterFrames + " frames" : "not sure",
+                    labeledMotif, labeledMotif == Motif.UNKNOWN ? "no obelisk tag labeled"
+                            : decided == labeledMotif ? "right" : "WRONG"));
+        }
+        return line.toString();
+    }
+
+    private void save() {
+        File file = new File(AppUtil.FIRST_FOLDER, "vision-replay-" + System.currentTimeMillis() + ".txt");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("# Vision Frame Replay, " + frames.size() + " frames from " + FRAME_FOLDER + "\n");
+            for (Run run : runs) {
+                writer.write(result(run) + "\n");
+            }
+        } catch (IOException e) {
+            telemetry.addData("Could not save results", e.getMessage());
+        }
+    }
+
+    private static Set<Integer> tagIds(TimedResult<List<AprilTagDetection>> result) {
+        Set<Integer> ids = new HashSet<>();
+        if (result != null) {
+            for (AprilTagDetection detection : result.value) {
+                ids.add(detection.id);
+            }
+        }
+        return ids;
+    }
+
+    private static ArtifactColor artifactColor(TimedResult<ArtifactColorResult> result) {
+        return result == null ? ArtifactColor.NONE : result.value.color;
+    }
+
+    private static int biggestBlob(TimedResult<List<ColorBlobLocatorProcessor.Blob>> result) {
+        int biggest = 0;
+        if (result != null) {
+            for (ColorBlobLocatorProcessor.Blob blob : result.value) {
+                biggest = Math.max(biggest, blob.getContourArea());
+            }
+        }
+        return biggest;
+    }
+
+    @Override
+    public void onStop() {
+        if (frames != null) {
+            for (LabeledFrameSet.LabeledFrame frame : frames.getFrames()) {
+                frame.rgb.release();
+            }
+        }
+        scaled.release();
+        work.release();
+    }
+}
@@ -0,0 +1,259 @@
+package org.firstinspires.ftc.teamcode.benchmark;
+
+import org.firstinspires.ftc.teamcode.vision.AprilTagTracker;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColorClassifier;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Replays captured camera frames through our vision code **on a laptop** and prints
+ * how fast (and, where the labels allow it, how accurate) each setting is.
+ *
+ * The SDK's AprilTagProcessor and ColorBlobLocatorProcessor can NOT run on a laptop
+ * (they need android.graphics, and the AprilTag library is only built for the Control
+ * Hub). They are replayed on the same captured frames, and scored against the tag IDs
+ * and colors in the labels, by the {@link VisionFrameReplay} OpMode on the robot.
+ *
+ * Only the parts that run without Android are tested here:
+ *  - {@link ArtifactColorClassifier}: the intake color math, at fixed and adaptive
+ *    decimation, scored against the labeled colors
+ *  - {@link AprilTagTracker}: the ROI tracking around the AprilTag detector. The
+ *    detector itself needs the Android AprilTag library, so a pretend tag moves
+ *    across the real frames and counts as "found" while it is inside the ROI. We print
+ *    how long making the masked copy takes and how much of the frame the detector would
+ *    still have to search.
+ * The processors around them (ArtifactColorProcessor, AdaptiveAprilTagProcessor) draw
+ * with android.graphics, so they are timed in VisionFrameReplay too.
+ *
+ * How to run it (desktop JVM, not the robot):
+ *  1. Capture frames with UtilityCameraFrameCapture and label them (see {@link LabeledFrameSet}).
+ *  2. Put the desktop OpenCV jar and its native library on the classpath.
+ *  3. {@code java ... org.firstinspires.ftc.teamcode.benchmark.VisionReplayBenchmark <frame folder>}
+ *
+ * Edit {@link #buildRuns()} to try new settings.
+ */
+public class VisionReplayBenchmark {
+
+    // The intake mouth in the picture (same as IntakeVision)
+    private static final double ROI_LEFT = 0.35;
+    private static final double ROI_TOP = 0.55;
+    private static final double ROI_RIGHT = 0.65;
+    private static final double ROI_BOTTOM = 0.90;
+
+    // Pretend frames are 30 fps apart
+    private static final double FRAME_SECONDS = 1.0 / 30.0;
+
+    /**
+     * One setting to test: what to do with each frame, and how to score it.
+     */
+    private abstract static class Run {
+        final String name;
+        final double scale;
+        final TimingStats timing = new TimingStats();
+
+        Run(String name, double scale) {
+            this.name = name;
+            this.scale = scale;
+        }
+
+        /** Called before the first frame, with the (scaled) picture size. */
+        abstract void init(int width, int height);
+
+        /** The work we time. Must not change the frame (it is the loaded picture). */
+        abstract void process(Mat frame, int index);
+
+        /** Checks the answer for this frame (not timed). */
+        abstract void score(LabeledFrameSet.LabeledFrame frame);
+
+        /** The results after the timing, for the printout. */
+        abstract String results(int frameCount);
+    }
+
+    /** The intake color classifier. */
+    private static class ColorRun extends Run {
+        private final ArtifactColorClassifier classifier;
+        private ArtifactColor answer = ArtifactColor.NONE;
+        private int correct = 0;
+
+        ColorRun(String name, double scale, int decimation, double targetProcessingMs) {
+            super(name, scale);
+            classifier = new ArtifactColorClassifier(ROI_LEFT, ROI_TOP, ROI_RIGHT, ROI_BOTTOM,
+                    decimation, targetProcessingMs);
+        }
+
+        @Override
+        void init(int width, int height) {
+            classifier.setFrameSize(width, height);
+        }
+
+        @Override
+        void process(Mat frame, int index) {
+            answer = classifier.process(frame).color;
+        }
+
+        @Override
+        void score(LabeledFrameSet.LabeledFrame frame) {
+            if (answer == frame.color) {
+                correct++;
+            }
+        }
+
+        @Override
+        String results(int frameCount) {
+            return String.format(Locale.US, " | color acc %5.1f%% | dec now %d",
+                    100.0 * correct / frameCount, classifier.getDecimation());
+        }
+    }
+
+    /**
+     * The AprilTag ROI tracking, following a pretend tag that moves around the frame
+     * (a figure eight that also comes closer and goes away again).
+     */
+    private static class TrackerRun extends Run {
+        // A 6.5 inch tag looks about this many pixels wide at 1 inch (640x480, C920 lens)
+        private static final double SIZE_TIMES_RANGE = 4000.0;
+
+        private final double speed;
+        private final double missRate;
+        private final Random random = new Random(7);
+        private final AprilTagTracker tracker = new AprilTagTracker(AprilTagTracker.ANY_TAG);
+        private int width;
+        private int height;
+
+        private int found = 0;
+        private double workTotal = 0.0;
+
+        /**
+         * @param speed    how many times around the figure eight per second
+         * @param missRate part of the frames where the detector misses a tag that is in the ROI
+         */
+        TrackerRun(String name, double speed, double missRate) {
+            super(name, 1.0);
+            this.speed = speed;
+            this.missRate = missRate;
+        }
+
+        @Override
+        void init(int width, int height) {
+            this.width = width;
+            this.height = height;
+            tracker.setFrameSize(width, height);
+        }
+
+        @Override
+        void process(Mat frame, int index) {
+            tracker.prepare(frame);
+            float decimation = tracker.getDecimation();
+
+            // Detector work compared with searching the whole frame at decimation 2 (the SDK default)
+            double area = (double) tracker.getRoiWidth() * tracker.getRoiHeight() / ((double) width * height);
+            workTotal += area * (2.0 / decimation) * (2.0 / decimation);
+
+            // Where the pretend tag is in this frame
+            double phase = 2 * Math.PI * speed * index * FRAME_SECONDS;
+            double rangeIn = 50.0 + 30.0 * Math.sin(phase / 3.0);
+            double size = SIZE_TIMES_RANGE / rangeIn;
+            double centerX = width / 2.0 + width * 0.35 * Math.sin(phase);
+            double centerY = height / 2.0 + height * 0.25 * Math.sin(2 * phase);
+
+            boolean inRoi = centerX - size / 2 >= tracker.getRoiX()
+                    && centerX + size / 2 <= tracker.getRoiX() + tracker.getRoiWidth()
+                    && centerY - size / 2 >= tracker.getRoiY()
+                    && centerY + size / 2 <= tracker.getRoiY() + tracker.getRoiHeight();
+            if (inRoi && random.nextDouble() >= missRate) {
+                tracker.onTarget(centerX, centerY, size, rangeIn);
+                found++;
+            } else {
+                tracker.onMiss();
+            }
+        }
+
+        @Override
+        void score(LabeledFrameSet.LabeledFrame frame) {
+        }
+
+        @Override
+        String results(int frameCount) {
+            return String.format(Locale.US, " | tag found %5.1f%% | detector work %5.1f%%",
+                    100.0 * found / frameCount, 100.0 * workTotal / frameCount);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("usage: VisionReplayBenchmark <folder with frames and labels.csv>");
+            return;
+        }
+        LabeledFrameSet frames = LabeledFrameSet.load(new File(args[0]));
+        System.out.println("Loaded " + frames.size() + " frames");
+
+        List<Run> runs = buildRuns();
+        for (Run run : runs) {
+            replay(run, frames);
+        }
+
+        System.out.println();
+        for (Run run : runs) {
+            System.out.println(String.format(Locale.US, "%-28s %s%s",
+                    run.name, run.timing.summary(), run.results(frames.size())));
+        }
+    }
+
+    /**
+     * The settings to compare. Add, remove or change runs here.
+     */
+    static List<Run> buildRuns() {
+        List<Run> runs = new ArrayList<>();
+
+        // --- Intake color: fixed decimation (a huge time budget keeps it fixed) ---
+        for (int decimation : new int[]{1, 2, 4}) {
+            runs.add(new ColorRun("Color ROI dec " + decimation, 1.0, decimation, 1000.0));
+        }
+        runs.add(new ColorRun("Color ROI dec 2 @ half res", 0.5, 2, 1000.0));
+
+        // --- Intake color: adaptive decimation with the robot's 8 ms budget ---
+        runs.add(new ColorRun("Color ROI adaptive 8 ms", 1.0, 2, 8.0));
+
+        // --- AprilTag ROI tracking (pretend tag on the real frames) ---
+        runs.add(new TrackerRun("Tag ROI, slow tag", 0.1, 0.05));
+        runs.add(new TrackerRun("Tag ROI, fast tag", 0.5, 0.05));
+        runs.add(new TrackerRun("Tag ROI, fast tag 20% miss", 0.5, 0.2));
+        return runs;
+    }
+
+    /**
+     * Pushes every frame through one run, timing each frame and scoring the answers.
+     */
+    private static void replay(Run run, LabeledFrameSet frames) {
+        Mat scaled = new Mat();
+        boolean initialized = false;
+        int index = 0;
+
+        for (LabeledFrameSet.LabeledFrame frame : frames.getFrames()) {
+            Mat source = frame.rgb;
+            if (run.scale != 1.0) {
+                Imgproc.resize(frame.rgb, scaled, new Size(), run.scale, run.scale, Imgproc.INTER_AREA);
+                source = scaled;
+            }
+            if (!initialized) {
+                run.init(source.cols(), source.rows());
+                initialized = true;
+            }
+
+            long start = System.nanoTime();
+            run.process(source, index++);
+            run.timing.add(System.nanoTime() - start);
+
+            run.score(frame);
+        }
+        scaled.release();
+    }
+}
@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode.drive;
+
+/**
+ * The drive motors and gyro as {@link GyroDrive} sees them.
+ *
+ * On the robot this is {@link HubDriveIO}. In a simulation it is
+ * {@link SimulatedDriveIO}, so the same commands can be tried on a laptop.
+ */
+public interface DriveIO {
+
+    /** Reads the sensors once. Call this once per loop, before using the getters. */
+    void update();
+
+    /** Sets the four wheel powers (-1 to 1). */
+    void setPowers(double leftFront, double rightFront, double leftRear, double rightRear);
+
+    /** How far the robot has driven forward, in inches, since it started (backward counts down). */
+    double getForwardInches();
+
+    /** How fast the robot is driving forward, in inches per second. */
+    double getForwardVelocity();
+
+    /** Heading in degrees, counter-clockwise is positive (-180 to 180). */
+    double getHeadingDegrees();
+
+    /** How fast the robot is turning, in degrees per second (counter-clockwise is positive). */
+    double getTurnRateDegrees();
+}
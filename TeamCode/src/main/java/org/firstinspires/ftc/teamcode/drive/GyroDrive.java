@@ -0,0 +1,320 @@
+package org.firstinspires.ftc.teamcode.drive;
+
+import dev.nextftc.core.commands.Command;
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Simple "drive by gyro" moves for autonomous, as NextFTC commands.
+ *
+ * These are the same three moves as the RobotAutoDriveByGyro_Linear sample
+ * ({@link #driveStraight}, {@link #turnToHeading}, {@link #holdHeading}), but:
+ *  - they don't block, so the shooter and intake can run at the same time
+ *    (put them in a ParallelGroup)
+ *  - each move follows a {@link TrapezoidProfile}, so the robot speeds up and slows
+ *    down smoothly instead of jumping to full power
+ *  - they use feedforward (power we know we'll need for a speed) plus a small
+ *    correction, and only finish once the robot has actually settled
+ *
+ * Use this when Pedro is more than we need, or as a backup if Pedro isn't tuned.
+ * Headings are in degrees, counter-clockwise is positive, like the sample.
+ */
+public class GyroDrive implements Subsystem {
+
+    // --- Driving straight ---
+    private static final double MAX_DRIVE_VELOCITY = 40.0;       // inches per second
+    private static final double MAX_DRIVE_ACCELERATION = 60.0;   // inches per second per second
+    private static final double DRIVE_KV = 1.0 / 61.3;           // power per inch/second (Pedro measured 61.3 in/s at full power)
+    private static final double DRIVE_KA = 0.002;                // power per inch/second²
+    private static final double DRIVE_KS = 0.05;                 // power needed just to get moving
+    private static final double DRIVE_KP = 0.05;                 // power per inch behind/ahead of the plan
+    private static final double P_DRIVE_GAIN = 0.03;             // steering power per degree off course (same as the sample)
+    private static final double POSITION_TOLERANCE = 0.5;        // inches
+    private static final double SETTLED_VELOCITY = 2.0;          // inches per second
+
+    // --- Turning ---
+    private static final double MAX_TURN_VELOCITY = 180.0;       // degrees per second
+    private static final double MAX_TURN_ACCELERATION = 360.0;   // degrees per second per second
+    private static final double TURN_KV = 1.0 / 300.0;           // power per degree/second
+    private static final double TURN_KA = 0.0003;                // power per degree/second²
+    private static final double TURN_KS = 0.05;
+    private static final double P_TURN_GAIN = 0.02;              // turning power per degree off (same as the sample)
+    private static final double HEADING_THRESHOLD = 1.0;         // degrees (same as the sample)
+    private static final double SETTLED_TURN_RATE = 5.0;         // degrees per second
+    private static final double MAX_HOLD_POWER = 0.3;            // never fight harder than this while holding
+
+    // The robot must stay inside the tolerance this long before a move counts as done
+    private static final double SETTLE_TIME = 0.15;              // seconds
+
+    // Give up this long after the plan says we should have arrived
+    private static final double EXTRA_TIMEOUT = 1.5;             // seconds
+
+    private final DriveIO io;
+    private final LongSupplier clock;
+
+    // Used to show messages on the Driver Station phone (may be null in a simulation)
+    private final Telemetry telemetry;
+
+    // What the current move is doing, for telemetry
+    private String moveName = "Idle";
+    private double moveError = 0.0;
+
+    public GyroDrive(Telemetry telemetry, DriveIO io) {
+        this(telemetry, io, System::nanoTime);
+    }
+
+    /**
+     * Lets a simulation feed in its own time.
+     */
+    public GyroDrive(Telemetry telemetry, DriveIO io, LongSupplier clock) {
+        this.telemetry = telemetry;
+        this.io = io;
+        this.clock = clock;
+    }
+
+    /**
+     * Drives straight forward (or backward, for a negative distance) while keeping
+     * the given heading.
+     *
+     * @param distanceInches how far to drive
+     * @param headingDegrees the heading to keep while driving
+     */
+    public Command driveStraight(double distanceInches, double headingDegrees) {
+        return new DriveStraight(distanceInches, headingDegrees).requires(this);
+    }
+
+    /**
+     * Turns in place to face the given heading (the short way around).
+     */
+    public Command turnToHeading(double headingDegrees) {
+        return new TurnToHeading(headingDegrees).requires(this);
+    }
+
+    /**
+     * Stays pointed at the given heading for a while (for example while shooting).
+     */
+    public Command holdHeading(double headingDegrees, double seconds) {
+        return new HoldHeading(headingDegrees, seconds).requires(this);
+    }
+
+    /** Wraps an angle into -180..180 degrees. */
+    public static double wrapDegrees(double degrees) {
+        while (degrees > 180) {
+            degrees -= 360;
+        }
+        while (degrees <= -180) {
+            degrees += 360;
+        }
+        return degrees;
+    }
+
+    /**
+     * Sends forward and turning power to the mecanum wheels. If any wheel would
+     * need more than full power, everything is scaled down together so the robot
+     * still goes the right way.
+     */
+    private void setDrivePower(double forward, double turn) {
+        double left = forward - turn;
+        double right = forward + turn;
+        double biggest = Math.max(1.0, Math.max(Math.abs(left), Math.abs(right)));
+        io.setPowers(left / biggest, right / biggest, left / biggest, right / biggest);
+    }
+
+    private double seconds() {
+        return clock.getAsLong() / 1e9;
+    }
+
+    /**
+     * Keeps track of "has the robot been inside the tolerance long enough?".
+     */
+    private static class SettleTimer {
+        private double insideSince = -1;
+
+        boolean update(boolean inside, double now) {
+            if (!inside) {
+                insideSince = -1;
+                return false;
+            }
+            if (insideSince < 0) {
+                insideSince = now;
+            }
+            return now - insideSince >= SETTLE_TIME;
+        }
+    }
+
+    /** Drives straight along a speed-up / cruise / slow-down plan. */
+    private class DriveStraight extends Command {
+        private final double distance;
+        private final double heading;
+        private final SettleTimer settle = new SettleTimer();
+        private TrapezoidProfile profile;
+        private double startTime;
+        private double startInches;
+        private boolean done;
+
+        DriveStraight(double distance, double heading) {
+            this.distance = distance;
+            this.heading = heading;
+        }
+
+        @Override
+        public void start() {
+            io.update();
+            profile = new TrapezoidProfile(distance, MAX_DRIVE_VELOCITY, MAX_DRIVE_ACCELERATION);
+            startTime = seconds();
+            startInches = io.getForwardInches();
+            done = false;
+            moveName = String.format("Drive %.1f in @ %.0f°", distance, heading);
+        }
+
+        @Override
+        public void update() {
+            io.update();
+            double t = seconds() - startTime;
+            double plannedPosition = profile.position(t);
+            double plannedVelocity = profile.velocity(t);
+            double plannedAcceleration = profile.acceleration(t);
+
+            double traveled = io.getForwardInches() - startInches;
+            double positionError = plannedPosition - traveled;
+
+            // Feedforward does most of the work; the P term cleans up what's left
+            double forward = DRIVE_KV * plannedVelocity + DRIVE_KA * plannedAcceleration + DRIVE_KP * positionError;
+            if (Math.abs(forward) > 1e-3) {
+                forward += Math.signum(forward) * DRIVE_KS;
+            }
+
+            double headingError = wrapDegrees(heading - io.getHeadingDegrees());
+            double steer = P_DRIVE_GAIN * headingError;
+
+            setDrivePower(forward, steer);
+            moveError = distance - traveled;
+
+            boolean inside = profile.isFinished(t)
+                    && Math.abs(distance - traveled) < POSITION_TOLERANCE
+                    && Math.abs(io.getForwardVelocity()) < SETTLED_VELOCITY;
+            done = settle.update(inside, seconds()) || t > profile.getTotalTime() + EXTRA_TIMEOUT;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public void stop(boolean interrupted) {
+            io.setPowers(0, 0, 0, 0);
+            moveName = "Idle";
+        }
+    }
+
+    /** Turns in place along a speed-up / cruise / slow-down plan. */
+    private class TurnToHeading extends Command {
+        private final double target;
+        private final SettleTimer settle = new SettleTimer();
+        private TrapezoidProfile profile;
+        private double startTime;
+        private double startHeading;
+        private boolean done;
+
+        TurnToHeading(double target) {
+            this.target = target;
+        }
+
+        @Override
+        public void start() {
+            io.update();
+            startHeading = io.getHeadingDegrees();
+            profile = new TrapezoidProfile(wrapDegrees(target - startHeading), MAX_TURN_VELOCITY, MAX_TURN_ACCELERATION);
+            startTime = seconds();
+            done = false;
+            moveName = String.format("Turn to %.0f°", target);
+        }
+
+        @Override
+        public void update() {
+            io.update();
+            double t = seconds() - startTime;
+            double plannedHeading = startHeading + profile.position(t);
+            double error = wrapDegrees(plannedHeading - io.getHeadingDegrees());
+
+            double turn = TURN_KV * profile.velocity(t) + TURN_KA * profile.acceleration(t) + P_TURN_GAIN * error;
+            if (Math.abs(turn) > 1e-3) {
+                turn += Math.signum(turn) * TURN_KS;
+            }
+            setDrivePower(0.0, turn);
+
+            double finalError = wrapDegrees(target - io.getHeadingDegrees());
+            moveError = finalError;
+            boolean inside = profile.isFinished(t)
+                    && Math.abs(finalError) < HEADING_THRESHOLD
+                    && Math.abs(io.getTurnRateDegrees()) < SETTLED_TURN_RATE;
+            done = settle.update(inside, seconds()) || t > profile.getTotalTime() + EXTRA_TIMEOUT;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public void stop(boolean interrupted) {
+            io.setPowers(0, 0, 0, 0);
+            moveName = "Idle";
+        }
+    }
+
+    /** Keeps pointing at a heading for a set time. */
+    private class HoldHeading extends Command {
+        private final double target;
+        private final double holdSeconds;
+        private double startTime;
+
+        HoldHeading(double target, double holdSeconds) {
+            this.target = target;
+            this.holdSeconds = holdSeconds;
+        }
+
+        @Override
+        public void start() {
+            startTime = seconds();
+            moveName = String.format("Hold %.0f°", target);
+        }
+
+        @Override
+        public void update() {
+            io.update();
+            double error = wrapDegrees(target - io.getHeadingDegrees());
+            double turn = Math.max(-MAX_HOLD_POWER, Math.min(MAX_HOLD_POWER, P_TURN_GAIN * error));
+            setDrivePower(0.0, turn);
+            moveError = error;
+        }
+
+        @Override
+        public boolean isDone() {
+            return seconds() - startTime >= holdSeconds;
+        }
+
+        @Override
+        public void stop(boolean interrupted) {
+            io.setPowers(0, 0, 0, 0);
+            moveName = "Idle";
+        }
+    }
+
+    /**
+     * Shows what the drive is doing on the Driver Station.
+     */
+    @Override
+    public void periodic() {
+        if (telemetry == null) {
+            return;
+        }
+        telemetry.addData("<===== Gyro Drive =====>", "");
+        telemetry.addData("Move", moveName);
+        telemetry.addData("Error", "%.2f", moveError);
+        telemetry.addData("Heading", "%.1f°", io.getHeadingDegrees());
+    }
+}
@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.drive;
+
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_FRONT_MOTOR_DIRECTION;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_FRONT_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_REAR_MOTOR_DIRECTION;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_REAR_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_FRONT_MOTOR_DIRECTION;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_FRONT_MOTOR_NAME;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_REAR_MOTOR_DIRECTION;
+import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_REAR_MOTOR_NAME;
+
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.localization.Localizer;
+import com.pedropathing.math.Vector;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+/**
+ * The real drive motors for {@link GyroDrive}, with the heading and distance taken
+ * from a Pedro {@link Follower}.
+ *
+ * The follower's localizer already reads the odometry pods and the IMU, so this
+ * class reads no sensors of its own (call {@code follower.updatePose()} once per loop):
+ *  - heading and turn rate: from the localizer
+ *  - distance: how far the pose moved along the way the robot faces, added up every update
+ * That works with every localizer we have (two-wheel, OctoQuad or Pinpoint), and the
+ * IMU is only set up once, by Pedro.
+ *
+ * Uses the motor names and directions from {@code ChassisConstants}.
+ */
+public class HubDriveIO implements DriveIO {
+
+    private final DcMotorEx leftFront;
+    private final DcMotorEx rightFront;
+    private final DcMotorEx leftRear;
+    private final DcMotorEx rightRear;
+
+    private final Follower follower;
+    private final Localizer localizer;
+
+    // Sensor values from the last update()
+    private double forwardInches;
+    private double forwardVelocity;
+    private double headingDegrees;
+    private double turnRateDegrees;
+
+    // The pose at the last update(), to see how far we moved since
+    private Pose lastPose;
+
+    /**
+     * @param follower keeps track of the pose; the OpMode calls its updatePose() every loop
+     */
+    public HubDriveIO(HardwareMap hardwareMap, Follower follower) {
+        leftFront = setUpMotor(hardwareMap, LEFT_FRONT_MOTOR_NAME, LEFT_FRONT_MOTOR_DIRECTION);
+        rightFront = setUpMotor(hardwareMap, RIGHT_FRONT_MOTOR_NAME, RIGHT_FRONT_MOTOR_DIRECTION);
+        leftRear = setUpMotor(hardwareMap, LEFT_REAR_MOTOR_NAME, LEFT_REAR_MOTOR_DIRECTION);
+        rightRear = setUpMotor(hardwareMap, RIGHT_REAR_MOTOR_NAME, RIGHT_REAR_MOTOR_DIRECTION);
+
+        this.follower = follower;
+        this.localizer = follower.getPoseTracker().getLocalizer();
+    }
+
+    private static DcMotorEx setUpMotor(HardwareMap hardwareMap, String name, DcMotorSimple.Direction direction) {
+        DcMotorEx motor = hardwareMap.get(DcMotorEx.class, name);
+        motor.setDirection(direction);
+        motor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);   // we do the control ourselves
+        return motor;
+    }
+
+    @Override
+    public void update() {
+        // Nothing here talks to the hardware: the follower already has the newest numbers
+        Pose pose = follower.getPose();
+        double heading = pose.getHeading();
+
+        if (lastPose != null) {
+            // Count only the part of the move along the way we face (halfway through the turn)
+            double middleHeading = lastPose.getHeading()
+                    + Math.toRadians(GyroDrive.wrapDegrees(Math.toDegrees(heading - lastPose.getHeading()))) / 2.0;
+            forwardInches += (pose.getX() - lastPose.getX()) * Math.cos(middleHeading)
+                    + (pose.getY() - lastPose.getY()) * Math.sin(middleHeading);
+        }
+        lastPose = pose;
+
+        Vector velocity = follower.getVelocity();
+        forwardVelocity = velocity.getXComponent() * Math.cos(heading) + velocity.getYComponent() * Math.sin(heading);
+
+        headingDegrees = GyroDrive.wrapDegrees(Math.toDegrees(heading));
+        turnRateDegrees = Math.toDegrees(localizer.getVelocity().getHeading());
+    }
+
+    @Override
+    public void setPowers(double leftFront, double rightFront, double leftRear, double rightRear) {
+        this.leftFront.setPower(leftFront);
+        this.rightFront.setPower(rightFront);
+        this.leftRear.setPower(leftRear);
+        this.rightRear.setPower(rightRear);
+    }
+
+    @Override
+    public double getForwardInches() {
+        return forwardInches;
+    }
+
+    @Override
+    public double getForwardVelocity() {
+        return forwardVelocity;
+    }
+
+    @Override
+    public double getHeadingDegrees() {
+        return headingDegrees;
+    }
+
+    @Override
+    public double getTurnRateDegrees() {
+        return turnRateDegrees;
+    }
+}
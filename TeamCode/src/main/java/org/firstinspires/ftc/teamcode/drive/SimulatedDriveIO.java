@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.drive;
+
+/**
+ * A pretend drivetrain for trying {@link GyroDrive} **on a laptop**.
+ *
+ * The motors don't reach their speed instantly: the speed moves toward
+ * "power × top speed" with a time constant, like a real motor with a robot on it.
+ * Very small powers don't move the robot at all (friction).
+ * <pre>
+ *     SimulatedDriveIO sim = new SimulatedDriveIO();
+ *     sim.setPowers(0.5, 0.5, 0.5, 0.5);
+ *     sim.step(0.02);
+ * </pre>
+ */
+public class SimulatedDriveIO implements DriveIO {
+
+    private final double topSpeed;          // inches per second at full power
+    private final double topTurnRate;       // degrees per second at full turning power
+    private final double timeConstant;      // seconds to get ~63% of the way to a new speed
+    private final double frictionPower;     // powers smaller than this don't move the robot
+
+    // Where the pretend robot is and how fast it's moving
+    private double forwardInches = 0.0;
+    private double forwardVelocity = 0.0;
+    private double headingDegrees = 0.0;
+    private double turnRate = 0.0;
+
+    private double leftFront, rightFront, leftRear, rightRear;
+
+    /** A drivetrain that roughly matches ours (61 in/s top speed, like Pedro measured). */
+    public SimulatedDriveIO() {
+        this(61.3, 300.0, 0.12, 0.04);
+    }
+
+    public SimulatedDriveIO(double topSpeed, double topTurnRate, double timeConstant, double frictionPower) {
+        this.topSpeed = topSpeed;
+        this.topTurnRate = topTurnRate;
+        this.timeConstant = timeConstant;
+        this.frictionPower = frictionPower;
+    }
+
+    /** Moves the pretend robot forward in time. */
+    public void step(double seconds) {
+        double forwardPower = (leftFront + rightFront + leftRear + rightRear) / 4.0;
+        double turnPower = ((rightFront + rightRear) - (leftFront + leftRear)) / 4.0;
+
+        double wantedVelocity = Math.abs(forwardPower) < frictionPower ? 0.0 : forwardPower * topSpeed;
+        double wantedTurnRate = Math.abs(turnPower) < frictionPower ? 0.0 : turnPower * topTurnRate;
+
+        double blend = 1.0 - Math.exp(-seconds / timeConstant);
+        forwardVelocity += (wantedVelocity - forwardVelocity) * blend;
+        turnRate += (wantedTurnRate - turnRate) * blend;
+
+        forwardInches += forwardVelocity * seconds;
+        headingDegrees = GyroDrive.wrapDegrees(headingDegrees + turnRate * seconds);
+    }
+
+    @Override
+    public void update() {
+        // Nothing to read: the getters already return the pretend robot's state
+    }
+
+    @Override
+    public void setPowers(double leftFront, double rightFront, double leftRear, double rightRear) {
+        this.leftFront = leftFront;
+        this.rightFront = rightFront;
+        this.leftRear = leftRear;
+        this.rightRear = rightRear;
+    }
+
+    @Override
+    public double getForwardInches() {
+        return forwardInches;
+    }
+
+    @Override
+    public double getForwardVelocity() {
+        return forwardVelocity;
+    }
+
+    @Override
+    public double getHeadingDegrees() {
+        return headingDegrees;
+    }
+
+    @Override
+    public double getTurnRateDegrees() {
+        return turnRate;
+    }
+}
@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.drive;
+
+/**
+ * A "trapezoid" motion plan for moving a set distance smoothly:
+ * speed up at a steady rate, cruise at top speed, then slow down at the same rate.
+ *
+ * <pre>
+ *   speed
+ *     |    ___________
+ *     |   /           \
+ *     |  /             \
+ *     |_/_______________\___ time
+ * </pre>
+ *
+ * If the move is too short to reach top speed, it becomes a triangle instead.
+ * Works for negative distances too (moving backward / turning the other way).
+ *
+ * Ask it where we should be, how fast we should go and how hard we should
+ * be speeding up at any time since the start of the move.
+ */
+public class TrapezoidProfile {
+
+    private final double direction;       // +1 or -1
+    private final double acceleration;    // always positive
+    private final double peakVelocity;    // always positive
+    private final double accelTime;       // time spent speeding up (and also slowing down)
+    private final double cruiseTime;      // time spent at peak speed
+    private final double accelDistance;   // distance covered while speeding up
+    private final double totalTime;
+    private final double distance;
+
+    /**
+     * @param distance        how far to move (can be negative)
+     * @param maxVelocity     top speed (units per second)
+     * @param maxAcceleration how quickly to speed up and slow down (units per second per second)
+     */
+    public TrapezoidProfile(double distance, double maxVelocity, double maxAcceleration) {
+        this.distance = distance;
+        this.direction = Math.signum(distance);
+        this.acceleration = Math.abs(maxAcceleration);
+        double length = Math.abs(distance);
+
+        double timeToTopSpeed = Math.abs(maxVelocity) / acceleration;
+        double distanceToTopSpeed = 0.5 * acceleration * timeToTopSpeed * timeToTopSpeed;
+
+        if (2 * distanceToTopSpeed > length) {
+            // Too short to reach top speed: speed up for half the way, slow down for the other half
+            accelTime = Math.sqrt(length / acceleration);
+            peakVelocity = acceleration * accelTime;
+            cruiseTime = 0.0;
+        } else {
+            accelTime = timeToTopSpeed;
+            peakVelocity = Math.abs(maxVelocity);
+            cruiseTime = (length - 2 * distanceToTopSpeed) / peakVelocity;
+        }
+        accelDistance = 0.5 * acceleration * accelTime * accelTime;
+        totalTime = 2 * accelTime + cruiseTime;
+    }
+
+    /** Where we should be at time t (seconds since the move started). */
+    public double position(double t) {
+        if (t <= 0) {
+            return 0.0;
+        }
+        if (t >= totalTime) {
+            return distance;
+        }
+        double traveled;
+        if (t < accelTime) {
+            traveled = 0.5 * acceleration * t * t;
+        } else if (t < accelTime + cruiseTime) {
+            traveled = accelDistance + peakVelocity * (t - accelTime);
+        } else {
+            double left = totalTime - t;
+            traveled = Math.abs(distance) - 0.5 * acceleration * left * left;
+        }
+        return direction * traveled;
+    }
+
+    /** How fast we should be going at time t. */
+    public double velocity(double t) {
+        if (t <= 0 || t >= totalTime) {
+            return 0.0;
+        }
+        if (t < accelTime) {
+            return direction * acceleration * t;
+        }
+        if (t < accelTime + cruiseTime) {
+            return direction * peakVelocity;
+        }
+        return direction * acceleration * (totalTime - t);
+    }
+
+    /** How hard we should be speeding up (or slowing down) at time t. */
+    public double acceleration(double t) {
+        if (t <= 0 || t >= totalTime) {
+            return 0.0;
+        }
+        if (t < accelTime) {
+            return direction * acceleration;
+        }
+        if (t < accelTime + cruiseTime) {
+            return 0.0;
+        }
+        return -direction * acceleration;
+    }
+
+    /** How long the whole move takes, in seconds. */
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public boolean isFinished(double t) {
+        return t >= totalTime;
+    }
+}
@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+
+/**
+ * A continuous rotation servo that only sends a new power when it actually changed
+ * (see {@link WriteFilter}).
+ */
+public class CachedCRServo {
+
+    private final CRServo servo;
+    private final WriteFilter filter;
+
+    public CachedCRServo(CRServo servo) {
+        this(servo, new WriteFilter());
+    }
+
+    public CachedCRServo(CRServo servo, WriteFilter filter) {
+        this.servo = servo;
+        this.filter = filter;
+    }
+
+    public void setPower(double power) {
+        if (filter.shouldWrite(power, System.nanoTime())) {
+            servo.setPower(power);
+        }
+    }
+
+    /** The power we last sent (no hardware call). */
+    public double getPower() {
+        double last = filter.getLastValue();
+        return Double.isNaN(last) ? 0.0 : last;
+    }
+
+    public CRServo getServo() {
+        return servo;
+    }
+
+    public WriteFilter getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * A DcMotorEx that only sends a new power when it actually changed (see {@link WriteFilter}).
+ *
+ * Use {@link #setPower} in the loop as usual. Readings (position, velocity) go
+ * straight to the motor. For anything else (direction, run mode, ...) use
+ * {@link #getMotor()}; call {@link #invalidate()} after changing the run mode.
+ */
+public class CachedDcMotorEx {
+
+    private final DcMotorEx motor;
+    private final WriteFilter filter;
+
+    public CachedDcMotorEx(DcMotorEx motor) {
+        this(motor, new WriteFilter());
+    }
+
+    public CachedDcMotorEx(DcMotorEx motor, WriteFilter filter) {
+        this.motor = motor;
+        this.filter = filter;
+    }
+
+    public void setPower(double power) {
+        if (filter.shouldWrite(power, System.nanoTime())) {
+            motor.setPower(power);
+        }
+    }
+
+    /** The power we last sent (no hardware call). */
+    public double getPower() {
+        double last = filter.getLastValue();
+        return Double.isNaN(last) ? 0.0 : last;
+    }
+
+    public double getVelocity() {
+        return motor.getVelocity();
+    }
+
+    public int getCurrentPosition() {
+        return motor.getCurrentPosition();
+    }
+
+    public void invalidate() {
+        filter.invalidate();
+    }
+
+    public DcMotorEx getMotor() {
+        return motor;
+    }
+
+    public WriteFilter getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * A Servo that only sends a new position when it actually changed (see {@link WriteFilter}).
+ */
+public class CachedServo {
+
+    private final Servo servo;
+    private final WriteFilter filter;
+
+    public CachedServo(Servo servo) {
+        this(servo, new WriteFilter());
+    }
+
+    public CachedServo(Servo servo, WriteFilter filter) {
+        this.servo = servo;
+        this.filter = filter;
+    }
+
+    public void setPosition(double position) {
+        if (filter.shouldWrite(position, System.nanoTime())) {
+            servo.setPosition(position);
+        }
+    }
+
+    /** The position we last sent (no hardware call). */
+    public double getPosition() {
+        double last = filter.getLastValue();
+        return Double.isNaN(last) ? servo.getPosition() : last;
+    }
+
+    public Servo getServo() {
+        return servo;
+    }
+
+    public WriteFilter getFilter() {
+        return filter;
+    }
+}
@@ -0,0 +1,247 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.ResultBus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Reads slow I2C sensors (IMU, color sensor, distance sensor) on a thread of its own.
+ *
+ * An I2C read takes a couple of milliseconds and the loop has to wait for it. Motor
+ * encoders come from one bulk read, but I2C sensors don't, so every one of them
+ * makes the loop slower. Here a background thread does the reads on its own
+ * schedule and puts each answer on a {@link ResultBus} (the same lock-free
+ * "newest result" mailbox the cameras use). Picking up the newest answer never waits.
+ *
+ * That does NOT mean the loop never waits for I2C:
+ *  - a hub does one thing at a time. While the poller's read is going on, a bulk read
+ *    or a motor write from the loop to the same hub waits for it to finish. The poller
+ *    only helps when the loop has other work to do in the meantime, so measure it
+ *    (see {@link #markLoop()}) with and without the poller.
+ *  - a sensor must only be read here. If something else in the loop still reads it
+ *    (like a Pedro localizer reading the same IMU), both pay for the read. Give them
+ *    the answer from the bus instead, or don't use the poller for that sensor.
+ * <pre>
+ *     poller = new SensorPoller();
+ *     ResultBus&lt;YawPitchRollAngles&gt; imuBus = poller.poll("IMU", 100, imu::getRobotYawPitchRollAngles);
+ *     ResultBus&lt;Double&gt; distanceBus = poller.poll("Distance", 20, () -> distance.getDistance(DistanceUnit.INCH));
+ *     ResultBus&lt;NormalizedRGBA&gt; colorBus = poller.poll("Color", 20, color::getNormalizedColors);
+ *     poller.start();          // in onInit, once the sensors are set up
+ *     ...
+ *     poller.stop();           // in onStop, always
+ * </pre>
+ * Each result has the time the read started, so you can tell how old it is.
+ *
+ * The read functions must give back a new object each time (or an immutable one),
+ * because the loop may still be looking at the last one.
+ *
+ * {@link #showTelemetry} shows how long the reads take, how busy the poller keeps the
+ * bus, and how long the loop really takes.
+ */
+public class SensorPoller {
+
+    // Never spin faster than this, even if a sensor asks for more
+    private static final long MIN_SLEEP_NANOS = 500_000L;
+
+    // Longest we wait for the thread to finish when stopping
+    private static final long STOP_WAIT_MS = 100;
+
+    private static final class Source<T> {
+        final String name;
+        final long periodNanos;
+        final Supplier<T> reader;
+        final ResultBus<T> bus = new ResultBus<>();
+
+        long nextDueNanos = 0;
+
+        // Written only by the poller thread, read by the loop for telemetry
+        volatile long reads = 0;
+        volatile long errors = 0;
+        volatile long totalReadNanos = 0;
+        volatile long maxReadNanos = 0;
+        volatile String lastError = null;
+
+        Source(String name, double hz, Supplier<T> reader) {
+            this.name = name;
+            this.periodNanos = (long) (1e9 / hz);
+            this.reader = reader;
+        }
+
+        void read() {
+            long start = System.nanoTime();
+            try {
+                T value = reader.get();
+                long took = System.nanoTime() - start;
+                bus.publish(value, start, took);
+                record(took);
+            } catch (RuntimeException e) {
+                // A sensor that unplugs shouldn't stop the other sensors
+                errors++;
+                lastError = e.toString();
+                record(System.nanoTime() - start);
+            }
+        }
+
+        private void record(long took) {
+            reads++;
+            totalReadNanos += took;
+            if (took > maxReadNanos) {
+                maxReadNanos = took;
+            }
+        }
+    }
+
+    private final List<Source<?>> sources = new ArrayList<>();
+
+    private Thread thread = null;
+    private volatile boolean running = false;
+    private long startNanos = 0;
+
+    // The control loop's real time, from markLoop()
+    private long lastLoopNanos = 0;
+    private long loops = 0;
+    private double averageLoopMs = 0.0;
+    private double maxLoopMs = 0.0;
+
+    /**
+     * Adds a sensor read. Call this before {@link #start()}.
+     *
+     * @param name   shown on telemetry
+     * @param hz     reads per second
+     * @param reader does one read (on the poller thread)
+     * @return the bus the results go to
+     */
+    public <T> ResultBus<T> poll(String name, double hz, Supplier<T> reader) {
+        if (thread != null) {
+            throw new IllegalStateException("Add sensors before starting the poller (" + name + ")");
+        }
+        if (!(hz > 0)) {
+            throw new IllegalArgumentException(name + ": rate must be more than 0 Hz");
+        }
+        Source<T> source = new Source<>(name, hz, reader);
+        sources.add(source);
+        return source.bus;
+    }
+
+    /** Starts the background thread. Does nothing if it is already running. */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        startNanos = System.nanoTime();
+        thread = new Thread(this::run, "SensorPoller");
+        thread.setDaemon(true);   // never keeps the app alive
+        thread.start();
+    }
+
+    /**
+     * Stops the thread and waits a moment for the read in progress to finish.
+     * Always call this when the OpMode ends, or the thread keeps reading.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(STOP_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long now = System.nanoTime();
+        for (Source<?> source : sources) {
+            source.nextDueNanos = now;
+        }
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+            now = System.nanoTime();
+            long nextWake = Long.MAX_VALUE;
+
+            for (int i = 0; i < sources.size(); i++) {
+                Source<?> source = sources.get(i);
+                if (now >= source.nextDueNanos) {
+                    source.read();
+                    // Keep to the schedule, but don't try to catch up on reads we were too slow for
+                    source.nextDueNanos = Math.max(source.nextDueNanos + source.periodNanos, System.nanoTime());
+                }
+                nextWake = Math.min(nextWake, source.nextDueNanos);
+            }
+
+            long sleep = nextWake - System.nanoTime();
+            LockSupport.parkNanos(Math.max(sleep, MIN_SLEEP_NANOS));
+        }
+    }
+
+    /**
+     * Call this once per loop, from the loop. The time between calls is what the loop
+     * really takes, waits for the hub included: compare it with the poller on and off.
+     */
+    public void markLoop() {
+        long now = System.nanoTime();
+        if (lastLoopNanos != 0) {
+            double ms = (now - lastLoopNanos) / 1e6;
+            loops++;
+            averageLoopMs = loops == 1 ? ms : averageLoopMs + 0.05 * (ms - averageLoopMs);
+            maxLoopMs = Math.max(maxLoopMs, ms);
+        }
+        lastLoopNanos = now;
+    }
+
+    /** The loop time from {@link #markLoop()}, in ms (a running average; 0 before two calls). */
+    public double getLoopMs() {
+        return averageLoopMs;
+    }
+
+    /**
+     * All the time spent in sensor reads so far, in ms. The bus was busy for this long;
+     * it is NOT time the loop saved (the loop may have waited for the hub anyway).
+     */
+    public double getReadMs() {
+        long total = 0;
+        for (Source<?> source : sources) {
+            total += source.totalReadNanos;
+        }
+        return total / 1e6;
+    }
+
+    /**
+     * Shows, for each sensor, how often it is really read and how long a read takes,
+     * how much of the time the poller keeps the bus busy, and the loop's real time.
+     */
+    public void showTelemetry(Telemetry telemetry) {
+        double seconds = startNanos == 0 ? 0.0 : (System.nanoTime() - startNanos) / 1e9;
+        telemetry.addData("<===== Sensor Poller =====>", running ? "Running" : "Stopped");
+        for (int i = 0; i < sources.size(); i++) {
+            Source<?> source = sources.get(i);
+            long reads = source.reads;
+            double averageMs = reads == 0 ? 0.0 : source.totalReadNanos / 1e6 / reads;
+            telemetry.addData(source.name, "%.0f Hz | %.2f ms (max %.1f) | errors %d",
+                    seconds > 0 ? reads / seconds : 0.0, averageMs, source.maxReadNanos / 1e6, source.errors);
+            if (source.lastError != null) {
+                telemetry.addData(source.name + " error", source.lastError);
+            }
+        }
+        double readMs = getReadMs();
+        telemetry.addData("Poller I2C busy", "%.0f ms (%.1f%% of the time)",
+                readMs, seconds > 0 ? readMs / 10.0 / seconds : 0.0);
+        if (loops > 0) {
+            telemetry.addData("Loop time", "%.1f ms (max %.1f) | %d loops", averageLoopMs, maxLoopMs, loops);
+        } else {
+            telemetry.addData("Loop time", "call markLoop() every loop");
+        }
+    }
+}
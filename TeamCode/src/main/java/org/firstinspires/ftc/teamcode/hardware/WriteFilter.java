@@ -0,0 +1,97 @@
+package org.firstinspires.ftc.teamcode.hardware;
+
+/**
+ * Decides if a new motor power or servo position is worth sending to the hub.
+ *
+ * Every setPower / setPosition on a REV hub is a trip over the bus (about a
+ * millisecond or more), even if the value is the same as last time. This remembers
+ * the last value sent and skips the write when the new one is (almost) the same.
+ *
+ * Two safety rules:
+ *  - a stop (exactly 0) is always sent if the device isn't already at 0
+ *  - the value is sent again every {@link #REFRESH_MS} anyway, in case a write got lost
+ *
+ * Used by {@link CachedDcMotorEx}, {@link CachedServo} and {@link CachedCRServo}.
+ */
+public final class WriteFilter {
+
+    // Changes smaller than this aren't sent (power is -1..1, servo position 0..1)
+    public static final double DEFAULT_EPSILON = 0.001;
+
+    // Send the value again at least this often, even if it didn't change
+    public static final long REFRESH_MS = 500;
+
+    // Totals for all devices, for telemetry
+    private static long totalWrites = 0;
+    private static long totalSkipped = 0;
+
+    private final double epsilon;
+    private final long refreshNanos;
+
+    private double lastValue = Double.NaN;
+    private long lastWriteNanos = 0;
+    private long writes = 0;
+    private long skipped = 0;
+
+    public WriteFilter() {
+        this(DEFAULT_EPSILON, REFRESH_MS);
+    }
+
+    public WriteFilter(double epsilon, long refreshMs) {
+        this.epsilon = epsilon;
+        this.refreshNanos = refreshMs * 1_000_000L;
+    }
+
+    /**
+     * @param value the value we want on the device
+     * @param now   System.nanoTime()
+     * @return true if the caller should send it (the filter already counts it as sent)
+     */
+    public boolean shouldWrite(double value, long now) {
+        boolean send = Double.isNaN(lastValue)
+                || Math.abs(value - lastValue) > epsilon
+                || (value == 0.0 && lastValue != 0.0)
+                || now - lastWriteNanos >= refreshNanos;
+        if (send) {
+            lastValue = value;
+            lastWriteNanos = now;
+            writes++;
+            totalWrites++;
+        } else {
+            skipped++;
+            totalSkipped++;
+        }
+        return send;
+    }
+
+    /** Forget the last value, so the next one is always sent (for example after changing the run mode). */
+    public void invalidate() {
+        lastValue = Double.NaN;
+    }
+
+    /** The last value that was sent (NaN if none yet). */
+    public double getLastValue() {
+        return lastValue;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public static long getTotalWrites() {
+        return totalWrites;
+    }
+
+    public static long getTotalSkipped() {
+        return totalSkipped;
+    }
+
+    public static void resetTotals() {
+        totalWrites = 0;
+        totalSkipped = 0;
+    }
+}
@@ -0,0 +1,230 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+/**
+ * Keeps track of the robot's pose when the **sensor does the odometry math for us**
+ * (OctoQuad, goBILDA Pinpoint) and we only read the answer over I2C.
+ *
+ * Every loop we give it one of these:
+ *  - {@link #accept}: a good reading (pose and velocity)
+ *  - {@link #acceptHeading}: a reading of just the heading (x and y are guessed)
+ *  - {@link #reject}: a bad reading (for example a failed CRC check)
+ *  - {@link #extrapolate}: no reading this loop (we chose to skip it to save I2C time)
+ *
+ * For bad or skipped readings it guesses where we are now by moving the last pose
+ * along the last velocity. It only guesses for a short time; after that it holds
+ * the last pose and {@link #isStale()} turns true.
+ *
+ * Everything is kept in plain numbers (inches, radians, seconds) so updating never
+ * makes garbage. It has no hardware in it, so it also runs on a laptop.
+ */
+public class DevicePoseTracker {
+
+    // Pose (inches, inches, radians in -PI..PI)
+    private double x, y, heading;
+
+    // Field-relative velocity (inches/second, radians/second)
+    private double xVelocity, yVelocity, headingVelocity;
+
+    // Heading that keeps counting past +/-PI (Pedro calls this "total heading")
+    private double totalHeading;
+
+    // Longest we are allowed to guess before holding still
+    private final long maxExtrapolationNanos;
+
+    private long lastGoodNanos = 0;     // time of the last good reading
+    private long lastUpdateNanos = 0;   // time the pose above is for
+    private boolean stale = true;       // true until the first good reading
+
+    // Counts, so we can see on telemetry how often we had to guess
+    private long goodReadings = 0;
+    private long rejectedReadings = 0;
+    private long extrapolatedUpdates = 0;
+
+    // Goes up every time the pose changes, so users can cache objects built from it
+    private long version = 0;
+
+    /**
+     * @param maxExtrapolationMs longest we keep guessing from the last velocity (ms)
+     */
+    public DevicePoseTracker(double maxExtrapolationMs) {
+        this.maxExtrapolationNanos = (long) (maxExtrapolationMs * 1e6);
+    }
+
+    /**
+     * A good reading from the sensor.
+     */
+    public void accept(double x, double y, double heading,
+                       double xVelocity, double yVelocity, double headingVelocity, long nowNanos) {
+        acceptPose(x, y, heading, nowNanos);
+        this.xVelocity = xVelocity;
+        this.yVelocity = yVelocity;
+        this.headingVelocity = headingVelocity;
+    }
+
+    /**
+     * A good reading of just the pose (velocity stays what it was last time).
+     */
+    public void acceptPose(double x, double y, double heading, long nowNanos) {
+        if (goodReadings > 0 || version > 0) {
+            totalHeading += angleWrap(heading - this.heading);
+        } else {
+            totalHeading = heading;
+        }
+        this.x = x;
+        this.y = y;
+        this.heading = angleWrap(heading);
+        lastGoodNanos = nowNanos;
+        lastUpdateNanos = nowNanos;
+        stale = false;
+        goodReadings++;
+        version++;
+    }
+
+    /**
+     * A good reading of just the heading: x and y move along the last velocity, but the
+     * heading is the real one. The heading alone doesn't count as a good reading, so
+     * x and y still turn stale if the full readings stop.
+     */
+    public void acceptHeading(double heading, long nowNanos) {
+        if (lastUpdateNanos == 0) {
+            return;                         // no pose to start from yet
+        }
+        double dt = (nowNanos - lastUpdateNanos) / 1e9;
+        if (nowNanos - lastGoodNanos > maxExtrapolationNanos) {
+            stale = true;                   // hold x and y, but the heading is still real
+        } else if (dt > 0) {
+            x += xVelocity * dt;
+            y += yVelocity * dt;
+        }
+        totalHeading += angleWrap(heading - this.heading);
+        this.heading = angleWrap(heading);
+        lastUpdateNanos = nowNanos;
+        extrapolatedUpdates++;
+        version++;
+    }
+
+    /**
+     * A new velocity reading (for sensors where we read velocity less often than pose).
+     */
+    public void acceptVelocity(double xVelocity, double yVelocity, double headingVelocity) {
+        this.xVelocity = xVelocity;
+        this.yVelocity = yVelocity;
+        this.headingVelocity = headingVelocity;
+        version++;
+    }
+
+    /**
+     * A reading we can't trust. We throw it away and guess from the last velocity instead.
+     */
+    public void reject(long nowNanos) {
+        rejectedReadings++;
+        extrapolate(nowNanos);
+    }
+
+    /**
+     * No reading this loop: move the pose along the last velocity, as long as the
+     * last good reading isn't too old.
+     */
+    public void extrapolate(long nowNanos) {
+        if (lastUpdateNanos == 0) {
+            return;                         // nothing to guess from yet
+        }
+        if (nowNanos - lastGoodNanos > maxExtrapolationNanos) {
+            stale = true;                   // too long without real data, stop guessing
+            return;
+        }
+        double dt = (nowNanos - lastUpdateNanos) / 1e9;
+        if (dt <= 0) {
+            return;
+        }
+        x += xVelocity * dt;
+        y += yVelocity * dt;
+        heading = angleWrap(heading + headingVelocity * dt);
+        totalHeading += headingVelocity * dt;
+        lastUpdateNanos = nowNanos;
+        extrapolatedUpdates++;
+        version++;
+    }
+
+    /**
+     * Jumps to a new pose (for example the starting pose) and forgets the velocity.
+     */
+    public void reset(double x, double y, double heading, long nowNanos) {
+        this.x = x;
+        this.y = y;
+        this.heading = angleWrap(heading);
+        this.totalHeading = heading;
+        xVelocity = 0;
+        yVelocity = 0;
+        headingVelocity = 0;
+        lastGoodNanos = nowNanos;
+        lastUpdateNanos = nowNanos;
+        stale = false;
+        version++;
+    }
+
+    /** Wraps an angle into -PI..PI. */
+    public static double angleWrap(double radians) {
+        while (radians > Math.PI) {
+            radians -= 2 * Math.PI;
+        }
+        while (radians < -Math.PI) {
+            radians += 2 * Math.PI;
+        }
+        return radians;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    public double getXVelocity() {
+        return xVelocity;
+    }
+
+    public double getYVelocity() {
+        return yVelocity;
+    }
+
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    public double getTotalHeading() {
+        return totalHeading;
+    }
+
+    /** True if we haven't had a good reading for too long (the pose is being held, not tracked). */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /** How old the last good reading is, in milliseconds. */
+    public double getAgeMs(long nowNanos) {
+        return lastGoodNanos == 0 ? Double.POSITIVE_INFINITY : (nowNanos - lastGoodNanos) / 1e6;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getGoodReadings() {
+        return goodReadings;
+    }
+
+    public long getRejectedReadings() {
+        return rejectedReadings;
+    }
+
+    public long getExtrapolatedUpdates() {
+        return extrapolatedUpdates;
+    }
+}
@@ -0,0 +1,363 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.localization.Localizer;
+import com.pedropathing.math.Vector;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.UnnormalizedAngleUnit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A Pedro Pathing {@link Localizer} for the **goBILDA Pinpoint** that doesn't read
+ * the Pinpoint more often than it needs to.
+ *
+ * The SensorGoBildaPinpoint sample calls {@code pinpoint.update()} every loop. Each
+ * call is a full I2C transaction (about 1 ms on the hub) that stalls our loop.
+ * Here we only do the full read when at least {@code minReadIntervalMs} has passed.
+ * In the loops in between we only read the heading
+ * ({@code update(ReadData.ONLY_UPDATE_HEADING)}, a much shorter transaction), and move
+ * x and y along the last velocity. Turning is where guessing goes wrong fastest, so the
+ * heading is always real; only x and y are guessed, and only for a few loops.
+ *
+ * One full read gives us everything (pose, velocity and status come in the same block).
+ * We only look at the status to decide whether to trust the numbers:
+ *  - READY: use them
+ *  - CALIBRATING / NOT_READY: hold the pose
+ *  - anything else (a fault or a bad read): throw them away and guess from the last velocity
+ *
+ * It also measures how much I2C time it uses per loop so we can see it on telemetry.
+ */
+public class GovernedPinpointLocalizer implements Localizer {
+
+    // How quickly the "I2C time per loop" average follows new loops
+    private static final double AVERAGE_WEIGHT = 0.05;
+
+    /**
+     * The few Pinpoint calls we use. The real Pinpoint is wrapped in {@link HardwareDevice};
+     * a simulated stand-in can take its place on a laptop.
+     */
+    public interface Device {
+        /** Sends the pod offsets, pod type and directions to the Pinpoint. */
+        void configure(PinpointLocalizerConstants constants);
+
+        /** One I2C read of pose, velocity and status. */
+        void update();
+
+        /** A short I2C read of just the heading (the other getters keep their old numbers). */
+        void updateHeading();
+
+        GoBildaPinpointDriver.DeviceStatus getDeviceStatus();
+
+        // Results of the last update(), in inches and radians
+        double getX();
+
+        double getY();
+
+        double getHeading();
+
+        double getXVelocity();
+
+        double getYVelocity();
+
+        double getHeadingVelocity();
+
+        void setPosition(double x, double y, double heading);
+
+        void recalibrateIMU();
+    }
+
+    /** The real Pinpoint from the hardware map. */
+    public static class HardwareDevice implements Device {
+        private final GoBildaPinpointDriver pinpoint;
+
+        public HardwareDevice(GoBildaPinpointDriver pinpoint) {
+            this.pinpoint = pinpoint;
+        }
+
+        @Override
+        public void configure(PinpointLocalizerConstants constants) {
+            pinpoint.setOffsets(constants.forwardPodY, constants.strafePodX, DistanceUnit.INCH);
+            pinpoint.setEncoderResolution(constants.podType);
+            pinpoint.setEncoderDirections(constants.forwardDirection, constants.strafeDirection);
+            pinpoint.resetPosAndIMU();
+        }
+
+        @Override
+        public void update() {
+            pinpoint.update();
+        }
+
+        @Override
+        public void updateHeading() {
+            pinpoint.update(GoBildaPinpointDriver.ReadData.ONLY_UPDATE_HEADING);
+        }
+
+        @Override
+        public GoBildaPinpointDriver.DeviceStatus getDeviceStatus() {
+            return pinpoint.getDeviceStatus();
+        }
+
+        // These getters just convert numbers the driver already read; no I2C here
+        @Override
+        public double getX() {
+            return pinpoint.getPosX(DistanceUnit.INCH);
+        }
+
+        @Override
+        public double getY() {
+            return pinpoint.getPosY(DistanceUnit.INCH);
+        }
+
+        @Override
+        public double getHeading() {
+            return pinpoint.getHeading(AngleUnit.RADIANS);
+        }
+
+        @Override
+        public double getXVelocity() {
+            return pinpoint.getVelX(DistanceUnit.INCH);
+        }
+
+        @Override
+        public double getYVelocity() {
+            return pinpoint.getVelY(DistanceUnit.INCH);
+        }
+
+        @Override
+        public double getHeadingVelocity() {
+            return pinpoint.getHeadingVelocity(UnnormalizedAngleUnit.RADIANS);
+        }
+
+        @Override
+        public void setPosition(double x, double y, double heading) {
+            pinpoint.setPosition(new Pose2D(DistanceUnit.INCH, x, y, AngleUnit.RADIANS, heading));
+        }
+
+        @Override
+        public void recalibrateIMU() {
+            pinpoint.recalibrateIMU();
+        }
+    }
+
+    private final Device device;
+
+    // Where we get the time from (System.nanoTime() on the robot, the log's time in a replay)
+    private final LongSupplier clock;
+
+    private final DevicePoseTracker tracker;
+    private final long minReadIntervalNanos;
+
+    // Pedro's Pose can't be changed once it is made, so when the pose moves (normally
+    // every loop) getPose() builds a new one. The version check only stops us from
+    // building another one when Pedro asks again in the same loop.
+    private Pose cachedPose = new Pose();
+    private long cachedPoseVersion = -1;
+    private Pose cachedVelocity = new Pose();
+    private long cachedVelocityVersion = -1;
+
+    private GoBildaPinpointDriver.DeviceStatus lastStatus = GoBildaPinpointDriver.DeviceStatus.NOT_READY;
+    private long lastReadStartNanos = 0;
+    private long lastReadNanos = 0;
+    private double averageI2cMsPerLoop = 0.0;
+    private long reads = 0;
+    private long headingReads = 0;
+
+    public GovernedPinpointLocalizer(HardwareMap hardwareMap, PinpointLocalizerConstants constants) {
+        this(new HardwareDevice(hardwareMap.get(GoBildaPinpointDriver.class, constants.hardwareMapName)), constants);
+    }
+
+    public GovernedPinpointLocalizer(Device device, PinpointLocalizerConstants constants) {
+        this(device, constants, System::nanoTime);
+    }
+
+    /**
+     * Lets a replay feed in its own time, so it can run faster than real time.
+     */
+    public GovernedPinpointLocalizer(Device device, PinpointLocalizerConstants constants, LongSupplier clock) {
+        this.device = device;
+        this.clock = clock;
+        this.tracker = new DevicePoseTracker(constants.maxExtrapolationMs);
+        this.minReadIntervalNanos = (long) (constants.minReadIntervalMs * 1e6);
+        device.configure(constants);
+    }
+
+    /**
+     * Reads the whole Pinpoint block if it's been long enough since the last full read;
+     * otherwise reads just the heading and moves x and y along the last velocity.
+     */
+    @Override
+    public void update() {
+        long now = clock.getAsLong();
+        long i2cNanos = 0;
+
+        if (reads == 0 || now - lastReadStartNanos >= minReadIntervalNanos) {
+            device.update();
+            long done = clock.getAsLong();
+            i2cNanos = done - now;
+            lastReadNanos = i2cNanos;
+            lastReadStartNanos = now;
+            reads++;
+            useReading(done);
+        } else {
+            device.updateHeading();
+            long done = clock.getAsLong();
+            i2cNanos = done - now;
+            headingReads++;
+            useHeading(done);
+        }
+
+        averageI2cMsPerLoop += AVERAGE_WEIGHT * (i2cNanos / 1e6 - averageI2cMsPerLoop);
+    }
+
+    /**
+     * Decides what to do with a fresh reading based on the Pinpoint's status.
+     */
+    private void useReading(long nowNanos) {
+        lastStatus = device.getDeviceStatus();
+        switch (lastStatus) {
+            case READY:
+                tracker.accept(device.getX(), device.getY(), device.getHeading(),
+                        device.getXVelocity(), device.getYVelocity(), device.getHeadingVelocity(), nowNanos);
+                break;
+            case CALIBRATING:
+            case NOT_READY:
+                // Not ready yet: keep the pose where it is
+                break;
+            default:
+                // A fault or a bad read: don't trust these numbers
+                tracker.reject(nowNanos);
+                break;
+        }
+    }
+
+    /**
+     * Uses a fresh heading-only reading, as long as the Pinpoint was fine on the last full read.
+     */
+    private void useHeading(long nowNanos) {
+        double heading = device.getHeading();
+        if (lastStatus == GoBildaPinpointDriver.DeviceStatus.READY && !Double.isNaN(heading)) {
+            tracker.acceptHeading(heading, nowNanos);
+        } else {
+            tracker.extrapolate(nowNanos);
+        }
+    }
+
+    @Override
+    public Pose getPose() {
+        if (cachedPoseVersion != tracker.getVersion()) {
+            cachedPose = new Pose(tracker.getX(), tracker.getY(), tracker.getHeading());
+            cachedPoseVersion = tracker.getVersion();
+        }
+        return cachedPose;
+    }
+
+    @Override
+    public Pose getVelocity() {
+        if (cachedVelocityVersion != tracker.getVersion()) {
+            cachedVelocity = new Pose(tracker.getXVelocity(), tracker.getYVelocity(), tracker.getHeadingVelocity());
+            cachedVelocityVersion = tracker.getVersion();
+        }
+        return cachedVelocity;
+    }
+
+    @Override
+    public Vector getVelocityVector() {
+        double vx = tracker.getXVelocity();
+        double vy = tracker.getYVelocity();
+        return new Vector(Math.hypot(vx, vy), Math.atan2(vy, vx));
+    }
+
+    @Override
+    public void setStartPose(Pose setStart) {
+        setPose(setStart);
+    }
+
+    /**
+     * Moves the Pinpoint's pose to this one (so the Pinpoint and Pedro agree).
+     */
+    @Override
+    public void setPose(Pose setPose) {
+        device.setPosition(setPose.getX(), setPose.getY(), setPose.getHeading());
+        tracker.reset(setPose.getX(), setPose.getY(), setPose.getHeading(), clock.getAsLong());
+    }
+
+    @Override
+    public double getTotalHeading() {
+        return tracker.getTotalHeading();
+    }
+
+    // The Pinpoint already scales its pods using the pod type, so there is nothing to multiply here
+    @Override
+    public double getForwardMultiplier() {
+        return 1.0;
+    }
+
+    @Override
+    public double getLateralMultiplier() {
+        return 1.0;
+    }
+
+    @Override
+    public double getTurningMultiplier() {
+        return 1.0;
+    }
+
+    /**
+     * Recalibrates the Pinpoint's IMU. The robot must be still while it does this.
+     */
+    @Override
+    public void resetIMU() throws InterruptedException {
+        device.recalibrateIMU();
+    }
+
+    @Override
+    public double getIMUHeading() {
+        return tracker.getHeading();
+    }
+
+    @Override
+    public boolean isNAN() {
+        return Double.isNaN(tracker.getX()) || Double.isNaN(tracker.getY()) || Double.isNaN(tracker.getHeading());
+    }
+
+    /** What the Pinpoint said it was doing on the last read (READY when all is well). */
+    public GoBildaPinpointDriver.DeviceStatus getStatus() {
+        return lastStatus;
+    }
+
+    /** How long the last full I2C read took, in milliseconds. */
+    public double getLastReadMs() {
+        return lastReadNanos / 1e6;
+    }
+
+    /** Average I2C time per loop (full reads and heading-only reads), in milliseconds. */
+    public double getAverageI2cMsPerLoop() {
+        return averageI2cMsPerLoop;
+    }
+
+    /** How many full reads (pose, velocity and status) we did. */
+    public long getReads() {
+        return reads;
+    }
+
+    /** How many loops read only the heading (x and y were guessed). */
+    public long getHeadingReads() {
+        return headingReads;
+    }
+
+    /** How many reads came back with a fault and were thrown away. */
+    public long getRejectedReads() {
+        return tracker.getRejectedReadings();
+    }
+
+    /** True if reads have been bad for too long and the pose is frozen. */
+    public boolean isStale() {
+        return tracker.isStale();
+    }
+}
@@ -0,0 +1,268 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.localization.Localizer;
+import com.pedropathing.math.Vector;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A Pedro Pathing {@link Localizer} that lets the **OctoQuad** do the odometry.
+ *
+ * The OctoQuad reads the odometry pods and its own IMU hundreds of times a second
+ * and works out the pose itself. Each loop we just read one small block that has
+ * pose, velocity and a CRC check in it (see the SensorOctoQuadLocalization sample).
+ * That means no odometry math on the Control Hub and a fresher pose.
+ *
+ * If a read fails its CRC check (a noisy I2C wire, for example), we throw it away
+ * and guess the pose from the last velocity instead of jumping to a bad value.
+ *
+ * Use it with {@code new FollowerBuilder(...).setLocalizer(new OctoQuadLocalizer(hardwareMap, constants))},
+ * or just set {@code Constants.LOCALIZER}.
+ */
+public class OctoQuadLocalizer implements Localizer {
+
+    private static final double MM_PER_INCH = 25.4;
+
+    /**
+     * The few OctoQuad calls we use. The real OctoQuad is wrapped in {@link HardwareDevice};
+     * {@link SimulatedOctoQuad} stands in for it on a laptop.
+     */
+    public interface Device {
+        /** Sends the pod ports, directions, scales and velocity window to the OctoQuad. */
+        void configure(OctoQuadLocalizerConstants constants);
+
+        void resetLocalizerAndCalibrateIMU();
+
+        OctoQuad.LocalizerStatus getLocalizerStatus();
+
+        void readLocalizerData(OctoQuad.LocalizerDataBlock block);
+
+        void setLocalizerPose(int posXmm, int posYmm, float headingRad);
+    }
+
+    /** The real OctoQuad from the hardware map. */
+    public static class HardwareDevice implements Device {
+        private final OctoQuad octoquad;
+
+        public HardwareDevice(OctoQuad octoquad) {
+            this.octoquad = octoquad;
+        }
+
+        @Override
+        public void configure(OctoQuadLocalizerConstants constants) {
+            octoquad.setSingleEncoderDirection(constants.portX, constants.directionX);
+            octoquad.setSingleEncoderDirection(constants.portY, constants.directionY);
+            octoquad.setLocalizerPortX(constants.portX);
+            octoquad.setLocalizerPortY(constants.portY);
+            octoquad.setLocalizerCountsPerMM_X((float) constants.ticksPerMmX);
+            octoquad.setLocalizerCountsPerMM_Y((float) constants.ticksPerMmY);
+            octoquad.setLocalizerTcpOffsetMM_X((float) constants.tcpOffsetMmX);
+            octoquad.setLocalizerTcpOffsetMM_Y((float) constants.tcpOffsetMmY);
+            octoquad.setLocalizerImuHeadingScalar((float) constants.imuHeadingScalar);
+            octoquad.setLocalizerVelocityIntervalMS(constants.velocityIntervalMs());
+            // Let the OctoQuad reset its I2C side if a transfer goes wrong
+            octoquad.setI2cRecoveryMode(OctoQuad.I2cRecoveryMode.MODE_1_PERIPH_RST_ON_FRAME_ERR);
+        }
+
+        @Override
+        public void resetLocalizerAndCalibrateIMU() {
+            octoquad.resetLocalizerAndCalibrateIMU();
+        }
+
+        @Override
+        public OctoQuad.LocalizerStatus getLocalizerStatus() {
+            return octoquad.getLocalizerStatus();
+        }
+
+        @Override
+        public void readLocalizerData(OctoQuad.LocalizerDataBlock block) {
+            octoquad.readLocalizerData(block);
+        }
+
+        @Override
+        public void setLocalizerPose(int posXmm, int posYmm, float headingRad) {
+            octoquad.setLocalizerPose(posXmm, posYmm, headingRad);
+        }
+    }
+
+    private final Device device;
+
+    // Where we get the time from (System.nanoTime() on the robot, the log's time in a replay)
+    private final LongSupplier clock;
+
+    // We read into the same block every loop instead of making a new one
+    private final OctoQuad.LocalizerDataBlock block = new OctoQuad.LocalizerDataBlock();
+
+    private final DevicePoseTracker tracker;
+
+    // Pedro's Pose can't be changed once it is made, so when the pose moves (normally
+    // every loop) getPose() builds a new one. The version check only stops us from
+    // building another one when Pedro asks again in the same loop.
+    private Pose cachedPose = new Pose();
+    private long cachedPoseVersion = -1;
+    private Pose cachedVelocity = new Pose();
+    private long cachedVelocityVersion = -1;
+
+    private OctoQuad.LocalizerStatus lastStatus = OctoQuad.LocalizerStatus.INVALID;
+    private long notRunningReads = 0;
+    private long lastReadNanos = 0;
+
+    public OctoQuadLocalizer(HardwareMap hardwareMap, OctoQuadLocalizerConstants constants) {
+        this(new HardwareDevice(hardwareMap.get(OctoQuad.class, constants.hardwareMapName)), constants);
+    }
+
+    public OctoQuadLocalizer(Device device, OctoQuadLocalizerConstants constants) {
+        this(device, constants, System::nanoTime);
+    }
+
+    /**
+     * Lets a replay feed in its own time, so it can run faster than real time.
+     */
+    public OctoQuadLocalizer(Device device, OctoQuadLocalizerConstants constants, LongSupplier clock) {
+        this.device = device;
+        this.clock = clock;
+        this.tracker = new DevicePoseTracker(constants.maxExtrapolationMs);
+        device.configure(constants);
+        device.resetLocalizerAndCalibrateIMU();
+    }
+
+    /**
+     * Reads the newest pose and velocity from the OctoQuad (one I2C read).
+     */
+    @Override
+    public void update() {
+        long start = clock.getAsLong();
+        device.readLocalizerData(block);
+        long now = clock.getAsLong();
+        lastReadNanos = now - start;
+
+        lastStatus = block.localizerStatus;
+        if (lastStatus != OctoQuad.LocalizerStatus.RUNNING) {
+            // Still calibrating the IMU (or no IMU): the numbers aren't real yet
+            notRunningReads++;
+            return;
+        }
+        if (!block.crcOk) {
+            tracker.reject(now);
+            return;
+        }
+        tracker.accept(
+                block.posX_mm / MM_PER_INCH,
+                block.posY_mm / MM_PER_INCH,
+                block.heading_rad,
+                block.velX_mmS / MM_PER_INCH,
+                block.velY_mmS / MM_PER_INCH,
+                block.velHeading_radS,
+                now);
+    }
+
+    @Override
+    public Pose getPose() {
+        if (cachedPoseVersion != tracker.getVersion()) {
+            cachedPose = new Pose(tracker.getX(), tracker.getY(), tracker.getHeading());
+            cachedPoseVersion = tracker.getVersion();
+        }
+        return cachedPose;
+    }
+
+    @Override
+    public Pose getVelocity() {
+        if (cachedVelocityVersion != tracker.getVersion()) {
+            cachedVelocity = new Pose(tracker.getXVelocity(), tracker.getYVelocity(), tracker.getHeadingVelocity());
+            cachedVelocityVersion = tracker.getVersion();
+        }
+        return cachedVelocity;
+    }
+
+    @Override
+    public Vector getVelocityVector() {
+        double vx = tracker.getXVelocity();
+        double vy = tracker.getYVelocity();
+        return new Vector(Math.hypot(vx, vy), Math.atan2(vy, vx));
+    }
+
+    @Override
+    public void setStartPose(Pose setStart) {
+        setPose(setStart);
+    }
+
+    /**
+     * Moves the OctoQuad's pose to this one (so the OctoQuad and Pedro agree).
+     */
+    @Override
+    public void setPose(Pose setPose) {
+        device.setLocalizerPose(
+                (int) Math.round(setPose.getX() * MM_PER_INCH),
+                (int) Math.round(setPose.getY() * MM_PER_INCH),
+                (float) setPose.getHeading());
+        tracker.reset(setPose.getX(), setPose.getY(), setPose.getHeading(), clock.getAsLong());
+    }
+
+    @Override
+    public double getTotalHeading() {
+        return tracker.getTotalHeading();
+    }
+
+    // The OctoQuad already scales its pods with ticksPerMm, so there is nothing to multiply here
+    @Override
+    public double getForwardMultiplier() {
+        return 1.0;
+    }
+
+    @Override
+    public double getLateralMultiplier() {
+        return 1.0;
+    }
+
+    @Override
+    public double getTurningMultiplier() {
+        return 1.0;
+    }
+
+    /**
+     * Starts a new IMU calibration on the OctoQuad. The pose holds still until
+     * the OctoQuad says it is RUNNING again.
+     */
+    @Override
+    public void resetIMU() throws InterruptedException {
+        device.resetLocalizerAndCalibrateIMU();
+    }
+
+    @Override
+    public double getIMUHeading() {
+        return tracker.getHeading();
+    }
+
+    @Override
+    public boolean isNAN() {
+        return Double.isNaN(tracker.getX()) || Double.isNaN(tracker.getY()) || Double.isNaN(tracker.getHeading());
+    }
+
+    /** What the OctoQuad said it was doing on the last read (RUNNING when all is well). */
+    public OctoQuad.LocalizerStatus getStatus() {
+        return lastStatus;
+    }
+
+    /** How many reads failed their CRC check. */
+    public long getCrcFailures() {
+        return tracker.getRejectedReadings();
+    }
+
+    /** How many reads came back while the OctoQuad was still calibrating. */
+    public long getNotRunningReads() {
+        return notRunningReads;
+    }
+
+    /** How long the last I2C read took, in milliseconds. */
+    public double getLastReadMs() {
+        return lastReadNanos / 1e6;
+    }
+
+    /** True if reads have been failing for too long and the pose is frozen. */
+    public boolean isStale() {
+        return tracker.isStale();
+    }
+}
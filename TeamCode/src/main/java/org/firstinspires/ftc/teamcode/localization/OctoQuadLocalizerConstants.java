@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+/**
+ * Settings for {@link OctoQuadLocalizer}, written the same "chained" way as Pedro's
+ * own localizer constants:
+ * <pre>
+ *     new OctoQuadLocalizerConstants()
+ *             .hardwareMapName("octoquad")
+ *             .ports(0, 1)
+ *             .ticksPerMm(13.26291192, 13.26291192)
+ *             .loopPeriodMs(20);
+ * </pre>
+ *
+ * The OctoQuad does its odometry in millimeters with X pointing forward and Y pointing
+ * left (the same directions Pedro uses). Set the encoder directions so that pushing the
+ * robot forward makes X go up, and pushing it left makes Y go up.
+ */
+public class OctoQuadLocalizerConstants {
+
+    // Name of the OctoQuad in the Control Hub configuration
+    public String hardwareMapName = "octoquad";
+
+    // Which OctoQuad ports the forward (X) and sideways (Y) odometry pods are plugged into
+    public int portX = 0;
+    public int portY = 1;
+    public OctoQuad.EncoderDirection directionX = OctoQuad.EncoderDirection.FORWARD;
+    public OctoQuad.EncoderDirection directionY = OctoQuad.EncoderDirection.FORWARD;
+
+    // Encoder ticks per millimeter of travel (goBILDA swingarm pod = 13.26291192, 4-bar pod = 19.89436789)
+    public double ticksPerMmX = 13.26291192;
+    public double ticksPerMmY = 13.26291192;
+
+    // Where the point we track is, compared to the pods' crossing point (mm)
+    public double tcpOffsetMmX = 0.0;
+    public double tcpOffsetMmY = 0.0;
+
+    // Fixes small scale errors in the OctoQuad's built-in IMU (1.0 = no correction)
+    public double imuHeadingScalar = 1.0;
+
+    // How long our control loop usually takes. The OctoQuad measures velocity over
+    // this same window, so every read gets a velocity that is about one loop old at most.
+    public double loopPeriodMs = 20.0;
+
+    // Longest we keep guessing from the last velocity when reads fail (ms)
+    public double maxExtrapolationMs = 100.0;
+
+    public OctoQuadLocalizerConstants hardwareMapName(String name) {
+        this.hardwareMapName = name;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants ports(int portX, int portY) {
+        this.portX = portX;
+        this.portY = portY;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants directions(OctoQuad.EncoderDirection directionX,
+                                                 OctoQuad.EncoderDirection directionY) {
+        this.directionX = directionX;
+        this.directionY = directionY;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants ticksPerMm(double ticksPerMmX, double ticksPerMmY) {
+        this.ticksPerMmX = ticksPerMmX;
+        this.ticksPerMmY = ticksPerMmY;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants tcpOffsetMm(double offsetX, double offsetY) {
+        this.tcpOffsetMmX = offsetX;
+        this.tcpOffsetMmY = offsetY;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants imuHeadingScalar(double scalar) {
+        this.imuHeadingScalar = scalar;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants loopPeriodMs(double loopPeriodMs) {
+        this.loopPeriodMs = loopPeriodMs;
+        return this;
+    }
+
+    public OctoQuadLocalizerConstants maxExtrapolationMs(double maxExtrapolationMs) {
+        this.maxExtrapolationMs = maxExtrapolationMs;
+        return this;
+    }
+
+    /**
+     * The velocity window to give the OctoQuad: our loop period, kept inside the
+     * 1..255 ms the OctoQuad accepts.
+     */
+    public int velocityIntervalMs() {
+        return (int) Math.max(1, Math.min(255, Math.round(loopPeriodMs)));
+    }
+}
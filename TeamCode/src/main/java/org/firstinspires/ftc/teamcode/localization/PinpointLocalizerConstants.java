@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+
+/**
+ * Settings for {@link GovernedPinpointLocalizer}, written the same "chained" way as
+ * Pedro's own localizer constants:
+ * <pre>
+ *     new PinpointLocalizerConstants()
+ *             .hardwareMapName("pinpoint")
+ *             .podOffsets(-0.5, 0.5)
+ *             .podType(GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD)
+ *             .minReadIntervalMs(10);
+ * </pre>
+ */
+public class PinpointLocalizerConstants {
+
+    // Name of the Pinpoint in the Control Hub configuration
+    public String hardwareMapName = "pinpoint";
+
+    // How far the forward pod is to the LEFT of the robot's center, and how far the
+    // sideways pod is FORWARD of the center (inches, like Pedro's forwardPodY / strafePodX)
+    public double forwardPodY = 0.0;
+    public double strafePodX = 0.0;
+
+    public GoBildaPinpointDriver.GoBildaOdometryPods podType =
+            GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD;
+
+    // Make pushing the robot forward count X up, and pushing it left count Y up
+    public GoBildaPinpointDriver.EncoderDirection forwardDirection = GoBildaPinpointDriver.EncoderDirection.FORWARD;
+    public GoBildaPinpointDriver.EncoderDirection strafeDirection = GoBildaPinpointDriver.EncoderDirection.FORWARD;
+
+    // Don't do a full Pinpoint read more often than this. Loops in between only read
+    // the heading and move x and y along the last velocity. 0 = full read every loop.
+    public double minReadIntervalMs = 10.0;
+
+    // Longest we keep guessing from the last velocity when reads are bad (ms)
+    public double maxExtrapolationMs = 100.0;
+
+    public PinpointLocalizerConstants hardwareMapName(String name) {
+        this.hardwareMapName = name;
+        return this;
+    }
+
+    public PinpointLocalizerConstants podOffsets(double forwardPodY, double strafePodX) {
+        this.forwardPodY = forwardPodY;
+        this.strafePodX = strafePodX;
+        return this;
+    }
+
+    public PinpointLocalizerConstants podType(GoBildaPinpointDriver.GoBildaOdometryPods podType) {
+        this.podType = podType;
+        return this;
+    }
+
+    public PinpointLocalizerConstants directions(GoBildaPinpointDriver.EncoderDirection forwardDirection,
+                                                 GoBildaPinpointDriver.EncoderDirection strafeDirection) {
+        this.forwardDirection = forwardDirection;
+        this.strafeDirection = strafeDirection;
+        return this;
+    }
+
+    public PinpointLocalizerConstants minReadIntervalMs(double minReadIntervalMs) {
+        this.minReadIntervalMs = minReadIntervalMs;
+        return this;
+    }
+
+    public PinpointLocalizerConstants maxExtrapolationMs(double maxExtrapolationMs) {
+        this.maxExtrapolationMs = maxExtrapolationMs;
+        return this;
+    }
+}
@@ -0,0 +1,149 @@
+package org.firstinspires.ftc.teamcode.localization;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+import java.util.Random;
+
+/**
+ * A pretend OctoQuad for trying {@link OctoQuadLocalizer} **on a laptop**.
+ *
+ * You tell it how the robot is moving and step time forward; it answers reads the
+ * same way the real OctoQuad does: whole millimeters for position, whole mm/s for
+ * velocity, a few "still calibrating" reads after a reset, and (if you want)
+ * some reads that fail their CRC check and are full of junk.
+ * <pre>
+ *     SimulatedOctoQuad sim = new SimulatedOctoQuad(42);
+ *     sim.setCrcFailureRate(0.05);
+ *     OctoQuadLocalizer localizer = new OctoQuadLocalizer(sim, new OctoQuadLocalizerConstants());
+ *     sim.setVelocity(500, 0, 0.5);   // 500 mm/s forward while turning
+ *     sim.advance(0.02);
+ *     localizer.update();
+ * </pre>
+ */
+public class SimulatedOctoQuad implements OctoQuadLocalizer.Device {
+
+    // How many reads say CALIBRATING_IMU after a reset
+    private static final int CALIBRATION_READS = 5;
+
+    private final Random random;
+
+    // The "true" robot state (mm, mm, radians and their rates)
+    private double x, y, heading;
+    private double xVelocity, yVelocity, headingVelocity;
+
+    private double crcFailureRate = 0.0;
+    private int calibrationReadsLeft = CALIBRATION_READS;
+
+    private long reads = 0;
+    private long failedReads = 0;
+    private int velocityIntervalMs = 0;
+
+    /**
+     * @param seed random seed, so a run with CRC failures can be repeated exactly
+     */
+    public SimulatedOctoQuad(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** Sets how the robot moves from now on (field directions, mm/s and rad/s). */
+    public void setVelocity(double xMmPerSecond, double yMmPerSecond, double headingRadPerSecond) {
+        this.xVelocity = xMmPerSecond;
+        this.yVelocity = yMmPerSecond;
+        this.headingVelocity = headingRadPerSecond;
+    }
+
+    /** Moves the pretend robot forward in time. */
+    public void advance(double seconds) {
+        x += xVelocity * seconds;
+        y += yVelocity * seconds;
+        heading = DevicePoseTracker.angleWrap(heading + headingVelocity * seconds);
+    }
+
+    /** Fraction of reads (0..1) that come back with a bad CRC. */
+    public void setCrcFailureRate(double rate) {
+        this.crcFailureRate = rate;
+    }
+
+    @Override
+    public void configure(OctoQuadLocalizerConstants constants) {
+        velocityIntervalMs = constants.velocityIntervalMs();
+    }
+
+    @Override
+    public void resetLocalizerAndCalibrateIMU() {
+        calibrationReadsLeft = CALIBRATION_READS;
+        x = 0;
+        y = 0;
+        heading = 0;
+    }
+
+    @Override
+    public OctoQuad.LocalizerStatus getLocalizerStatus() {
+        return calibrationReadsLeft > 0 ? OctoQuad.LocalizerStatus.CALIBRATING_IMU : OctoQuad.LocalizerStatus.RUNNING;
+    }
+
+    @Override
+    public void readLocalizerData(OctoQuad.LocalizerDataBlock block) {
+        reads++;
+        block.localizerStatus = getLocalizerStatus();
+        if (calibrationReadsLeft > 0) {
+            calibrationReadsLeft--;
+        }
+
+        if (random.nextDouble() < crcFailureRate) {
+            // A broken transfer: the numbers are junk and the CRC says so
+            failedReads++;
+            block.crcOk = false;
+            block.posX_mm = random.nextInt();
+            block.posY_mm = random.nextInt();
+            block.heading_rad = random.nextFloat() * 100;
+            block.velX_mmS = (short) random.nextInt();
+            block.velY_mmS = (short) random.nextInt();
+            block.velHeading_radS = random.nextFloat() * 100;
+            return;
+        }
+
+        block.crcOk = true;
+        block.posX_mm = (int) Math.round(x);
+        block.posY_mm = (int) Math.round(y);
+        block.heading_rad = (float) heading;
+        block.velX_mmS = (short) Math.round(xVelocity);
+        block.velY_mmS = (short) Math.round(yVelocity);
+        block.velHeading_radS = (float) headingVelocity;
+    }
+
+    @Override
+    public void setLocalizerPose(int posXmm, int posYmm, float headingRad) {
+        x = posXmm;
+        y = posYmm;
+        heading = headingRad;
+    }
+
+    /** True robot X, in inches (to compare against what the localizer says). */
+    public double getTrueXInches() {
+        return x / 25.4;
+    }
+
+    /** True robot Y, in inches. */
+    public double getTrueYInches() {
+        return y / 25.4;
+    }
+
+    /** True robot heading, in radians. */
+    public double getTrueHeading() {
+        return heading;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public long getFailedReads() {
+        return failedReads;
+    }
+
+    /** The velocity window the localizer asked for (0 if it never configured us). */
+    public int getVelocityIntervalMs() {
+        return velocityIntervalMs;
+    }
+}
@@ -11,13 +11,23 @@ import com.pedropathing.ftc.drivetrains.MecanumConstants;
 import com.pedropathing.ftc.localization.Encoder;
 import com.pedropathing.ftc.localization.constants.TwoWheelConstants;
 import com.pedropathing.paths.PathConstraints;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
 import org.firstinspires.ftc.teamcode.ChassisConstants;
+import org.firstinspires.ftc.teamcode.localization.GovernedPinpointLocalizer;
+import org.firstinspires.ftc.teamcode.localization.OctoQuadLocalizer;
+import org.firstinspires.ftc.teamcode.localization.OctoQuadLocalizerConstants;
+import org.firstinspires.ftc.teamcode.localization.PinpointLocalizerConstants;
 
 public class Constants {
 
+    // Which localizer the follower uses. Change this one line to swap.
+    public enum LocalizerType { TWO_WHEEL, OCTOQUAD, PINPOINT }
+
+    public static LocalizerType LOCALIZER = LocalizerType.TWO_WHEEL;
+
     public static FollowerConstants followerConstants = new FollowerConstants()
             .mass(6.44)
             .forwardZeroPowerAcceleration(-31.0151)
@@ -58,6 +68,18 @@ public class Constants {
                     )
             );
 
+    public static OctoQuadLocalizerConstants octoQuadConstants = new OctoQuadLocalizerConstants()
+            .hardwareMapName("octoquad")
+            .ports(0, 1)
+            .ticksPerMm(13.26291192, 13.26291192)
+            .loopPeriodMs(20);
+
+    public static PinpointLocalizerConstants pinpointConstants = new PinpointLocalizerConstants()
+            .hardwareMapName("pinpoint")
+            .podOffsets(-.5, .5)
+            .podType(GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD)
+            .minReadIntervalMs(10);
+
     public static PathConstraints pathConstraints = new PathConstraints(
             0.995,
             500,
@@ -66,9 +88,23 @@ public class Constants {
     );
 
     public static Follower createFollower(HardwareMap hardwareMap) {
-        return new FollowerBuilder(followerConstants, hardwareMap)
-                .mecanumDrivetrain(driveConstants)
-                .twoWheelLocalizer(localizerConstants)
+        FollowerBuilder builder = new FollowerBuilder(followerConstants, hardwareMap)
+                .mecanumDrivetrain(driveConstants);
+
+        switch (LOCALIZER) {
+            case OCTOQUAD:
+                builder.setLocalizer(new OctoQuadLocalizer(hardwareMap, octoQuadConstants));
+                break;
+            case PINPOINT:
+                builder.setLocalizer(new GovernedPinpointLocalizer(hardwareMap, pinpointConstants));
+                break;
+            case TWO_WHEEL:
+            default:
+                builder.twoWheelLocalizer(localizerConstants);
+                break;
+        }
+
+        return builder
                 .pathConstraints(pathConstraints)
                 .build();
     }
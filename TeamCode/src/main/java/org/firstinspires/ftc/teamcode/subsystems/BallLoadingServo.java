@@ -14,7 +14,7 @@ import org.firstinspires.ftc.robotcore.external.Telemetry;
  * Think of it like a little conveyor belt motor
  * that helps push balls into the shooter.
  */
-public class BallLoadingServo implements Subsystem {
+public class BallLoadingServo implements Subsystem, SubsystemLifecycle.Managed {
 
     // We only want one copy of this class (Singleton pattern)
     private static BallLoadingServo INSTANCE = null;
@@ -47,7 +47,9 @@ public class BallLoadingServo implements Subsystem {
      */
     public static BallLoadingServo getInstance(Telemetry telemetry) {
         if (INSTANCE == null) {
-            INSTANCE = new BallLoadingServo(telemetry);
+            INSTANCE = SubsystemLifecycle.manage(new BallLoadingServo(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
         }
         return INSTANCE;
     }
@@ -119,6 +121,26 @@ public class BallLoadingServo implements Subsystem {
         crServo.setPower(0.0);
     }
 
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: a fresh servo wrapper, not spinning
+    @Override
+    public void reset() {
+        crServo = new CRServoEx(SERVO_NM);
+        currentPower = 0.0;
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends
+    @Override
+    public void dispose() {
+        stop();
+        currentPower = 0.0;
+    }
+
     /**
      * Runs repeatedly during TeleOp.
      * It shows what the servo is doing (forward, backward, or stopped)
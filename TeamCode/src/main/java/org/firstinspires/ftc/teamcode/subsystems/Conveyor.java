@@ -0,0 +1,241 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.bylazar.configurables.annotations.IgnoreConfigurable;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import dev.nextftc.core.commands.Command;
+import dev.nextftc.core.commands.utility.InstantCommand;
+import dev.nextftc.core.subsystems.Subsystem;
+import dev.nextftc.hardware.impl.MotorEx;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.hardware.WriteFilter;
+import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+
+/**
+ * This class controls the **conveyor belt** that carries balls up to the flywheel.
+ *
+ * Instead of always running at the same power, the belt follows the flywheel:
+ *  - it waits until the flywheel is up to speed and the hood has stopped moving
+ *    (so the first ball isn't a weak or badly aimed shot)
+ *  - then it runs at FEED_RATIO times the flywheel's real speed, so a slower
+ *    flywheel gets balls more slowly
+ *  - while the flywheel is getting its speed back after a shot, the belt slows down
+ *    (DIP_SLOWDOWN), so the next ball doesn't arrive before the wheel is ready for it
+ *
+ * That way we shoot as fast as the flywheel can keep up, and no faster.
+ *
+ * The belt runs in velocity mode (the hub holds the speed), so the battery level
+ * doesn't change the feed rate. The settings can be changed live from Panels.
+ */
+@Configurable
+public class Conveyor implements Subsystem, SubsystemLifecycle.Managed {
+
+    // Only one Conveyor in the whole program (Singleton pattern)
+    @IgnoreConfigurable
+    private static Conveyor INSTANCE = null;
+
+    // Used to show messages on the Driver Station phone
+    private Telemetry telemetry;
+
+    // The name of the motor as set in the Control Hub configuration
+    private static final String MOTOR_NM = "cbMotor";
+
+    // This is the motor that moves the belt
+    private MotorEx motor = new MotorEx(MOTOR_NM);
+
+    // goBILDA 5000 series bare motor: 28 encoder ticks per motor turn, 5800 RPM
+    private static final double MOTOR_CPR = 28.0;
+
+    // Belt motor RPM for every flywheel RPM. The old test code ran the belt at 0.75 power
+    // (about 4350 RPM) with the flywheel at 0.57 (about 3300 RPM)
+    public static double FEED_RATIO = 1.3;
+
+    // Never ask for more than this, so the hub can still hold the speed with a ball on the belt
+    public static double MAX_RPM = 5000.0;
+
+    // Part of the normal belt speed we use while the flywheel is recovering from a shot
+    public static double DIP_SLOWDOWN = 0.4;
+
+    /**
+     * What the belt is doing right now.
+     */
+    public enum State {
+        OFF,        // switched off
+        WAITING,    // switched on, waiting for the flywheel (and the hood) to be ready
+        FEEDING,    // moving balls at FEED_RATIO times the flywheel speed
+        SLOWED      // the flywheel is recovering from a shot, so we go slower
+    }
+
+    private State state = State.OFF;
+    private boolean enabled = false;
+    private double targetRpm = 0.0;
+
+    // The run mode and direction are only set once per OpMode (they are hardware writes)
+    private boolean motorSetUp = false;
+
+    // Velocity changes smaller than about 10 RPM (5 ticks per second) aren't worth a hub write
+    private WriteFilter writes = new WriteFilter(5.0, WriteFilter.REFRESH_MS);
+
+    // Belt speed from the encoder (for telemetry)
+    private final EncoderVelocityEstimator speed = new EncoderVelocityEstimator(MOTOR_CPR, 6, 60.0);
+
+    /**
+     * Private constructor — so no one else can make another Conveyor.
+     */
+    private Conveyor(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Returns the single Conveyor instance.
+     * If it doesn’t exist yet, it creates it.
+     */
+    public static Conveyor getInstance(Telemetry telemetry) {
+        if (INSTANCE == null) {
+            INSTANCE = SubsystemLifecycle.manage(new Conveyor(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the existing Conveyor instance (after it's created).
+     * Throws an error if someone forgot to set it up first.
+     */
+    public static Conveyor getInstance() {
+        if (INSTANCE == null) {
+            throw new IllegalStateException("Conveyor must be set up first!");
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Stops the belt if a Conveyor was ever made. The singleton lives on from the first
+     * OpMode that made it, so it can exist in an OpMode that never uses it (like
+     * autonomous after a teleop run); {@link #stop()} doesn't touch the motor then.
+     */
+    public static void stopIfCreated() {
+        if (INSTANCE != null) {
+            INSTANCE.stop();
+        }
+    }
+
+    /**
+     * Command to switch feeding on or off.
+     * When it's on, the belt still waits for the flywheel before it moves.
+     */
+    public Command startStop = new InstantCommand(() -> enabled = !enabled).requires(this);
+
+    /**
+     * Tells us if feeding is switched on (the belt may still be waiting for the flywheel).
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Stops the belt right away and switches feeding off.
+     * If this OpMode never ran the belt, the SDK already stopped the motor between
+     * OpModes, so we don't send anything (and don't set up a motor this OpMode doesn't use).
+     */
+    public void stop() {
+        enabled = false;
+        state = State.OFF;
+        targetRpm = 0.0;
+        if (motorSetUp) {
+            setRpm(0.0);
+        }
+    }
+
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: a fresh motor wrapper, switched off
+    @Override
+    public void reset() {
+        motor = new MotorEx(MOTOR_NM);
+        motorSetUp = false;
+        writes = new WriteFilter(5.0, WriteFilter.REFRESH_MS);
+        speed.reset();
+        enabled = false;
+        state = State.OFF;
+        targetRpm = 0.0;
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends
+    @Override
+    public void dispose() {
+        stop();
+    }
+
+    /**
+     * Works out what the belt should do from the flywheel, and sends the speed.
+     * Runs every loop: a shot dip only lasts a few loops.
+     */
+    @Override
+    public void periodic() {
+        ShootingSystem shooter = ShootingSystem.getInstance();
+        boolean recovering = shooter.getShotDetector().isInDip();
+
+        if (!enabled || !shooter.isRunning()) {
+            state = enabled ? State.WAITING : State.OFF;
+        } else if (state == State.FEEDING || state == State.SLOWED) {
+            // Already feeding: a shot dip may take the flywheel under "at speed" for a moment,
+            // that only slows us down. Anything else (power turned down a lot) makes us wait.
+            state = recovering ? State.SLOWED : isReady(shooter) ? State.FEEDING : State.WAITING;
+        } else {
+            state = isReady(shooter) ? State.FEEDING : State.WAITING;
+        }
+
+        // Follow the flywheel's real speed, not its power
+        double rpm = Math.min(MAX_RPM, FEED_RATIO * Math.abs(shooter.getRpm()));
+        if (state == State.SLOWED) {
+            rpm *= DIP_SLOWDOWN;
+        } else if (state != State.FEEDING) {
+            rpm = 0.0;
+        }
+        targetRpm = rpm;
+        setRpm(rpm);
+
+        // Position comes from the bulk read
+        speed.update(motor.getMotor().getCurrentPosition(), System.nanoTime());
+
+        telemetry.addData("<===== Conveyor =====>", "");
+        telemetry.addData("Conveyor State", state);
+        telemetry.addData("Conveyor RPM (target)", "%.0f (%.0f)", speed.getRpm(), targetRpm);
+    }
+
+    // Flywheel at speed, and the hood is where it should be
+    private static boolean isReady(ShootingSystem shooter) {
+        return shooter.isAtSpeed() && ShootingDirectionServo.isReadyToShoot();
+    }
+
+    /**
+     * Sends a belt speed. All writes go through the SDK motor (not the NextFTC wrapper),
+     * and only when the speed really changed.
+     */
+    private void setRpm(double rpm) {
+        DcMotorEx dc = motor.getMotor();
+        if (!motorSetUp) {
+            dc.setDirection(DcMotorSimple.Direction.REVERSE);   // same as the old test code
+            dc.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            dc.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);   // balls stay put while we wait
+            motorSetUp = true;
+        }
+        double ticksPerSecond = rpm / 60.0 * MOTOR_CPR;
+        if (writes.shouldWrite(ticksPerSecond, System.nanoTime())) {
+            dc.setVelocity(ticksPerSecond);
+        }
+    }
+}
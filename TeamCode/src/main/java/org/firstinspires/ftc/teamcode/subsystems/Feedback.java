@@ -0,0 +1,324 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.qualcomm.hardware.rev.RevBlinkinLedDriver;
+import com.qualcomm.hardware.rev.RevBlinkinLedDriver.BlinkinPattern;
+import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.Debouncer;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Tells the drivers what the robot is doing **without telemetry**: the drivers
+ * can't read the phone during a match, but they can feel a rumble and see a light.
+ *
+ * It shows one {@link Signal} at a time on the Blinkin LED strip (and the light bar
+ * of PS4/PS5 controllers), and buzzes the controllers when something changes:
+ *  - jam              → flashing red, both controllers buzz
+ *  - flywheel at speed → green (gold if the aim isn't locked yet), operator gets a short buzz
+ *  - spinning up      → yellow
+ *  - otherwise        → a color for how many balls are inside (full = white, driver gets 3 blips)
+ *
+ * Writes to the lights and controllers are kept to a minimum: the inputs are
+ * debounced, a light is only sent a new pattern when the pattern actually
+ * changes, and never more often than {@link #MIN_LED_WRITE_MS}.
+ */
+public class Feedback implements Subsystem, SubsystemLifecycle.Managed {
+
+    // We only want one copy of this class (Singleton pattern)
+    private static Feedback INSTANCE = null;
+
+    // The name of the Blinkin as set in the Control Hub configuration (it's optional)
+    private static final String LED_NM = "blinkin";
+
+    // A new input value must last this long before we show it
+    private static final double DEBOUNCE_MS = 100.0;
+
+    // Never change the lights faster than this (each change is a hardware write)
+    private static final long MIN_LED_WRITE_MS = 100;
+
+    // Never start a new rumble on the same controller faster than this
+    private static final long MIN_RUMBLE_MS = 300;
+
+    // Rumble lengths
+    private static final int READY_RUMBLE_MS = 200;
+    private static final int JAM_RUMBLE_MS = 600;
+
+    // The robot holds this many balls
+    private static final int MAX_BALLS = 3;
+
+    /**
+     * What the lights can show, most important first.
+     */
+    public enum Signal {
+        JAM(BlinkinPattern.STROBE_RED, 1, 0, 0),
+        READY(BlinkinPattern.GREEN, 0, 1, 0),
+        READY_NOT_AIMED(BlinkinPattern.GOLD, 1, 0.6, 0),
+        SPINNING_UP(BlinkinPattern.YELLOW, 1, 1, 0),
+        EMPTY(BlinkinPattern.BLACK, 0, 0, 0),
+        ONE_BALL(BlinkinPattern.BLUE, 0, 0, 1),
+        TWO_BALLS(BlinkinPattern.SKY_BLUE, 0, 0.5, 1),
+        FULL(BlinkinPattern.WHITE, 1, 1, 1);
+
+        public final BlinkinPattern pattern;
+
+        // Controller light bar color (0..1 for red, green, blue)
+        public final double red, green, blue;
+
+        Signal(BlinkinPattern pattern, double red, double green, double blue) {
+            this.pattern = pattern;
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+        }
+    }
+
+    // Used to show messages on the Driver Station phone
+    private Telemetry telemetry;
+
+    // Outputs (any of them may be missing)
+    private RevBlinkinLedDriver blinkin;
+    private Gamepad driverGamepad;
+    private Gamepad operatorGamepad;
+
+    // Inputs (set with watch(); missing ones are treated as "no")
+    private BooleanSupplier flywheelOnInput;
+    private BooleanSupplier atSpeedInput;
+    private BooleanSupplier jammedInput;
+    private BooleanSupplier aimLockedInput;
+    private IntSupplier ballCountInput;
+
+    private final Debouncer atSpeed = new Debouncer(DEBOUNCE_MS, false);
+    private final Debouncer jammed = new Debouncer(DEBOUNCE_MS, false);
+    private final Debouncer aimLocked = new Debouncer(DEBOUNCE_MS, false);
+
+    // Ball count has to stay the same for the debounce time too
+    private int ballCount = 0;
+    private int ballCountCandidate = 0;
+    private long ballCountSinceNanos = 0;
+
+    // What we are showing, and what we last actually sent to the lights
+    private Signal signal = Signal.EMPTY;
+    private Signal shownSignal = null;
+    private long lastLedWriteNanos = 0;
+    private long lastDriverRumbleNanos = 0;
+    private long lastOperatorRumbleNanos = 0;
+
+    // Counters, to check that we really aren't writing every loop
+    private int ledWrites = 0;
+    private int rumbles = 0;
+    private int droppedRumbles = 0;
+
+    private Feedback(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Gets or creates the one Feedback subsystem for the robot.
+     */
+    public static Feedback getInstance(Telemetry telemetry) {
+        if (INSTANCE == null) {
+            INSTANCE = SubsystemLifecycle.manage(new Feedback(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Finds the outputs. Call this from the OpMode's init (the hardwareMap is ready then).
+     * The Blinkin is optional, and either gamepad may be null (for example in autonomous).
+     *
+     * @param driver   the controller that drives (gets "robot is full")
+     * @param operator the controller that shoots (gets "at speed")
+     */
+    public void start(HardwareMap hardwareMap, Gamepad driver, Gamepad operator) {
+        blinkin = hardwareMap.tryGet(RevBlinkinLedDriver.class, LED_NM);
+        driverGamepad = driver;
+        operatorGamepad = operator;
+    }
+
+    /**
+     * Says where the robot state comes from. Pass null for anything we can't tell yet.
+     */
+    public void watch(BooleanSupplier flywheelOn, BooleanSupplier flywheelAtSpeed, IntSupplier ballCount,
+                      BooleanSupplier jammed, BooleanSupplier aimLocked) {
+        flywheelOnInput = flywheelOn;
+        atSpeedInput = flywheelAtSpeed;
+        ballCountInput = ballCount;
+        jammedInput = jammed;
+        aimLockedInput = aimLocked;
+    }
+
+    public Signal getSignal() {
+        return signal;
+    }
+
+    public int getLedWrites() {
+        return ledWrites;
+    }
+
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: forget the old outputs and inputs
+    @Override
+    public void reset() {
+        blinkin = null;
+        driverGamepad = null;
+        operatorGamepad = null;
+        watch(null, null, null, null, null);
+        atSpeed.reset(false);
+        jammed.reset(false);
+        aimLocked.reset(false);
+        ballCount = 0;
+        ballCountCandidate = 0;
+        signal = Signal.EMPTY;
+        shownSignal = null;
+        lastDriverRumbleNanos = 0;
+        lastOperatorRumbleNanos = 0;
+        ledWrites = 0;
+        rumbles = 0;
+        droppedRumbles = 0;
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends: lights off
+    @Override
+    public void dispose() {
+        if (blinkin != null) {
+            blinkin.setPattern(BlinkinPattern.BLACK);
+        }
+    }
+
+    /**
+     * Runs every loop: works out the signal, and only touches the hardware if something changed.
+     */
+    @Override
+    public void periodic() {
+        long now = System.nanoTime();
+
+        boolean wasReady = atSpeed.get() && (aimLockedInput == null || aimLocked.get());
+        boolean wasJammed = jammed.get();
+        int oldBallCount = ballCount;
+
+        atSpeed.update(read(atSpeedInput), now);
+        jammed.update(read(jammedInput), now);
+        aimLocked.update(read(aimLockedInput), now);
+        updateBallCount(now);
+
+        boolean ready = atSpeed.get() && (aimLockedInput == null || aimLocked.get());
+        signal = chooseSignal();
+
+        // Buzz only on the moment something changes
+        if (jammed.get() && !wasJammed) {
+            rumble(true, JAM_RUMBLE_MS, 0, now);
+            rumble(false, JAM_RUMBLE_MS, 0, now);
+        } else if (ready && !wasReady) {
+            rumble(false, READY_RUMBLE_MS, 0, now);
+        }
+        if (ballCount >= MAX_BALLS && oldBallCount < MAX_BALLS) {
+            rumble(true, 0, MAX_BALLS, now);
+        }
+
+        showSignal(now);
+
+        telemetry.addData("<===== Feedback =====>", "");
+        telemetry.addData("Signal", signal);
+        telemetry.addData("LED writes / rumbles (skipped)", "%d / %d (%d)", ledWrites, rumbles, droppedRumbles);
+    }
+
+    private Signal chooseSignal() {
+        if (jammed.get()) {
+            return Signal.JAM;
+        }
+        if (atSpeed.get()) {
+            boolean aimUnknown = aimLockedInput == null;
+            return aimUnknown || aimLocked.get() ? Signal.READY : Signal.READY_NOT_AIMED;
+        }
+        if (read(flywheelOnInput)) {
+            return Signal.SPINNING_UP;
+        }
+        switch (Math.min(ballCount, MAX_BALLS)) {
+            case 0:
+                return Signal.EMPTY;
+            case 1:
+                return Signal.ONE_BALL;
+            case 2:
+                return Signal.TWO_BALLS;
+            default:
+                return Signal.FULL;
+        }
+    }
+
+    private void updateBallCount(long now) {
+        int raw = ballCountInput == null ? 0 : ballCountInput.getAsInt();
+        if (raw != ballCountCandidate) {
+            ballCountCandidate = raw;
+            ballCountSinceNanos = now;
+        }
+        if (ballCountCandidate != ballCount && now - ballCountSinceNanos >= (long) (DEBOUNCE_MS * 1e6)) {
+            ballCount = ballCountCandidate;
+        }
+    }
+
+    /**
+     * Sends the signal to the lights, but only if it changed and we haven't written
+     * too recently. If we have to wait, we just try again next loop.
+     */
+    private void showSignal(long now) {
+        if (signal == shownSignal) {
+            return;
+        }
+        if (shownSignal != null && now - lastLedWriteNanos < MIN_LED_WRITE_MS * 1_000_000L) {
+            return;
+        }
+        if (blinkin != null) {
+            blinkin.setPattern(signal.pattern);
+        }
+        // The light bar stays on until we change it
+        if (operatorGamepad != null) {
+            operatorGamepad.setLedColor(signal.red, signal.green, signal.blue, Gamepad.LED_DURATION_CONTINUOUS);
+        }
+        shownSignal = signal;
+        lastLedWriteNanos = now;
+        ledWrites++;
+    }
+
+    /**
+     * Buzzes one controller: either one rumble of a length, or a number of short blips.
+     * Skipped if that controller buzzed very recently.
+     */
+    private void rumble(boolean driver, int milliseconds, int blips, long now) {
+        Gamepad gamepad = driver ? driverGamepad : operatorGamepad;
+        if (gamepad == null) {
+            return;
+        }
+        long last = driver ? lastDriverRumbleNanos : lastOperatorRumbleNanos;
+        if (last != 0 && now - last < MIN_RUMBLE_MS * 1_000_000L) {
+            droppedRumbles++;
+            return;
+        }
+        if (blips > 0) {
+            gamepad.rumbleBlips(blips);
+        } else {
+            gamepad.rumble(milliseconds);
+        }
+        if (driver) {
+            lastDriverRumbleNanos = now;
+        } else {
+            lastOperatorRumbleNanos = now;
+        }
+        rumbles++;
+    }
+
+    private static boolean read(BooleanSupplier input) {
+        return input != null && input.getAsBoolean();
+    }
+}
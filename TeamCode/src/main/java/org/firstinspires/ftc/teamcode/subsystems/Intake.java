@@ -1,20 +1,39 @@
 package org.firstinspires.ftc.teamcode.subsystems;
 
+import com.bylazar.configurables.annotations.Configurable;
+import com.bylazar.configurables.annotations.IgnoreConfigurable;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
 import dev.nextftc.core.commands.Command;
 import dev.nextftc.core.commands.utility.InstantCommand;
 import dev.nextftc.core.subsystems.Subsystem;
 import dev.nextftc.hardware.impl.MotorEx;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+import org.firstinspires.ftc.teamcode.util.VelocityDipDetector;
 
 /**
  * This class controls the **intake system** on the robot.
  *
  * The intake is the part that *picks up game pieces* (like rings or balls)
  * and pulls them into the robot using a spinning motor.
+ *
+ * It runs in **velocity mode**: the hub keeps the motor at INTAKE_RPM, so the
+ * intake pulls balls in at the same speed with a full or a tired battery.
+ *
+ * Because the speed is held, every ball that is pulled in shows up as a short
+ * speed dip plus a jump in motor current. We count those, so we know how many
+ * balls came in without any extra sensor (see {@link #getIngestedCount()}).
+ *
+ * The speeds, jam and ball-counting settings can be changed live from Panels.
  */
-public class Intake implements Subsystem {
+@Configurable
+public class Intake implements Subsystem, SubsystemLifecycle.Managed {
 
     // We only want ONE Intake object in the whole program (Singleton pattern)
+    @IgnoreConfigurable
     private static Intake INSTANCE = null;
 
     // Used to show messages and data on the Driver Station phone
@@ -34,7 +53,9 @@ public class Intake implements Subsystem {
      */
     public static Intake getInstance(Telemetry telemetry) {
         if (INSTANCE == null) {
-            INSTANCE = new Intake(telemetry);
+            INSTANCE = SubsystemLifecycle.manage(new Intake(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
         }
         return INSTANCE;
     }
@@ -50,13 +71,67 @@ public class Intake implements Subsystem {
         return INSTANCE;
     }
 
+    // The name of the motor as set in the Control Hub configuration
+    private static final String MOTOR_NM = "intakeMotor";
+
     // This is the motor that makes the intake spin
-    private MotorEx motor = new MotorEx("intakeMotor");
+    private MotorEx motor = new MotorEx(MOTOR_NM);
 
-    // Power settings for different actions
-    private static final double REVERSE_POWER = -1.0;  // Spin backward (push things OUT)
+    // goBILDA 5000 series bare motor: 28 encoder ticks per motor turn
+    private static final double MOTOR_CPR = 28.0;
+
+    // Motor speeds (RPM) for the different actions. The motor can do about 5800 with a full
+    // battery; staying below that leaves room for the hub to hold the speed under load.
+    public static double INTAKE_RPM = 4500.0;   // Spin forward (pull things IN)
+    public static double REVERSE_RPM = 4500.0;  // Spin backward (push things OUT)
+
+    // Set false to go back to plain power (for example if the encoder cable is broken)
+    public static boolean USE_VELOCITY_CONTROL = true;
+    public static double REVERSE_POWER = -1.0;  // Power used when velocity control is off
+    public static double INTAKE_POWER = 1.0;
     private static final double STOP_POWER = 0.0;      // Stop spinning
-    private static final double INTAKE_POWER = 1.0;    // Spin forward (pull things IN)
+
+    /**
+     * What the intake is doing. We keep track ourselves instead of guessing from the motor
+     * power, which in velocity mode is whatever the hub needs.
+     */
+    public enum Mode { STOPPED, INTAKING, REVERSING }
+
+    private Mode mode = Mode.STOPPED;
+
+    // Counts every mode change, so others can tell if someone else changed the mode
+    private int modeChanges = 0;
+
+    // The run mode is only set once per OpMode (it is a hardware write)
+    private boolean runModeSet = false;
+
+    // Ball counting: a speed dip (at least BALL_DIP_FRACTION below the normal speed, falling
+    // at least BALL_DIP_RATE rpm per second) that comes with a current jump of at least
+    // BALL_CURRENT_AMPS above normal is one ball
+    public static double BALL_DIP_FRACTION = 0.05;
+    public static double BALL_DIP_RATE = 2500.0;
+    public static double BALL_CURRENT_AMPS = 1.0;
+
+    // Outside a dip the current changes slowly, so we only read it this often there
+    private static final long NORMAL_CURRENT_PERIOD_NANOS = 100_000_000L;
+
+    private final EncoderVelocityEstimator speed = new EncoderVelocityEstimator(MOTOR_CPR, 6, 60.0);
+    private VelocityDipDetector dips = makeDipDetector();
+    private int ingestedCount = 0;
+
+    // Current while nothing is coming in, and the highest current in the dip going on now
+    private double normalCurrent = 0.0;
+    private double dipPeakCurrent = 0.0;
+    private double current = 0.0;
+    private long lastNormalCurrentNanos = 0;
+
+    // If the motor is told to spin but turns slower than this for JAM_TIME_MS, something is stuck
+    public static double JAM_VELOCITY = 100.0;   // encoder ticks per second
+    public static long JAM_TIME_MS = 300;
+
+    // When (System.nanoTime()) the motor started being too slow; 0 means it isn't
+    private long slowSinceNanos = 0;
+    private boolean jammed = false;
 
     /**
      * Command to start or stop the intake motor.
@@ -65,39 +140,193 @@ public class Intake implements Subsystem {
      * - If it's already spinning, it stops
      */
     public Command startStop = new InstantCommand(() -> {
-        if (motor.getPower() <= 0.10 && motor.getPower() >= 0.0)
-            motor.setPower(INTAKE_POWER);   // Turn ON the intake
+        if (mode != Mode.INTAKING)
+            setMode(Mode.INTAKING);   // Turn ON the intake
         else
-            motor.setPower(STOP_POWER);     // Turn it OFF
+            setMode(Mode.STOPPED);    // Turn it OFF
     }).requires(this);
 
+    /**
+     * Tells us if the intake is spinning forward (pulling things in).
+     */
+    public boolean isRunning() {
+        return mode == Mode.INTAKING;
+    }
+
+    /**
+     * How many times the mode was set this OpMode. If it went up, someone (usually the
+     * driver) pressed a button since you last looked.
+     */
+    public int getModeChanges() {
+        return modeChanges;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * How many balls were pulled in this OpMode (counted from speed dips with a current jump).
+     */
+    public int getIngestedCount() {
+        return ingestedCount;
+    }
+
+    /**
+     * Sends the new mode to the motor. All motor writes go through the SDK motor here
+     * (not the NextFTC wrapper), so its power cache can't skip one.
+     */
+    private void setMode(Mode newMode) {
+        mode = newMode;
+        modeChanges++;
+        DcMotorEx dc = motor.getMotor();
+        if (!USE_VELOCITY_CONTROL) {
+            dc.setPower(newMode == Mode.INTAKING ? INTAKE_POWER : newMode == Mode.REVERSING ? REVERSE_POWER : STOP_POWER);
+            return;
+        }
+        if (!runModeSet) {
+            dc.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            runModeSet = true;
+        }
+        if (newMode == Mode.STOPPED) {
+            dc.setPower(STOP_POWER);   // let it coast down instead of braking hard to 0 RPM
+        } else {
+            double rpm = newMode == Mode.INTAKING ? INTAKE_RPM : -REVERSE_RPM;
+            dc.setVelocity(rpm / 60.0 * MOTOR_CPR);
+        }
+    }
+
+    private static VelocityDipDetector makeDipDetector() {
+        // Below half the target speed we aren't intaking (starting up or stuck); a ball takes a
+        // lot less than a second
+        return new VelocityDipDetector(INTAKE_RPM * 0.5, BALL_DIP_FRACTION, BALL_DIP_RATE, 0.02, 500.0);
+    }
+
+    /**
+     * Tells us if the intake looks stuck: it is powered, but hardly turning.
+     * Updated in periodic().
+     */
+    public boolean isJammed() {
+        return jammed;
+    }
+
     /**
      * Stops the intake completely (used in emergencies or resets)
      */
     public void stop() {
-        motor.setPower(STOP_POWER);
+        setMode(Mode.STOPPED);
+    }
+
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: a fresh motor wrapper
+    @Override
+    public void reset() {
+        motor = new MotorEx(MOTOR_NM);
+        mode = Mode.STOPPED;
+        modeChanges = 0;
+        runModeSet = false;
+        slowSinceNanos = 0;
+        jammed = false;
+        speed.reset();
+        dips = makeDipDetector();
+        ingestedCount = 0;
+        normalCurrent = 0.0;
+        current = 0.0;
+        lastNormalCurrentNanos = 0;
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends. If this OpMode never switched the
+    // intake, the SDK already stopped the motor between OpModes, so we don't send anything
+    @Override
+    public void dispose() {
+        if (modeChanges > 0) {
+            stop();
+        }
     }
 
     /**
      * Command to reverse the intake motor.
      * This is used to push out game pieces that might be stuck.
      */
-    public Command reverse = new InstantCommand(() -> motor.setPower(REVERSE_POWER))
+    public Command reverse = new InstantCommand(() -> setMode(Mode.REVERSING))
+            .requires(this);
+
+    /**
+     * Command to spin the intake forward (pull things IN), no matter what it was doing.
+     * Used to go back to intaking after spitting out a wrong-color artifact.
+     */
+    public Command forward = new InstantCommand(() -> setMode(Mode.INTAKING))
             .requires(this);
 
     /**
      * This method runs all the time during TeleOp.
      * It shows live data about what the intake motor is doing:
-     *  - Power level (how hard it's spinning)
-     *  - Direction (FORWARD or REVERSE)
-     *  - Velocity (how fast it’s turning)
+     *  - Mode (intaking, reversing or stopped)
+     *  - Speed (RPM) next to the speed we asked for
+     *  - Current and how many balls came in
      */
     @Override
     public void periodic() {
+        long now = System.nanoTime();
+        speed.update(motor.getCurrentPosition(), now);   // from the bulk read
+        countBalls(now);
+
+        // Jam check: told to spin but (almost) not turning for a while
+        double velocity = motor.getVelocity();
+        if (mode != Mode.STOPPED && Math.abs(velocity) < JAM_VELOCITY) {
+            if (slowSinceNanos == 0) {
+                slowSinceNanos = now;
+            }
+            jammed = now - slowSinceNanos >= JAM_TIME_MS * 1_000_000L;
+        } else {
+            slowSinceNanos = 0;
+            jammed = false;
+        }
+
         telemetry.addData("<===== Intake Subsystem =====>", "");
-        telemetry.addData("Intake Power", "%.2f", motor.getPower());
-        telemetry.addData("Intake Direction", motor.getDirection());
-        telemetry.addData("Intake Velocity", "%.2f", motor.getVelocity());
+        telemetry.addData("Intake Mode", "%s (%s)", mode, USE_VELOCITY_CONTROL ? "velocity" : "power");
+        telemetry.addData("Intake RPM (target)", "%.0f (%.0f)", speed.getRpm(),
+                mode == Mode.INTAKING ? INTAKE_RPM : mode == Mode.REVERSING ? -REVERSE_RPM : 0.0);
+        telemetry.addData("Intake Velocity", "%.2f", velocity);
+        telemetry.addData("Intake Current", "%.2f A", current);
+        telemetry.addData("Balls In", ingestedCount);
+        telemetry.addData("Intake Jammed", jammed);
         //telemetry.update(); // optional, updates the screen immediately
     }
+
+    /**
+     * Counts a ball when the speed dips AND the current jumps at the same time.
+     * (A dip on its own can be a bump; a current jump on its own can be the battery.)
+     * The current is not part of the bulk read (every read is its own trip to the hub),
+     * so we read it every loop only during a dip, and 10 times a second otherwise.
+     */
+    private void countBalls(long now) {
+        if (mode != Mode.INTAKING) {
+            dips.update(0.0, 0.0, now);   // below its minimum speed: it forgets the old speed
+            return;
+        }
+
+        boolean wasInDip = dips.isInDip();
+        // The detector wants a positive speed, whichever way the encoder counts
+        double rpm = speed.getRpm();
+        VelocityDipDetector.Dip dip = dips.update(Math.abs(rpm), Math.signum(rpm) * speed.getRpmPerSecond(), now);
+
+        if (dips.isInDip()) {
+            current = motor.getMotor().getCurrent(CurrentUnit.AMPS);
+            dipPeakCurrent = wasInDip ? Math.max(dipPeakCurrent, current) : current;
+        } else if (dip == null && now - lastNormalCurrentNanos >= NORMAL_CURRENT_PERIOD_NANOS) {
+            // Nothing coming in: learn the normal current
+            current = motor.getMotor().getCurrent(CurrentUnit.AMPS);
+            lastNormalCurrentNanos = now;
+            normalCurrent = normalCurrent == 0.0 ? current : normalCurrent + 0.4 * (current - normalCurrent);
+        }
+        if (dip != null && dipPeakCurrent - normalCurrent >= BALL_CURRENT_AMPS) {
+            ingestedCount++;
+        }
+    }
 }
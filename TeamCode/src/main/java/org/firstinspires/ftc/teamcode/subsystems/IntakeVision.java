@@ -0,0 +1,287 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import android.util.Size;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import dev.nextftc.core.commands.Command;
+import dev.nextftc.core.commands.utility.InstantCommand;
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.teamcode.util.TimedResult;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColorProcessor;
+import org.firstinspires.ftc.teamcode.vision.ArtifactColorResult;
+import org.firstinspires.ftc.vision.VisionPortal;
+
+/**
+ * This class uses a camera pointed at the **intake mouth** to see what color
+ * each artifact is as it comes in.
+ *
+ * If we tell it which color we want, it can spit out the wrong color
+ * by running {@link Intake#reverse} for a moment and then going back to what the
+ * intake was doing before. If the driver presses an intake button while we spit,
+ * the driver wins and we don't change anything afterwards.
+ *
+ * The camera runs on its own thread. This class never waits for it:
+ * it just peeks at the newest answer every loop.
+ */
+public class IntakeVision implements Subsystem, SubsystemLifecycle.Managed {
+
+    // We only want one copy of this class (Singleton pattern)
+    private static IntakeVision INSTANCE = null;
+
+    // The name of the camera as set in the Control Hub configuration
+    private static final String CAMERA_NM = "Webcam 1";
+
+    // Small camera picture = fast processing (same size as the color locator samples)
+    private static final int CAMERA_WIDTH = 320;
+    private static final int CAMERA_HEIGHT = 240;
+
+    // Where the intake mouth is in the picture (fractions of width/height)
+    private static final double ROI_LEFT = 0.35;
+    private static final double ROI_TOP = 0.55;
+    private static final double ROI_RIGHT = 0.65;
+    private static final double ROI_BOTTOM = 0.90;
+
+    // Start by using every 2nd pixel, and try to keep each frame under 8 ms
+    private static final int START_DECIMATION = 2;
+    private static final double TARGET_PROCESSING_MS = 8.0;
+
+    // Ignore answers older than this (the ball has already moved on)
+    private static final double MAX_RESULT_AGE_MS = 150.0;
+
+    // How long to spit out a wrong-color artifact
+    private static final long REJECT_TIME_MS = 400;
+
+    // Used to show messages on the Driver Station phone
+    private Telemetry telemetry;
+
+    private VisionPortal portal;
+    private ArtifactColorProcessor colorProcessor;
+
+    // The color we want to keep. NONE means "keep everything".
+    private ArtifactColor wantedColor = ArtifactColor.NONE;
+
+    // Turns the automatic rejecting on and off
+    private boolean autoRejectEnabled = false;
+
+    // When (System.nanoTime()) we should stop spitting out; 0 means we aren't rejecting
+    private long rejectUntilNanos = 0;
+    private int rejectedCount = 0;
+
+    // What the intake was doing before we reversed it, and its mode count right after our reverse
+    private Intake.Mode modeBeforeReject = Intake.Mode.STOPPED;
+    private int modeChangesAfterReject = 0;
+
+    private IntakeVision(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Gets or creates the one IntakeVision for the robot.
+     */
+    public static IntakeVision getInstance(Telemetry telemetry) {
+        if (INSTANCE == null) {
+            INSTANCE = SubsystemLifecycle.manage(new IntakeVision(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the existing IntakeVision (after it's created).
+     */
+    public static IntakeVision getInstance() {
+        if (INSTANCE == null) {
+            throw new IllegalStateException("IntakeVision must be set up first!");
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the camera. Call this from the OpMode's init, because the
+     * hardwareMap is not ready yet when the OpMode is constructed.
+     *
+     * If the camera is not in the configuration we just keep going without vision.
+     */
+    public void startCamera(HardwareMap hardwareMap) {
+        if (portal != null) {
+            return;
+        }
+        try {
+            // The processor doesn't hold on to the camera, so we keep it from the last OpMode
+            if (colorProcessor == null) {
+                colorProcessor = new ArtifactColorProcessor(ROI_LEFT, ROI_TOP, ROI_RIGHT, ROI_BOTTOM,
+                        START_DECIMATION, TARGET_PROCESSING_MS);
+            }
+            portal = new VisionPortal.Builder()
+                    .setCamera(hardwareMap.get(WebcamName.class, CAMERA_NM))
+                    .setCameraResolution(new Size(CAMERA_WIDTH, CAMERA_HEIGHT))
+                    .addProcessor(colorProcessor)
+                    .build();
+        } catch (Exception e) {
+            telemetry.addData("Intake Vision", "Camera not found: " + e.getMessage());
+            colorProcessor = null;
+            portal = null;
+        }
+    }
+
+    /**
+     * Turns the camera off and frees it. Call this when the OpMode ends.
+     */
+    public void stopCamera() {
+        if (portal != null) {
+            portal.close();
+            portal = null;
+        }
+    }
+
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: forget the last OpMode's choices
+    @Override
+    public void reset() {
+        wantedColor = ArtifactColor.NONE;
+        autoRejectEnabled = false;
+        rejectUntilNanos = 0;
+        rejectedCount = 0;
+        modeBeforeReject = Intake.Mode.STOPPED;
+        modeChangesAfterReject = 0;
+        if (colorProcessor != null) {
+            colorProcessor.getBus().clear();   // an old answer would look like a ball at the intake
+        }
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends
+    @Override
+    public void dispose() {
+        stopCamera();
+    }
+
+    /**
+     * The camera portal (null if there is no camera). Used by the VisionScheduler.
+     */
+    public VisionPortal getPortal() {
+        return portal;
+    }
+
+    /**
+     * The color processor (null if there is no camera). Used by the VisionScheduler.
+     */
+    public ArtifactColorProcessor getColorProcessor() {
+        return colorProcessor;
+    }
+
+    /**
+     * Tells the vision which color to keep. Anything else gets spit out
+     * (when auto reject is on). Use NONE to keep everything.
+     */
+    public void setWantedColor(ArtifactColor color) {
+        wantedColor = color;
+    }
+
+    /**
+     * Command to turn automatic wrong-color rejecting on or off.
+     */
+    public Command toggleAutoReject = new InstantCommand(() -> {
+        autoRejectEnabled = !autoRejectEnabled;
+    }).requires(this);
+
+    /**
+     * Gives back the color at the intake mouth right now,
+     * or NONE if we can't see one (or the answer is too old).
+     */
+    public ArtifactColor getCurrentColor() {
+        TimedResult<ArtifactColorResult> result = getFreshResult();
+        return result == null ? ArtifactColor.NONE : result.value.color;
+    }
+
+    /** How many wrong-color artifacts we spat out this OpMode. */
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Runs every loop. Reads the newest color (without waiting) and spits
+     * out wrong-color artifacts if auto reject is turned on.
+     */
+    @Override
+    public void periodic() {
+        long now = System.nanoTime();
+
+        // Finished spitting? Go back to what the intake was doing before
+        if (rejectUntilNanos != 0 && now >= rejectUntilNanos) {
+            rejectUntilNanos = 0;
+            restoreIntake();
+        }
+
+        TimedResult<ArtifactColorResult> result = getFreshResult();
+        if (autoRejectEnabled && rejectUntilNanos == 0 && isWrongColor(result)) {
+            Intake intake = Intake.getInstance();
+            rejectUntilNanos = now + REJECT_TIME_MS * 1_000_000L;
+            rejectedCount++;
+            modeBeforeReject = intake.getMode();
+            modeChangesAfterReject = intake.getModeChanges() + 1;   // + our reverse
+            intake.reverse.schedule();
+        }
+
+        telemetry.addData("<===== Intake Vision =====>", "");
+        if (colorProcessor == null) {
+            telemetry.addData("Vision Status", "No Camera");
+            return;
+        }
+        if (result != null) {
+            telemetry.addData("Artifact Color", result.value.color);
+            telemetry.addData("Capture-to-use Latency", "%.1f ms", result.latencyMs());
+        } else {
+            telemetry.addData("Artifact Color", "-");
+        }
+        telemetry.addData("Wanted / Auto Reject", "%s / %s", wantedColor, autoRejectEnabled);
+        telemetry.addData("Rejected", rejectedCount);
+        telemetry.addData("Frame ms (avg/max/target)", "%.1f / %.1f / %.1f",
+                colorProcessor.getAverageProcessingMs(), colorProcessor.getMaxProcessingMs(),
+                colorProcessor.getTargetProcessingMs());
+        telemetry.addData("Decimation", colorProcessor.getDecimation());
+    }
+
+    /**
+     * Puts the intake back how it was before the reject, unless someone else changed its
+     * mode during the reject (then that was the driver, and the driver wins).
+     */
+    private void restoreIntake() {
+        Intake intake = Intake.getInstance();
+        if (intake.getModeChanges() != modeChangesAfterReject || intake.getMode() != Intake.Mode.REVERSING) {
+            return;
+        }
+        if (modeBeforeReject == Intake.Mode.INTAKING) {
+            intake.forward.schedule();
+        } else if (modeBeforeReject == Intake.Mode.STOPPED) {
+            intake.stop();
+        }
+    }
+
+    private TimedResult<ArtifactColorResult> getFreshResult() {
+        if (colorProcessor == null) {
+            return null;
+        }
+        TimedResult<ArtifactColorResult> result = colorProcessor.getBus().latest();
+        if (result == null || result.latencyMs() > MAX_RESULT_AGE_MS) {
+            return null;
+        }
+        return result;
+    }
+
+    private boolean isWrongColor(TimedResult<ArtifactColorResult> result) {
+        return result != null
+                && wantedColor != ArtifactColor.NONE
+                && result.value.color != ArtifactColor.NONE
+                && result.value.color != wantedColor;
+    }
+}
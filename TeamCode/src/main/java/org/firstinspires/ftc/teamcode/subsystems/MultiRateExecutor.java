@@ -0,0 +1,357 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs each subsystem's periodic() only as often as it needs, instead of every loop.
+ *
+ * NextFTC calls every subsystem on every loop. That's right for the flywheel, but
+ * the lights or the servo telemetry don't need to change 100 times a second. Here each
+ * subsystem gets a rate (how many times a second) and a phase (how far into its
+ * period it goes), so the slow ones take turns instead of all landing on the same loop:
+ * <pre>
+ *     executor = new MultiRateExecutor(telemetry);
+ *     intake = Intake.getInstance(executor.getTelemetry());   // see below
+ *     ...
+ *     executor.add(intake, 50)                          // phase picked for us
+ *             .addHeavy(feedback, 20, 0)                // talks to the hub
+ *             .add(ballLoadingServo, 5, 100);           // 100 ms into each 200 ms
+ *     addComponents(new SubsystemComponent(executor), ...);
+ * </pre>
+ *
+ * The Driver Station screen is cleared after every loop, so a subsystem that only runs
+ * every few loops would blink on and off. Give the subsystems {@link #getTelemetry()}
+ * instead of the OpMode's telemetry: it passes their lines on and remembers them, and on
+ * the loops a subsystem doesn't run, its last lines are shown again.
+ *
+ * "Heavy" subsystems (ones that write to or read from the hub, like the LED driver)
+ * don't run on the same loop as another heavy one: if two are due, the second waits a
+ * loop. It never waits more than MAX_DEFERRED_LOOPS loops in a row, though (then it
+ * shares the loop), so a heavy subsystem can't be pushed back forever.
+ *
+ * For every subsystem it shows the rate it really got, how long it takes, and two
+ * kinds of overrun:
+ *  - missed: the loop was so slow that a whole period went by without a run
+ *  - slow:   one run took longer than its whole period
+ * and for heavy ones how many runs had to wait for another heavy one, and the longest wait.
+ */
+public class MultiRateExecutor implements Subsystem {
+
+    /** Use as the rate to run a subsystem on every loop. */
+    public static final double EVERY_LOOP = Double.POSITIVE_INFINITY;
+
+    // How often the "real rate" numbers are worked out
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    // Phase is picked automatically when it is this
+    private static final double AUTO_PHASE = -1.0;
+
+    // A heavy subsystem waits at most this many loops in a row for another heavy one
+    private static final int MAX_DEFERRED_LOOPS = 2;
+
+    private static final class Entry {
+        final Subsystem subsystem;
+        final String name;
+        final double targetHz;
+        final long periodNanos;
+        final boolean heavy;
+        double phaseMs;
+
+        long nextDueNanos;
+        int waitingLoops = 0;
+
+        // Its telemetry lines from the last run: {caption, value}, caption null for addLine
+        final List<String[]> lines = new ArrayList<>();
+
+        // Results
+        long runs = 0;
+        long missed = 0;
+        long slow = 0;
+        long deferred = 0;
+        int maxDeferredLoops = 0;
+        int runsInWindow = 0;
+        double achievedHz = 0.0;
+        double averageMs = 0.0;
+        double maxMs = 0.0;
+
+        Entry(Subsystem subsystem, double targetHz, double phaseMs, boolean heavy) {
+            this.subsystem = subsystem;
+            this.name = subsystem.getClass().getSimpleName();
+            this.targetHz = targetHz;
+            this.periodNanos = Double.isInfinite(targetHz) ? 0 : (long) (1e9 / targetHz);
+            this.phaseMs = phaseMs;
+            this.heavy = heavy;
+        }
+    }
+
+    // Used to show messages on the Driver Station phone
+    private final Telemetry telemetry;
+
+    // What the subsystems write to (see getTelemetry), and whose run is going on
+    private final Telemetry remembering;
+    private Entry running = null;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private long startNanos = 0;
+    private long windowStartNanos = 0;
+    private long loops = 0;
+
+    public MultiRateExecutor(Telemetry telemetry) {
+        this.telemetry = telemetry;
+        this.remembering = (Telemetry) Proxy.newProxyInstance(Telemetry.class.getClassLoader(),
+                new Class<?>[]{Telemetry.class},
+                (self, method, args) -> {
+                    if (running != null) {
+                        remember(running, method.getName(), args);
+                    }
+                    try {
+                        return method.invoke(telemetry, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * The telemetry to give the subsystems added here. It writes to the OpMode's
+     * telemetry, and keeps each subsystem's lines so they stay on the screen on the
+     * loops it doesn't run.
+     */
+    public Telemetry getTelemetry() {
+        return remembering;
+    }
+
+    /**
+     * Adds a subsystem and lets the executor pick its phase, so subsystems with the
+     * same rate are spread evenly over the period.
+     */
+    public MultiRateExecutor add(Subsystem subsystem, double hz) {
+        return add(subsystem, hz, AUTO_PHASE, false);
+    }
+
+    /**
+     * Adds a subsystem.
+     *
+     * @param hz      runs per second ({@link #EVERY_LOOP} for every loop)
+     * @param phaseMs how far into each period it runs (0 = at the start)
+     */
+    public MultiRateExecutor add(Subsystem subsystem, double hz, double phaseMs) {
+        return add(subsystem, hz, phaseMs, false);
+    }
+
+    /**
+     * Adds a subsystem that talks to the hub, so it never shares a loop with another heavy one.
+     */
+    public MultiRateExecutor addHeavy(Subsystem subsystem, double hz, double phaseMs) {
+        return add(subsystem, hz, phaseMs, true);
+    }
+
+    private MultiRateExecutor add(Subsystem subsystem, double hz, double phaseMs, boolean heavy) {
+        if (!(hz > 0)) {
+            throw new IllegalArgumentException(subsystem.getClass().getSimpleName() + ": rate must be more than 0 Hz");
+        }
+        entries.add(new Entry(subsystem, hz, phaseMs, heavy));
+        return this;
+    }
+
+    // NextFTC calls this once at init, so pass it on
+    @Override
+    public void initialize() {
+        for (Entry entry : entries) {
+            entry.subsystem.initialize();
+        }
+        startNanos = 0;   // the clock starts on the first loop
+    }
+
+    @Override
+    public void periodic() {
+        long now = System.nanoTime();
+        if (startNanos == 0) {
+            start(now);
+        }
+        loops++;
+
+        boolean heavyRan = false;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (now < entry.nextDueNanos) {
+                showLastLines(entry);
+                continue;
+            }
+            if (entry.heavy && heavyRan && entry.waitingLoops < MAX_DEFERRED_LOOPS) {
+                entry.deferred++;   // try again next loop
+                entry.waitingLoops++;
+                showLastLines(entry);
+                continue;
+            }
+            entry.maxDeferredLoops = Math.max(entry.maxDeferredLoops, entry.waitingLoops);
+            entry.waitingLoops = 0;
+            run(entry);
+            heavyRan |= entry.heavy;
+
+            // Next slot. If we are already past it, the loop was too slow and we skipped runs.
+            entry.nextDueNanos += entry.periodNanos;
+            if (entry.periodNanos > 0 && entry.nextDueNanos <= now) {
+                long behind = (now - entry.nextDueNanos) / entry.periodNanos + 1;
+                entry.missed += behind;
+                entry.nextDueNanos += behind * entry.periodNanos;   // keeps the phase
+            }
+        }
+
+        if (now - windowStartNanos >= RATE_WINDOW_NANOS) {
+            double seconds = (now - windowStartNanos) / 1e9;
+            for (Entry entry : entries) {
+                entry.achievedHz = entry.runsInWindow / seconds;
+                entry.runsInWindow = 0;
+            }
+            windowStartNanos = now;
+        }
+
+        showTelemetry();
+    }
+
+    private void start(long now) {
+        pickPhases();
+        startNanos = now;
+        windowStartNanos = now;
+        for (Entry entry : entries) {
+            entry.nextDueNanos = now + (long) (entry.phaseMs * 1e6);
+        }
+    }
+
+    private void run(Entry entry) {
+        entry.lines.clear();
+        running = entry;
+        long before = System.nanoTime();
+        try {
+            entry.subsystem.periodic();
+        } finally {
+            running = null;
+        }
+        long took = System.nanoTime() - before;
+
+        double tookMs = took / 1e6;
+        entry.runs++;
+        entry.runsInWindow++;
+        entry.averageMs = entry.runs == 1 ? tookMs : entry.averageMs + 0.05 * (tookMs - entry.averageMs);
+        entry.maxMs = Math.max(entry.maxMs, tookMs);
+        if (entry.periodNanos > 0 && took > entry.periodNanos) {
+            entry.slow++;
+        }
+    }
+
+    // Keeps a line a subsystem wrote during its run, as the text the screen shows
+    private static void remember(Entry entry, String method, Object[] args) {
+        if (method.equals("addLine")) {
+            entry.lines.add(new String[]{null, args == null ? "" : String.valueOf(args[0])});
+        } else if (method.equals("addData") && args != null && args.length >= 2) {
+            String value;
+            if (args.length == 2) {
+                value = String.valueOf(args[1] instanceof Func ? ((Func<?>) args[1]).value() : args[1]);
+            } else if (args[2] instanceof Func) {
+                value = String.format(String.valueOf(args[1]), ((Func<?>) args[2]).value());
+            } else {
+                value = String.format(String.valueOf(args[1]), (Object[]) args[2]);
+            }
+            entry.lines.add(new String[]{String.valueOf(args[0]), value});
+        }
+    }
+
+    // A subsystem that didn't run this loop: show what it wrote last time
+    private void showLastLines(Entry entry) {
+        for (int i = 0; i < entry.lines.size(); i++) {
+            String[] line = entry.lines.get(i);
+            if (line[0] == null) {
+                telemetry.addLine(line[1]);
+            } else {
+                telemetry.addData(line[0], line[1]);
+            }
+        }
+    }
+
+    /**
+     * Gives every subsystem without a phase one, spreading subsystems of the same rate
+     * evenly: with three at 10 Hz they go at 0, 33 and 67 ms.
+     */
+    private void pickPhases() {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (entry.phaseMs != AUTO_PHASE) {
+                continue;
+            }
+            int sameRate = 0;
+            int place = 0;
+            for (int j = 0; j < entries.size(); j++) {
+                Entry other = entries.get(j);
+                if (other.periodNanos == entry.periodNanos) {
+                    if (j < i) {
+                        place++;
+                    }
+                    sameRate++;
+                }
+            }
+            entry.phaseMs = entry.periodNanos / 1e6 * place / sameRate;
+        }
+    }
+
+    private void showTelemetry() {
+        telemetry.addData("<===== Subsystem Rates =====>", "");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            String target = Double.isInfinite(entry.targetHz) ? "loop" : String.format("%.0f", entry.targetHz);
+            if (entry.heavy) {
+                telemetry.addData(entry.name, "%.0f/%s Hz | %.2f ms (max %.1f) | missed %d slow %d | waited %d (max %d loops)",
+                        entry.achievedHz, target, entry.averageMs, entry.maxMs, entry.missed, entry.slow,
+                        entry.deferred, entry.maxDeferredLoops);
+            } else {
+                telemetry.addData(entry.name, "%.0f/%s Hz | %.2f ms (max %.1f) | missed %d slow %d",
+                        entry.achievedHz, target, entry.averageMs, entry.maxMs, entry.missed, entry.slow);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getLoops() {
+        return loops;
+    }
+
+    public double getAchievedHz(int index) {
+        return entries.get(index).achievedHz;
+    }
+
+    public long getRuns(int index) {
+        return entries.get(index).runs;
+    }
+
+    public long getMissed(int index) {
+        return entries.get(index).missed;
+    }
+
+    public long getSlow(int index) {
+        return entries.get(index).slow;
+    }
+
+    public long getDeferred(int index) {
+        return entries.get(index).deferred;
+    }
+
+    /** The most loops in a row a heavy subsystem had to wait (never more than MAX_DEFERRED_LOOPS). */
+    public int getMaxDeferredLoops(int index) {
+        return entries.get(index).maxDeferredLoops;
+    }
+
+    public double getPhaseMs(int index) {
+        return entries.get(index).phaseMs;
+    }
+}
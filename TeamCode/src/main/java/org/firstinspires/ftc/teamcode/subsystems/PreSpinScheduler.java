@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.math.Vector;
+import com.pedropathing.paths.Path;
+
+import dev.nextftc.core.commands.Command;
+import dev.nextftc.core.commands.utility.InstantCommand;
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.PreSpinPlanner;
+import org.firstinspires.ftc.teamcode.util.TunableRegistry;
+
+/**
+ * Spins the flywheel up **before** we get to the shooting zone, so it is already at
+ * speed when we arrive, without running it the whole match (that drains the battery).
+ *
+ * Every time it runs it:
+ *  1. works out when we will be in the zone, from the Follower: the distance left on
+ *     the path if one is being followed, otherwise the driver's speed toward the zone
+ *  2. asks the shooter how long a spin-up takes (it learns this from every real
+ *     spin-up, see {@link ShootingSystem#getSpinUpModel()})
+ *  3. lets a {@link PreSpinPlanner} decide, and switches the flywheel on or off
+ *
+ * The driver always wins: if they switch the flywheel on, we never switch it off, and
+ * if they switch off a flywheel we started, we leave it off until we are away from
+ * the zone again.
+ *
+ * It needs the real field pose. If the Follower started at a made-up pose (teleop
+ * without a pose from autonomous), the zone would be in the wrong place, so the
+ * OpMode should only turn it on with {@link #setEnabled} when it knows where the robot
+ * is (the driver can still switch it on with {@link #toggle}).
+ * The path ETA is only used in OpModes that follow paths; in teleop it is always the
+ * driver's speed.
+ *
+ * Check it on a laptop first with {@code benchmark.PreSpinSimulation}. The zone and
+ * timing can be changed live from Panels (a new OpMode picks them up).
+ */
+@Configurable
+public class PreSpinScheduler implements Subsystem {
+
+    // The shooting zone: a circle in Pedro coordinates (inches), roughly the big launch zone
+    public static double ZONE_X = 72.0;
+    public static double ZONE_Y = 108.0;
+    public static double ZONE_RADIUS = 30.0;
+
+    // Start this much earlier than the spin-up needs, and keep spinning this long after
+    public static double MARGIN_S = 0.15;
+    public static double HOLD_S = 2.0;
+
+    // Speeds (inches per second) below which the ETA isn't believable
+    public static double MIN_PATH_SPEED = 20.0;     // just starting a path: assume we'll get going
+    public static double MIN_CLOSING_SPEED = 8.0;   // driving: slower than this toward the zone isn't "coming"
+
+    private final Telemetry telemetry;
+    private final ShootingSystem shooter;
+    private final PreSpinPlanner planner;
+    private Follower follower = null;
+
+    private boolean enabled = false;
+    private boolean startedByUs = false;
+    private boolean driverStopped = false;
+    private double eta = Double.POSITIVE_INFINITY;
+    private double lead = 0.0;
+    private int preSpins = 0;
+
+    public PreSpinScheduler(Telemetry telemetry, ShootingSystem shooter) {
+        this.telemetry = telemetry;
+        this.shooter = shooter;
+        // Not a SubsystemLifecycle subsystem, so get the saved zone and timing back ourselves
+        TunableRegistry.register(PreSpinScheduler.class);
+        this.planner = new PreSpinPlanner(ZONE_X, ZONE_Y, ZONE_RADIUS, MARGIN_S, HOLD_S);
+    }
+
+    /** Where to get the pose and path from. Nothing happens until this is called. */
+    public void follow(Follower follower) {
+        this.follower = follower;
+    }
+
+    /**
+     * Command to switch pre-spinning on or off. Switching it off also stops a flywheel
+     * that only we started.
+     */
+    public Command toggle = new InstantCommand(() -> setEnabled(!enabled)).requires(this);
+
+    /**
+     * Switches pre-spinning on or off (off also stops a flywheel that only we started).
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            release();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Seconds until we are in the zone (infinity if we aren't heading there). */
+    public double getEtaSeconds() {
+        return eta;
+    }
+
+    @Override
+    public void periodic() {
+        if (follower == null || !enabled) {
+            return;
+        }
+        Pose pose = follower.getPose();
+        Vector velocity = follower.getVelocity();
+        if (pose == null || velocity == null) {
+            return;
+        }
+        long now = System.nanoTime();
+
+        // When will we be there? Use whichever way says "sooner" (inside the zone it's 0)
+        eta = planner.etaFromVelocity(pose.getX(), pose.getY(),
+                velocity.getXComponent(), velocity.getYComponent(), MIN_CLOSING_SPEED);
+        Path path = follower.isBusy() ? follower.getCurrentPath() : null;
+        if (path != null && path.endPose() != null) {
+            double remaining = (1.0 - follower.getCurrentTValue()) * path.length();
+            eta = Math.min(eta, planner.etaFromPath(remaining, path.endPose().getX(), path.endPose().getY(),
+                    velocity.getMagnitude(), MIN_PATH_SPEED));
+        }
+
+        // How early to start: the time from where the flywheel is now, if it is off.
+        // If it is on, the time from a stop (see PreSpinPlanner.update)
+        lead = shooter.secondsToAtSpeed(shooter.isRunning() ? 0.0 : shooter.getRpm());
+        boolean want = planner.update(eta, lead, now);
+
+        if (startedByUs && !shooter.isRunning()) {
+            // The driver switched off what we started: don't start it again right away
+            startedByUs = false;
+            driverStopped = true;
+        }
+        if (!want) {
+            driverStopped = false;
+            release();
+        } else if (!shooter.isRunning() && !driverStopped) {
+            shooter.spinUp();
+            startedByUs = true;
+            preSpins++;
+        }
+
+        telemetry.addData("<===== Pre-spin =====>", startedByUs ? "SPINNING" : want ? "wanted" : "idle");
+        telemetry.addData("Pre-spin ETA | lead", "%s | %.2f s",
+                Double.isInfinite(eta) ? "-" : String.format("%.2f s", eta), lead);
+        telemetry.addData("Pre-spins", preSpins);
+    }
+
+    // Stop the flywheel, but only if we are the ones who started it
+    private void release() {
+        if (startedByUs && shooter.isRunning()) {
+            shooter.stop();
+        }
+        startedByUs = false;
+    }
+}
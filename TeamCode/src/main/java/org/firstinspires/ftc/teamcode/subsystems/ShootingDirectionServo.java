@@ -1,18 +1,30 @@
 package org.firstinspires.ftc.teamcode.subsystems;
 
+import com.bylazar.configurables.annotations.Configurable;
+import com.bylazar.configurables.annotations.IgnoreConfigurable;
+
 import dev.nextftc.core.commands.Command;
 import dev.nextftc.core.commands.utility.InstantCommand;
 import dev.nextftc.core.subsystems.Subsystem;
 import dev.nextftc.hardware.impl.ServoEx;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.ServoMotionModel;
 
 /**
  * This class controls the servo that changes where the robot shoots the ball.
  * Think of the servo like a tiny arm that can move up and down to aim.
+ *
+ * A servo can't tell us where it really is, so a {@link ServoMotionModel} works it
+ * out from the moves we sent. {@link #isInPosition()} says when the hood has
+ * arrived and stopped wobbling, so a shot can wait for it (and no longer).
+ *
+ * The limits, step size and servo timing can be changed live from Panels.
  */
-public class ShootingDirectionServo implements Subsystem {
+@Configurable
+public class ShootingDirectionServo implements Subsystem, SubsystemLifecycle.Managed {
 
     // We make only one copy of this class (Singleton pattern)
+    @IgnoreConfigurable
     private static ShootingDirectionServo INSTANCE = null;
 
     // The actual servo hardware on the robot
@@ -36,7 +48,9 @@ public class ShootingDirectionServo implements Subsystem {
      */
     public static ShootingDirectionServo getInstance(Telemetry telemetry) {
         if (INSTANCE == null) {
-            INSTANCE = new ShootingDirectionServo(telemetry);
+            INSTANCE = SubsystemLifecycle.manage(new ShootingDirectionServo(telemetry));
+        } else {
+            INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
         }
         return INSTANCE;
     }
@@ -53,11 +67,89 @@ public class ShootingDirectionServo implements Subsystem {
     }
 
     // The limits of how far the servo can move
-    private final double minPos = 1.0; // Highest position
-    private final double maxPos = 0.8; // Lowest position
+    public static double MIN_POS = 1.0; // Highest position
+    public static double MAX_POS = 0.8; // Lowest position
 
     // How much the servo moves each time you press a button
-    private static final double SERVO_POS_INCREMENT = 0.05;
+    public static double SERVO_POS_INCREMENT = 0.05;
+
+    // How the servo moves: top speed (servo units per second; a 300° servo doing 60° in
+    // 0.25 s is 0.8) and how long it wobbles after a move (a bit longer for big moves)
+    public static double SERVO_SPEED = 0.8;
+    public static double SETTLE_MS = 40.0;
+    public static double SETTLE_MS_PER_UNIT = 200.0;
+
+    // Big moves are sent as a gentle ramp instead of one jump (less hood slam and wobble)
+    public static boolean USE_MOTION_PROFILE = true;
+    public static double PROFILE_MIN_TRAVEL = 0.1;
+    public static double PROFILE_SPEED = 0.6;
+    public static double PROFILE_ACCEL = 4.0;
+
+    // Where the servo really is (made again in reset(), so tuned values apply)
+    private ServoMotionModel motion = makeMotionModel();
+
+    // The last position we sent, so a finished ramp isn't sent again every loop
+    private double lastSent = Double.NaN;
+
+    private static ServoMotionModel makeMotionModel() {
+        ServoMotionModel model = new ServoMotionModel(SERVO_SPEED, SETTLE_MS, SETTLE_MS_PER_UNIT,
+                Math.abs(MIN_POS - MAX_POS));   // after INIT it can be anywhere between the limits
+        if (USE_MOTION_PROFILE) {
+            model.setProfile(PROFILE_SPEED, PROFILE_ACCEL, PROFILE_MIN_TRAVEL);
+        }
+        return model;
+    }
+
+    /**
+     * Moves the hood to a position (kept between the limits). Big moves are sent bit by bit
+     * from periodic(), so this subsystem has to keep running.
+     */
+    public void setTarget(double position) {
+        double clamped = Math.max(Math.min(MIN_POS, MAX_POS), Math.min(Math.max(MIN_POS, MAX_POS), position));
+        long now = System.nanoTime();
+        motion.moveTo(clamped, now);
+        send(motion.getSetpoint(now));
+    }
+
+    private void send(double position) {
+        if (position != lastSent) {
+            servo.setPosition(position);
+            lastSent = position;
+        }
+    }
+
+    /** Command version of {@link #setTarget}, for shot sequences. */
+    public Command goTo(double position) {
+        return new InstantCommand(() -> setTarget(position)).requires(this);
+    }
+
+    /** Where we want the hood (the last position asked for; the servo may not be there yet). */
+    public double getTarget() {
+        return motion.hasTarget() ? motion.getTarget() : servo.getPosition();
+    }
+
+    /** Where the hood should really be right now. */
+    public double getEstimatedPosition() {
+        return motion.getEstimatedPosition(System.nanoTime());
+    }
+
+    /** True once the hood got to its target and stopped wobbling: safe to shoot. */
+    public boolean isInPosition() {
+        return motion.isInPosition(System.nanoTime());
+    }
+
+    /** How many ms a shot still has to wait for the hood (0 = go). */
+    public double getMsUntilInPosition() {
+        return motion.getMsUntilInPosition(System.nanoTime());
+    }
+
+    /**
+     * For the shooter's "ready" check: true if the hood is in position, or if this OpMode
+     * has no hood subsystem at all.
+     */
+    public static boolean isReadyToShoot() {
+        return INSTANCE == null || !INSTANCE.motion.hasTarget() || INSTANCE.isInPosition();
+    }
 
     /**
      * Command to move the shooting servo UP a little.
@@ -66,8 +158,9 @@ public class ShootingDirectionServo implements Subsystem {
     public Command upShootingServo = new InstantCommand(() -> {
         if (servo != null) {
             // Increases servo position but doesn’t go past its limit
-            double clampedPosition = Math.min(minPos, servo.getPosition() + SERVO_POS_INCREMENT);
-            servo.setPosition(clampedPosition);
+            // (from the target, not the servo: a ramp may still be on its way there)
+            double clampedPosition = Math.min(MIN_POS, getTarget() + SERVO_POS_INCREMENT);
+            setTarget(clampedPosition);
         }
     }).requires(this);
 
@@ -78,23 +171,48 @@ public class ShootingDirectionServo implements Subsystem {
     public Command downShootingServo = new InstantCommand(() -> {
         if (servo != null) {
             // Decreases servo position but doesn’t go below its limit
-            double clampedPosition = Math.max(maxPos, servo.getPosition() - SERVO_POS_INCREMENT);
-            servo.setPosition(clampedPosition);
+            double clampedPosition = Math.max(MAX_POS, getTarget() - SERVO_POS_INCREMENT);
+            setTarget(clampedPosition);
         }
     }).requires(this);
 
+    // Called by SubsystemLifecycle: use the new OpMode's telemetry
+    @Override
+    public void bind(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    // Called by SubsystemLifecycle at the start of every OpMode: a fresh servo wrapper
+    @Override
+    public void reset() {
+        servo = new ServoEx(SERVO_NM);
+        motion = makeMotionModel();   // we don't know where the servo is after INIT
+        lastSent = Double.NaN;
+    }
+
+    // Called by SubsystemLifecycle when the OpMode ends (a servo just stays where it is)
+    @Override
+    public void dispose() {
+    }
+
     /**
      * This runs over and over during the match.
-     * It shows the servo’s position on the Driver Station screen.
+     * It sends the next step of a ramp, and shows the servo’s position on the Driver Station screen.
      */
     @Override
     public void periodic() {
+        long now = System.nanoTime();
+        if (servo != null && motion.hasTarget()) {
+            send(motion.getSetpoint(now));   // the next step of a ramp (nothing new once it is done)
+        }
+
         telemetry.addData("<===== Shooting Direction Servo =====>", "");
         if (servo != null) {
-            double currentPos = servo.getPosition(); // Find where the servo is
+            double currentPos = getTarget(); // Where we told the servo to go
             String positionName = getCurrentPositionName(currentPos); // Give it a name (like "Min" or "Max")
             telemetry.addData("Current Position", positionName);
-            telemetry.addData("Position Value", "%.3f", currentPos);
+            telemetry.addData("Position Value", "%.3f (now about %.3f)", currentPos, motion.getEstimatedPosition(now));
+            telemetry.addData("Hood In Position", isInPosition() ? "yes" : String.format("in %.0f ms", getMsUntilInPosition()));
         } else {
             telemetry.addData("Servo Status", "Not Initialized");
         }
@@ -108,9 +226,9 @@ public class ShootingDirectionServo implements Subsystem {
     private String getCurrentPositionName(double currentPos) {
         double tolerance = 0.01; // Small wiggle room for comparing numbers
 
-        if (Math.abs(currentPos - minPos) < tolerance) {
+        if (Math.abs(currentPos - MIN_POS) < tolerance) {
             return "Min"; // Fully up
-        } else if (Math.abs(currentPos - maxPos) < tolerance) {
+        } else if (Math.abs(currentPos - MAX_POS) < tolerance) {
             return "Max"; // Fully down
         } else {
             return "Custom"; // Somewhere in between
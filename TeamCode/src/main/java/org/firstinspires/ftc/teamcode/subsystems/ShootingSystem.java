@@ -1,28 +1,53 @@
     package org.firstinspires.ftc.teamcode.subsystems;
 
+    import com.bylazar.configurables.annotations.Configurable;
+    import com.bylazar.configurables.annotations.IgnoreConfigurable;
+
     import dev.nextftc.core.commands.Command;
     import dev.nextftc.core.commands.utility.InstantCommand;
     import dev.nextftc.core.subsystems.Subsystem;
     import dev.nextftc.hardware.impl.MotorEx;
     import org.firstinspires.ftc.robotcore.external.Telemetry;
+    import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+import org.firstinspires.ftc.teamcode.util.SpinUpModel;
+    import org.firstinspires.ftc.teamcode.util.VelocityDipDetector;
 
     /**
      * ShootingSystem Subsystem for the robot.
      *
      * This class controls the shooting mechanism using two motors with simple power control.
      * It provides commands to start (shoot) and stop the shooting motors.
+     *
+     * The power numbers can be changed live from Panels (TunableRegistry saves
+     * them on the Control Hub).
      */
-    public class ShootingSystem implements Subsystem {
+    @Configurable
+    public class ShootingSystem implements Subsystem, SubsystemLifecycle.Managed {
 
         // Singleton instance of the ShootingSystem subsystem (initially null)
+        @IgnoreConfigurable
         private static ShootingSystem INSTANCE = null;
 
         // Telemetry for displaying motor status
         private Telemetry telemetry;
 
-        // Motor instances representing the shooting motors
-        private MotorEx shootingMotor1 = new MotorEx("sm1");
-        private MotorEx shootingMotor2 = new MotorEx("sm2");
+        // Motor instances representing the shooting motors (made fresh for every OpMode in reset())
+        private MotorEx shootingMotor1;
+        private MotorEx shootingMotor2;
+
+        // Speed of each flywheel motor, worked out from the encoder positions every loop
+        // (smoother and quicker than the hub's velocity, so we can see a ball go through)
+        private final EncoderVelocityEstimator speed1 = new EncoderVelocityEstimator(FLYWHEEL_CPR, 8, 80.0);
+        private final EncoderVelocityEstimator speed2 = new EncoderVelocityEstimator(FLYWHEEL_CPR, 8, 80.0);
+
+        // Finds the speed dip of each ball we shoot (made again in reset(), so tuned values apply)
+        private VelocityDipDetector shots = makeShotDetector();
+
+        // Learns the flywheel's real top speed, and how long a spin-up takes. Not reset between
+        // OpModes: the flywheel doesn't change, so what we learned stays true
+        private final SpinUpModel spinUp = new SpinUpModel(SPIN_UP_TAU_S);
+        private double lastPower = 0.0;
+        private long powerChangedNanos = 0;
 
         // Motor group with motor2 reversed
         //private MotorGroup shooterMotors;
@@ -30,10 +55,41 @@
         // Private constructor to ensure only one instance exists
         private ShootingSystem(Telemetry telemetry) {
             this.telemetry = telemetry;
-            shootingMotor2.reversed();  // Set motor2 to run in reverse
+            makeMotors();
             //shooterMotors = new MotorGroup(motor2, motor1);
         }
 
+        private void makeMotors() {
+            shootingMotor1 = new MotorEx("sm1");
+            shootingMotor2 = new MotorEx("sm2").reversed();  // Set motor2 to run in reverse
+        }
+
+        // Called by SubsystemLifecycle: use the new OpMode's telemetry
+        @Override
+        public void bind(Telemetry telemetry) {
+            this.telemetry = telemetry;
+        }
+
+        // Called by SubsystemLifecycle at the start of every OpMode
+        @Override
+        public void reset() {
+            makeMotors();
+            speed1.reset();
+            speed2.reset();
+            shots = makeShotDetector();
+            spinUpPower = MID_POWER;
+            spinUp.setStartingTau(SPIN_UP_TAU_S);   // the saved SPIN_UP_TAU_S is only known now
+            spinUp.cancel();
+            lastPower = 0.0;
+            powerChangedNanos = 0;
+        }
+
+        // Called by SubsystemLifecycle when the OpMode ends
+        @Override
+        public void dispose() {
+            stop();
+        }
+
         public void stop() {
             shootingMotor1.setPower(STOP_POWER);
             shootingMotor2.setPower(STOP_POWER);
@@ -46,7 +102,9 @@
          */
         public static ShootingSystem getInstance(Telemetry telemetry) {
             if (INSTANCE == null) {
-                INSTANCE = new ShootingSystem(telemetry);
+                INSTANCE = SubsystemLifecycle.manage(new ShootingSystem(telemetry));
+            } else {
+                INSTANCE.bind(telemetry);   // don't keep the telemetry from an old OpMode
             }
             return INSTANCE;
         }
@@ -62,13 +120,142 @@
             return INSTANCE;
         }
 
-        // Power levels for different shooting states
-        private static final double LOW_THRESHOLD = 0.25;      // Low power shoot
-        private static final double MID_POWER = 0.57;      // Medium power shoot
-        private static final double HIGH_POWER = 0.70;     // High power shoot
+        // Power levels for different shooting states (tunable from Panels)
+        public static double LOW_THRESHOLD = 0.25;      // Low power shoot
+        public static double MID_POWER = 0.57;      // Medium power shoot
+        public static double HIGH_POWER = 0.70;     // High power shoot
         private static final double STOP_POWER = 0.0;     // Motors off
 
-        private static final double SHOOTING_PWR_INCREMENT = 0.05;
+        public static double SHOOTING_PWR_INCREMENT = 0.05;
+
+        // goBILDA 5000 series bare motors: 5800 RPM with 28 encoder ticks per turn
+        private static final double FLYWHEEL_CPR = 28.0;
+        private static final double MAX_RPM = 5800.0;
+
+        // Spin-up time constant to start with, until we measured one (seconds)
+        public static double SPIN_UP_TAU_S = 0.35;
+
+        // "At speed" = at least this part of the steady speed we measured at this power
+        public static double AT_SPEED_FRACTION = 0.95;
+
+        // The speed counts as steady when it changes slower than this (RPM per second)...
+        public static double STEADY_RPM_PER_S = 300.0;
+        // ...and the power hasn't changed for this long (seconds)
+        public static double STEADY_AFTER_S = 0.25;
+
+        // Below this the flywheel counts as off (same as the shot detector)
+        private static final double MIN_SPIN_RPM = 1000.0;
+
+        // A shot = the flywheel speed falls at least this fast (RPM per second)...
+        public static double SHOT_MIN_DROP_RPM_PER_S = 2500.0;
+        // ...and ends up at least this part below the speed before (0.04 = 4%)
+        public static double SHOT_DIP_FRACTION = 0.04;
+        // It has recovered when it is back within this part of the speed before
+        public static double SHOT_RECOVER_FRACTION = 0.015;
+
+        // The power startStop spins up to. Autonomous can hand over a better value (see StateHandoff)
+        private double spinUpPower = MID_POWER;
+
+        /** How fast the flywheel is spinning, in encoder ticks per second (from the bulk read). */
+        public double getVelocity() {
+            return speed1.hasEstimate() ? speed1.getTicksPerSecond() : shootingMotor1.getVelocity();
+        }
+
+        /** Flywheel speed in RPM (motor 1). */
+        public double getRpm() {
+            return speed1.getRpm();
+        }
+
+        /** How fast the flywheel speed is changing, in RPM per second (a ball going through makes this drop). */
+        public double getRpmPerSecond() {
+            return speed1.getRpmPerSecond();
+        }
+
+        /**
+         * Makes a shot detector with the current settings. Public so the desktop
+         * replay (ShotDetectionReplay) checks exactly what the robot runs.
+         */
+        public static VelocityDipDetector makeShotDetector() {
+            // Below 1000 RPM the flywheel counts as off; give up on a recovery after 1 second
+            return new VelocityDipDetector(1000.0, SHOT_DIP_FRACTION, SHOT_MIN_DROP_RPM_PER_S,
+                    SHOT_RECOVER_FRACTION, 1000.0);
+        }
+
+        /** How many balls were shot this OpMode (counted from the flywheel speed dips). */
+        public int getShotCount() {
+            return shots.getCount();
+        }
+
+        /** The shot detector, for the last shot and the balls-per-second numbers. */
+        public VelocityDipDetector getShotDetector() {
+            return shots;
+        }
+
+        /** The speed estimate of one motor (1 or 2), for anything that wants more than the RPM. */
+        public EncoderVelocityEstimator getSpeedEstimate(int motor) {
+            return motor == 2 ? speed2 : speed1;
+        }
+
+        /**
+         * Is the flywheel switched on?
+         */
+        public boolean isRunning() {
+            return shootingMotor1.getPower() > 0.10;
+        }
+
+        /**
+         * Is the flywheel spinning fast enough to shoot?
+         * Compares the speed with the steady speed we measured at this power (the motor's
+         * free speed is never reached on open-loop power). Until we measured one, it is
+         * at speed once it stopped speeding up.
+         * The speed comes from the bulk read, so this doesn't cost an extra hardware call.
+         */
+        public boolean isAtSpeed() {
+            if (!isRunning()) {
+                return false;
+            }
+            double rpm = Math.abs(speed1.getRpm());
+            if (spinUp.knowsTopSpeed()) {
+                return rpm >= AT_SPEED_FRACTION * spinUp.getTopSpeed(shootingMotor1.getPower());
+            }
+            return rpm > MIN_SPIN_RPM && Math.abs(speed1.getRpmPerSecond()) < STEADY_RPM_PER_S && !shots.isInDip();
+        }
+
+        /** What we learned about spinning up (time constant, how many spin-ups it saw). */
+        public SpinUpModel getSpinUpModel() {
+            return spinUp;
+        }
+
+        /**
+         * How long a spin-up to "at speed" takes, in seconds, starting from {@code rpm}
+         * (use 0 for a flywheel that is off).
+         */
+        public double secondsToAtSpeed(double rpm) {
+            // The free speed is only a guess until the flywheel held a steady speed once
+            double top = spinUp.knowsTopSpeed() ? spinUp.getTopSpeed(spinUpPower) : spinUpPower * MAX_RPM;
+            return spinUp.secondsToReach(Math.abs(rpm), top, AT_SPEED_FRACTION);
+        }
+
+        /** Starts the flywheel at the spin-up power (nothing happens if it is already on). */
+        public void spinUp() {
+            if (!isRunning()) {
+                shootingMotor1.setPower(spinUpPower);
+                shootingMotor2.setPower(spinUpPower);
+            }
+        }
+
+        /** The power the flywheel spins up to when it is started. */
+        public double getSpinUpPower() {
+            return spinUpPower;
+        }
+
+        /**
+         * Changes the power the flywheel spins up to (kept between the low and high limits).
+         * Used to carry over the power that worked in autonomous.
+         */
+        public void setSpinUpPower(double power) {
+            spinUpPower = Math.max(LOW_THRESHOLD, Math.min(HIGH_POWER, power));
+        }
 
         public Command stopAllSubsystems = new InstantCommand(() -> {
                 shootingMotor1.setPower(STOP_POWER);
@@ -77,14 +264,15 @@
                 // Get the object of Intake singleton class and stop that motor
                 Intake.getInstance().stop();
                 BallLoadingServo.getInstance().stop();
+                Conveyor.stopIfCreated();
 
         }).requires(this);
 
-        // Command to start the shooting motors at low power
+        // Command to start the shooting motors at the spin-up power (medium unless auto handed over another one)
         public Command startStop = new InstantCommand(() -> {
             if(shootingMotor1.getPower()<=0.10) {
-                shootingMotor1.setPower(MID_POWER);
-                shootingMotor2.setPower(MID_POWER);
+                shootingMotor1.setPower(spinUpPower);
+                shootingMotor2.setPower(spinUpPower);
                 //telemetry.addData("Shooting Mode", "MEDIUM");
             } else {
                 shootingMotor1.setPower(STOP_POWER);
@@ -148,11 +336,52 @@
          */
         @Override
         public void periodic() {
+            // Positions come from the bulk read, so this costs no extra hardware calls
+            long now = System.nanoTime();
+            speed1.update(shootingMotor1.getCurrentPosition(), now);
+            speed2.update(shootingMotor2.getCurrentPosition(), now);
+
+            // The detector wants a positive speed, so flip both if the motor counts backwards
+            double rpm = speed1.getRpm();
+            shots.update(Math.abs(rpm), Math.signum(rpm) * speed1.getRpmPerSecond(), now);
+
+            // Every time the power goes up we get to watch (and learn from) a spin-up, once we
+            // know the top speed it heads for; a shot or a power change on the way spoils that one
+            double power = shootingMotor1.getPower();
+            if (Math.abs(power - lastPower) > 0.01) {
+                powerChangedNanos = now;
+            }
+            if (power > lastPower + 0.01) {
+                if (spinUp.knowsTopSpeed()) {
+                    spinUp.startWatching(Math.abs(rpm), spinUp.getTopSpeed(power), now);
+                }
+            } else if (power < lastPower - 0.01 || shots.isInDip()) {
+                spinUp.cancel();
+            }
+            lastPower = power;
+            spinUp.update(Math.abs(rpm), now);
+
+            // Holding a steady speed: the shot detector's baseline is the top speed this power gives
+            boolean steady = power > 0.10 && !shots.isInDip() && !spinUp.isWatching()
+                    && (now - powerChangedNanos) / 1e9 >= STEADY_AFTER_S
+                    && Math.abs(speed1.getRpmPerSecond()) < STEADY_RPM_PER_S
+                    && shots.getBaseline() > MIN_SPIN_RPM;
+            if (steady) {
+                spinUp.observeSteady(shots.getBaseline(), power);
+            }
+
             telemetry.addData("<=====Shooting System=====>","");
             telemetry.addData("Shooter 1", "Pwr: %.2f | Pos: %.2f | Vel: %.2f",
                     shootingMotor1.getPower(), shootingMotor1.getCurrentPosition(), shootingMotor1.getVelocity());
             telemetry.addData("Shooter 2", "Pwr: %.2f | Pos: %.2f | Vel: %.2f",
                     shootingMotor2.getPower(), shootingMotor2.getCurrentPosition(), shootingMotor2.getVelocity());
-            telemetry.update();
+            telemetry.addData("Flywheel RPM", "%.0f | %.0f", speed1.getRpm(), speed2.getRpm());
+            telemetry.addData("Flywheel RPM/s", "%.0f | %.0f", speed1.getRpmPerSecond(), speed2.getRpmPerSecond());
+            telemetry.addData("Shots | balls/s | recovery", "%d | %.2f | %.0f ms",
+                    shots.getCount(), shots.getDipsPerSecond(), shots.getAverageRecoveryMs());
+            telemetry.addData("Spin-up tau", "%.0f ms (%d spin-ups)",
+                    spinUp.getTauSeconds() * 1000, spinUp.getLearnedCount());
+            telemetry.addData("Top RPM at this power", spinUp.knowsTopSpeed()
+                    ? String.format("%.0f (measured)", spinUp.getTopSpeed(power)) : "not measured yet");
         }
     }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.hardware.WriteFilter;
+import org.firstinspires.ftc.teamcode.util.TunableRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Looks after our singleton subsystems from one OpMode to the next.
+ *
+ * The subsystems are made once and then kept (so their Commands and anything
+ * expensive inside them are reused). But some things belong to ONE OpMode run and
+ * must not leak into the next one:
+ *  - the Telemetry (every OpMode has its own; the old one doesn't show anything)
+ *  - the NextFTC hardware wrappers (they remember the last power they sent, and the
+ *    SDK stops every motor between OpModes, so a stale wrapper may skip a write)
+ *  - things like "auto reject is on" or "the servo is spinning"
+ *
+ * How a subsystem joins in:
+ * <pre>
+ *     public static Intake getInstance(Telemetry telemetry) {
+ *         if (INSTANCE == null) {
+ *             INSTANCE = SubsystemLifecycle.manage(new Intake(telemetry));
+ *         } else {
+ *             INSTANCE.bind(telemetry);
+ *         }
+ *         return INSTANCE;
+ *     }
+ * </pre>
+ * And in every OpMode: {@link #beginOpMode()} in onInit, {@link #endOpMode()} in onStop.
+ */
+public final class SubsystemLifecycle {
+
+    /**
+     * What a subsystem has to do to be looked after.
+     */
+    public interface Managed {
+
+        /** Use this OpMode's telemetry. Must be cheap. */
+        void bind(Telemetry telemetry);
+
+        /**
+         * Go back to how things are at the start of an OpMode: make fresh hardware
+         * wrappers (they only find the real device the first time they are used, so
+         * this is cheap) and clear any leftover state.
+         */
+        void reset();
+
+        /** Stop outputs and let go of anything that belongs to the OpMode that is ending. */
+        void dispose();
+    }
+
+    private static final List<Managed> managed = new ArrayList<>();
+
+    // How many OpModes have started since the robot code was loaded
+    private static int opModeRuns = 0;
+    private static boolean running = false;
+
+    // How long the last beginOpMode() took (it should be well under a millisecond)
+    private static double lastBeginMs = 0.0;
+
+    private SubsystemLifecycle() {
+    }
+
+    /**
+     * Adds a newly made subsystem. Call it once, from getInstance().
+     *
+     * @return the same subsystem, so it can be used in an assignment
+     */
+    public static synchronized <T extends Managed> T manage(T subsystem) {
+        if (!managed.contains(subsystem)) {
+            managed.add(subsystem);
+
+            // Panels-tunable numbers get their saved values back
+            TunableRegistry.register(subsystem.getClass());
+        }
+        return subsystem;
+    }
+
+    /**
+     * Call this at the start of onInit. Resets every subsystem for the new OpMode.
+     */
+    public static synchronized void beginOpMode() {
+        long start = System.nanoTime();
+        if (running) {
+            // The last OpMode never called endOpMode() (it crashed or forgot), clean up now
+            endOpMode();
+        }
+        for (Managed subsystem : managed) {
+            subsystem.reset();
+        }
+        WriteFilter.resetTotals();   // the write counts on telemetry are for this OpMode only
+        opModeRuns++;
+        running = true;
+        lastBeginMs = (System.nanoTime() - start) / 1e6;
+    }
+
+    /**
+     * Call this in onStop. Stops everything and frees what the OpMode was using.
+     */
+    public static synchronized void endOpMode() {
+        // One broken subsystem shouldn't stop the others from being cleaned up
+        RuntimeException firstProblem = null;
+        for (Managed subsystem : managed) {
+            try {
+                subsystem.dispose();
+            } catch (RuntimeException e) {
+                if (firstProblem == null) {
+                    firstProblem = e;
+                }
+            }
+        }
+        running = false;
+
+        // Keep anything we tuned in Panels during this OpMode
+        TunableRegistry.saveIfChanged();
+
+        if (firstProblem != null) {
+            throw firstProblem;
+        }
+    }
+
+    public static synchronized List<Managed> getManaged() {
+        return Collections.unmodifiableList(new ArrayList<>(managed));
+    }
+
+    public static synchronized int getOpModeRuns() {
+        return opModeRuns;
+    }
+
+    public static synchronized boolean isRunning() {
+        return running;
+    }
+
+    public static synchronized double getLastBeginMs() {
+        return lastBeginMs;
+    }
+}
@@ -7,13 +7,34 @@ import static org.firstinspires.ftc.teamcode.ChassisConstants.LEFT_REAR_MOTOR_NA
 import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_FRONT_MOTOR_NAME;
 import static org.firstinspires.ftc.teamcode.ChassisConstants.RIGHT_REAR_MOTOR_NAME;
 
+import com.bylazar.telemetry.PanelsTelemetry;
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.Gamepad;
 
 // These are the “subsystems” — little robot parts that do special jobs
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants;
 import org.firstinspires.ftc.teamcode.subsystems.BallLoadingServo;
+import org.firstinspires.ftc.teamcode.subsystems.Conveyor;
+import org.firstinspires.ftc.teamcode.subsystems.Feedback;
 import org.firstinspires.ftc.teamcode.subsystems.Intake;
+import org.firstinspires.ftc.teamcode.subsystems.IntakeVision;
+import org.firstinspires.ftc.teamcode.subsystems.MultiRateExecutor;
+import org.firstinspires.ftc.teamcode.subsystems.PreSpinScheduler;
 import org.firstinspires.ftc.teamcode.subsystems.ShootingDirectionServo;
 import org.firstinspires.ftc.teamcode.subsystems.ShootingSystem;
+import org.firstinspires.ftc.teamcode.subsystems.SubsystemLifecycle;
+import org.firstinspires.ftc.teamcode.teleop.bindings.BindingTable;
+import org.firstinspires.ftc.teamcode.teleop.bindings.CompiledBindings;
+import org.firstinspires.ftc.teamcode.teleop.bindings.DriverProfile;
+import org.firstinspires.ftc.teamcode.teleop.bindings.GamepadButton;
+import org.firstinspires.ftc.teamcode.util.StateHandoff;
+import org.firstinspires.ftc.teamcode.util.TelemetryTransport;
+import org.firstinspires.ftc.teamcode.util.TelemetryTransport.Priority;
+import org.firstinspires.ftc.teamcode.vision.MatchPhase;
+import org.firstinspires.ftc.teamcode.vision.Motif;
+import org.firstinspires.ftc.teamcode.vision.VisionScheduler;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 
@@ -27,6 +48,8 @@ import dev.nextftc.ftc.components.BulkReadComponent;
 import dev.nextftc.hardware.driving.MecanumDriverControlled;
 import dev.nextftc.hardware.impl.MotorEx;
 
+import java.util.EnumSet;
+
 @TeleOp(name = "Robot Centric TeleOp")
 public class RobotCentricTeleOp extends NextFTCOpMode {
 
@@ -34,25 +57,80 @@ public class RobotCentricTeleOp extends NextFTCOpMode {
     private ShootingSystem shootingSystem;
     private ShootingDirectionServo shootingDirectionServo;
     private BallLoadingServo ballLoadingServo;
+    private Conveyor conveyor;
     private Intake intakeSystem;
+    private IntakeVision intakeVision;
+    private VisionScheduler visionScheduler;
+    private Feedback feedback;
+    private PreSpinScheduler preSpin;
+
+    // Runs the subsystems that don't need every loop at their own (slower) rates
+    private MultiRateExecutor slowSubsystems;
+
+    // Keeps track of where the robot is on the field (it only watches, it doesn't drive)
+    private Follower follower;
+
+    // Who runs the mechanisms: change to SOLO to practice with one gamepad
+    private static final DriverProfile PROFILE = DriverProfile.TWO_DRIVERS;
+
+    // The button → command table, ready to use every loop
+    private CompiledBindings bindings;
+
+    // How many balls autonomous said are inside the robot
+    private int ballCount = 0;
+    private int shotsCounted = 0;
+    private int ingestedCounted = 0;
+    private int rejectedCounted = 0;
+
+    // The pattern autonomous read from the obelisk (UNKNOWN if it didn't)
+    private Motif motif = Motif.UNKNOWN;
+
+    // Live graphs in Panels, and how long each loop takes
+    private TelemetryTransport liveTelemetry;
+    private double loopMs = 0.0;
+    private long lastLoopNanos = 0;
 
     // This is the "constructor" — runs once when the program starts loading
     public RobotCentricTeleOp() {
 
+        // Only the flywheel and the conveyor (it slows down during a shot dip) need every loop.
+        // The others run less often, so they write to the executor's telemetry: it shows
+        // their last lines again on the loops they don't run, so they don't blink
+        slowSubsystems = new MultiRateExecutor(telemetry);
+        Telemetry slowTelemetry = slowSubsystems.getTelemetry();
+
         // We connect our subsystems to the robot and give them access to telemetry (data shown on driver station)
         shootingSystem = ShootingSystem.getInstance(telemetry);
-        intakeSystem = Intake.getInstance(telemetry);
-        shootingDirectionServo = ShootingDirectionServo.getInstance(telemetry);
-        ballLoadingServo = BallLoadingServo.getInstance(telemetry);
+        intakeSystem = Intake.getInstance(slowTelemetry);
+        shootingDirectionServo = ShootingDirectionServo.getInstance(slowTelemetry);
+        ballLoadingServo = BallLoadingServo.getInstance(slowTelemetry);
+        conveyor = Conveyor.getInstance(telemetry);
+        intakeVision = IntakeVision.getInstance(slowTelemetry);
+        visionScheduler = new VisionScheduler(slowTelemetry);
+        feedback = Feedback.getInstance(slowTelemetry);
+        preSpin = new PreSpinScheduler(slowTelemetry, shootingSystem);
+
+        // The rest take turns at the rate they need:
+        // the intake 100 times a second (a ball going in only dips its speed for a few
+        // loops), the hood servo 50 (it sends big moves as a ramp), lights, camera and
+        // pre-spin 20 (their inputs are debounced or come at camera speed anyway; a spin-up
+        // takes most of a second), loader telemetry 5.
+        slowSubsystems
+                .add(intakeSystem, 100)
+                .add(intakeVision, 20)
+                .addHeavy(feedback, 20, 25)           // writes the LED driver
+                .addHeavy(visionScheduler, 10, 0)     // turns camera processors on and off
+                .add(preSpin, 20)
+                .add(shootingDirectionServo, 50)
+                .add(ballLoadingServo, 5);
 
         // Here we “add” all these subsystems so NextFTC can manage and update them automatically
         addComponents(
+                new SubsystemComponent(slowSubsystems),
+                new SubsystemComponent(conveyor),         // uses the flywheel speed from the loop before
                 new SubsystemComponent(shootingSystem),
-                new SubsystemComponent(intakeSystem),
-                new SubsystemComponent(shootingDirectionServo),
-                new SubsystemComponent(ballLoadingServo),
                 BulkReadComponent.INSTANCE,   // reads all sensors at once for faster updates
-                BindingsComponent.INSTANCE    // helps connect buttons on the gamepads to commands
+                BindingsComponent.INSTANCE    // keeps the NextFTC gamepad sticks up to date for driving
         );
     }
 
@@ -63,10 +141,91 @@ public class RobotCentricTeleOp extends NextFTCOpMode {
     private final MotorEx backLeftMotor = new MotorEx(LEFT_REAR_MOTOR_NAME);
     private final MotorEx backRightMotor = new MotorEx(RIGHT_REAR_MOTOR_NAME).reversed();
 
+    // This method runs once when the driver presses INIT (the hardwareMap is ready now)
+    @Override
+    public void onInit() {
+        // Fresh start for the subsystems (nothing left over from the last OpMode)
+        SubsystemLifecycle.beginOpMode();
+
+        // Pick up where autonomous left off, so we don't start at (0, 0, 0)
+        StateHandoff.RobotState handoff = StateHandoff.take();
+
+        // Reuse the follower from autonomous if we can: that skips setting up the IMU and
+        // the localizer again, and it already knows where the robot is
+        follower = StateHandoff.reusableFollower(hardwareMap);
+        if (follower == null) {
+            follower = Constants.createFollower(hardwareMap);
+            follower.setStartingPose(startPose(handoff));
+            StateHandoff.keepFollower(follower, hardwareMap);
+        } else {
+            follower.breakFollowing();   // don't keep holding the last point from auto
+        }
+        preSpin.follow(follower);   // spin the flywheel up on the way to the shooting zone
+        // Only if autonomous told us where we are: from a made-up (0, 0) the zone would be in the wrong place
+        preSpin.setEnabled(handoff != null && handoff.hasPose);
+        telemetry.addData("Auto pre-spin", preSpin.isEnabled() ? "on" : "off (no pose from auto)");
+
+        if (handoff != null) {
+            shootingSystem.setSpinUpPower(handoff.flywheelPower);
+            ballCount = handoff.ballCount;
+        }
+
+        // Turn the button table into fast lookups, and show the controls so drivers can check them
+        bindings = buildBindings(PROFILE);
+        telemetry.addData("Controls", PROFILE);
+        motif = StateHandoff.getMotif();   // read by autonomous during its INIT
+        telemetry.addData("Motif", motif);
+        for (int i = 0; i < bindings.size(); i++) {
+            telemetry.addLine(bindings.getDescription(i));
+        }
+        for (String warning : bindings.getWarnings()) {
+            telemetry.addData("Check bindings", warning);
+        }
+
+        // Live graphs of the flywheel and the pose in Panels
+        liveTelemetry = buildLiveTelemetry();
+
+        // Rumble and lights, so the drivers know when to shoot without looking at the phone
+        Gamepad operator = PROFILE.mechanismGamepad == 2 ? gamepad2 : gamepad1;
+        feedback.start(hardwareMap, gamepad1, operator);
+        feedback.watch(shootingSystem::isRunning,
+                () -> shootingSystem.isAtSpeed() && ShootingDirectionServo.isReadyToShoot(), () -> ballCount,
+                intakeSystem::isJammed, null);   // no auto-aim yet, so no "aim locked"
+
+        // Start the intake camera so it is already streaming when the match starts
+        intakeVision.startCamera(hardwareMap);
+
+        // Only look at artifact colors while the intake is actually pulling balls in
+        if (intakeVision.getPortal() != null) {
+            visionScheduler.addRule("Intake Color", intakeVision.getPortal(),
+                    intakeVision.getColorProcessor(), intakeVision.getColorProcessor().getBus(),
+                    EnumSet.of(MatchPhase.TELEOP), intakeSystem::isRunning);
+        }
+    }
+
+    /**
+     * Where a NEW follower starts: the pose from autonomous, with the heading worked out
+     * from the IMU and the offset auto saved (the IMU still counts from where auto zeroed
+     * it, so this is more exact than the heading auto saved a few seconds ago).
+     * Localizers without a hub IMU give NaN, so they keep auto's heading.
+     */
+    private Pose startPose(StateHandoff.RobotState handoff) {
+        if (handoff == null) {
+            return new Pose();
+        }
+        Pose pose = handoff.toPose();
+        double imuHeading = follower.getPoseTracker().getLocalizer().getIMUHeading();
+        double heading = Double.isNaN(imuHeading) ? pose.getHeading() : imuHeading + handoff.headingOffset;
+        return new Pose(pose.getX(), pose.getY(), heading);
+    }
+
     // This method runs when the driver presses the START button on the Driver Station
     @Override
     public void onStartButtonPressed() {
 
+        // Driver control has started, so the vision rules for TeleOp apply now
+        visionScheduler.setPhase(MatchPhase.TELEOP);
+
         // This tells the robot how to drive using mecanum wheels (which move in all directions)
         Command driverControlled = new MecanumDriverControlled(
                 frontLeftMotor,
@@ -81,46 +240,103 @@ public class RobotCentricTeleOp extends NextFTCOpMode {
         // "Schedule" means start running that drive command
         driverControlled.schedule();
 
-        /* 🎮 GAMEPAD 2 CONTROLS (the second controller) */
+        // Don't count buttons that were already held while we waited for START
+        bindings.reset();
+    }
 
-        // X button → turn shooter on/off
-        Gamepads.gamepad2().x().whenBecomesTrue(shootingSystem.startStop);
+    /**
+     * All the button controls, in one table.
+     * Each button can only do ONE thing: if two lines use the same button,
+     * INIT stops with a message telling you which ones.
+     */
+    private CompiledBindings buildBindings(DriverProfile profile) {
+        int pad = profile.mechanismGamepad;   // gamepad 2, or gamepad 1 when practicing alone
 
-        // Y button → aim the shooter down
-        Gamepads.gamepad2().y().whenBecomesTrue(shootingDirectionServo.downShootingServo);
+        return new BindingTable()
+                // Shooter
+                .bind(pad, GamepadButton.X, "Shooter on/off", shootingSystem.startStop)
+                .bind(pad, GamepadButton.LEFT_BUMPER, "Shooter power down", shootingSystem.decreaseShootingPower)
+                .bind(pad, GamepadButton.RIGHT_BUMPER, "Shooter power up", shootingSystem.increaseShootingPower)
+                .bind(pad, GamepadButton.BACK, "Stop everything", shootingSystem.stopAllSubsystems)
+                .bind(pad, GamepadButton.LEFT_STICK_BUTTON, "Auto pre-spin on/off", preSpin.toggle)
 
-        // Left bumper → lower shooter power
-        Gamepads.gamepad2().leftBumper().whenBecomesTrue(shootingSystem.decreaseShootingPower);
+                // Shooter aim (the same D-pad buttons the drivers already use)
+                .bind(pad, GamepadButton.DPAD_UP, "Aim servo down a step", shootingDirectionServo.downShootingServo)
+                .bind(pad, GamepadButton.DPAD_DOWN, "Aim servo up a step", shootingDirectionServo.upShootingServo)
 
-        // Right bumper → increase shooter power
-        Gamepads.gamepad2().rightBumper().whenBecomesTrue(shootingSystem.increaseShootingPower);
+                // Intake
+                .bind(pad, GamepadButton.A, "Intake on/off", intakeSystem.startStop)
+                .bind(pad, GamepadButton.B, "Intake reverse (spit out)", intakeSystem.reverse)
+                .bind(pad, GamepadButton.RIGHT_STICK_BUTTON, "Auto reject balls out of motif order on/off", intakeVision.toggleAutoReject)
 
-        // Intake System Controls on Gamepad 2 as before
-        Gamepads.gamepad2().b().whenBecomesTrue(intakeSystem.reverse);
-        Gamepads.gamepad2().a().whenBecomesTrue(intakeSystem.startStop);
+                // Ball loader
+                .bind(pad, GamepadButton.DPAD_LEFT, "Load balls (loader backward)", ballLoadingServo.runBackward())
+                .bind(pad, GamepadButton.DPAD_RIGHT, "Stop loader", ballLoadingServo.stopContinuous())
 
-        /*
-        // B button → reverse the intake (spit out the balls)
-        Gamepads.gamepad2().b().whenBecomesTrue(intakeSystem.reverse);
+                // Conveyor (waits for the flywheel, then feeds at its pace)
+                .bind(pad, GamepadButton.Y, "Conveyor feeding on/off", conveyor.startStop)
+                .build();
+    }
 
-        // A button → aim the shooter up
-        Gamepads.gamepad2().a().whenBecomesTrue(shootingDirectionServo.upShootingServo);
-*/
-        // Back button → stop everything in the shooting system
-        Gamepads.gamepad2().back().whenBecomesTrue(shootingSystem.stopAllSubsystems);
+    // This method runs over and over while the OpMode is running
+    @Override
+    public void onUpdate() {
+        // Run the command of any button that was just pressed
+        bindings.update(gamepad1, gamepad2);
 
-        // D-Pad Left → run the ball loading servo backward (to load balls)
-        Gamepads.gamepad2().dpadLeft().whenBecomesTrue(ballLoadingServo.runBackward());
+        // Only update the pose; the driver is still in control of the wheels
+        follower.updatePose();
 
-        // D-Pad Right → stop the ball loading servo
-        Gamepads.gamepad2().dpadRight().whenBecomesTrue(ballLoadingServo.stopContinuous());
-//New Update
-        // D-Pad Left → run the ball loading servo backward (to load balls)
-        Gamepads.gamepad2().dpadUp().whenBecomesTrue(shootingDirectionServo.downShootingServo);
+        // Every flywheel speed dip is a ball that left the robot
+        int shots = shootingSystem.getShotCount();
+        ballCount = Math.max(0, ballCount - (shots - shotsCounted));
+        shotsCounted = shots;
 
-        // D-Pad Right → stop the ball loading servo
-        Gamepads.gamepad2().dpadDown().whenBecomesTrue(shootingDirectionServo.upShootingServo);
+        // ...and every intake dip with a current jump is one that came in
+        int ingested = intakeSystem.getIngestedCount();
+        ballCount += ingested - ingestedCounted;
+        ingestedCounted = ingested;
 
+        // ...but a wrong-color ball we spat out was counted coming in, and isn't inside anymore
+        int rejected = intakeVision.getRejectedCount();
+        ballCount = Math.max(0, ballCount - (rejected - rejectedCounted));
+        rejectedCounted = rejected;
+
+        // Load the balls in motif order: the next one in should be the motif's next color.
+        // Without a motif the color is NONE, and auto reject keeps everything.
+        intakeVision.setWantedColor(motif.colorAt(ballCount));
+
+        // Send the graphs to Panels (only what is due and has changed)
+        long now = System.nanoTime();
+        loopMs = lastLoopNanos == 0 ? 0.0 : (now - lastLoopNanos) / 1e6;
+        lastLoopNanos = now;
+        liveTelemetry.update();
+
+        // The one Driver Station update per loop (the subsystems only add lines)
+        telemetry.update();
+    }
+
+    /**
+     * The values we want to watch live in Panels while driving.
+     * CRITICAL ones are checked every loop, the others less often.
+     */
+    private TelemetryTransport buildLiveTelemetry() {
+        return new TelemetryTransport(new TelemetryTransport.PanelsSink(
+                PanelsTelemetry.INSTANCE.getTelemetry()))
+                .number("Flywheel velocity", Priority.CRITICAL, 5.0, shootingSystem::getVelocity)
+                .number("X", Priority.NORMAL, 0.1, () -> follower.getPose().getX())
+                .number("Y", Priority.NORMAL, 0.1, () -> follower.getPose().getY())
+                .number("Heading", Priority.NORMAL, 0.5, () -> Math.toDegrees(follower.getPose().getHeading()))
+                .number("Loop ms", Priority.DIAGNOSTIC, 1.0, () -> loopMs)
+                .number("Balls", Priority.DIAGNOSTIC, 0.0, () -> ballCount)
+                .text("Feedback", Priority.DIAGNOSTIC, () -> feedback.getSignal().name());
+    }
+
+    // This method runs once when the OpMode is stopped
+    @Override
+    public void onStop() {
+        // Stop the subsystems and free the camera so the next OpMode can use it
+        SubsystemLifecycle.endOpMode();
     }
 
 }
@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.teleop.bindings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.nextftc.core.commands.Command;
+
+/**
+ * A list of "this button runs that command", written in one place so it's easy to
+ * read and easy to change:
+ * <pre>
+ *     CompiledBindings bindings = new BindingTable()
+ *             .bind(2, GamepadButton.X, "Shooter on/off", shootingSystem.startStop)
+ *             .bind(2, GamepadButton.A, "Intake on/off", intake.startStop)
+ *             .build();
+ * </pre>
+ * {@link #build()} checks the table before the match starts: two commands on the
+ * same button is a mistake and stops the OpMode with a clear message. One command
+ * on two buttons is allowed, but shows up in {@link CompiledBindings#getWarnings()}.
+ */
+public class BindingTable {
+
+    private final List<Row> rows = new ArrayList<>();
+
+    /** One line of the table. */
+    static final class Row {
+        final int gamepad;
+        final GamepadButton button;
+        final String description;
+        final Command command;
+
+        Row(int gamepad, GamepadButton button, String description, Command command) {
+            this.gamepad = gamepad;
+            this.button = button;
+            this.description = description;
+            this.command = command;
+        }
+
+        String where() {
+            return "gamepad" + gamepad + " " + button;
+        }
+    }
+
+    /**
+     * Runs the command once each time the button is pressed (not while it is held).
+     *
+     * @param gamepad     1 or 2
+     * @param button      which button
+     * @param description what it does, in words (shown on the Driver Station)
+     * @param command     the command to schedule
+     */
+    public BindingTable bind(int gamepad, GamepadButton button, String description, Command command) {
+        if (gamepad != 1 && gamepad != 2) {
+            throw new IllegalArgumentException("gamepad must be 1 or 2, not " + gamepad);
+        }
+        if (button == null || command == null) {
+            throw new IllegalArgumentException("binding \"" + description + "\" needs a button and a command");
+        }
+        rows.add(new Row(gamepad, button, description, command));
+        return this;
+    }
+
+    /**
+     * Checks the table and turns it into fast lookup arrays.
+     *
+     * @throws IllegalStateException if a button has more than one command
+     */
+    public CompiledBindings build() {
+        int buttonCount = GamepadButton.values().length;
+        Row[] bySlot = new Row[2 * buttonCount];
+        List<String> conflicts = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+
+        for (Row row : rows) {
+            int slot = (row.gamepad - 1) * buttonCount + row.button.ordinal();
+            Row taken = bySlot[slot];
+            if (taken != null) {
+                conflicts.add(row.where() + ": \"" + taken.description + "\" and \"" + row.description + "\"");
+                continue;
+            }
+            bySlot[slot] = row;
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Button conflicts: " + String.join("; ", conflicts));
+        }
+
+        // The same command on two buttons usually means a copy-paste mistake
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = i + 1; j < rows.size(); j++) {
+                if (rows.get(i).command == rows.get(j).command) {
+                    warnings.add("\"" + rows.get(i).description + "\" is on both "
+                            + rows.get(i).where() + " and " + rows.get(j).where());
+                }
+            }
+        }
+
+        // Keep only the buttons that are used, in gamepad/button order
+        List<Row> used = new ArrayList<>();
+        for (Row row : bySlot) {
+            if (row != null) {
+                used.add(row);
+            }
+        }
+        return new CompiledBindings(used, warnings);
+    }
+}
@@ -0,0 +1,88 @@
+package org.firstinspires.ftc.teamcode.teleop.bindings;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import java.util.Collections;
+import java.util.List;
+
+import dev.nextftc.core.commands.Command;
+
+/**
+ * A checked {@link BindingTable}, ready to use every loop.
+ *
+ * Everything is kept in plain arrays (one spot per bound button), so
+ * {@link #update} is just a short loop of field reads: it makes no new objects
+ * and only looks at the buttons we actually use.
+ */
+public class CompiledBindings {
+
+    private final boolean[] onGamepad2;
+    private final GamepadButton[] buttons;
+    private final Command[] commands;
+    private final String[] descriptions;
+
+    // Was each button down last loop? (to find the moment it gets pressed)
+    private final boolean[] wasPressed;
+
+    // Buttons already held when we start shouldn't count as a press
+    private boolean primed = false;
+
+    private final List<String> warnings;
+
+    // How many commands the bindings have started
+    private int fired = 0;
+
+    CompiledBindings(List<BindingTable.Row> rows, List<String> warnings) {
+        int count = rows.size();
+        onGamepad2 = new boolean[count];
+        buttons = new GamepadButton[count];
+        commands = new Command[count];
+        descriptions = new String[count];
+        wasPressed = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            BindingTable.Row row = rows.get(i);
+            onGamepad2[i] = row.gamepad == 2;
+            buttons[i] = row.button;
+            commands[i] = row.command;
+            descriptions[i] = row.where() + " → " + row.description;
+        }
+        this.warnings = Collections.unmodifiableList(warnings);
+    }
+
+    /**
+     * Call this once per loop. Schedules the command of every button that was just pressed.
+     */
+    public void update(Gamepad gamepad1, Gamepad gamepad2) {
+        for (int i = 0; i < buttons.length; i++) {
+            boolean pressed = buttons[i].read(onGamepad2[i] ? gamepad2 : gamepad1);
+            if (pressed && !wasPressed[i] && primed) {
+                commands[i].schedule();
+                fired++;
+            }
+            wasPressed[i] = pressed;
+        }
+        primed = true;
+    }
+
+    /** Forget which buttons are held (for example when driver control starts again). */
+    public void reset() {
+        primed = false;
+    }
+
+    public int size() {
+        return buttons.length;
+    }
+
+    /** "gamepad2 X → Shooter on/off", for showing the controls on the Driver Station. */
+    public String getDescription(int index) {
+        return descriptions[index];
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public int getFiredCount() {
+        return fired;
+    }
+}
@@ -0,0 +1,23 @@
+package org.firstinspires.ftc.teamcode.teleop.bindings;
+
+/**
+ * Who drives and who runs the mechanisms.
+ *
+ * The buttons for the shooter, intake and loader are the same in every profile,
+ * only the gamepad they live on changes.
+ */
+public enum DriverProfile {
+
+    // Normal match setup: gamepad 1 drives, gamepad 2 runs the mechanisms
+    TWO_DRIVERS(2),
+
+    // Practicing alone: everything is on gamepad 1 (the sticks still drive)
+    SOLO(1);
+
+    // Which gamepad (1 or 2) the mechanism buttons are on
+    public final int mechanismGamepad;
+
+    DriverProfile(int mechanismGamepad) {
+        this.mechanismGamepad = mechanismGamepad;
+    }
+}
@@ -0,0 +1,99 @@
+package org.firstinspires.ftc.teamcode.teleop.bindings;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * Every button on a gamepad that can be bound to a command.
+ *
+ * Each one knows how to read itself straight from the SDK {@link Gamepad}
+ * (just a field read, so it's very cheap and makes no garbage).
+ */
+public enum GamepadButton {
+    A {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.a;
+        }
+    },
+    B {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.b;
+        }
+    },
+    X {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.x;
+        }
+    },
+    Y {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.y;
+        }
+    },
+    DPAD_UP {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.dpad_up;
+        }
+    },
+    DPAD_DOWN {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.dpad_down;
+        }
+    },
+    DPAD_LEFT {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.dpad_left;
+        }
+    },
+    DPAD_RIGHT {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.dpad_right;
+        }
+    },
+    LEFT_BUMPER {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.left_bumper;
+        }
+    },
+    RIGHT_BUMPER {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.right_bumper;
+        }
+    },
+    LEFT_STICK_BUTTON {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.left_stick_button;
+        }
+    },
+    RIGHT_STICK_BUTTON {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.right_stick_button;
+        }
+    },
+    BACK {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.back;
+        }
+    },
+    START {
+        @Override
+        public boolean read(Gamepad gamepad) {
+            return gamepad.start;
+        }
+    };
+
+    /** Is this button held down right now? */
+    public abstract boolean read(Gamepad gamepad);
+}
@@ -1,5 +1,6 @@
 package org.firstinspires.ftc.teamcode.teleop.stage;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
@@ -8,6 +9,11 @@ import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.hardware.CachedDcMotorEx;
+import org.firstinspires.ftc.teamcode.hardware.CachedServo;
+import org.firstinspires.ftc.teamcode.hardware.WriteFilter;
+import org.firstinspires.ftc.teamcode.util.EncoderVelocityEstimator;
+
 /**
  * Dual Motor Test - Intake and Shooting + goBILDA Servo support + cb_dcMotor
  * Motor1 - Ball Intake Motor
@@ -50,6 +56,13 @@ public class TestDrive17181Main extends LinearOpMode {
     private Servo gb_servo;        // standard positional servo (0.0 - 1.0)
     // private CRServo gb_crServo;    // continuous-rotation servo (-1.0 to 1.0 power) // commented out
     private boolean gb_hasServo = false;
+
+    // The loop sets every power each time around; these only send it to the hub when it changed
+    private CachedDcMotorEx im_intakeOut;
+    private CachedDcMotorEx sm_shootingOut1;
+    private CachedDcMotorEx sm_shootingOut2;
+    private CachedDcMotorEx cb_out;
+    private CachedServo gb_servoOut;
     // private boolean gb_hasCRServo = false; // commented out
 
     // Timing and measurement
@@ -60,7 +73,19 @@ public class TestDrive17181Main extends LinearOpMode {
     private static final double BARE_MOTOR_RPM = 5800.0;  // 5000 Series bare motor speed
     private static final double GEAR_RATIO = 1.0;         // 1:1 gear ratio (direct drive)
     private static final double FREE_RUN_RPM = BARE_MOTOR_RPM / GEAR_RATIO;  // Output shaft: 5800 RPM
-    private static final int ENCODER_CPR = 537; // Since gear ratio is 1:1, use motor's native CPR
+
+    // Encoder ticks per output shaft turn, for each motor. All four are bare 5000 series
+    // motors: 28 ticks per motor turn, times the gear ratio (537.7 is the 312 RPM gearmotor, not these)
+    private static final double MOTOR_CPR = 28.0;
+    private static final double IM_ENCODER_CPR = MOTOR_CPR * GEAR_RATIO;
+    private static final double SM_ENCODER_CPR = MOTOR_CPR * GEAR_RATIO;
+    private static final double CB_ENCODER_CPR = MOTOR_CPR * GEAR_RATIO;
+
+    // Speeds worked out from encoder positions (smoother and quicker than getVelocity())
+    private final EncoderVelocityEstimator im_speed = new EncoderVelocityEstimator(IM_ENCODER_CPR, 8, 80.0);
+    private final EncoderVelocityEstimator sm_speed1 = new EncoderVelocityEstimator(SM_ENCODER_CPR, 8, 80.0);
+    private final EncoderVelocityEstimator sm_speed2 = new EncoderVelocityEstimator(SM_ENCODER_CPR, 8, 80.0);
+    private final EncoderVelocityEstimator cb_speedEstimate = new EncoderVelocityEstimator(CB_ENCODER_CPR, 8, 80.0);
 
     // Intake motor variables (Motor1)
     private final double im_intakePower = 0.9; // Fixed at 90% for intake
@@ -126,25 +151,25 @@ public class TestDrive17181Main extends LinearOpMode {
             // Apply power to intake motor (Motor1)
             if (im_intakeRunning) {
                 double appliedIntakePower = im_intakeForward ? im_intakePower : -im_intakePower;
-                im_intakeMotor.setPower(appliedIntakePower);
+                im_intakeOut.setPower(appliedIntakePower);
             } else {
-                im_intakeMotor.setPower(0);
+                im_intakeOut.setPower(0);
             }
 
             // Apply power to all shooting motors (Motor2/3/4)
             if (sm_shootingRunning) {
-                sm_shootingMotor1.setPower(sm_shootingPower);
-                sm_shootingMotor2.setPower(sm_shootingPower);
-                cb_dcMotor.setPower(cb_shootingPower);
+                sm_shootingOut1.setPower(sm_shootingPower);
+                sm_shootingOut2.setPower(sm_shootingPower);
+                cb_out.setPower(cb_shootingPower);
             } else {
-                sm_shootingMotor1.setPower(0);
-                sm_shootingMotor2.setPower(0);
-                cb_dcMotor.setPower(0);
+                sm_shootingOut1.setPower(0);
+                sm_shootingOut2.setPower(0);
+                cb_out.setPower(0);
             }
 
             // Apply servo outputs (if present)
             if (gb_hasServo) {
-                gb_servo.setPosition(gb_servoPos);
+                gb_servoOut.setPosition(gb_servoPos);
             }
             // (CR servo power is set directly in checkServoControls()) // commented out
 
@@ -167,6 +192,11 @@ public class TestDrive17181Main extends LinearOpMode {
         telemetry.update();
 
         try {
+            // Read all motor encoders of a hub in one go (AUTO: a new bulk read when a value is read again)
+            for (LynxModule hub : hardwareMap.getAll(LynxModule.class)) {
+                hub.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+            }
+
             // DC motors
             im_intakeMotor = hardwareMap.get(DcMotorEx.class, "intakeMotor");
             sm_shootingMotor1 = hardwareMap.get(DcMotorEx.class, "sm1");
@@ -202,8 +232,17 @@ public class TestDrive17181Main extends LinearOpMode {
             sm_shootingMotor2.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
             cb_dcMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
 
+            // Wrap the outputs so unchanged values aren't sent again every loop
+            // (and count the writes from zero, not from the last OpMode)
+            WriteFilter.resetTotals();
+            im_intakeOut = new CachedDcMotorEx(im_intakeMotor);
+            sm_shootingOut1 = new CachedDcMotorEx(sm_shootingMotor1);
+            sm_shootingOut2 = new CachedDcMotorEx(sm_shootingMotor2);
+            cb_out = new CachedDcMotorEx(cb_dcMotor);
+            if (gb_hasServo) gb_servoOut = new CachedServo(gb_servo);
+
             // Init servo positions/power
-            if (gb_hasServo) gb_servo.setPosition(gb_servoPos);
+            if (gb_hasServo) gb_servoOut.setPosition(gb_servoPos);
             // if (gb_hasCRServo) gb_crServo.setPower(0); // commented out
 
             telemetry.addData("Status", "Hardware initialized successfully");
@@ -340,17 +379,18 @@ public class TestDrive17181Main extends LinearOpMode {
     }
 
     private void updateMotorTelemetry() {
-        // Get current motor velocities
-        double intakeSpeed = Math.abs(im_intakeMotor.getVelocity());
-        double sm_shootingSpeed1 = Math.abs(sm_shootingMotor1.getVelocity());
-        double sm_shootingSpeed2 = Math.abs(sm_shootingMotor2.getVelocity());
-        double cb_speed = Math.abs(cb_dcMotor.getVelocity());
-
-        // Convert to RPM
-        double intakeRPM = (intakeSpeed * 60) / ENCODER_CPR;
-        double sm_shootingRPM1 = (sm_shootingSpeed1 * 60) / ENCODER_CPR;
-        double sm_shootingRPM2 = (sm_shootingSpeed2 * 60) / ENCODER_CPR;
-        double cb_RPM = (cb_speed * 60) / ENCODER_CPR;
+        // Feed the encoder positions (all from the same bulk read) to the speed estimators
+        long now = System.nanoTime();
+        im_speed.update(im_intakeMotor.getCurrentPosition(), now);
+        sm_speed1.update(sm_shootingMotor1.getCurrentPosition(), now);
+        sm_speed2.update(sm_shootingMotor2.getCurrentPosition(), now);
+        cb_speedEstimate.update(cb_dcMotor.getCurrentPosition(), now);
+
+        // RPM of each motor, using its own ticks per turn
+        double intakeRPM = Math.abs(im_speed.getRpm());
+        double sm_shootingRPM1 = Math.abs(sm_speed1.getRpm());
+        double sm_shootingRPM2 = Math.abs(sm_speed2.getRpm());
+        double cb_RPM = Math.abs(cb_speedEstimate.getRpm());
 
         // Update performance tracking
         updatePerformanceStats(intakeRPM, sm_shootingRPM1, sm_shootingRPM2, cb_RPM);
@@ -382,6 +422,7 @@ public class TestDrive17181Main extends LinearOpMode {
         telemetry.addData("Power Level", "%.1f%% (Variable)", sm_shootingPower * 100);
         telemetry.addData("Control Mode", sm_shootingPowerIncrement == 0.025 ? "FINE (2.5%)" : "NORMAL (5%)");
         telemetry.addData("Current RPM", "%.1f RPM", sm_shootingRPM1);
+        telemetry.addData("Acceleration", "%.0f RPM/s", sm_speed1.getRpmPerSecond());
         telemetry.addData("Expected RPM @ Power", "%.1f RPM", FREE_RUN_RPM * sm_shootingPower);
         telemetry.addData("Max Possible RPM", "%.0f RPM @ 100%%", FREE_RUN_RPM);
         telemetry.addLine("");
@@ -392,6 +433,7 @@ public class TestDrive17181Main extends LinearOpMode {
         telemetry.addData("Power Level", "%.1f%% (Variable)", sm_shootingPower * 100);
         telemetry.addData("Control Mode", sm_shootingPowerIncrement == 0.025 ? "FINE (2.5%)" : "NORMAL (5%)");
         telemetry.addData("Current RPM", "%.1f RPM", sm_shootingRPM2);
+        telemetry.addData("Acceleration", "%.0f RPM/s", sm_speed2.getRpmPerSecond());
         telemetry.addData("Expected RPM @ Power", "%.1f RPM", FREE_RUN_RPM * sm_shootingPower);
         telemetry.addData("Max Possible RPM", "%.0f RPM @ 100%%", FREE_RUN_RPM);
         telemetry.addLine("");
@@ -427,6 +469,8 @@ public class TestDrive17181Main extends LinearOpMode {
         telemetry.addData("Avg Shooting RPM 1", "%.1f RPM", sm_avgShootingRPM1);
         telemetry.addData("Avg Shooting RPM 2", "%.1f RPM", sm_avgShootingRPM2);
         telemetry.addData("Avg CB Motor RPM", "%.1f RPM", cb_avgRPM);
+        telemetry.addData("Hub writes sent / saved", "%d / %d",
+                WriteFilter.getTotalWrites(), WriteFilter.getTotalSkipped());
         telemetry.addLine("");
 
         // System status
@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Ignores quick flickers in a true/false signal.
+ *
+ * A new value only counts once it has stayed the same for the settle time.
+ * For example the flywheel speed wobbles around "at speed" for a moment while it
+ * spins up; without this, the driver's controller would buzz on and off.
+ */
+public class Debouncer {
+
+    private final long settleNanos;
+
+    private boolean stable;
+    private boolean candidate;
+    private long candidateSinceNanos = 0;
+
+    /**
+     * @param settleMs how long a new value must last before we believe it
+     * @param initial  the value to start with
+     */
+    public Debouncer(double settleMs, boolean initial) {
+        this.settleNanos = (long) (settleMs * 1e6);
+        this.stable = initial;
+        this.candidate = initial;
+    }
+
+    /**
+     * Feeds in the newest raw value.
+     *
+     * @param raw the value right now
+     * @param now System.nanoTime()
+     * @return the debounced value
+     */
+    public boolean update(boolean raw, long now) {
+        if (raw != candidate) {
+            candidate = raw;
+            candidateSinceNanos = now;
+        }
+        if (candidate != stable && now - candidateSinceNanos >= settleNanos) {
+            stable = candidate;
+        }
+        return stable;
+    }
+
+    public boolean get() {
+        return stable;
+    }
+
+    /** Jumps straight to a value (no waiting). */
+    public void reset(boolean value) {
+        stable = value;
+        candidate = value;
+    }
+}
@@ -0,0 +1,170 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Works out how fast a motor spins (and how fast that speed changes) from its
+ * encoder position, instead of using the hub's getVelocity().
+ *
+ * The hub's velocity is counted over a fixed window inside the hub, so it comes in
+ * big steps and a little late. That hides the short dip when a ball goes through
+ * the flywheel. Here we keep the last few (time, position) pairs from the bulk read
+ * and fit a curve through them (least squares): position = a + b·t + c·t².
+ * At the newest sample, b is the speed and 2c is the acceleration.
+ *
+ * Fitting over several samples smooths out the ±1 tick jitter without the lag of a
+ * long average. Old samples (older than the window time) are dropped, so after a
+ * slow loop the estimate follows the new speed right away.
+ *
+ * No hardware in here, and {@link #update} makes no garbage, so it can run every loop
+ * and on a laptop.
+ */
+public class EncoderVelocityEstimator {
+
+    // Encoder ticks for one turn of the shaft we care about
+    private final double countsPerRev;
+
+    // Keep at most this many samples, none older than this
+    private final int maxSamples;
+    private final long windowNanos;
+
+    // Ring buffer of samples
+    private final long[] times;
+    private final double[] positions;
+    private int count = 0;
+    private int newest = -1;
+
+    // Results (ticks per second, ticks per second squared)
+    private double velocity = 0.0;
+    private double acceleration = 0.0;
+    private boolean hasEstimate = false;
+
+    /**
+     * @param countsPerRev encoder ticks per turn (28 for a bare goBILDA 5000 series motor,
+     *                     times the gear ratio if you want the output shaft)
+     * @param maxSamples   how many samples to fit (3 or more; 6-10 works well)
+     * @param windowMs     never use samples older than this
+     */
+    public EncoderVelocityEstimator(double countsPerRev, int maxSamples, double windowMs) {
+        if (maxSamples < 3) {
+            throw new IllegalArgumentException("Need at least 3 samples to fit a curve");
+        }
+        this.countsPerRev = countsPerRev;
+        this.maxSamples = maxSamples;
+        this.windowNanos = (long) (windowMs * 1e6);
+        this.times = new long[maxSamples];
+        this.positions = new double[maxSamples];
+    }
+
+    /**
+     * Adds the newest encoder reading. Call it once per loop, right after the bulk read.
+     *
+     * @param position  encoder position (ticks)
+     * @param timeNanos when it was read (System.nanoTime())
+     */
+    public void update(double position, long timeNanos) {
+        // Time must move forward, or the fit below would divide by zero
+        // (this only happens if update() is called twice with the same time, e.g. in a replay)
+        if (newest >= 0 && timeNanos <= times[newest]) {
+            return;
+        }
+        newest = (newest + 1) % maxSamples;
+        times[newest] = timeNanos;
+        positions[newest] = position;
+        if (count < maxSamples) {
+            count++;
+        }
+
+        // Drop samples that are too old (always keep at least two)
+        while (count > 2 && timeNanos - times[oldestIndex()] > windowNanos) {
+            count--;
+        }
+        fit();
+    }
+
+    /** Forgets all samples (for example when the motor is reset). */
+    public void reset() {
+        count = 0;
+        newest = -1;
+        velocity = 0.0;
+        acceleration = 0.0;
+        hasEstimate = false;
+    }
+
+    /** True once there were at least two samples. */
+    public boolean hasEstimate() {
+        return hasEstimate;
+    }
+
+    public double getTicksPerSecond() {
+        return velocity;
+    }
+
+    public double getRpm() {
+        return velocity * 60.0 / countsPerRev;
+    }
+
+    /** How fast the RPM is changing, in RPM per second (negative while it slows down). */
+    public double getRpmPerSecond() {
+        return acceleration * 60.0 / countsPerRev;
+    }
+
+    public double getCountsPerRev() {
+        return countsPerRev;
+    }
+
+    private int oldestIndex() {
+        return (newest - count + 1 + maxSamples) % maxSamples;
+    }
+
+    /**
+     * Least squares fit with time measured back from the newest sample (so t = 0 there),
+     * and positions relative to the newest one (keeps the numbers small).
+     */
+    private void fit() {
+        if (count < 2) {
+            return;
+        }
+        long t0 = times[newest];
+        double p0 = positions[newest];
+
+        if (count == 2) {
+            int older = oldestIndex();
+            double dt = (t0 - times[older]) / 1e9;
+            velocity = (p0 - positions[older]) / dt;
+            acceleration = 0.0;
+            hasEstimate = true;
+            return;
+        }
+
+        // Sums for the normal equations
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double y0 = 0, y1 = 0, y2 = 0;
+        for (int i = 0; i < count; i++) {
+            int index = (newest - i + maxSamples) % maxSamples;
+            double t = (times[index] - t0) / 1e9;
+            double p = positions[index] - p0;
+            double t2 = t * t;
+            s0 += 1;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            y0 += p;
+            y1 += p * t;
+            y2 += p * t2;
+        }
+
+        // | s0 s1 s2 |   | a |   | y0 |
+        // | s1 s2 s3 | · | b | = | y1 |
+        // | s2 s3 s4 |   | c |   | y2 |
+        double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+        if (Math.abs(det) < 1e-18) {
+            return;   // all samples at (almost) the same time: keep the last answer
+        }
+        double b = (s0 * (y1 * s4 - s3 * y2) - y0 * (s1 * s4 - s3 * s2) + s2 * (s1 * y2 - y1 * s2)) / det;
+        double c = (s0 * (s2 * y2 - y1 * s3) - s1 * (s1 * y2 - y1 * s2) + y0 * (s1 * s3 - s2 * s2)) / det;
+
+        velocity = b;
+        acceleration = 2 * c;
+        hasEstimate = true;
+    }
+}
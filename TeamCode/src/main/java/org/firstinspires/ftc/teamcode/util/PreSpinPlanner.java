@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Decides when to spin up the flywheel, so it is at speed the moment the robot
+ * arrives at the shooting zone, and not much earlier.
+ *
+ * Every loop it is given:
+ *  - how long until we get to the zone (the ETA, see {@link #etaFromPath} and
+ *    {@link #etaFromVelocity})
+ *  - how long the flywheel needs to get up to speed (from a {@link SpinUpModel})
+ * and it says "spin now" once the ETA is less than the spin-up time plus a small
+ * margin. Inside the zone it always says spin.
+ *
+ * To stop it flip-flopping (a driver wiggling at the edge), it keeps saying "spin"
+ * for {@code holdSeconds} after the last time it was needed.
+ *
+ * The zone is a circle on the field (Pedro coordinates, inches). No hardware in
+ * here, so it also runs on a laptop.
+ */
+public class PreSpinPlanner {
+
+    // The shooting zone
+    private final double zoneX;
+    private final double zoneY;
+    private final double zoneRadius;
+
+    // Start this much earlier than the spin-up time, to cover loop time and a wrong ETA
+    private final double marginSeconds;
+
+    // Keep spinning this long after it was last needed
+    private final long holdNanos;
+
+    private boolean spin = false;
+    private long lastNeededNanos = 0;
+
+    /**
+     * @param zoneX         zone center (inches)
+     * @param zoneY         zone center (inches)
+     * @param zoneRadius    zone size (inches)
+     * @param marginSeconds start this much earlier than needed
+     * @param holdSeconds   keep spinning this long after leaving
+     */
+    public PreSpinPlanner(double zoneX, double zoneY, double zoneRadius, double marginSeconds, double holdSeconds) {
+        this.zoneX = zoneX;
+        this.zoneY = zoneY;
+        this.zoneRadius = zoneRadius;
+        this.marginSeconds = marginSeconds;
+        this.holdNanos = (long) (holdSeconds * 1e9);
+    }
+
+    /** True if (x, y) is inside the shooting zone. */
+    public boolean isInZone(double x, double y) {
+        return Math.hypot(x - zoneX, y - zoneY) <= zoneRadius;
+    }
+
+    /** How far (x, y) is from the edge of the zone, in inches (0 inside). */
+    public double distanceToZone(double x, double y) {
+        return Math.max(0.0, Math.hypot(x - zoneX, y - zoneY) - zoneRadius);
+    }
+
+    /**
+     * ETA while following a path that ends in the zone: the distance left on the path
+     * at the current speed (but at least {@code minSpeed}, so a robot that is only just
+     * starting doesn't look like it will never arrive).
+     *
+     * @return seconds, or infinity if the path doesn't end in the zone
+     */
+    public double etaFromPath(double remainingInches, double endX, double endY, double speed, double minSpeed) {
+        if (!isInZone(endX, endY)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0.0, remainingInches) / Math.max(Math.abs(speed), minSpeed);
+    }
+
+    /**
+     * ETA while the driver is in control: distance to the zone divided by how fast
+     * we are closing in on it (only the part of the velocity that points at the zone).
+     *
+     * @return seconds, or infinity if we aren't heading there (closing slower than minClosingSpeed)
+     */
+    public double etaFromVelocity(double x, double y, double vx, double vy, double minClosingSpeed) {
+        double distance = distanceToZone(x, y);
+        if (distance == 0.0) {
+            return 0.0;
+        }
+        double toCenter = Math.hypot(zoneX - x, zoneY - y);
+        double closing = (vx * (zoneX - x) + vy * (zoneY - y)) / toCenter;
+        if (closing < minClosingSpeed) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distance / closing;
+    }
+
+    /**
+     * Decides for this loop.
+     *
+     * @param etaSeconds      time until we are in the zone (0 inside, infinity if not coming)
+     * @param spinUpSeconds   time the flywheel needs to get up to speed if it is (or were) off
+     *                        now. While it is on, pass the time from a stop, or it looks
+     *                        like it could be turned off and on again at the last moment.
+     * @param nowNanos        System.nanoTime()
+     * @return true if the flywheel should be spinning
+     */
+    public boolean update(double etaSeconds, double spinUpSeconds, long nowNanos) {
+        if (etaSeconds <= spinUpSeconds + marginSeconds) {
+            spin = true;
+            lastNeededNanos = nowNanos;
+        } else if (spin && nowNanos - lastNeededNanos > holdNanos) {
+            spin = false;
+        }
+        return spin;
+    }
+
+    /** Forgets the last decision (for a new OpMode). */
+    public void reset() {
+        spin = false;
+        lastNeededNanos = 0;
+    }
+
+    public boolean isSpinning() {
+        return spin;
+    }
+}
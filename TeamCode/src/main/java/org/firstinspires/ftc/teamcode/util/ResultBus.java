@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * A "mailbox" that always holds the **newest** result.
+ *
+ * - One thread (the writer, for example the camera thread) calls {@link #publish}.
+ * - Any number of threads (the readers, for example our subsystems) call {@link #latest()}.
+ *
+ * There are no locks: the writer builds a new immutable {@link TimedResult} and swaps
+ * it in with a single volatile write. Readers do a single volatile read, so reading
+ * never waits and never makes garbage. Old results are simply replaced.
+ *
+ * Only ONE thread may publish to a bus.
+ */
+public final class ResultBus<T> {
+
+    // The newest result (null until the first publish)
+    private volatile TimedResult<T> latest = null;
+
+    // Only the writer thread changes this
+    private long nextSequence = 0;
+
+    /**
+     * Puts a new result on the bus. Call this only from the writer thread.
+     *
+     * @param value            the result (should not be changed after this call)
+     * @param captureTimeNanos when the data behind it was captured (System.nanoTime())
+     * @param processingNanos  how long it took to work out
+     */
+    public void publish(T value, long captureTimeNanos, long processingNanos) {
+        latest = new TimedResult<>(value, captureTimeNanos, System.nanoTime(), processingNanos, nextSequence++);
+    }
+
+    /**
+     * Gives back the newest result, or null if nothing was published yet.
+     * Never waits and never allocates.
+     */
+    public TimedResult<T> latest() {
+        return latest;
+    }
+
+    /**
+     * Gives back the newest result only if it is newer than the one you saw last.
+     *
+     * @param lastSeenSequence the {@link TimedResult#sequence} you saw last (use -1 at the start)
+     * @return the newer result, or null if there is nothing new
+     */
+    public TimedResult<T> newerThan(long lastSeenSequence) {
+        TimedResult<T> result = latest;
+        return (result != null && result.sequence > lastSeenSequence) ? result : null;
+    }
+
+    /** Throws away the current result (for example when a processor is turned off). Safe from any thread. */
+    public void clear() {
+        latest = null;
+    }
+}
@@ -0,0 +1,191 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import org.firstinspires.ftc.teamcode.drive.TrapezoidProfile;
+
+/**
+ * Works out where a servo really is, from what we told it and when.
+ *
+ * A servo gives no feedback: servo.getPosition() only hands back the last number
+ * we sent. The real horn needs time to get there (it turns at a fixed top speed)
+ * and then a little more to stop wobbling. If we shoot right after moving the hood,
+ * the ball leaves at the old angle.
+ *
+ * This model remembers every move and gives:
+ *  - {@link #getEstimatedPosition}: where the servo should be now
+ *  - {@link #isInPosition}: it got there AND had time to settle
+ *  - {@link #getMsUntilInPosition}: how long to wait, so a shot waits exactly that long
+ *
+ * Timing of one move of size d:
+ *  - travel: d / speed (the servo's own top speed), or the motion profile below
+ *  - settle: settleMs + settleMsPerUnit · d (a bigger move wobbles longer)
+ *
+ * Motion profile (optional, see {@link #setProfile}): big moves are sent as a ramp
+ * (a {@link TrapezoidProfile}: speed up, cruise, slow down) instead of one jump.
+ * The servo then follows our setpoint instead of slamming into the new position,
+ * so it wobbles less and the estimate is closer to the truth. Send {@link #getSetpoint} to the servo every loop
+ * while {@link #isMoving} is true.
+ *
+ * When we don't know where the servo is (just after INIT) the first move is counted
+ * as the longest one possible ({@code maxTravel}).
+ *
+ * Positions are servo units (0..1). No hardware in here, so it also runs on a laptop.
+ */
+public class ServoMotionModel {
+
+    // The servo's top speed (units per second) and settle times
+    private final double unitsPerSecond;
+    private final double settleMs;
+    private final double settleMsPerUnit;
+
+    // The longest move the servo can make (used when we don't know where it is)
+    private final double maxTravel;
+
+    // Motion profile settings (off until setProfile is called)
+    private boolean profileOn = false;
+    private double profileSpeed;
+    private double profileAccel;
+    private double profileMinTravel;
+
+    // The move going on now
+    private boolean known = false;
+    private boolean hasTarget = false;
+    private double start;
+    private double target;
+    private long moveStartNanos;
+    private TrapezoidProfile profile;   // null when the move is one jump
+    private double travelSeconds;
+    private double settleSeconds;
+
+    /**
+     * @param unitsPerSecond  how fast the servo turns, in servo units per second
+     *                        (a 300° servo that does 60° in 0.25 s: 0.2 / 0.25 = 0.8)
+     * @param settleMs        time to stop wobbling after any move
+     * @param settleMsPerUnit extra settle time for every unit of travel
+     * @param maxTravel       the longest move possible (for the first move after INIT)
+     */
+    public ServoMotionModel(double unitsPerSecond, double settleMs, double settleMsPerUnit, double maxTravel) {
+        if (!(unitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Servo speed must be more than 0");
+        }
+        this.unitsPerSecond = unitsPerSecond;
+        this.settleMs = settleMs;
+        this.settleMsPerUnit = settleMsPerUnit;
+        this.maxTravel = Math.abs(maxTravel);
+    }
+
+    /**
+     * Sends moves of at least {@code minTravel} as a ramp.
+     *
+     * @param speed     top speed of the ramp (units per second, keep it below the servo's own)
+     * @param accel     how fast the ramp speeds up and slows down (units per second²)
+     * @param minTravel smaller moves are still sent in one jump
+     */
+    public void setProfile(double speed, double accel, double minTravel) {
+        profileOn = speed > 0 && accel > 0;
+        profileSpeed = Math.min(speed, unitsPerSecond);
+        profileAccel = accel;
+        profileMinTravel = minTravel;
+    }
+
+    /** Big moves go in one jump again. */
+    public void clearProfile() {
+        profileOn = false;
+    }
+
+    /**
+     * Starts a move to {@code newTarget} from where the servo is now.
+     *
+     * @param nowNanos System.nanoTime()
+     */
+    public void moveTo(double newTarget, long nowNanos) {
+        if (hasTarget && newTarget == target) {
+            return;   // same place again: don't start the clock over
+        }
+        double distance;
+        if (known) {
+            start = getEstimatedPosition(nowNanos);
+            distance = Math.abs(newTarget - start);
+        } else {
+            start = newTarget;   // we can't say where it comes from, only how long it may take
+            distance = maxTravel;
+        }
+        target = newTarget;
+        hasTarget = true;
+        moveStartNanos = nowNanos;
+        settleSeconds = (settleMs + settleMsPerUnit * distance) / 1000.0;
+
+        if (known && profileOn && distance >= profileMinTravel) {
+            profile = new TrapezoidProfile(target - start, profileSpeed, profileAccel);
+            travelSeconds = profile.getTotalTime();
+        } else {
+            profile = null;
+            travelSeconds = distance / unitsPerSecond;
+        }
+        known = true;
+    }
+
+    /**
+     * Forgets where the servo is (for example after INIT, or if it could have been pushed).
+     * The next move is counted as the longest one.
+     */
+    public void forget() {
+        known = false;
+        hasTarget = false;
+    }
+
+    /** True once a move was started. */
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    /** Where we want the servo to end up (NaN before the first move). */
+    public double getTarget() {
+        return hasTarget ? target : Double.NaN;
+    }
+
+    /**
+     * The position to send to the servo now: the target, or the point on the ramp
+     * for a profiled move.
+     */
+    public double getSetpoint(long nowNanos) {
+        if (profile == null) {
+            return getTarget();
+        }
+        return start + profile.position((nowNanos - moveStartNanos) / 1e9);
+    }
+
+    /**
+     * Where the servo should physically be now. Before the first move we don't know:
+     * NaN. While the first move after INIT is running we only know where it is going.
+     */
+    public double getEstimatedPosition(long nowNanos) {
+        if (!hasTarget) {
+            return Double.NaN;
+        }
+        double t = (nowNanos - moveStartNanos) / 1e9;
+        if (profile != null) {
+            return start + profile.position(t);   // the ramp is slower than the servo, so it keeps up
+        }
+        double moved = Math.min(Math.abs(target - start), unitsPerSecond * t);
+        return start + Math.signum(target - start) * moved;
+    }
+
+    /** True while the servo is still travelling (not counting the settle time). */
+    public boolean isMoving(long nowNanos) {
+        return hasTarget && (nowNanos - moveStartNanos) / 1e9 < travelSeconds;
+    }
+
+    /** True when the servo got to the target and had time to settle (false before the first move). */
+    public boolean isInPosition(long nowNanos) {
+        return hasTarget && getMsUntilInPosition(nowNanos) == 0.0;
+    }
+
+    /** How long until {@link #isInPosition} will be true, in ms (0 if it already is). */
+    public double getMsUntilInPosition(long nowNanos) {
+        if (!hasTarget) {
+            return (maxTravel / unitsPerSecond) * 1000.0 + settleMs + settleMsPerUnit * maxTravel;
+        }
+        double left = travelSeconds + settleSeconds - (nowNanos - moveStartNanos) / 1e9;
+        return left > 0 ? left * 1000.0 : 0.0;
+    }
+}
@@ -0,0 +1,179 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Learns how long the flywheel takes to spin up, by watching it do so.
+ *
+ * A flywheel on a fixed power speeds up like this (a "first order" curve):
+ * <pre>
+ *     speed(t) = top - (top - start) · e^(-t / tau)
+ * </pre>
+ * tau (the time constant) is the only number that matters: after 1 tau the wheel
+ * made 63% of the way, after 2.3 tau 90%. A heavier wheel or a tired battery
+ * means a bigger tau.
+ *
+ * Every time the flywheel is switched on we get a free measurement. For each loop
+ * while it spins up (between 20% and 80% of the way, where the curve is clear) we solve
+ * the formula above for tau. The average of one spin-up goes into a slow running
+ * average, so one bad spin-up (a ball went through) doesn't throw it off.
+ *
+ * The top speed is measured too. An open-loop flywheel never gets to its motor's free
+ * speed (friction, air, a tired battery), so while it holds a steady speed
+ * ({@link #observeSteady}) we learn the speed one unit of power really gives. Spin-ups
+ * should only be watched once that is known, so tau is fitted against the real top.
+ *
+ * {@link #secondsToReach} then says how long a spin-up from any speed will take,
+ * which is what the pre-spin scheduler needs to know how early to start.
+ *
+ * No hardware in here, so it also runs on a laptop.
+ */
+public class SpinUpModel {
+
+    // Only use the middle of the curve: near the start the speed estimate lags,
+    // near the end the difference to the top speed is mostly noise
+    private static final double USE_FROM = 0.2;
+    private static final double USE_UNTIL = 0.8;
+
+    // How much one new spin-up changes the learned tau (0..1)
+    private static final double LEARN_WEIGHT = 0.3;
+
+    // A spin-up needs at least this many good samples to count
+    private static final int MIN_SAMPLES = 3;
+
+    // How much one steady loop changes the learned top speed (0..1). Small, because there
+    // are many steady loops; it still follows the battery as it gets tired
+    private static final double STEADY_WEIGHT = 0.05;
+
+    private double tauSeconds;
+    private int learnedCount = 0;
+
+    // Steady speed per unit of power (0 = not measured yet)
+    private double topSpeedPerPower = 0.0;
+
+    // The spin-up being watched now
+    private boolean watching = false;
+    private long startNanos;
+    private double startSpeed;
+    private double topSpeed;
+    private double tauTotal;
+    private int samples;
+
+    /**
+     * @param initialTauSeconds the time constant to use until we learned one
+     */
+    public SpinUpModel(double initialTauSeconds) {
+        this.tauSeconds = initialTauSeconds;
+    }
+
+    /**
+     * Changes the time constant to use until we learned one (for example after it was
+     * tuned). Does nothing once a spin-up was learned.
+     */
+    public void setStartingTau(double tauSeconds) {
+        if (learnedCount == 0) {
+            this.tauSeconds = tauSeconds;
+        }
+    }
+
+    /**
+     * The flywheel is holding a steady speed at this power (not spinning up, no ball
+     * going through). Call it every loop while that is true.
+     */
+    public void observeSteady(double speed, double power) {
+        if (power <= 0.0 || speed <= 0.0) {
+            return;
+        }
+        double perPower = speed / power;
+        topSpeedPerPower = topSpeedPerPower == 0.0 ? perPower
+                : topSpeedPerPower + STEADY_WEIGHT * (perPower - topSpeedPerPower);
+    }
+
+    /** True once the flywheel held a steady speed at least once. */
+    public boolean knowsTopSpeed() {
+        return topSpeedPerPower > 0.0;
+    }
+
+    /**
+     * The steady speed this power gives, as measured (0 if not measured yet). Worked out
+     * from the speed per unit of power, so it is best near the power we measured at.
+     */
+    public double getTopSpeed(double power) {
+        return topSpeedPerPower * power;
+    }
+
+    /**
+     * The flywheel was just switched on (or to a higher power).
+     *
+     * @param speed    its speed now
+     * @param topSpeed the speed this power reaches ({@link #getTopSpeed} once it is known)
+     * @param nowNanos System.nanoTime()
+     */
+    public void startWatching(double speed, double topSpeed, long nowNanos) {
+        if (topSpeed <= speed) {
+            watching = false;   // slowing down or staying the same: nothing to learn
+            return;
+        }
+        watching = true;
+        startNanos = nowNanos;
+        startSpeed = speed;
+        this.topSpeed = topSpeed;
+        tauTotal = 0.0;
+        samples = 0;
+    }
+
+    /**
+     * Stops watching without learning anything (a ball went through, or the power changed).
+     */
+    public void cancel() {
+        watching = false;
+    }
+
+    /**
+     * Feeds in the speed. Call it every loop while watching; it stops by itself at the top.
+     */
+    public void update(double speed, long nowNanos) {
+        if (!watching) {
+            return;
+        }
+        double way = (speed - startSpeed) / (topSpeed - startSpeed);
+        double seconds = (nowNanos - startNanos) / 1e9;
+        if (way >= USE_FROM && way <= USE_UNTIL && seconds > 0) {
+            tauTotal += seconds / Math.log(1.0 / (1.0 - way));
+            samples++;
+        }
+        if (way > USE_UNTIL) {
+            watching = false;
+            if (samples >= MIN_SAMPLES) {
+                double tau = tauTotal / samples;
+                tauSeconds = learnedCount == 0 ? tau : tauSeconds + LEARN_WEIGHT * (tau - tauSeconds);
+                learnedCount++;
+            }
+        }
+    }
+
+    /** True while a spin-up is being watched. */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /** The time constant we know now, in seconds. */
+    public double getTauSeconds() {
+        return tauSeconds;
+    }
+
+    /** How many spin-ups we learned from (0 = still the starting guess). */
+    public int getLearnedCount() {
+        return learnedCount;
+    }
+
+    /**
+     * How long until the flywheel gets to {@code fraction} of its top speed (0.9 = 90%),
+     * starting from {@code speed}. 0 if it is already there.
+     */
+    public double secondsToReach(double speed, double topSpeed, double fraction) {
+        double goal = fraction * topSpeed;
+        if (speed >= goal || topSpeed <= 0) {
+            return 0.0;
+        }
+        return tauSeconds * Math.log((topSpeed - speed) / (topSpeed - goal));
+    }
+}
@@ -0,0 +1,197 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.pedropathing.follower.Follower;
+import com.pedropathing.geometry.Pose;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.vision.Motif;
+
+/**
+ * Passes what autonomous learned over to teleop, using the SDK "blackboard"
+ * (see the ConceptBlackboard sample).
+ *
+ * At the end of autonomous we save a {@link RobotState}: where the robot is, how the
+ * IMU lines up with the field, how many balls are inside and the flywheel power we
+ * used. At teleop INIT we take it back out, so driver control starts from the real
+ * pose instead of (0, 0, 0).
+ *
+ * The DECODE {@link Motif} read from the obelisk during autonomous INIT is kept too,
+ * so autonomous and teleop both know it without looking again.
+ *
+ * We also keep the Pedro {@link Follower} itself. If teleop runs on the same
+ * hardwareMap (same robot configuration, no restart), it reuses that follower
+ * and skips building a new localizer and setting up the IMU again.
+ *
+ * Like everything on the blackboard, this is lost when the robot restarts or new
+ * code is downloaded. That's fine: then teleop just starts fresh.
+ */
+public final class StateHandoff {
+
+    // Blackboard keys (constants so there are no typos between OpModes)
+    private static final String STATE_KEY = "StateHandoff.state";
+    private static final String FOLLOWER_KEY = "StateHandoff.follower";
+    private static final String HARDWARE_MAP_KEY = "StateHandoff.hardwareMap";
+    private static final String MOTIF_KEY = "StateHandoff.motif";
+
+    // Saved state older than this came from an old practice run, not the auto we just ran
+    public static final long MAX_AGE_MS = 5 * 60 * 1000;
+
+    // The motif is read at the start of autonomous INIT, which can be a while before teleop
+    public static final long MOTIF_MAX_AGE_MS = 10 * 60 * 1000;
+
+    private StateHandoff() {
+    }
+
+    /**
+     * Everything autonomous hands to teleop. It can't change after it is made.
+     */
+    public static final class RobotState {
+
+        // False if the auto didn't know the field pose (it started at a made-up one)
+        public final boolean hasPose;
+
+        // Field pose at the end of auto, in inches and radians (Pedro coordinates)
+        public final double x;
+        public final double y;
+        public final double heading;
+
+        // Add this to the IMU yaw to get the field heading (radians)
+        public final double headingOffset;
+
+        // How many balls are inside the robot
+        public final int ballCount;
+
+        // The flywheel power that was working at the end of auto
+        public final double flywheelPower;
+
+        // When it was saved (System.currentTimeMillis(), so it means something across OpModes)
+        public final long savedAtMs;
+
+        public RobotState(boolean hasPose, double x, double y, double heading,
+                          double headingOffset, int ballCount, double flywheelPower) {
+            this.hasPose = hasPose;
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            this.headingOffset = headingOffset;
+            this.ballCount = ballCount;
+            this.flywheelPower = flywheelPower;
+            this.savedAtMs = System.currentTimeMillis();
+        }
+
+        /** The saved pose as a Pedro Pose (0, 0, 0 if there isn't one). */
+        public Pose toPose() {
+            return hasPose ? new Pose(x, y, heading) : new Pose(0, 0, 0);
+        }
+
+        public long ageMs() {
+            return System.currentTimeMillis() - savedAtMs;
+        }
+    }
+
+    /** Saves the state for the next OpMode (replaces anything saved before). */
+    public static void save(RobotState state) {
+        OpMode.blackboard.put(STATE_KEY, state);
+    }
+
+    /**
+     * Saves the end of a Pedro autonomous: the follower's pose, the IMU offset, and the
+     * follower itself so teleop can keep using it.
+     *
+     * @param poseOnField true only if the follower started at the robot's real spot on the
+     *                    field. Otherwise its pose is just "how far we moved", and teleop
+     *                    must not use it for anything on the field (like the shooting zone)
+     */
+    public static void saveAutoEnd(Follower follower, HardwareMap hardwareMap, boolean poseOnField,
+                                   int ballCount, double flywheelPower) {
+        Pose pose = follower.getPose();
+        double imuHeading = follower.getPoseTracker().getLocalizer().getIMUHeading();
+
+        // Localizers without a hub IMU (Pinpoint, OctoQuad) give NaN here
+        double headingOffset = Double.isNaN(imuHeading) ? 0.0 : pose.getHeading() - imuHeading;
+
+        save(new RobotState(poseOnField, pose.getX(), pose.getY(), pose.getHeading(),
+                headingOffset, ballCount, flywheelPower));
+        keepFollower(follower, hardwareMap);
+    }
+
+    /**
+     * Takes the saved state out of the blackboard, so restarting teleop later doesn't
+     * jump back to where auto ended.
+     *
+     * @return the state, or null if there is none or it is too old
+     */
+    public static RobotState take() {
+        Object saved = OpMode.blackboard.remove(STATE_KEY);
+        if (!(saved instanceof RobotState)) {
+            return null;
+        }
+        RobotState state = (RobotState) saved;
+        return state.ageMs() <= MAX_AGE_MS ? state : null;
+    }
+
+    // A motif and when it was read
+    private static final class SavedMotif {
+        final Motif motif;
+        final long savedAtMs = System.currentTimeMillis();
+
+        SavedMotif(Motif motif) {
+            this.motif = motif;
+        }
+    }
+
+    /** Saves the motif for this match (replaces the one saved before). */
+    public static void saveMotif(Motif motif) {
+        OpMode.blackboard.put(MOTIF_KEY, new SavedMotif(motif));
+    }
+
+    /**
+     * The motif saved for this match. It stays on the blackboard, so autonomous and
+     * teleop can both read it.
+     *
+     * @return the motif, or UNKNOWN if there is none or it is too old
+     */
+    public static Motif getMotif() {
+        Object saved = OpMode.blackboard.get(MOTIF_KEY);
+        if (!(saved instanceof SavedMotif)) {
+            return Motif.UNKNOWN;
+        }
+        SavedMotif motif = (SavedMotif) saved;
+        return System.currentTimeMillis() - motif.savedAtMs <= MOTIF_MAX_AGE_MS ? motif.motif : Motif.UNKNOWN;
+    }
+
+    /** Remembers a follower so a later OpMode on the same hardwareMap can reuse it. */
+    public static void keepFollower(Follower follower, HardwareMap hardwareMap) {
+        OpMode.blackboard.put(FOLLOWER_KEY, follower);
+        OpMode.blackboard.put(HARDWARE_MAP_KEY, hardwareMap);
+    }
+
+    /**
+     * Gives back the follower from the last OpMode, but only if it was built on this
+     * very hardwareMap. A different hardwareMap means the configuration changed, and
+     * the old follower would talk to hardware objects that aren't used anymore.
+     *
+     * @return the follower to reuse, or null if a new one has to be made
+     */
+    public static Follower reusableFollower(HardwareMap hardwareMap) {
+        Object follower = OpMode.blackboard.get(FOLLOWER_KEY);
+        if (follower instanceof Follower && OpMode.blackboard.get(HARDWARE_MAP_KEY) == hardwareMap) {
+            return (Follower) follower;
+        }
+        forgetFollower();
+        return null;
+    }
+
+    public static void forgetFollower() {
+        OpMode.blackboard.remove(FOLLOWER_KEY);
+        OpMode.blackboard.remove(HARDWARE_MAP_KEY);
+    }
+
+    /** Throws away everything (for example from a "reset robot" OpMode). */
+    public static void clear() {
+        OpMode.blackboard.remove(STATE_KEY);
+        OpMode.blackboard.remove(MOTIF_KEY);
+        forgetFollower();
+    }
+}
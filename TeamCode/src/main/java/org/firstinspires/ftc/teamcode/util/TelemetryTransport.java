@@ -0,0 +1,242 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.telemetry.TelemetryManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * One place to send live values to Panels (graphs on the laptop) and the Driver Station,
+ * without flooding the Wi-Fi or slowing down the loop.
+ *
+ * You list the values once at init, each with a {@link Priority}:
+ * <pre>
+ *     transport = new TelemetryTransport(new TelemetryTransport.PanelsSink(
+ *             PanelsTelemetry.INSTANCE.getTelemetry()))
+ *             .number("flywheel velocity", Priority.CRITICAL, 5.0, shooter::getVelocity)
+ *             .number("x", Priority.NORMAL, 0.1, () -> follower.getPose().getX())
+ *             .text("signal", Priority.DIAGNOSTIC, () -> feedback.getSignal().name());
+ * </pre>
+ * and call {@link #update()} once per loop. Then:
+ *  - CRITICAL values are checked every loop, NORMAL ones 20 times a second and
+ *    DIAGNOSTIC ones 4 times a second
+ *  - a number is only sent when it moved more than its "deadband" since the last
+ *    time it was sent (plus once a second so the graph keeps going)
+ *  - text is only made (String.format and friends) when that channel is due, so
+ *    nothing is built for values that aren't sent
+ *
+ * This only talks to Panels. The Driver Station screen is updated once per loop by the
+ * OpMode itself (a second update in the same loop would show every other frame half empty).
+ */
+public class TelemetryTransport {
+
+    /**
+     * How often a value is checked.
+     */
+    public enum Priority {
+        CRITICAL(0),
+        NORMAL(50),
+        DIAGNOSTIC(250);
+
+        public final long intervalMs;
+
+        Priority(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    /**
+     * Where the values go. {@link PanelsSink} for the robot; a benchmark can count instead.
+     */
+    public interface Sink {
+        void number(String key, double value);
+
+        void text(String key, String value);
+
+        /** Sends everything added since the last flush. */
+        void flush();
+    }
+
+    /**
+     * Sends to Panels (numbers show up as graphs). It never touches the Driver Station
+     * telemetry, so it doesn't add a second Driver Station update to the loop.
+     */
+    public static class PanelsSink implements Sink {
+        private final TelemetryManager panels;
+
+        public PanelsSink(TelemetryManager panels) {
+            this.panels = panels;
+        }
+
+        @Override
+        public void number(String key, double value) {
+            panels.addData(key, value);
+        }
+
+        @Override
+        public void text(String key, String value) {
+            panels.addData(key, value);
+        }
+
+        @Override
+        public void flush() {
+            panels.update();
+        }
+    }
+
+    // Send a value at least this often, even if it didn't change
+    private static final long KEEPALIVE_MS = 1000;
+
+    private abstract static class Channel {
+        final String key;
+        final long intervalNanos;
+        long lastCheckNanos = Long.MIN_VALUE;
+        long lastSendNanos = Long.MIN_VALUE;
+
+        Channel(String key, Priority priority) {
+            this.key = key;
+            this.intervalNanos = priority.intervalMs * 1_000_000L;
+        }
+
+        boolean isDue(long now) {
+            return lastCheckNanos == Long.MIN_VALUE || now - lastCheckNanos >= intervalNanos;
+        }
+
+        boolean needsKeepalive(long now) {
+            return lastSendNanos == Long.MIN_VALUE || now - lastSendNanos >= KEEPALIVE_MS * 1_000_000L;
+        }
+    }
+
+    private static final class NumberChannel extends Channel {
+        final DoubleSupplier source;
+        final double deadband;
+        double lastSent = Double.NaN;
+
+        NumberChannel(String key, Priority priority, double deadband, DoubleSupplier source) {
+            super(key, priority);
+            this.deadband = deadband;
+            this.source = source;
+        }
+    }
+
+    private static final class TextChannel extends Channel {
+        final Supplier<String> source;
+        String lastSent = null;
+
+        TextChannel(String key, Priority priority, Supplier<String> source) {
+            super(key, priority);
+            this.source = source;
+        }
+    }
+
+    private final Sink sink;
+
+    // Kept in plain lists that never change after init, so update() makes no garbage of its own
+    private final List<NumberChannel> numbers = new ArrayList<>();
+    private final List<TextChannel> texts = new ArrayList<>();
+
+    // Counters to see how much we saved
+    private long valuesSent = 0;
+    private long valuesSkipped = 0;
+    private long stringsBuilt = 0;
+    private long framesSent = 0;
+    private long bytesSent = 0;
+
+    public TelemetryTransport(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Adds a number (shown as a graph in Panels).
+     *
+     * @param deadband smaller changes than this aren't sent (same units as the value)
+     */
+    public TelemetryTransport number(String key, Priority priority, double deadband, DoubleSupplier source) {
+        numbers.add(new NumberChannel(key, priority, deadband, source));
+        return this;
+    }
+
+    /**
+     * Adds a line of text. The supplier is only called when the channel is due.
+     */
+    public TelemetryTransport text(String key, Priority priority, Supplier<String> source) {
+        texts.add(new TextChannel(key, priority, source));
+        return this;
+    }
+
+    /**
+     * Call this once per loop. Sends what is due and has changed, then flushes if anything was sent.
+     */
+    public void update() {
+        long now = System.nanoTime();
+        boolean anythingSent = false;
+
+        for (int i = 0; i < numbers.size(); i++) {
+            NumberChannel channel = numbers.get(i);
+            if (!channel.isDue(now)) {
+                continue;
+            }
+            channel.lastCheckNanos = now;
+            double value = channel.source.getAsDouble();
+            boolean changed = Double.isNaN(channel.lastSent) || Math.abs(value - channel.lastSent) > channel.deadband;
+            if (changed || channel.needsKeepalive(now)) {
+                sink.number(channel.key, value);
+                channel.lastSent = value;
+                channel.lastSendNanos = now;
+                valuesSent++;
+                bytesSent += channel.key.length() + 8;
+                anythingSent = true;
+            } else {
+                valuesSkipped++;
+            }
+        }
+
+        for (int i = 0; i < texts.size(); i++) {
+            TextChannel channel = texts.get(i);
+            if (!channel.isDue(now)) {
+                continue;
+            }
+            channel.lastCheckNanos = now;
+            String value = channel.source.get();
+            stringsBuilt++;
+            if (!value.equals(channel.lastSent) || channel.needsKeepalive(now)) {
+                sink.text(channel.key, value);
+                channel.lastSent = value;
+                channel.lastSendNanos = now;
+                valuesSent++;
+                bytesSent += channel.key.length() + value.length();
+                anythingSent = true;
+            } else {
+                valuesSkipped++;
+            }
+        }
+
+        if (anythingSent) {
+            sink.flush();
+            framesSent++;
+        }
+    }
+
+    public long getValuesSent() {
+        return valuesSent;
+    }
+
+    public long getValuesSkipped() {
+        return valuesSkipped;
+    }
+
+    public long getStringsBuilt() {
+        return stringsBuilt;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /** A rough count of the bytes sent (key plus value), to compare with sending everything every loop. */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+}
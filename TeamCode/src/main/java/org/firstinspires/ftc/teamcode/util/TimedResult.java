@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * One result plus the times that go with it.
+ *
+ * It is *immutable* (it can't change after it is made), which is what lets
+ * one thread make it and other threads read it without locks.
+ *
+ * All times use the System.nanoTime() clock.
+ */
+public final class TimedResult<T> {
+
+    // The actual answer (a detection list, a color, a sensor reading, ...)
+    public final T value;
+
+    // When the data was captured (for example when the camera took the picture)
+    public final long captureTimeNanos;
+
+    // When the result was handed to the bus
+    public final long publishTimeNanos;
+
+    // How long it took to work out the answer
+    public final long processingNanos;
+
+    // Counts up by one for every result published on the bus
+    public final long sequence;
+
+    TimedResult(T value, long captureTimeNanos, long publishTimeNanos, long processingNanos, long sequence) {
+        this.value = value;
+        this.captureTimeNanos = captureTimeNanos;
+        this.publishTimeNanos = publishTimeNanos;
+        this.processingNanos = processingNanos;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Capture-to-consumption latency: how old the data is right now, in milliseconds.
+     * Call it at the moment you use the result.
+     */
+    public double latencyMs() {
+        return (System.nanoTime() - captureTimeNanos) / 1e6;
+    }
+
+    /** How long the result sat on the bus before this call, in milliseconds. */
+    public double waitMs() {
+        return (System.nanoTime() - publishTimeNanos) / 1e6;
+    }
+
+    public double processingMs() {
+        return processingNanos / 1e6;
+    }
+}
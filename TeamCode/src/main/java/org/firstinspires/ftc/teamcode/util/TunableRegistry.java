@@ -0,0 +1,225 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.bylazar.configurables.annotations.IgnoreConfigurable;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Remembers the numbers we tune on the field, so we don't have to redeploy the code.
+ *
+ * How it works:
+ *  1. A class marks itself {@code @Configurable} (like Pedro's Tuning) and makes its
+ *     tunable numbers {@code public static} but NOT {@code final}.
+ *  2. Panels shows those fields on the laptop, and we change them live.
+ *  3. This registry saves them to {@code FIRST/tunables.properties} on the Control Hub
+ *     and puts them back the next time the robot code starts.
+ *
+ * The saved values are only put back when the class is registered, so anything
+ * built from a tunable before that (a field initializer or the constructor) still has
+ * the value from the code. Build those again in reset(), or register the class first.
+ *
+ * The robot code reads the fields directly (for example {@code MID_POWER}), so reading a
+ * tunable in the loop costs exactly the same as reading any other field. Reflection is
+ * only used here, when a class is registered and when we save.
+ *
+ * {@link org.firstinspires.ftc.teamcode.subsystems.SubsystemLifecycle} registers every
+ * subsystem and saves at the end of each OpMode, so subsystems don't need to do anything else.
+ */
+public final class TunableRegistry {
+
+    // Found the first time it's needed (AppUtil only works on the robot), see file()
+    private static File file = null;
+
+    // One tunable field
+    private static final class Entry {
+        final String key;
+        final Field field;
+        final String defaultValue;
+
+        Entry(String key, Field field, String defaultValue) {
+            this.key = key;
+            this.field = field;
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    private static final List<Entry> entries = new ArrayList<>();
+    private static final Set<Class<?>> registered = new HashSet<>();
+
+    // What is in the file (loaded the first time it's needed)
+    private static Properties saved = null;
+
+    // The last problem we had with the file (null if none), for telemetry
+    private static String lastProblem = null;
+
+    private TunableRegistry() {
+    }
+
+    /**
+     * Adds the tunable fields of a {@code @Configurable} class and puts back the saved values.
+     * Classes without {@code @Configurable} are skipped. Safe to call more than once.
+     */
+    public static synchronized void register(Class<?> type) {
+        if (!type.isAnnotationPresent(Configurable.class) || !registered.add(type)) {
+            return;
+        }
+        Properties values = savedValues();
+        for (Field field : type.getDeclaredFields()) {
+            if (!isTunable(field)) {
+                continue;
+            }
+            field.setAccessible(true);
+            String key = type.getSimpleName() + "." + field.getName();
+            Entry entry = new Entry(key, field, read(field));
+            entries.add(entry);
+
+            String savedValue = values.getProperty(key);
+            if (savedValue != null) {
+                write(entry, savedValue);
+            }
+        }
+    }
+
+    /**
+     * Writes the current values to the file, but only if one of them changed.
+     *
+     * @return true if the file was written
+     */
+    public static synchronized boolean saveIfChanged() {
+        Properties values = savedValues();
+        Properties current = new Properties();
+        boolean changed = false;
+
+        // Keep values of classes this OpMode didn't use
+        current.putAll(values);
+        for (Entry entry : entries) {
+            String value = read(entry.field);
+            current.setProperty(entry.key, value);
+            if (!value.equals(values.getProperty(entry.key, entry.defaultValue))) {
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+
+        // Write a new file and then swap it in, so a power cut can't leave half a file
+        File temp = new File(file().getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            current.store(out, "Tuned on the field. Delete this file to go back to the values in the code.");
+        } catch (IOException e) {
+            lastProblem = "Could not save tunables: " + e.getMessage();
+            return false;
+        }
+        if (!temp.renameTo(file())) {
+            lastProblem = "Could not replace " + file();
+            return false;
+        }
+        saved = current;
+        return true;
+    }
+
+    /**
+     * Puts every tunable back to the value written in the code, and deletes the file.
+     */
+    public static synchronized void resetToDefaults() {
+        for (Entry entry : entries) {
+            write(entry, entry.defaultValue);
+        }
+        saved = new Properties();
+        if (file().exists() && !file().delete()) {
+            lastProblem = "Could not delete " + file();
+        }
+    }
+
+    /** Uses a different file (for trying this on a laptop). Call it before the first register(). */
+    public static synchronized void setFile(File newFile) {
+        file = newFile;
+        saved = null;
+    }
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    public static synchronized String getLastProblem() {
+        return lastProblem;
+    }
+
+    private static File file() {
+        if (file == null) {
+            file = new File(AppUtil.FIRST_FOLDER, "tunables.properties");
+        }
+        return file;
+    }
+
+    private static Properties savedValues() {
+        if (saved == null) {
+            saved = new Properties();
+            if (file().exists()) {
+                try (InputStream in = new FileInputStream(file())) {
+                    saved.load(in);
+                } catch (IOException e) {
+                    lastProblem = "Could not read tunables: " + e.getMessage();
+                }
+            }
+        }
+        return saved;
+    }
+
+    // public static, not final, a number or true/false, and not marked @IgnoreConfigurable
+    private static boolean isTunable(Field field) {
+        int modifiers = field.getModifiers();
+        Class<?> type = field.getType();
+        return Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers)
+                && !field.isAnnotationPresent(IgnoreConfigurable.class)
+                && (type == double.class || type == float.class || type == int.class
+                || type == long.class || type == boolean.class);
+    }
+
+    private static String read(Field field) {
+        try {
+            return String.valueOf(field.get(null));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't read tunable " + field, e);
+        }
+    }
+
+    private static void write(Entry entry, String value) {
+        Field field = entry.field;
+        Class<?> type = field.getType();
+        try {
+            if (type == double.class) {
+                field.setDouble(null, Double.parseDouble(value));
+            } else if (type == float.class) {
+                field.setFloat(null, Float.parseFloat(value));
+            } else if (type == int.class) {
+                field.setInt(null, Integer.parseInt(value));
+            } else if (type == long.class) {
+                field.setLong(null, Long.parseLong(value));
+            } else {
+                field.setBoolean(null, Boolean.parseBoolean(value));
+            }
+        } catch (NumberFormatException e) {
+            // A typo in the file shouldn't stop the robot: keep the value from the code
+            lastProblem = "Bad value for " + entry.key + ": " + value;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't set tunable " + entry.key, e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Spots the short speed dip a wheel makes when a ball goes through it.
+ *
+ * When a ball is fired, the flywheel hands some of its energy to the ball: the speed
+ * drops fast for a few tens of milliseconds and then the motor pulls it back up.
+ * That shape is easy to tell apart from the driver changing the power (a slow change)
+ * or switching the flywheel off (the speed goes all the way down).
+ *
+ * How it works, every loop:
+ *  - While the speed is steady we remember it as the "baseline".
+ *  - A dip starts when the speed falls quickly ({@code minDropRate}) AND ends up more
+ *    than {@code dipFraction} below the baseline.
+ *  - The dip is over when the speed is back within {@code recoverFraction} of the
+ *    baseline (recovered), or after {@code maxDipMs} (not recovered).
+ *  - If the speed is still falling after 150 ms, it was a power change,
+ *    not a ball: nothing is counted.
+ *  - If a second ball hits while we are still recovering, the first dip is closed
+ *    (not recovered) and a new one starts.
+ *
+ * Every finished dip is a {@link Dip} with its time, speed before, depth and
+ * recovery time; the last {@link #HISTORY} dips give a rolling shots-per-second.
+ *
+ * Give it speed and acceleration from an {@link EncoderVelocityEstimator} (the hub's
+ * getVelocity() is too coarse to see the dip). No hardware in here, so it also runs on a laptop.
+ */
+public class VelocityDipDetector {
+
+    /** How many dips the rolling numbers use. */
+    public static final int HISTORY = 10;
+
+    /**
+     * One dip (for the flywheel: one shot). Can't change after it is made.
+     */
+    public static final class Dip {
+        // When the dip started (System.nanoTime())
+        public final long timeNanos;
+        // Speed just before, and the lowest speed in the dip
+        public final double speedBefore;
+        public final double lowestSpeed;
+        // From the start of the dip to the lowest speed
+        public final double timeToLowestMs;
+        // From the start of the dip until the speed was back (NaN if it never came back)
+        public final double recoveryMs;
+
+        Dip(long timeNanos, double speedBefore, double lowestSpeed, double timeToLowestMs, double recoveryMs) {
+            this.timeNanos = timeNanos;
+            this.speedBefore = speedBefore;
+            this.lowestSpeed = lowestSpeed;
+            this.timeToLowestMs = timeToLowestMs;
+            this.recoveryMs = recoveryMs;
+        }
+
+        /** How far the speed dropped. */
+        public double depth() {
+            return speedBefore - lowestSpeed;
+        }
+
+        /** How far the speed dropped, as a part of the speed before (0.08 = 8%). */
+        public double depthFraction() {
+            return speedBefore > 0 ? depth() / speedBefore : 0.0;
+        }
+
+        public boolean recovered() {
+            return !Double.isNaN(recoveryMs);
+        }
+    }
+
+    // Settings
+    private final double minSpeed;
+    private final double dipFraction;
+    private final double minDropRate;
+    private final double recoverFraction;
+    private final long maxDipNanos;
+
+    // While |acceleration| is below this the speed counts as steady
+    private final double steadyRate;
+
+    // How quickly the baseline follows a steady speed (0..1 per loop)
+    private static final double BASELINE_WEIGHT = 0.1;
+
+    // A ball takes its energy in a few tens of ms. Still falling after this long means the
+    // power was turned down (or off), so it isn't a dip
+    private static final long MAX_FALL_NANOS = 150_000_000L;
+
+    // Baseline
+    private double baseline = 0.0;
+    private boolean hasBaseline = false;
+
+    // The dip in progress
+    private boolean inDip = false;
+    private long dipStartNanos;
+    private double dipSpeedBefore;
+    private double dipLowest;
+    private long dipLowestNanos;
+    private double highestSinceLowest;
+    private boolean risingSeen;
+
+    // When the speed started going down this time (0 while it isn't); a dip is dated from here,
+    // because the speed estimate only crosses the threshold a little later
+    private long fallingSinceNanos = 0;
+
+    // The last HISTORY dips (ring), plus totals
+    private final Dip[] history = new Dip[HISTORY];
+    private int historyNext = 0;
+    private int count = 0;
+    private Dip lastDip = null;
+
+    /**
+     * @param minSpeed        below this the wheel counts as off (no dips, no baseline)
+     * @param dipFraction     a dip must go at least this far below the baseline (0.04 = 4%)
+     * @param minDropRate     and the speed must be falling at least this fast (speed units per second)
+     * @param recoverFraction the dip is over when the speed is back within this part of the baseline
+     * @param maxDipMs        give up waiting for the speed to come back after this long
+     */
+    public VelocityDipDetector(double minSpeed, double dipFraction, double minDropRate,
+                               double recoverFraction, double maxDipMs) {
+        this.minSpeed = minSpeed;
+        this.dipFraction = dipFraction;
+        this.minDropRate = minDropRate;
+        this.recoverFraction = recoverFraction;
+        this.maxDipNanos = (long) (maxDipMs * 1e6);
+        this.steadyRate = minDropRate / 3.0;
+    }
+
+    /**
+     * Feeds in the newest speed. Call it once per loop.
+     *
+     * @param speed        how fast the wheel spins (any unit, positive)
+     * @param acceleration how fast the speed changes (same unit per second)
+     * @param nowNanos     System.nanoTime()
+     * @return the dip that just finished, or null
+     */
+    public Dip update(double speed, double acceleration, long nowNanos) {
+        if (acceleration < 0) {
+            if (fallingSinceNanos == 0) {
+                fallingSinceNanos = nowNanos;
+            }
+        } else {
+            fallingSinceNanos = 0;
+        }
+
+        if (speed < minSpeed) {
+            // Off or switched off: forget the baseline; a dip in progress doesn't count
+            hasBaseline = false;
+            inDip = false;
+            return null;
+        }
+        if (!hasBaseline) {
+            baseline = speed;
+            hasBaseline = true;
+            return null;
+        }
+        return inDip ? updateDip(speed, acceleration, nowNanos) : watch(speed, acceleration, nowNanos);
+    }
+
+    private Dip watch(double speed, double acceleration, long nowNanos) {
+        if (acceleration <= -minDropRate) {
+            // Falling fast: keep the baseline where it was and see if it turns into a dip
+            if (speed < baseline * (1.0 - dipFraction)) {
+                startDip(baseline, speed, fallingSinceNanos);
+            }
+        } else if (Math.abs(acceleration) < steadyRate) {
+            baseline += BASELINE_WEIGHT * (speed - baseline);
+        } else {
+            baseline = speed;   // spinning up or slowly changing power: just follow it
+        }
+        return null;
+    }
+
+    private Dip updateDip(double speed, double acceleration, long nowNanos) {
+        // Another ball before we recovered: close this one and start the next.
+        // (Checked first: the new dip may already be lower than the old one.)
+        if (risingSeen && acceleration <= -minDropRate && speed < highestSinceLowest * (1.0 - dipFraction)) {
+            Dip dip = finishDip(Double.NaN);
+            startDip(dip.speedBefore, speed, fallingSinceNanos);
+            return dip;
+        }
+
+        if (speed < dipLowest) {
+            dipLowest = speed;
+            dipLowestNanos = nowNanos;
+            highestSinceLowest = speed;
+        } else if (speed > highestSinceLowest) {
+            highestSinceLowest = speed;
+        }
+        if (acceleration >= 0) {
+            risingSeen = true;
+        }
+
+        // Still going down long after a ball would have: the power was turned down
+        if (!risingSeen && nowNanos - dipStartNanos > MAX_FALL_NANOS) {
+            inDip = false;
+            baseline = speed;
+            return null;
+        }
+
+        // Back up to speed: one finished shot
+        if (speed >= dipSpeedBefore * (1.0 - recoverFraction)) {
+            Dip dip = finishDip((nowNanos - dipStartNanos) / 1e6);
+            baseline = speed;
+            return dip;
+        }
+
+        // Never came back (for example the power was turned down at the same time)
+        if (nowNanos - dipStartNanos > maxDipNanos) {
+            Dip dip = finishDip(Double.NaN);
+            baseline = speed;
+            return dip;
+        }
+        return null;
+    }
+
+    private void startDip(double speedBefore, double speed, long startNanos) {
+        inDip = true;
+        dipStartNanos = startNanos;
+        dipSpeedBefore = speedBefore;
+        dipLowest = speed;
+        dipLowestNanos = startNanos;
+        highestSinceLowest = speed;
+        risingSeen = false;
+    }
+
+    private Dip finishDip(double recoveryMs) {
+        inDip = false;
+        Dip dip = new Dip(dipStartNanos, dipSpeedBefore, dipLowest,
+                (dipLowestNanos - dipStartNanos) / 1e6, recoveryMs);
+        history[historyNext] = dip;
+        historyNext = (historyNext + 1) % HISTORY;
+        count++;
+        lastDip = dip;
+        return dip;
+    }
+
+    /** Forgets everything (for a new OpMode). */
+    public void reset() {
+        hasBaseline = false;
+        fallingSinceNanos = 0;
+        inDip = false;
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = null;
+        }
+        historyNext = 0;
+        count = 0;
+        lastDip = null;
+    }
+
+    /** True while a dip is going on (the wheel hasn't recovered yet). */
+    public boolean isInDip() {
+        return inDip;
+    }
+
+    /** The speed we count as "steady" right now. */
+    public double getBaseline() {
+        return baseline;
+    }
+
+    /** How many dips were found since the last reset. */
+    public int getCount() {
+        return count;
+    }
+
+    /** The last finished dip, or null. */
+    public Dip getLastDip() {
+        return lastDip;
+    }
+
+    /**
+     * Dips per second over the last {@link #HISTORY} dips (for the flywheel: balls per second
+     * during a burst). 0 until there are two dips.
+     */
+    public double getDipsPerSecond() {
+        int n = Math.min(count, HISTORY);
+        if (n < 2) {
+            return 0.0;
+        }
+        Dip newestDip = history[(historyNext - 1 + HISTORY) % HISTORY];
+        Dip oldestDip = history[(historyNext - n + HISTORY) % HISTORY];
+        double seconds = (newestDip.timeNanos - oldestDip.timeNanos) / 1e9;
+        return seconds > 0 ? (n - 1) / seconds : 0.0;
+    }
+
+    /** Average recovery time of the recovered dips in the history, in ms (NaN if none). */
+    public double getAverageRecoveryMs() {
+        double total = 0.0;
+        int n = 0;
+        for (Dip dip : history) {
+            if (dip != null && dip.recovered()) {
+                total += dip.recoveryMs;
+                n++;
+            }
+        }
+        return n == 0 ? Double.NaN : total / n;
+    }
+
+    /** Average depth of the dips in the history (0 if none). */
+    public double getAverageDepth() {
+        double total = 0.0;
+        int n = 0;
+        for (Dip dip : history) {
+            if (dip != null) {
+                total += dip.depth();
+                n++;
+            }
+        }
+        return n == 0 ? 0.0 : total / n;
+    }
+}
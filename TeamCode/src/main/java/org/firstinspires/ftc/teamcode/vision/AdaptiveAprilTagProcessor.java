@@ -0,0 +1,137 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.util.ResultBus;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.opencv.core.Mat;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An AprilTag processor that **tracks** one tag (like the goal tag) instead of
+ * searching the whole picture every frame.
+ *
+ * Every frame an {@link AprilTagTracker} picks:
+ *  - the decimation to use (from how far away the tag was), and
+ *  - the ROI to search (a box around where the tag was last seen),
+ * and the SDK's AprilTag code runs on a copy of the frame that is black outside the ROI.
+ *
+ * If the tag is lost it falls back to searching the whole frame.
+ * Results are published on a {@link ResultBus}, just like {@link PublishingProcessor}.
+ *
+ * The camera frame itself is not painted on, so the preview and the other
+ * processors on the same VisionPortal still see the whole picture.
+ */
+public class AdaptiveAprilTagProcessor implements VisionProcessor {
+
+    /** Use this as the target ID to track whichever tag we see first. */
+    public static final int ANY_TAG = AprilTagTracker.ANY_TAG;
+
+    private final AprilTagProcessor aprilTag;
+    private final AprilTagTracker tracker;
+    private final ResultBus<List<AprilTagDetection>> bus = new ResultBus<>();
+
+    // Stats (only the camera thread writes these)
+    private long frameCount = 0;
+    private double averageProcessingMs = 0.0;
+    private static final double AVERAGE_WEIGHT = 0.1;
+
+    private final Paint roiPaint = new Paint();
+
+    /**
+     * @param aprilTag the SDK AprilTag processor to run inside the ROI.
+     *                 Do NOT add it to the VisionPortal yourself; add this wrapper instead.
+     * @param targetId the tag ID to track, or {@link #ANY_TAG}
+     */
+    public AdaptiveAprilTagProcessor(AprilTagProcessor aprilTag, int targetId) {
+        this.aprilTag = aprilTag;
+        this.tracker = new AprilTagTracker(targetId);
+
+        roiPaint.setColor(Color.CYAN);
+        roiPaint.setStyle(Paint.Style.STROKE);
+        roiPaint.setStrokeWidth(3);
+    }
+
+    /** Changes which tag we follow (for example when we find out our alliance). */
+    public void setTargetId(int targetId) {
+        tracker.setTargetId(targetId);
+    }
+
+    /** The bus with the newest detections. */
+    public ResultBus<List<AprilTagDetection>> getBus() {
+        return bus;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        tracker.setFrameSize(width, height);
+        aprilTag.init(width, height, calibration);
+        aprilTag.setDecimation(tracker.getDecimation());
+    }
+
+    /**
+     * Runs on the camera thread for every frame.
+     */
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        long startNanos = System.nanoTime();
+
+        // 1. Search only where the tracker tells us to
+        Mat searched = tracker.prepare(frame);
+        aprilTag.setDecimation(tracker.getDecimation());
+
+        // 2. Let the SDK find tags
+        Object userContext = aprilTag.processFrame(searched, captureTimeNanos);
+        List<AprilTagDetection> detections = aprilTag.getDetections();
+
+        // 3. Tell the tracker what we found so it can plan the next frame
+        tracker.onDetections(detections);
+
+        long processingNanos = System.nanoTime() - startNanos;
+        frameCount++;
+        double processingMs = processingNanos / 1e6;
+        averageProcessingMs = frameCount == 1 ? processingMs
+                : averageProcessingMs + AVERAGE_WEIGHT * (processingMs - averageProcessingMs);
+
+        bus.publish(Collections.unmodifiableList(detections), captureTimeNanos, processingNanos);
+        return userContext;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        aprilTag.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx,
+                scaleCanvasDensity, userContext);
+        int x = tracker.getRoiX();
+        int y = tracker.getRoiY();
+        canvas.drawRect(x * scaleBmpPxToCanvasPx,
+                y * scaleBmpPxToCanvasPx,
+                (x + tracker.getRoiWidth()) * scaleBmpPxToCanvasPx,
+                (y + tracker.getRoiHeight()) * scaleBmpPxToCanvasPx,
+                roiPaint);
+    }
+
+    public AprilTagSearchPolicy.Mode getMode() {
+        return tracker.getMode();
+    }
+
+    public float getDecimation() {
+        return tracker.getDecimation();
+    }
+
+    public double getAverageProcessingMs() {
+        return averageProcessingMs;
+    }
+
+    /** How often (0.0 - 1.0) the target tag was found. */
+    public double getDetectionRate() {
+        return tracker.getDetectionRate();
+    }
+}
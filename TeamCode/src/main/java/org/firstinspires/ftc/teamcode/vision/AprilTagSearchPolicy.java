@@ -0,0 +1,197 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * Decides **where** and **how hard** to look for an AprilTag in the next frame,
+ * based on what we saw in the last frames.
+ *
+ * - Decimation (shrinking the picture before searching) is picked from the last range:
+ *   a close tag is big, so we can shrink a lot; a far tag is small, so we shrink less.
+ * - While we keep seeing the tag we only search a box (ROI) around where it was.
+ * - If we lose the tag we first grow the box, then go back to searching the whole frame.
+ *
+ * This class is plain Java (no camera, no OpenCV) so it can be tried out on a laptop.
+ */
+public class AprilTagSearchPolicy {
+
+    /** What the policy is doing right now. */
+    public enum Mode {
+        SEARCHING,  // whole frame
+        TRACKING    // only the ROI around the last tag
+    }
+
+    // Decimation for each range band (inches). Closer = more decimation.
+    private static final float CLOSE_DECIMATION = 3.0f;
+    private static final float MID_DECIMATION = 2.0f;
+    private static final float FAR_DECIMATION = 1.0f;
+    private static final double CLOSE_RANGE_IN = 30.0;
+    private static final double FAR_RANGE_IN = 70.0;
+
+    // How far (inches) the range must cross a band edge before we switch, so we don't flicker
+    private static final double RANGE_HYSTERESIS_IN = 4.0;
+
+    // Decimation used while searching the whole frame (the SDK's default)
+    private static final float SEARCH_DECIMATION = 2.0f;
+
+    // ROI size = tag size (pixels) times this, plus a fixed margin for robot motion
+    private static final double ROI_TAG_SCALE = 3.0;
+    private static final int ROI_MARGIN_PX = 24;
+    private static final int MIN_ROI_PX = 64;
+
+    // Each miss while tracking makes the ROI this much bigger
+    private static final double MISS_GROWTH = 2.0;
+
+    // After this many misses in a row we give up on the ROI and search everything
+    private static final int MISSES_BEFORE_SEARCH = 2;
+
+    private final int frameWidth;
+    private final int frameHeight;
+
+    private Mode mode = Mode.SEARCHING;
+    private float decimation = SEARCH_DECIMATION;
+    private int consecutiveMisses = 0;
+
+    // Where the tag was last seen (pixels) and how big it looked
+    private double lastCenterX;
+    private double lastCenterY;
+    private double lastTagSizePx;
+    private double lastRangeIn = Double.NaN;
+
+    // The ROI for the next frame
+    private int roiX;
+    private int roiY;
+    private int roiWidth;
+    private int roiHeight;
+
+    public AprilTagSearchPolicy(int frameWidth, int frameHeight) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        setFullFrame();
+    }
+
+    /**
+     * Tell the policy that the tag was found in the last frame.
+     *
+     * @param centerX   tag center, pixels
+     * @param centerY   tag center, pixels
+     * @param tagSizePx biggest side of the tag outline, pixels
+     * @param rangeIn   distance to the tag in inches (NaN if pose is unknown)
+     */
+    public void onDetection(double centerX, double centerY, double tagSizePx, double rangeIn) {
+        lastCenterX = centerX;
+        lastCenterY = centerY;
+        lastTagSizePx = tagSizePx;
+        consecutiveMisses = 0;
+        mode = Mode.TRACKING;
+
+        if (!Double.isNaN(rangeIn)) {
+            decimation = pickDecimation(rangeIn, decimation);
+            lastRangeIn = rangeIn;
+        }
+        setRoi(lastTagSizePx * ROI_TAG_SCALE + 2 * ROI_MARGIN_PX);
+    }
+
+    /**
+     * Tell the policy that the tag was NOT found in the last frame.
+     */
+    public void onMiss() {
+        consecutiveMisses++;
+        if (mode == Mode.SEARCHING) {
+            return;
+        }
+        if (consecutiveMisses >= MISSES_BEFORE_SEARCH) {
+            // Lost it: go back to searching the whole frame at the normal decimation
+            mode = Mode.SEARCHING;
+            decimation = SEARCH_DECIMATION;
+            setFullFrame();
+        } else {
+            // Maybe it just moved a lot: look in a bigger box around the old spot
+            double grownSize = (lastTagSizePx * ROI_TAG_SCALE + 2 * ROI_MARGIN_PX)
+                    * Math.pow(MISS_GROWTH, consecutiveMisses);
+            setRoi(grownSize);
+        }
+    }
+
+    /**
+     * Picks a decimation for this range, only switching bands once we are
+     * clearly past the edge (hysteresis).
+     */
+    static float pickDecimation(double rangeIn, float current) {
+        double closeEdge = CLOSE_RANGE_IN + (current == CLOSE_DECIMATION ? RANGE_HYSTERESIS_IN : -RANGE_HYSTERESIS_IN);
+        double farEdge = FAR_RANGE_IN + (current == FAR_DECIMATION ? -RANGE_HYSTERESIS_IN : RANGE_HYSTERESIS_IN);
+        if (rangeIn < closeEdge) {
+            return CLOSE_DECIMATION;
+        } else if (rangeIn > farEdge) {
+            return FAR_DECIMATION;
+        }
+        return MID_DECIMATION;
+    }
+
+    private void setRoi(double sizePx) {
+        int size = (int) Math.max(MIN_ROI_PX, sizePx);
+        if (size >= frameWidth && size >= frameHeight) {
+            setFullFrame();
+            return;
+        }
+        int width = Math.min(size, frameWidth);
+        int height = Math.min(size, frameHeight);
+        roiX = clamp((int) Math.round(lastCenterX - width / 2.0), 0, frameWidth - width);
+        roiY = clamp((int) Math.round(lastCenterY - height / 2.0), 0, frameHeight - height);
+        roiWidth = width;
+        roiHeight = height;
+    }
+
+    private void setFullFrame() {
+        roiX = 0;
+        roiY = 0;
+        roiWidth = frameWidth;
+        roiHeight = frameHeight;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public float getDecimation() {
+        return decimation;
+    }
+
+    public boolean isFullFrame() {
+        return roiWidth == frameWidth && roiHeight == frameHeight;
+    }
+
+    public int getRoiX() {
+        return roiX;
+    }
+
+    public int getRoiY() {
+        return roiY;
+    }
+
+    public int getRoiWidth() {
+        return roiWidth;
+    }
+
+    public int getRoiHeight() {
+        return roiHeight;
+    }
+
+    public double getLastRangeIn() {
+        return lastRangeIn;
+    }
+
+    public int getConsecutiveMisses() {
+        return consecutiveMisses;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+}
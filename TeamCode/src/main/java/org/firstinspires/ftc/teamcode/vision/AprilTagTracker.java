@@ -0,0 +1,193 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+
+import java.util.List;
+
+/**
+ * The ROI part of the {@link AdaptiveAprilTagProcessor}: follows one tag from frame
+ * to frame with an {@link AprilTagSearchPolicy}, and gives the detector a copy of
+ * the frame where everything outside the box we want searched is black.
+ *
+ * Every frame:
+ *  1. {@link #prepare}: makes the masked copy (and picks the decimation, see
+ *     {@link #getDecimation})
+ *  2. the AprilTag detector runs on that copy
+ *  3. {@link #onDetections} (or {@link #onTarget} / {@link #onMiss}): what was found,
+ *     so the policy can plan the next frame
+ *
+ * We mask instead of cropping because the SDK works out the tag pose from pixel
+ * positions in the full picture, so the picture has to keep its size. Black areas
+ * have no edges, so the SDK skips almost all of its work there.
+ *
+ * The camera's own frame is never painted on: the Driver Station preview and the
+ * other processors on the same camera still see the whole picture.
+ *
+ * It only uses OpenCV (no Android drawing, no AprilTag library), so it also runs on
+ * a laptop (see benchmark.VisionReplayBenchmark).
+ */
+public class AprilTagTracker {
+
+    /** Use this as the target ID to track whichever tag we see first. */
+    public static final int ANY_TAG = -1;
+
+    private static final Scalar BLACK = new Scalar(0, 0, 0);
+
+    // The tag we want to follow
+    private volatile int targetId;
+
+    // Made in setFrameSize(), once we know how big the picture is
+    private AprilTagSearchPolicy policy;
+
+    // Stats (only the camera thread writes these)
+    private long frameCount = 0;
+    private long targetFoundCount = 0;
+
+    // The ROI that was used for the last frame
+    private volatile int roiX, roiY, roiWidth, roiHeight;
+
+    // The masked copy the detector searches (reused, so no new picture every frame)
+    private final Mat masked = new Mat();
+
+    /**
+     * @param targetId the tag ID to track, or {@link #ANY_TAG}
+     */
+    public AprilTagTracker(int targetId) {
+        this.targetId = targetId;
+    }
+
+    /** Changes which tag we follow (for example when we find out our alliance). */
+    public void setTargetId(int targetId) {
+        this.targetId = targetId;
+    }
+
+    /** Starts over for pictures of this size (searching the whole frame). */
+    public void setFrameSize(int width, int height) {
+        policy = new AprilTagSearchPolicy(width, height);
+    }
+
+    /**
+     * Picks this frame's ROI and decimation.
+     *
+     * @return the picture to run the detector on: the frame itself when we search
+     * all of it, otherwise a copy that is black outside the ROI. The frame is not changed.
+     */
+    public Mat prepare(Mat frame) {
+        roiX = policy.getRoiX();
+        roiY = policy.getRoiY();
+        roiWidth = policy.getRoiWidth();
+        roiHeight = policy.getRoiHeight();
+        if (policy.isFullFrame()) {
+            return frame;
+        }
+        copyRoi(frame, masked, roiX, roiY, roiWidth, roiHeight);
+        return masked;
+    }
+
+    /**
+     * What the detector found in the frame from {@link #prepare}.
+     */
+    public void onDetections(List<AprilTagDetection> detections) {
+        AprilTagDetection target = findTarget(detections);
+        if (target != null) {
+            double range = target.ftcPose != null ? target.ftcPose.range : Double.NaN;
+            onTarget(target.center.x, target.center.y, tagSizePx(target), range);
+        } else {
+            onMiss();
+        }
+    }
+
+    /**
+     * The target was found.
+     *
+     * @param centerX   tag center, pixels
+     * @param centerY   tag center, pixels
+     * @param tagSizePx biggest side of the tag outline, pixels
+     * @param rangeIn   distance to the tag in inches (NaN if the pose is unknown)
+     */
+    public void onTarget(double centerX, double centerY, double tagSizePx, double rangeIn) {
+        frameCount++;
+        targetFoundCount++;
+        policy.onDetection(centerX, centerY, tagSizePx, rangeIn);
+    }
+
+    /** The target was not found. */
+    public void onMiss() {
+        frameCount++;
+        policy.onMiss();
+    }
+
+    public AprilTagSearchPolicy.Mode getMode() {
+        return policy == null ? AprilTagSearchPolicy.Mode.SEARCHING : policy.getMode();
+    }
+
+    public float getDecimation() {
+        return policy == null ? 0 : policy.getDecimation();
+    }
+
+    /** How often (0.0 - 1.0) the target tag was found. */
+    public double getDetectionRate() {
+        return frameCount == 0 ? 0.0 : (double) targetFoundCount / frameCount;
+    }
+
+    // The ROI used for the last frame (for drawing)
+    public int getRoiX() {
+        return roiX;
+    }
+
+    public int getRoiY() {
+        return roiY;
+    }
+
+    public int getRoiWidth() {
+        return roiWidth;
+    }
+
+    public int getRoiHeight() {
+        return roiHeight;
+    }
+
+    private AprilTagDetection findTarget(List<AprilTagDetection> detections) {
+        int wanted = targetId;
+        for (AprilTagDetection detection : detections) {
+            if (wanted == ANY_TAG || detection.id == wanted) {
+                return detection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The longest side of the tag outline, in pixels.
+     */
+    static double tagSizePx(AprilTagDetection detection) {
+        Point[] corners = detection.corners;
+        if (corners == null || corners.length < 4) {
+            return 0.0;
+        }
+        double longest = 0.0;
+        for (int i = 0; i < corners.length; i++) {
+            Point a = corners[i];
+            Point b = corners[(i + 1) % corners.length];
+            longest = Math.max(longest, Math.hypot(a.x - b.x, a.y - b.y));
+        }
+        return longest;
+    }
+
+    /**
+     * Makes {@code out} a black picture the size of {@code frame}, with only the ROI
+     * copied over from the frame.
+     */
+    static void copyRoi(Mat frame, Mat out, int x, int y, int width, int height) {
+        out.create(frame.rows(), frame.cols(), frame.type());   // only allocates the first time
+        out.setTo(BLACK);
+        Mat from = frame.submat(y, y + height, x, x + width);
+        Mat to = out.submat(y, y + height, x, x + width);
+        from.copyTo(to);
+        from.release();
+        to.release();
+    }
+}
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * The colors an artifact (ball) can be.
+ *
+ * NONE means the camera did not see enough of either color to be sure,
+ * for example when the intake mouth is empty.
+ */
+public enum ArtifactColor {
+    PURPLE,
+    GREEN,
+    NONE
+}
@@ -0,0 +1,195 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * The math behind the {@link ArtifactColorProcessor}: looks at the **mouth of the
+ * intake** in one picture and decides if the artifact there is PURPLE or GREEN.
+ *
+ * How it stays fast:
+ *  - It only looks at a small box (the ROI = Region Of Interest) instead of the whole picture.
+ *  - It shrinks that box by a "decimation" factor before doing any color math.
+ *  - It times every frame, and if we go over our time budget it shrinks the box more
+ *    (bigger decimation). If we are way under budget it shrinks it less.
+ *
+ * It only uses OpenCV (no Android drawing), so it also runs on a laptop
+ * (see benchmark.VisionReplayBenchmark).
+ */
+public class ArtifactColorClassifier {
+
+    // HSV color limits (OpenCV hue goes 0-180, not 0-360!)
+    private static final Scalar PURPLE_LOW = new Scalar(125, 60, 40);
+    private static final Scalar PURPLE_HIGH = new Scalar(165, 255, 255);
+    private static final Scalar GREEN_LOW = new Scalar(40, 80, 40);
+    private static final Scalar GREEN_HIGH = new Scalar(85, 255, 255);
+
+    // How much of the ROI must be one color before we believe it (0.0 - 1.0)
+    private static final double MIN_FILL_FRACTION = 0.15;
+
+    // Decimation limits (1 = full resolution, 8 = every 8th pixel)
+    private static final int MIN_DECIMATION = 1;
+    private static final int MAX_DECIMATION = 8;
+
+    // How quickly the average processing time follows new frames (0.0 - 1.0)
+    private static final double AVERAGE_WEIGHT = 0.2;
+
+    // Only change the decimation every this many frames, so the average can catch up
+    private static final int ADJUST_EVERY_FRAMES = 10;
+
+    // ROI as fractions of the picture: 0.0 = left/top edge, 1.0 = right/bottom edge
+    private final double roiLeft;
+    private final double roiTop;
+    private final double roiRight;
+    private final double roiBottom;
+
+    // The most time we want to spend on one frame
+    private final double targetProcessingMs;
+
+    // The ROI in real pixels (worked out once we know the picture size)
+    private Rect roiRect = new Rect();
+
+    // Scratch images we reuse every frame so we don't make garbage
+    private final Mat small = new Mat();
+    private final Mat hsv = new Mat();
+    private final Mat mask = new Mat();
+    private static final Size ZERO_SIZE = new Size();
+
+    // Only the camera thread changes these
+    private int decimation;
+    private double averageProcessingMs = 0.0;
+    private double maxProcessingMs = 0.0;
+    private long lastProcessingNanos = 0;
+    private long frameCount = 0;
+
+    /**
+     * @param roiLeft            left edge of the ROI (0.0 - 1.0 of the picture width)
+     * @param roiTop             top edge of the ROI (0.0 - 1.0 of the picture height)
+     * @param roiRight           right edge of the ROI
+     * @param roiBottom          bottom edge of the ROI
+     * @param startDecimation    how much to shrink the ROI at the start (1 = not at all)
+     * @param targetProcessingMs how long (ms) one frame is allowed to take
+     */
+    public ArtifactColorClassifier(double roiLeft, double roiTop, double roiRight, double roiBottom,
+                                   int startDecimation, double targetProcessingMs) {
+        if (roiLeft >= roiRight || roiTop >= roiBottom) {
+            throw new IllegalArgumentException("ROI must have a positive width and height");
+        }
+        this.roiLeft = clampFraction(roiLeft);
+        this.roiTop = clampFraction(roiTop);
+        this.roiRight = clampFraction(roiRight);
+        this.roiBottom = clampFraction(roiBottom);
+        this.decimation = Math.max(MIN_DECIMATION, Math.min(MAX_DECIMATION, startDecimation));
+        this.targetProcessingMs = targetProcessingMs;
+    }
+
+    /**
+     * Turns the ROI fractions into pixels. Call it once we know the picture size.
+     */
+    public void setFrameSize(int width, int height) {
+        int left = (int) Math.round(roiLeft * width);
+        int top = (int) Math.round(roiTop * height);
+        int right = (int) Math.round(roiRight * width);
+        int bottom = (int) Math.round(roiBottom * height);
+        roiRect = new Rect(left, top, Math.max(1, right - left), Math.max(1, bottom - top));
+    }
+
+    /**
+     * Works out the color in one picture (RGB, like the VisionPortal gives us),
+     * and adjusts the decimation for the next one.
+     */
+    public ArtifactColorResult process(Mat frame) {
+        long startNanos = System.nanoTime();
+        int usedDecimation = decimation;
+
+        // Look only at the ROI, and shrink it so there are fewer pixels to check
+        Mat roi = frame.submat(roiRect);
+        double scale = 1.0 / usedDecimation;
+        Imgproc.resize(roi, small, ZERO_SIZE, scale, scale, Imgproc.INTER_NEAREST);
+        roi.release();
+
+        // Count how many pixels are purple and how many are green
+        Imgproc.cvtColor(small, hsv, Imgproc.COLOR_RGB2HSV);
+        double totalPixels = Math.max(1, hsv.rows() * hsv.cols());
+
+        Core.inRange(hsv, PURPLE_LOW, PURPLE_HIGH, mask);
+        double purpleFraction = Core.countNonZero(mask) / totalPixels;
+
+        Core.inRange(hsv, GREEN_LOW, GREEN_HIGH, mask);
+        double greenFraction = Core.countNonZero(mask) / totalPixels;
+
+        ArtifactColor color = classify(purpleFraction, greenFraction);
+
+        lastProcessingNanos = System.nanoTime() - startNanos;
+        updateBudget(lastProcessingNanos / 1e6);
+        return new ArtifactColorResult(color, purpleFraction, greenFraction, usedDecimation);
+    }
+
+    /** The ROI in pixels (empty until {@link #setFrameSize} was called). */
+    public Rect getRoiRect() {
+        return roiRect;
+    }
+
+    public int getDecimation() {
+        return decimation;
+    }
+
+    public double getAverageProcessingMs() {
+        return averageProcessingMs;
+    }
+
+    public double getMaxProcessingMs() {
+        return maxProcessingMs;
+    }
+
+    /** How long the last {@link #process} took, in nanoseconds. */
+    public long getLastProcessingNanos() {
+        return lastProcessingNanos;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public double getTargetProcessingMs() {
+        return targetProcessingMs;
+    }
+
+    /**
+     * Picks the color that fills more of the ROI, as long as it fills enough of it.
+     */
+    static ArtifactColor classify(double purpleFraction, double greenFraction) {
+        if (purpleFraction < MIN_FILL_FRACTION && greenFraction < MIN_FILL_FRACTION) {
+            return ArtifactColor.NONE;
+        }
+        return purpleFraction >= greenFraction ? ArtifactColor.PURPLE : ArtifactColor.GREEN;
+    }
+
+    /**
+     * Keeps track of how long frames take, and changes the decimation
+     * so that we stay under {@link #targetProcessingMs}.
+     */
+    private void updateBudget(double processingMs) {
+        frameCount++;
+        maxProcessingMs = Math.max(maxProcessingMs, processingMs);
+        averageProcessingMs = frameCount == 1 ? processingMs
+                : averageProcessingMs + AVERAGE_WEIGHT * (processingMs - averageProcessingMs);
+
+        if (frameCount % ADJUST_EVERY_FRAMES != 0) {
+            return;
+        }
+        if (averageProcessingMs > targetProcessingMs && decimation < MAX_DECIMATION) {
+            decimation++;                       // Too slow: look at fewer pixels
+        } else if (averageProcessingMs < targetProcessingMs * 0.4 && decimation > MIN_DECIMATION) {
+            decimation--;                       // Lots of spare time: look at more pixels
+        }
+    }
+
+    private static double clampFraction(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.util.ResultBus;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+/**
+ * A tiny camera "brain" that looks at the **mouth of the intake** and decides
+ * if the artifact coming in is PURPLE or GREEN.
+ *
+ * The color math (and how it stays fast) is in {@link ArtifactColorClassifier}.
+ * This class plugs it into the VisionPortal and draws the ROI box on the camera stream.
+ *
+ * The answer is published on a {@link ResultBus} that the robot loop can read at any time
+ * without waiting for the camera (see {@link #getBus()}).
+ */
+public class ArtifactColorProcessor implements VisionProcessor {
+
+    private final ArtifactColorClassifier classifier;
+
+    // Where we put each answer for the robot loop to pick up
+    private final ResultBus<ArtifactColorResult> bus = new ResultBus<>();
+
+    // Used to draw the ROI box on the camera stream
+    private final Paint roiPaint = new Paint();
+
+    /**
+     * Makes a new color processor.
+     *
+     * @param roiLeft            left edge of the ROI (0.0 - 1.0 of the picture width)
+     * @param roiTop             top edge of the ROI (0.0 - 1.0 of the picture height)
+     * @param roiRight           right edge of the ROI
+     * @param roiBottom          bottom edge of the ROI
+     * @param startDecimation    how much to shrink the ROI at the start (1 = not at all)
+     * @param targetProcessingMs how long (ms) one frame is allowed to take
+     */
+    public ArtifactColorProcessor(double roiLeft, double roiTop, double roiRight, double roiBottom,
+                                  int startDecimation, double targetProcessingMs) {
+        classifier = new ArtifactColorClassifier(roiLeft, roiTop, roiRight, roiBottom,
+                startDecimation, targetProcessingMs);
+
+        roiPaint.setColor(Color.YELLOW);
+        roiPaint.setStyle(Paint.Style.STROKE);
+        roiPaint.setStrokeWidth(3);
+    }
+
+    /**
+     * Called once when the camera starts. We turn our ROI fractions into pixels here.
+     */
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        classifier.setFrameSize(width, height);
+    }
+
+    /**
+     * Called by the camera thread for every new picture.
+     * Works out the color and publishes a new {@link ArtifactColorResult}.
+     */
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        ArtifactColorResult result = classifier.process(frame);
+        bus.publish(result, captureTimeNanos, classifier.getLastProcessingNanos());
+        return null;
+    }
+
+    /**
+     * Draws the ROI box on the Driver Station camera stream so we can line it up.
+     */
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        Rect roiRect = classifier.getRoiRect();
+        canvas.drawRect(roiRect.x * scaleBmpPxToCanvasPx,
+                roiRect.y * scaleBmpPxToCanvasPx,
+                (roiRect.x + roiRect.width) * scaleBmpPxToCanvasPx,
+                (roiRect.y + roiRect.height) * scaleBmpPxToCanvasPx,
+                roiPaint);
+    }
+
+    /**
+     * The bus with the newest answer. Reading it never waits for the camera.
+     */
+    public ResultBus<ArtifactColorResult> getBus() {
+        return bus;
+    }
+
+    public int getDecimation() {
+        return classifier.getDecimation();
+    }
+
+    public double getAverageProcessingMs() {
+        return classifier.getAverageProcessingMs();
+    }
+
+    public double getMaxProcessingMs() {
+        return classifier.getMaxProcessingMs();
+    }
+
+    public long getFrameCount() {
+        return classifier.getFrameCount();
+    }
+
+    public double getTargetProcessingMs() {
+        return classifier.getTargetProcessingMs();
+    }
+}
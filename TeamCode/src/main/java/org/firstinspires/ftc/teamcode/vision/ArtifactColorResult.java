@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * One answer from the {@link ArtifactColorProcessor}.
+ *
+ * It is *immutable* (nothing can change it after it is made), so the camera
+ * thread can hand it to the robot loop without any locks. The times that go with
+ * it (capture time, processing time) travel in the {@link org.firstinspires.ftc.teamcode.util.TimedResult}
+ * it is published in.
+ */
+public final class ArtifactColorResult {
+
+    // What color we think the artifact is
+    public final ArtifactColor color;
+
+    // How much of the ROI (0.0 - 1.0) looked purple / green
+    public final double purpleFraction;
+    public final double greenFraction;
+
+    // The decimation that was used for this frame
+    public final int decimation;
+
+    public ArtifactColorResult(ArtifactColor color, double purpleFraction, double greenFraction, int decimation) {
+        this.color = color;
+        this.purpleFraction = purpleFraction;
+        this.greenFraction = greenFraction;
+        this.decimation = decimation;
+    }
+}
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * The parts of a match. Used to decide which vision processors should be running.
+ *
+ * Only the phases an OpMode actually switches to are here. Add a new one (like the
+ * endgame) together with the OpMode code that calls {@link VisionScheduler#setPhase}
+ * for it, so no rule waits for a phase that never comes.
+ */
+public enum MatchPhase {
+    INIT,        // after INIT is pressed, before START
+    TELEOP       // driver control
+}
@@ -0,0 +1,44 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * The DECODE motif: the order of artifact colors we score for the pattern bonus.
+ *
+ * The obelisk shows one of three AprilTags toward the field, and the tag ID says
+ * the motif: 21 = GPP, 22 = PGP, 23 = PPG (G = green, P = purple).
+ *
+ * UNKNOWN means we didn't see the obelisk (well enough) to be sure.
+ */
+public enum Motif {
+    GPP(21, ArtifactColor.GREEN, ArtifactColor.PURPLE, ArtifactColor.PURPLE),
+    PGP(22, ArtifactColor.PURPLE, ArtifactColor.GREEN, ArtifactColor.PURPLE),
+    PPG(23, ArtifactColor.PURPLE, ArtifactColor.PURPLE, ArtifactColor.GREEN),
+    UNKNOWN(-1, ArtifactColor.NONE, ArtifactColor.NONE, ArtifactColor.NONE);
+
+    /** The obelisk tag that shows this motif (-1 for UNKNOWN). */
+    public final int tagId;
+
+    private final ArtifactColor[] colors;
+
+    Motif(int tagId, ArtifactColor... colors) {
+        this.tagId = tagId;
+        this.colors = colors;
+    }
+
+    /**
+     * The color of ball number {@code index} (0, 1, 2, then it repeats:
+     * the ramp holds the pattern three times).
+     */
+    public ArtifactColor colorAt(int index) {
+        return colors[Math.floorMod(index, colors.length)];
+    }
+
+    /** The motif for an obelisk tag, or UNKNOWN if it isn't one (goal tags are 20 and 24). */
+    public static Motif fromTagId(int id) {
+        for (Motif motif : values()) {
+            if (motif.tagId == id && motif != UNKNOWN) {
+                return motif;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,238 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import android.util.Size;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.teamcode.util.StateHandoff;
+import org.firstinspires.ftc.teamcode.util.TimedResult;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.opencv.core.Point;
+
+import java.util.List;
+
+/**
+ * Reads the DECODE {@link Motif} from the obelisk while the robot sits in INIT.
+ *
+ * It is built like the SDK's ConceptAprilTag sample (an {@link AprilTagProcessor} on
+ * its own webcam, CAMERA_NAME), but:
+ *  - it never waits: call {@link #update()} every INIT loop and it counts the frames
+ *    the camera has finished since the last call (through a {@link PublishingProcessor})
+ *  - it stops as soon as it is sure ({@link MotifVote}), or when the time is up,
+ *    and then switches the processor and the camera stream off, so INIT and the
+ *    start of autonomous don't pay for AprilTag work we don't need anymore
+ *  - the answer is saved with {@link StateHandoff#saveMotif}, so autonomous and
+ *    teleop both can read it later without looking again
+ *
+ * The time to look only starts with the first frame: opening the webcam and starting
+ * the stream take a second or two, and those frames can't vote. A separate hard cap,
+ * counted from {@link #start}, makes sure a camera that never streams doesn't keep
+ * us looking forever.
+ *
+ * If there is no camera, or it never sees the obelisk, the answer is UNKNOWN
+ * (or the best guess so far, see {@link #isConfident()}).
+ *
+ * The obelisk camera is not the intake camera ("Webcam 1", see IntakeVision): it has
+ * to look up at the obelisk, and the intake camera looks down at the balls. Set
+ * CAMERA_NAME to the name in the Control Hub configuration (or change it from Panels).
+ *
+ * Try the voting on captured frames with {@code benchmark.VisionFrameReplay} (the real
+ * detector), or on made-up frames on a laptop with {@code benchmark.MotifReplay}.
+ */
+@Configurable
+public class MotifDetector {
+
+    // The name of the obelisk camera as set in the Control Hub configuration
+    public static String CAMERA_NAME = "Webcam 2";
+
+    // Same size as ConceptAprilTag's default
+    private static final int CAMERA_WIDTH = 640;
+    private static final int CAMERA_HEIGHT = 480;
+
+    // The obelisk is big and close, so every 2nd pixel is plenty (and about 4x faster)
+    private static final int DECIMATION = 2;
+
+    // We are sure when 5 frames agree and they are at least 80% of the votes
+    public static final int MIN_VOTES = 5;
+    public static final double MIN_SHARE = 0.8;
+
+    // Look for at most this long after the first frame, and stop this long after start()
+    // no matter what (the camera usually needs 1-2 s before its first frame)
+    public static final long LOOK_MS = 1500;
+    public static final long HARD_CAP_MS = 5000;
+
+    private final Telemetry telemetry;
+    private final MotifVote vote = new MotifVote(MIN_VOTES, MIN_SHARE);
+
+    private VisionPortal portal;
+    private AprilTagProcessor aprilTag;
+    private PublishingProcessor<List<AprilTagDetection>> tags;
+
+    private long startNanos = 0;
+    private long lookNanos = 0;
+    private long hardCapNanos = 0;
+    private long firstFrameNanos = 0;           // 0 until the camera sent its first frame
+    private long lookDeadlineNanos = Long.MAX_VALUE;
+    private long lastSequence = -1;
+    private boolean done = false;
+    private Motif motif = Motif.UNKNOWN;
+    private double doneAfterMs = 0.0;
+
+    public MotifDetector(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Starts the camera and starts looking. Call this from the OpMode's init.
+     *
+     * @param lookMs    give up (and keep the best guess) this long after the first frame
+     * @param hardCapMs give up this long after now, even if no frame ever came
+     */
+    public void start(HardwareMap hardwareMap, long lookMs, long hardCapMs) {
+        startNanos = System.nanoTime();
+        lookNanos = lookMs * 1_000_000L;
+        hardCapNanos = startNanos + hardCapMs * 1_000_000L;
+        try {
+            aprilTag = buildAprilTag();
+            tags = PublishingProcessor.forAprilTags(aprilTag);
+            portal = new VisionPortal.Builder()
+                    .setCamera(hardwareMap.get(WebcamName.class, CAMERA_NAME))
+                    .setCameraResolution(new Size(CAMERA_WIDTH, CAMERA_HEIGHT))
+                    .addProcessor(tags)
+                    .build();
+        } catch (Exception e) {
+            telemetry.addData("Motif", "Camera not found: " + e.getMessage());
+            portal = null;
+            finish();
+        }
+    }
+
+    /**
+     * Counts the new camera frames (never waits for one). Call this every INIT loop.
+     *
+     * @return true once we are done looking
+     */
+    public boolean update() {
+        if (done) {
+            return true;
+        }
+        TimedResult<List<AprilTagDetection>> frame = tags.getBus().newerThan(lastSequence);
+        if (frame != null) {
+            if (firstFrameNanos == 0) {
+                // The camera is streaming now: start the time to look
+                firstFrameNanos = frame.publishTimeNanos;
+                lookDeadlineNanos = firstFrameNanos + lookNanos;
+            }
+            lastSequence = frame.sequence;
+            countFrame(vote, frame.value);
+        }
+        long now = System.nanoTime();
+        if (vote.isConfident() || now >= lookDeadlineNanos || now >= hardCapNanos) {
+            finish();
+        }
+        return done;
+    }
+
+    /**
+     * Stops looking now and keeps the best guess (for when START is pressed early).
+     */
+    public void finishNow() {
+        if (!done) {
+            finish();
+        }
+    }
+
+    /**
+     * Frees the camera. Call this when the OpMode ends.
+     */
+    public void close() {
+        if (portal != null) {
+            portal.close();
+            portal = null;
+        }
+    }
+
+    /**
+     * The AprilTag processor we look at the obelisk with. The benchmark builds it here
+     * too, so it replays frames through exactly the robot's detector.
+     */
+    public static AprilTagProcessor buildAprilTag() {
+        AprilTagProcessor aprilTag = new AprilTagProcessor.Builder().build();
+        aprilTag.setDecimation(DECIMATION);
+        return aprilTag;
+    }
+
+    /**
+     * Gives one frame's detections to the vote. The benchmark uses this too, so the
+     * laptop test counts frames exactly like the robot does.
+     */
+    public static void countFrame(MotifVote vote, List<AprilTagDetection> detections) {
+        vote.startFrame();
+        for (AprilTagDetection detection : detections) {
+            vote.see(detection.id, tagWidth(detection));
+        }
+        vote.endFrame();
+    }
+
+    /**
+     * How wide a tag looks in the picture (pixels). A face of the obelisk that is
+     * turned toward us looks wider than one seen from the side.
+     */
+    public static double tagWidth(AprilTagDetection detection) {
+        Point[] corners = detection.corners;
+        if (corners == null || corners.length < 4) {
+            return detection.decisionMargin;   // no corners: the clearer tag wins instead
+        }
+        // Average of the top and bottom edges
+        return (Math.hypot(corners[1].x - corners[0].x, corners[1].y - corners[0].y)
+                + Math.hypot(corners[2].x - corners[3].x, corners[2].y - corners[3].y)) / 2.0;
+    }
+
+    // Save the answer and switch the AprilTag work off (the portal stays open until close())
+    private void finish() {
+        done = true;
+        motif = vote.getLeader();
+        doneAfterMs = (System.nanoTime() - startNanos) / 1e6;
+        if (portal != null) {
+            portal.setProcessorEnabled(tags, false);
+            portal.stopStreaming();
+        }
+        StateHandoff.saveMotif(motif);
+    }
+
+    /** The motif (UNKNOWN until we have seen one). */
+    public Motif getMotif() {
+        return done ? motif : vote.getLeader();
+    }
+
+    /** True if the answer was sure, false if it is only the best guess (or nothing). */
+    public boolean isConfident() {
+        return vote.isConfident();
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Shows what we see on the Driver Station.
+     */
+    public void showTelemetry(Telemetry telemetry) {
+        Motif shown = getMotif();
+        telemetry.addData("Motif", "%s (%s)", shown,
+                !done ? (firstFrameNanos == 0 ? "waiting for camera" : "looking") : isConfident() ? "sure" : shown == Motif.UNKNOWN ? "not seen" : "guess");
+        telemetry.addData("Motif votes", "%d / %d frames, %.0f%%",
+                vote.getTotalVotes(), vote.getFrames(), vote.getShare() * 100);
+        if (firstFrameNanos != 0) {
+            telemetry.addData("Motif first frame", "%.0f ms", (firstFrameNanos - startNanos) / 1e6);
+        }
+        if (done) {
+            telemetry.addData("Motif took", "%.0f ms", doneAfterMs);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+/**
+ * Counts, frame by frame, which obelisk tag we see, and says when we are sure.
+ *
+ * One frame is one vote. If a frame shows more than one obelisk tag (the camera
+ * sees the obelisk from the side, so two faces show), the vote goes to the face
+ * that is turned most toward us: it looks the widest (the caller passes the width).
+ * Frames without an obelisk tag don't vote.
+ *
+ * We are sure ({@link #isConfident()}) when the leader has at least
+ * {@code minVotes} votes AND at least {@code minShare} of all votes, so a single
+ * wrong frame can't decide it and a mix of answers never looks sure.
+ *
+ * No camera in here, so it also runs on a laptop (see benchmark.MotifReplay).
+ */
+public class MotifVote {
+
+    private final int minVotes;
+    private final double minShare;
+
+    // Votes for GPP, PGP, PPG (in the order of Motif.values())
+    private final int[] votes = new int[3];
+    private int totalVotes = 0;
+    private int frames = 0;
+
+    // The best tag in the frame being counted now
+    private int frameBestId = -1;
+    private double frameBestWidth = 0.0;
+
+    /**
+     * @param minVotes at least this many frames must agree
+     * @param minShare and they must be at least this part of all votes (0.8 = 80%)
+     */
+    public MotifVote(int minVotes, double minShare) {
+        this.minVotes = minVotes;
+        this.minShare = minShare;
+    }
+
+    /** Starts a new frame. Call {@link #see} for every tag in it, then {@link #endFrame}. */
+    public void startFrame() {
+        frameBestId = -1;
+        frameBestWidth = 0.0;
+    }
+
+    /**
+     * One tag in the frame.
+     *
+     * @param id      its ID (tags that aren't on the obelisk are ignored)
+     * @param widthPx how wide it looks in the picture
+     */
+    public void see(int id, double widthPx) {
+        if (Motif.fromTagId(id) == Motif.UNKNOWN) {
+            return;
+        }
+        if (frameBestId < 0 || widthPx > frameBestWidth) {
+            frameBestId = id;
+            frameBestWidth = widthPx;
+        }
+    }
+
+    /** Finishes the frame and counts its vote (if it had an obelisk tag). */
+    public void endFrame() {
+        frames++;
+        if (frameBestId >= 0) {
+            votes[Motif.fromTagId(frameBestId).ordinal()]++;
+            totalVotes++;
+        }
+    }
+
+    /** The motif with the most votes so far (UNKNOWN with no votes). */
+    public Motif getLeader() {
+        int best = -1;
+        for (int i = 0; i < votes.length; i++) {
+            if (votes[i] > 0 && (best < 0 || votes[i] > votes[best])) {
+                best = i;
+            }
+        }
+        return best < 0 ? Motif.UNKNOWN : Motif.values()[best];
+    }
+
+    /** True once the leader has enough votes and a big enough share. */
+    public boolean isConfident() {
+        Motif leader = getLeader();
+        if (leader == Motif.UNKNOWN) {
+            return false;
+        }
+        int leaderVotes = votes[leader.ordinal()];
+        return leaderVotes >= minVotes && leaderVotes >= minShare * totalVotes;
+    }
+
+    /** The leader's part of all votes (0 with no votes). */
+    public double getShare() {
+        Motif leader = getLeader();
+        return leader == Motif.UNKNOWN ? 0.0 : (double) votes[leader.ordinal()] / totalVotes;
+    }
+
+    public int getVotes(Motif motif) {
+        return motif == Motif.UNKNOWN ? 0 : votes[motif.ordinal()];
+    }
+
+    public int getTotalVotes() {
+        return totalVotes;
+    }
+
+    /** All frames counted, with or without an obelisk tag. */
+    public int getFrames() {
+        return frames;
+    }
+
+    /** Forgets all votes. */
+    public void reset() {
+        for (int i = 0; i < votes.length; i++) {
+            votes[i] = 0;
+        }
+        totalVotes = 0;
+        frames = 0;
+    }
+}
@@ -0,0 +1,99 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import android.graphics.Canvas;
+
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.util.ResultBus;
+import org.firstinspires.ftc.vision.VisionProcessor;
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
+import org.firstinspires.ftc.vision.opencv.ColorBlobLocatorProcessor;
+import org.opencv.core.Mat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps one of the SDK's vision processors (like {@link AprilTagProcessor} or
+ * {@link ColorBlobLocatorProcessor}) so its results get **pushed** onto a {@link ResultBus}
+ * by the camera thread, right after each frame is processed.
+ *
+ * That way the OpMode loop never calls getDetections()/getBlobs() and never copies lists:
+ * it just reads the newest snapshot from the bus.
+ *
+ * Add the wrapper (not the inner processor) to the VisionPortal:
+ * <pre>
+ *     PublishingProcessor&lt;List&lt;AprilTagDetection&gt;&gt; tags = PublishingProcessor.forAprilTags(aprilTag);
+ *     portal = new VisionPortal.Builder().addProcessor(tags)...build();
+ *     ...
+ *     TimedResult&lt;List&lt;AprilTagDetection&gt;&gt; latest = tags.getBus().latest();
+ * </pre>
+ */
+public class PublishingProcessor<T> implements VisionProcessor {
+
+    private final VisionProcessor delegate;
+    private final Supplier<T> resultGetter;
+    private final ResultBus<T> bus = new ResultBus<>();
+
+    /**
+     * @param delegate     the real processor that does the work
+     * @param resultGetter reads the finished result out of the delegate (runs on the camera thread).
+     *                     It must give back something that nobody changes afterwards.
+     */
+    public PublishingProcessor(VisionProcessor delegate, Supplier<T> resultGetter) {
+        this.delegate = delegate;
+        this.resultGetter = resultGetter;
+    }
+
+    /**
+     * Wraps an AprilTag processor. Each snapshot is a read-only list of that frame's detections.
+     */
+    public static PublishingProcessor<List<AprilTagDetection>> forAprilTags(AprilTagProcessor aprilTag) {
+        return new PublishingProcessor<>(aprilTag,
+                () -> Collections.unmodifiableList(aprilTag.getDetections()));
+    }
+
+    /**
+     * Wraps a color blob locator. Each snapshot is a read-only list of that frame's blobs.
+     */
+    public static PublishingProcessor<List<ColorBlobLocatorProcessor.Blob>> forColorBlobs(
+            ColorBlobLocatorProcessor colorLocator) {
+        return new PublishingProcessor<>(colorLocator,
+                () -> Collections.unmodifiableList(colorLocator.getBlobs()));
+    }
+
+    /** The bus that this processor publishes to. */
+    public ResultBus<T> getBus() {
+        return bus;
+    }
+
+    /** The real processor inside this wrapper. */
+    public VisionProcessor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void init(int width, int height, CameraCalibration calibration) {
+        delegate.init(width, height, calibration);
+    }
+
+    /**
+     * Runs on the camera thread: let the real processor work, then publish its result.
+     */
+    @Override
+    public Object processFrame(Mat frame, long captureTimeNanos) {
+        long startNanos = System.nanoTime();
+        Object userContext = delegate.processFrame(frame, captureTimeNanos);
+        T result = resultGetter.get();
+        bus.publish(result, captureTimeNanos, System.nanoTime() - startNanos);
+        return userContext;
+    }
+
+    @Override
+    public void onDrawFrame(Canvas canvas, int onscreenWidth, int onscreenHeight,
+                            float scaleBmpPxToCanvasPx, float scaleCanvasDensity, Object userContext) {
+        delegate.onDrawFrame(canvas, onscreenWidth, onscreenHeight, scaleBmpPxToCanvasPx,
+                scaleCanvasDensity, userContext);
+    }
+}
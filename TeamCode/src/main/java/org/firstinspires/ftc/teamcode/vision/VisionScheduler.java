@@ -0,0 +1,234 @@
+package org.firstinspires.ftc.teamcode.vision;
+
+import dev.nextftc.core.subsystems.Subsystem;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.ResultBus;
+import org.firstinspires.ftc.teamcode.util.TimedResult;
+import org.firstinspires.ftc.vision.VisionPortal;
+import org.firstinspires.ftc.vision.VisionProcessor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Turns vision processors **on only when we need them**, so the Control Hub's CPU
+ * is free for the control loop the rest of the time.
+ *
+ * Each rule says: "run this processor on this portal during these match phases,
+ * and only while this condition is true". For example (from RobotCentricTeleOp):
+ * <pre>
+ *     scheduler.addRule("Intake Color", intakeVision.getPortal(),
+ *             intakeVision.getColorProcessor(), intakeVision.getColorProcessor().getBus(),
+ *             EnumSet.of(MatchPhase.TELEOP), intakeSystem::isRunning);
+ * </pre>
+ *
+ * When no processor on a portal is needed for a while, the portal stops streaming
+ * completely (no frames = no CPU). It starts streaming again as soon as a rule needs it.
+ *
+ * It also keeps track of how much time each processor spends per frame and
+ * roughly how much CPU that adds up to.
+ */
+public class VisionScheduler implements Subsystem {
+
+    // Wait this long with nothing enabled before stopping a camera stream
+    // (starting a stream again takes a moment, so we don't want to flip-flop)
+    private static final long IDLE_STOP_NANOS = 2_000_000_000L;
+
+    // How quickly the average frame time follows new frames
+    private static final double AVERAGE_WEIGHT = 0.1;
+
+    /** One "when should this processor run" rule plus its stats. */
+    private static class Rule {
+        final String name;
+        final VisionPortal portal;
+        final VisionProcessor processor;
+        final ResultBus<?> bus;                 // where the processor publishes (for timing), may be null
+        final EnumSet<MatchPhase> phases;
+        final BooleanSupplier condition;
+
+        boolean enabled = true;                 // portals start with every processor enabled
+        int toggleCount = 0;
+        long lastSequence = -1;
+        long framesProcessed = 0;
+        double averageFrameMs = 0.0;
+        double enabledSeconds = 0.0;
+
+        Rule(String name, VisionPortal portal, VisionProcessor processor, ResultBus<?> bus,
+             EnumSet<MatchPhase> phases, BooleanSupplier condition) {
+            this.name = name;
+            this.portal = portal;
+            this.processor = processor;
+            this.bus = bus;
+            this.phases = phases;
+            this.condition = condition;
+        }
+    }
+
+    /** Per-portal streaming state. */
+    private static class PortalState {
+        final VisionPortal portal;
+        boolean streaming = true;
+        long idleSinceNanos = 0;
+
+        PortalState(VisionPortal portal) {
+            this.portal = portal;
+        }
+    }
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<PortalState> portals = new ArrayList<>();
+
+    // Used to show messages on the Driver Station phone
+    private final Telemetry telemetry;
+
+    private MatchPhase phase = MatchPhase.INIT;
+    private long lastUpdateNanos = 0;
+    private double averageUpdateMs = 0.0;
+
+    public VisionScheduler(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Adds a rule.
+     *
+     * @param name      a short name for telemetry
+     * @param portal    the portal the processor was added to
+     * @param processor the processor to turn on and off
+     * @param bus       the bus the processor publishes to (used to measure frame time), or null
+     * @param phases    the match phases the processor may run in
+     * @param condition extra robot-state check; the processor only runs while this is true
+     */
+    public void addRule(String name, VisionPortal portal, VisionProcessor processor, ResultBus<?> bus,
+                        EnumSet<MatchPhase> phases, BooleanSupplier condition) {
+        rules.add(new Rule(name, portal, processor, bus, phases, condition));
+        for (PortalState state : portals) {
+            if (state.portal == portal) {
+                return;
+            }
+        }
+        portals.add(new PortalState(portal));
+    }
+
+    /** Tells the scheduler which part of the match we are in. */
+    public void setPhase(MatchPhase phase) {
+        this.phase = phase;
+    }
+
+    public MatchPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Runs every loop: turns processors on/off, starts/stops streams and updates the stats.
+     */
+    @Override
+    public void periodic() {
+        long now = System.nanoTime();
+        double dtSeconds = lastUpdateNanos == 0 ? 0.0 : (now - lastUpdateNanos) / 1e9;
+        lastUpdateNanos = now;
+
+        for (Rule rule : rules) {
+            boolean wanted = rule.phases.contains(phase) && rule.condition.getAsBoolean();
+            if (wanted != rule.enabled) {
+                // Only talk to the portal when something actually changes
+                rule.portal.setProcessorEnabled(rule.processor, wanted);
+                rule.enabled = wanted;
+                rule.toggleCount++;
+                if (rule.bus != null && !wanted) {
+                    rule.bus.clear();           // don't let anyone use an old answer
+                }
+            }
+            if (rule.enabled) {
+                rule.enabledSeconds += dtSeconds;
+            }
+            updateFrameTiming(rule);
+        }
+
+        for (PortalState state : portals) {
+            updateStreaming(state, now);
+        }
+
+        double updateMs = (System.nanoTime() - now) / 1e6;
+        averageUpdateMs += AVERAGE_WEIGHT * (updateMs - averageUpdateMs);
+
+        showTelemetry();
+    }
+
+    /**
+     * Reads the newest result's processing time from the bus (if there is a new one).
+     */
+    private static void updateFrameTiming(Rule rule) {
+        if (rule.bus == null) {
+            return;
+        }
+        TimedResult<?> result = rule.bus.newerThan(rule.lastSequence);
+        if (result == null) {
+            return;
+        }
+        rule.lastSequence = result.sequence;
+        rule.framesProcessed++;
+        double frameMs = result.processingMs();
+        rule.averageFrameMs = rule.framesProcessed == 1 ? frameMs
+                : rule.averageFrameMs + AVERAGE_WEIGHT * (frameMs - rule.averageFrameMs);
+    }
+
+    /**
+     * Stops a portal's stream once nothing on it has been needed for a while,
+     * and starts it again right away when something is needed.
+     */
+    private void updateStreaming(PortalState state, long now) {
+        boolean anyEnabled = false;
+        for (Rule rule : rules) {
+            if (rule.portal == state.portal && rule.enabled) {
+                anyEnabled = true;
+                break;
+            }
+        }
+
+        if (anyEnabled) {
+            state.idleSinceNanos = 0;
+            if (!state.streaming) {
+                state.portal.resumeStreaming();
+                state.streaming = true;
+            }
+        } else if (state.streaming) {
+            if (state.idleSinceNanos == 0) {
+                state.idleSinceNanos = now;
+            } else if (now - state.idleSinceNanos > IDLE_STOP_NANOS
+                    && state.portal.getCameraState() == VisionPortal.CameraState.STREAMING) {
+                state.portal.stopStreaming();
+                state.streaming = false;
+            }
+        }
+    }
+
+    /**
+     * Roughly how much of one CPU core a processor uses, in percent:
+     * frames per second times milliseconds per frame.
+     */
+    private static double cpuPercent(Rule rule) {
+        if (!rule.enabled) {
+            return 0.0;
+        }
+        double fps = rule.portal.getFps();
+        return fps * rule.averageFrameMs / 10.0;
+    }
+
+    /** Shows each rule's state and cost on the Driver Station. */
+    private void showTelemetry() {
+        telemetry.addData("<===== Vision Scheduler =====>", "");
+        telemetry.addData("Phase", phase);
+        double totalCpu = 0.0;
+        for (Rule rule : rules) {
+            double cpu = cpuPercent(rule);
+            totalCpu += cpu;
+            telemetry.addData(rule.name, "%s | %.1f ms/frame | ~%.0f%% CPU | on %.0fs | %d toggles",
+                    rule.enabled ? "ON " : "OFF", rule.averageFrameMs, cpu, rule.enabledSeconds, rule.toggleCount);
+        }
+        telemetry.addData("Vision CPU (est)", "%.0f%% of one core", totalCpu);
+        telemetry.addData("Scheduler Update", "%.3f ms", averageUpdateMs);
+    }
+}
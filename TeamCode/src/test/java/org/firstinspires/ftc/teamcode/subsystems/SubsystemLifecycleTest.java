@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.util.TunableRegistry;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a pretend run of OpModes (auto, teleop, teleop again, one that crashes without
+ * cleaning up, and teleop once more) with our real subsystems, and checks that
+ * {@link SubsystemLifecycle} hands every OpMode a clean one:
+ *  - the same subsystem object is reused
+ *  - it writes to the telemetry of the OpMode that is running now
+ *  - nothing the last OpMode switched on is still on
+ *  - ending an OpMode that never used a motor doesn't touch the hardware
+ *
+ * There is no robot here: any subsystem that tried to reach its hardware would throw,
+ * so reset() and dispose() must get by without it.
+ */
+public class SubsystemLifecycleTest {
+
+    private static final String[] OPMODES = {"Auto", "TeleOp", "TeleOp (restarted)", "Crashing OpMode", "TeleOp"};
+
+    @BeforeClass
+    public static void useTempTunablesFile() throws IOException {
+        File file = File.createTempFile("tunables", ".properties");
+        file.deleteOnExit();
+        TunableRegistry.setFile(file);   // AppUtil's FIRST folder only exists on the robot
+    }
+
+    @Test
+    public void everyOpModeGetsTheSameCleanSubsystems() {
+        Intake firstIntake = null;
+        Conveyor firstConveyor = null;
+        ShootingDirectionServo firstServo = null;
+        Feedback firstFeedback = null;
+        FakeTelemetry lastTelemetry = null;
+        int runsBefore = SubsystemLifecycle.getOpModeRuns();
+
+        for (String name : OPMODES) {
+            // Constructor: every OpMode gets its own telemetry
+            FakeTelemetry telemetry = new FakeTelemetry();
+            Intake intake = Intake.getInstance(telemetry.proxy);
+            Conveyor conveyor = Conveyor.getInstance(telemetry.proxy);
+            ShootingDirectionServo servo = ShootingDirectionServo.getInstance(telemetry.proxy);
+            Feedback feedback = Feedback.getInstance(telemetry.proxy);
+            if (firstIntake == null) {
+                firstIntake = intake;
+                firstConveyor = conveyor;
+                firstServo = servo;
+                firstFeedback = feedback;
+            }
+
+            // onInit
+            SubsystemLifecycle.beginOpMode();
+            assertTrue(name + ": running", SubsystemLifecycle.isRunning());
+            assertSame(name + ": same intake", firstIntake, intake);
+            assertSame(name + ": same conveyor", firstConveyor, conveyor);
+            assertSame(name + ": same servo", firstServo, servo);
+            assertSame(name + ": same feedback", firstFeedback, feedback);
+
+            assertEquals(name + ": intake stopped", Intake.Mode.STOPPED, intake.getMode());
+            assertEquals(name + ": intake mode changes", 0, intake.getModeChanges());
+            assertEquals(name + ": intake ball count", 0, intake.getIngestedCount());
+            assertFalse(name + ": intake not jammed", intake.isJammed());
+            assertFalse(name + ": conveyor off", conveyor.isEnabled());
+            assertEquals(name + ": conveyor state", Conveyor.State.OFF, conveyor.getState());
+            assertTrue(name + ": hood position unknown after INIT", Double.isNaN(servo.getEstimatedPosition()));
+            assertEquals(name + ": LED writes", 0, feedback.getLedWrites());
+
+            // The first loop: feedback shows the starting signal, on THIS OpMode's telemetry
+            feedback.periodic();
+            assertEquals(name + ": feedback signal", Feedback.Signal.EMPTY, feedback.getSignal());
+            assertTrue(name + ": writes to this telemetry", telemetry.captions.contains("Signal"));
+            if (lastTelemetry != null) {
+                assertFalse(name + ": not to the last OpMode's telemetry", lastTelemetry.captions.contains("Signal"));
+            }
+
+            // The OpMode switches things on that must not leak into the next one
+            conveyor.startStop.start();
+            feedback.watch(() -> true, () -> false, () -> 2, () -> false, null);
+            feedback.periodic();
+            assertTrue(name + ": conveyor switched on", conveyor.isEnabled());
+            assertEquals(name + ": flywheel signal", Feedback.Signal.SPINNING_UP, feedback.getSignal());
+
+            // onStop (a crashing OpMode never gets there; the next beginOpMode cleans up)
+            if (!name.startsWith("Crashing")) {
+                SubsystemLifecycle.endOpMode();
+                assertFalse(name + ": not running", SubsystemLifecycle.isRunning());
+                assertFalse(name + ": conveyor stopped at the end", conveyor.isEnabled());
+                assertEquals(name + ": intake still stopped", Intake.Mode.STOPPED, intake.getMode());
+            }
+            telemetry.captions.clear();
+            lastTelemetry = telemetry;
+        }
+
+        assertEquals(OPMODES.length, SubsystemLifecycle.getOpModeRuns() - runsBefore);
+        assertTrue(SubsystemLifecycle.getManaged().contains(firstIntake));
+        assertTrue(SubsystemLifecycle.getManaged().contains(firstFeedback));
+    }
+
+    @Test
+    public void getInstanceBindsTheNewTelemetry() {
+        FakeTelemetry first = new FakeTelemetry();
+        FakeTelemetry second = new FakeTelemetry();
+        Feedback feedback = Feedback.getInstance(first.proxy);
+        assertSame(feedback, Feedback.getInstance(second.proxy));
+
+        SubsystemLifecycle.beginOpMode();
+        feedback.periodic();
+        SubsystemLifecycle.endOpMode();
+
+        assertTrue(second.captions.contains("Signal"));
+        assertFalse(first.captions.contains("Signal"));
+    }
+
+    /** A Telemetry that only remembers the captions it was given. */
+    private static class FakeTelemetry {
+        final List<String> captions = new ArrayList<>();
+        final Telemetry proxy = (Telemetry) Proxy.newProxyInstance(Telemetry.class.getClassLoader(),
+                new Class<?>[]{Telemetry.class},
+                (self, method, args) -> {
+                    switch (method.getName()) {
+                        case "addData":
+                        case "addLine":
+                            if (args != null && args.length > 0) {
+                                captions.add(String.valueOf(args[0]));
+                            }
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(self);
+                        case "equals":
+                            return self == args[0];
+                        case "toString":
+                            return "FakeTelemetry";
+                        default:
+                            return emptyValue(method.getReturnType());
+                    }
+                });
+
+        // What a method that does nothing gives back (primitives can't be null)
+        private static Object emptyValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            if (type == double.class) {
+                return 0.0;
+            }
+            return null;
+        }
+    }
+}